@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Benchmarks how adding to a few popular elements of a {@link ConcurrentHashMultiset} scales with
+ * the number of threads, with and without {@linkplain
+ * ConcurrentHashMultiset#createContentionAdaptive contention adaptation}.
+ */
+public class ConcurrentHashMultisetContentionBenchmark {
+  @Param({"1", "2", "4", "8", "16"})
+  int threads;
+
+  /** The number of popular elements which all the threads add to. */
+  @Param({"1", "4"})
+  int hotElements;
+
+  @Param Impl impl;
+
+  private ConcurrentHashMultiset<Integer> multiset;
+  private ExecutorService threadPool;
+
+  @BeforeExperiment
+  void setUp() {
+    multiset = impl.create();
+    threadPool =
+        Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setDaemon(true).build());
+  }
+
+  @AfterExperiment
+  void tearDown() {
+    threadPool.shutdown();
+  }
+
+  @Benchmark
+  long add(final int reps) throws ExecutionException, InterruptedException {
+    return doMultithreadedLoop(
+        new Callable<Long>() {
+          @Override
+          public Long call() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < reps; i++) {
+              multiset.add(random.nextInt(hotElements));
+            }
+            return (long) multiset.count(0);
+          }
+        });
+  }
+
+  @Benchmark
+  long addAndCount(final int reps) throws ExecutionException, InterruptedException {
+    return doMultithreadedLoop(
+        new Callable<Long>() {
+          @Override
+          public Long call() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long total = 0;
+            for (int i = 0; i < reps; i++) {
+              int element = random.nextInt(hotElements);
+              // mostly additions, with the occasional read of a count
+              if ((i & 0xFF) == 0) {
+                total += multiset.count(element);
+              } else {
+                multiset.add(element);
+              }
+            }
+            return total;
+          }
+        });
+  }
+
+  private long doMultithreadedLoop(Callable<Long> task)
+      throws InterruptedException, ExecutionException {
+    List<Future<Long>> futures = Lists.newArrayListWithCapacity(threads);
+    for (int i = 0; i < threads; i++) {
+      futures.add(threadPool.submit(task));
+    }
+    long total = 0;
+    for (Future<Long> future : futures) {
+      total += future.get();
+    }
+    return total;
+  }
+
+  enum Impl {
+    DEFAULT {
+      @Override
+      ConcurrentHashMultiset<Integer> create() {
+        return ConcurrentHashMultiset.create();
+      }
+    },
+    CONTENTION_ADAPTIVE {
+      @Override
+      ConcurrentHashMultiset<Integer> create() {
+        return ConcurrentHashMultiset.createContentionAdaptive();
+      }
+    };
+
+    abstract ConcurrentHashMultiset<Integer> create();
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.hash;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks for {@link BloomFilter#put} and {@link BloomFilter#mightContain} with each {@link
+ * BloomFilterStrategies strategy}. With the larger sizes the filter no longer fits in the CPU
+ * caches, which is where the {@linkplain BloomFilterStrategies#MURMUR128_BLOCKED_512 blocked}
+ * strategy is meant to help. {@code mightContainAll_present} looks up the same elements as {@code
+ * mightContain_present} with one {@link BloomFilter#mightContainAll} call per {@value #SAMPLES};
+ * its reps are elements, to compare directly.
+ */
+public class BloomFilterBenchmark {
+  private static final int SAMPLES = 0x1000;
+  private static final int SAMPLE_MASK = SAMPLES - 1;
+
+  @Param({"10000", "1000000", "100000000"})
+  private long expectedInsertions;
+
+  @Param({"0.01"})
+  private double fpp;
+
+  @Param({"MURMUR128_MITZ_64", "MURMUR128_BLOCKED_512"})
+  private BloomFilterStrategies strategy;
+
+  private BloomFilter<Long> bloomFilter;
+  private final long[] present = new long[SAMPLES];
+  private final long[] absent = new long[SAMPLES];
+  private final List<Long> presentList = new ArrayList<>();
+  private final BitSet results = new BitSet(SAMPLES);
+
+  @BeforeExperiment
+  void setUp() {
+    bloomFilter = BloomFilter.create(Funnels.longFunnel(), expectedInsertions, fpp, strategy);
+    Random random = new Random(42);
+    for (int i = 0; i < SAMPLES; i++) {
+      present[i] = random.nextLong();
+      absent[i] = random.nextLong();
+    }
+    // fill the filter to its expected insertions so that lookups see a realistic bit density
+    for (long i = 0; i < expectedInsertions - SAMPLES; i++) {
+      bloomFilter.put(random.nextLong());
+    }
+    for (long element : present) {
+      presentList.add(element);
+    }
+    bloomFilter.putAll(presentList);
+  }
+
+  @Benchmark
+  int mightContain_present(int reps) {
+    int dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      if (bloomFilter.mightContain(present[i & SAMPLE_MASK])) {
+        dummy++;
+      }
+    }
+    return dummy;
+  }
+
+  @Benchmark
+  int mightContain_absent(int reps) {
+    int dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      if (bloomFilter.mightContain(absent[i & SAMPLE_MASK])) {
+        dummy++;
+      }
+    }
+    return dummy;
+  }
+
+  @Benchmark
+  int mightContainAll_present(int reps) {
+    int dummy = 0;
+    for (int i = 0; i < reps; i += SAMPLES) {
+      bloomFilter.mightContainAll(presentList, results);
+      dummy += results.cardinality();
+    }
+    return dummy;
+  }
+
+  @Benchmark
+  int put(int reps) {
+    int dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      if (bloomFilter.put(absent[i & SAMPLE_MASK] + i)) {
+        dummy++;
+      }
+    }
+    return dummy;
+  }
+}
@@ -80,4 +80,24 @@ public class HashFunctionBenchmark {
     }
     return result;
   }
+
+  @Benchmark
+  long hashToLong(int reps) {
+    HashFunction hashFunction = hashFunctionEnum.getHashFunction();
+    long result = 37;
+    for (int i = 0; i < reps; i++) {
+      result ^= hashFunction.hashToLong(testBytes, 0, testBytes.length);
+    }
+    return result;
+  }
+
+  @Benchmark
+  long hashToLongPrimitive(int reps) {
+    HashFunction hashFunction = hashFunctionEnum.getHashFunction();
+    long result = 37;
+    for (int i = 0; i < reps; i++) {
+      result ^= hashFunction.hashToLong(result + i);
+    }
+    return result;
+  }
 }
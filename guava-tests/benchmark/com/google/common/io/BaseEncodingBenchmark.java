@@ -22,6 +22,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.util.Random;
 
 /** Benchmark for {@code BaseEncoding} performance. */
@@ -50,14 +52,18 @@ public class BaseEncodingBenchmark {
 
   private final byte[][] encodingInputs = new byte[INPUTS_COUNT][];
   private final String[] decodingInputs = new String[INPUTS_COUNT];
+  private final char[][] decodingChars = new char[INPUTS_COUNT][];
+  private int encodeBufferSize;
 
   @BeforeExperiment
   public void setUp() {
     Random rng = new Random();
+    encodeBufferSize = encoding.encoding.maxEncodedSize(n);
     for (int i = 0; i < encodingInputs.length; i++) {
       encodingInputs[i] = new byte[n];
       rng.nextBytes(encodingInputs[i]);
       decodingInputs[i] = encoding.encoding.encode(encodingInputs[i]);
+      decodingChars[i] = decodingInputs[i].toCharArray();
     }
   }
 
@@ -79,6 +85,40 @@ public class BaseEncodingBenchmark {
     return tmp;
   }
 
+  @Benchmark
+  public int encodeToBuffer(int reps) {
+    int tmp = 0;
+    CharBuffer target = CharBuffer.allocate(encodeBufferSize);
+    for (int i = 0; i < reps; i++) {
+      target.clear();
+      encoding.encoding.encodeTo(ByteBuffer.wrap(encodingInputs[i & INPUTS_MASK]), target);
+      tmp += target.position();
+    }
+    return tmp;
+  }
+
+  @Benchmark
+  public int decodeToArray(int reps) {
+    int tmp = 0;
+    byte[] target = new byte[n];
+    for (int i = 0; i < reps; i++) {
+      tmp += encoding.encoding.decodeTo(decodingInputs[i & INPUTS_MASK], target, 0);
+    }
+    return tmp;
+  }
+
+  @Benchmark
+  public int decodeToBuffer(int reps) {
+    int tmp = 0;
+    ByteBuffer target = ByteBuffer.allocate(n);
+    for (int i = 0; i < reps; i++) {
+      target.clear();
+      encoding.encoding.decodeTo(CharBuffer.wrap(decodingChars[i & INPUTS_MASK]), target);
+      tmp += target.position();
+    }
+    return tmp;
+  }
+
   @Benchmark
   public int encodingStream(int reps) throws IOException {
     int tmp = 0;
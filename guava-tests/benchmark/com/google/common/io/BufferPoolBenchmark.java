@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.io;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Benchmarks for the small copies that {@link BufferPool} makes cheaper.
+ *
+ * <p>The pool is chosen when the JVM starts, so compare pools by running this benchmark with
+ * {@code -Jpool=-Dguava.io.buffer_pool=none,-Dguava.io.buffer_pool=thread_local} and the {@code
+ * allocation} instrument.
+ */
+public class BufferPoolBenchmark {
+  @Param({"10", "1024"})
+  int size;
+
+  private byte[] bytes;
+  private String chars;
+  private final OutputStream byteSink = ByteStreams.nullOutputStream();
+  private final Writer charSink = CharStreams.nullWriter();
+
+  @BeforeExperiment
+  void setUp() {
+    Random random = new Random(0);
+    bytes = new byte[size];
+    random.nextBytes(bytes);
+    StringBuilder sb = new StringBuilder(size);
+    for (int i = 0; i < size; i++) {
+      sb.append((char) (random.nextInt(127 - 9) + 9));
+    }
+    chars = sb.toString();
+  }
+
+  @Benchmark
+  long byteStreamsCopy(int reps) throws IOException {
+    long total = 0;
+    for (int i = 0; i < reps; i++) {
+      total += ByteStreams.copy(new ByteArrayInputStream(bytes), byteSink);
+    }
+    return total;
+  }
+
+  @Benchmark
+  long byteStreamsExhaust(int reps) throws IOException {
+    long total = 0;
+    for (int i = 0; i < reps; i++) {
+      total += ByteStreams.exhaust(new ByteArrayInputStream(bytes));
+    }
+    return total;
+  }
+
+  @Benchmark
+  long charStreamsCopy(int reps) throws IOException {
+    long total = 0;
+    for (int i = 0; i < reps; i++) {
+      total += CharStreams.copy(new StringReader(chars), charSink);
+    }
+    return total;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.io;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Benchmarks for copying large files with {@link ByteSource#copyTo(ByteSink)}, compared with
+ * copying through an 8 KiB heap buffer. Throughput in bytes per second is {@code megabytes * 2^20}
+ * divided by the time of one rep.
+ */
+public class FileCopyBenchmark {
+  @Param({"1", "64", "512"})
+  int megabytes;
+
+  private File source;
+  private File target;
+
+  @BeforeExperiment
+  void setUp() throws IOException {
+    source = File.createTempFile("FileCopyBenchmark", ".source");
+    target = File.createTempFile("FileCopyBenchmark", ".target");
+    byte[] chunk = new byte[1 << 20];
+    new Random(0).nextBytes(chunk);
+    try (OutputStream out = new FileOutputStream(source)) {
+      for (int i = 0; i < megabytes; i++) {
+        out.write(chunk);
+      }
+    }
+  }
+
+  @AfterExperiment
+  void tearDown() {
+    source.delete();
+    target.delete();
+  }
+
+  @Benchmark
+  long heapBuffer(int reps) throws IOException {
+    long total = 0;
+    byte[] buffer = new byte[8192];
+    for (int i = 0; i < reps; i++) {
+      try (InputStream in = new FileInputStream(source);
+          OutputStream out = new FileOutputStream(target)) {
+        for (int r = in.read(buffer); r != -1; r = in.read(buffer)) {
+          out.write(buffer, 0, r);
+          total += r;
+        }
+      }
+    }
+    return total;
+  }
+
+  @Benchmark
+  long filesCopyTo(int reps) throws IOException {
+    long total = 0;
+    for (int i = 0; i < reps; i++) {
+      total += Files.asByteSource(source).copyTo(Files.asByteSink(target));
+    }
+    return total;
+  }
+
+  @Benchmark
+  long moreFilesCopyTo(int reps) throws IOException {
+    long total = 0;
+    for (int i = 0; i < reps; i++) {
+      ByteSource from = MoreFiles.asByteSource(source.toPath());
+      total += from.copyTo(MoreFiles.asByteSink(target.toPath()));
+    }
+    return total;
+  }
+}
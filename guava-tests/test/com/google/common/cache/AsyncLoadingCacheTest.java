@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.testing.FakeTicker;
+import com.google.common.testing.TestLogHandler;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.TestCase;
+
+/** Unit tests for {@link CacheBuilder#buildAsync}. */
+public class AsyncLoadingCacheTest extends TestCase {
+
+  /** A loader whose futures are completed by the test. */
+  private static class PendingLoader extends AsyncCacheLoader<String, Integer> {
+    final Map<String, SettableFuture<Integer>> futures = Maps.newHashMap();
+    int loadCount;
+
+    @Override
+    public ListenableFuture<Integer> load(String key) {
+      loadCount++;
+      SettableFuture<Integer> future = SettableFuture.create();
+      futures.put(key, future);
+      return future;
+    }
+  }
+
+  public void testGet_sharesPendingLoad() throws Exception {
+    PendingLoader loader = new PendingLoader();
+    AsyncLoadingCache<String, Integer> cache = CacheBuilder.newBuilder().buildAsync(loader);
+
+    ListenableFuture<Integer> first = cache.get("a");
+    ListenableFuture<Integer> second = cache.get("a");
+    assertFalse(first.isDone());
+    assertSame(first, second);
+    assertEquals(1, loader.loadCount);
+
+    loader.futures.get("a").set(1);
+    assertEquals(1, (int) first.get());
+    assertEquals(1, (int) cache.get("a").get());
+    assertEquals(1, loader.loadCount);
+  }
+
+  public void testGet_failedFutureIsRemoved() throws Exception {
+    PendingLoader loader = new PendingLoader();
+    AsyncLoadingCache<String, Integer> cache = CacheBuilder.newBuilder().buildAsync(loader);
+
+    ListenableFuture<Integer> first = cache.get("a");
+    IllegalStateException failure = new IllegalStateException();
+    loader.futures.get("a").setException(failure);
+    assertSame(failure, assertThrows(ExecutionException.class, () -> first.get()).getCause());
+    assertNull(cache.getIfPresent("a"));
+
+    ListenableFuture<Integer> second = cache.get("a");
+    assertNotSame(first, second);
+    assertEquals(2, loader.loadCount);
+  }
+
+  public void testGet_loaderThrows() {
+    IllegalStateException failure = new IllegalStateException();
+    AsyncLoadingCache<String, Integer> cache =
+        CacheBuilder.newBuilder()
+            .buildAsync(
+                AsyncCacheLoader.from(
+                    key -> {
+                      throw failure;
+                    }));
+
+    ListenableFuture<Integer> future = cache.get("a");
+    assertSame(failure, assertThrows(ExecutionException.class, () -> future.get()).getCause());
+    assertEquals(0, cache.size());
+  }
+
+  public void testGet_immediatelyFailedFuture() {
+    IllegalStateException failure = new IllegalStateException();
+    AsyncLoadingCache<String, Integer> cache =
+        CacheBuilder.newBuilder()
+            .buildAsync(AsyncCacheLoader.from(key -> Futures.immediateFailedFuture(failure)));
+
+    ListenableFuture<Integer> future = cache.get("a");
+    assertSame(failure, assertThrows(ExecutionException.class, () -> future.get()).getCause());
+    assertNull(cache.getIfPresent("a"));
+  }
+
+  public void testGet_loaderReturnsNull() {
+    AsyncLoadingCache<String, Integer> cache =
+        CacheBuilder.newBuilder().buildAsync(AsyncCacheLoader.from(key -> null));
+
+    ListenableFuture<Integer> future = cache.get("a");
+    assertThat(assertThrows(ExecutionException.class, () -> future.get()))
+        .hasCauseThat()
+        .isInstanceOf(InvalidCacheLoadException.class);
+    assertEquals(0, cache.size());
+  }
+
+  public void testGetAll_individualLoads() throws Exception {
+    PendingLoader loader = new PendingLoader();
+    AsyncLoadingCache<String, Integer> cache = CacheBuilder.newBuilder().buildAsync(loader);
+    cache.put("b", Futures.immediateFuture(2));
+
+    ListenableFuture<ImmutableMap<String, Integer>> all =
+        cache.getAll(Lists.newArrayList("a", "b", "c"));
+    assertEquals(2, loader.loadCount);
+    assertFalse(all.isDone());
+
+    loader.futures.get("a").set(1);
+    loader.futures.get("c").set(3);
+    assertEquals(ImmutableMap.of("a", 1, "b", 2, "c", 3), all.get());
+    assertThat(all.get().keySet()).containsExactly("a", "b", "c").inOrder();
+  }
+
+  public void testGetAll_bulkLoad() throws Exception {
+    List<List<String>> batches = Lists.newArrayList();
+    SettableFuture<Map<String, Integer>> bulk = SettableFuture.create();
+    AsyncCacheLoader<String, Integer> loader =
+        new AsyncCacheLoader<String, Integer>() {
+          @Override
+          public ListenableFuture<Integer> load(String key) {
+            throw new AssertionError();
+          }
+
+          @Override
+          public ListenableFuture<Map<String, Integer>> loadAll(Iterable<? extends String> keys) {
+            batches.add(Lists.newArrayList(keys));
+            return bulk;
+          }
+        };
+    AsyncLoadingCache<String, Integer> cache = CacheBuilder.newBuilder().buildAsync(loader);
+
+    ListenableFuture<ImmutableMap<String, Integer>> all =
+        cache.getAll(Lists.newArrayList("a", "b"));
+    assertThat(batches).hasSize(1);
+    assertThat(cache.getIfPresent("a")).isNotNull();
+
+    bulk.set(ImmutableMap.of("a", 1));
+    ExecutionException expected = assertThrows(ExecutionException.class, () -> all.get());
+    assertThat(expected).hasCauseThat().isInstanceOf(CacheLoader.InvalidCacheLoadException.class);
+    assertEquals(1, (int) cache.getIfPresent("a").get());
+    assertNull(cache.getIfPresent("b"));
+  }
+
+  public void testRefresh_keepsOldValueUntilLoaded() throws Exception {
+    PendingLoader loader = new PendingLoader();
+    AsyncLoadingCache<String, Integer> cache = CacheBuilder.newBuilder().buildAsync(loader);
+    cache.put("a", Futures.immediateFuture(1));
+
+    cache.refresh("a");
+    assertEquals(1, loader.loadCount);
+    assertEquals(1, (int) cache.get("a").get());
+
+    loader.futures.get("a").set(2);
+    assertEquals(2, (int) cache.get("a").get());
+  }
+
+  public void testRefresh_loaderReturnsNull() throws Exception {
+    AsyncLoadingCache<String, Integer> cache =
+        CacheBuilder.newBuilder().buildAsync(AsyncCacheLoader.from(key -> null));
+    cache.put("a", Futures.immediateFuture(1));
+    TestLogHandler logHandler = new TestLogHandler();
+    LocalCache.logger.addHandler(logHandler);
+    try {
+      cache.refresh("a");
+    } finally {
+      LocalCache.logger.removeHandler(logHandler);
+    }
+
+    assertThat(logHandler.getStoredLogRecords()).hasSize(1);
+    assertThat(logHandler.getStoredLogRecords().get(0).getThrown())
+        .hasCauseThat()
+        .isInstanceOf(InvalidCacheLoadException.class);
+    assertEquals(1, (int) cache.get("a").get());
+  }
+
+  public void testWeigher_appliedOnCompletion() throws Exception {
+    PendingLoader loader = new PendingLoader();
+    AtomicInteger replacedNotifications = new AtomicInteger();
+    List<RemovalNotification<String, Integer>> removals = Lists.newArrayList();
+    AsyncLoadingCache<String, Integer> cache =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .maximumWeight(10)
+            .weigher((String key, Integer value) -> value)
+            .removalListener(
+                (RemovalNotification<String, Integer> notification) -> {
+                  if (notification.getCause() == RemovalCause.REPLACED) {
+                    replacedNotifications.incrementAndGet();
+                  }
+                  removals.add(notification);
+                })
+            .buildAsync(loader);
+
+    ListenableFuture<Integer> unused = cache.get("a");
+    ListenableFuture<Integer> b = cache.get("b");
+    loader.futures.get("a").set(6);
+    // checked without reading "a", which would make "b" the least recently used entry
+    assertTrue(cache.asMap().containsKey("a"));
+    loader.futures.get("b").set(6);
+
+    // together the two values are over the maximum weight, so the older one is evicted
+    assertNull(cache.getIfPresent("a"));
+    assertSame(b, cache.getIfPresent("b"));
+    assertThat(removals).hasSize(1);
+    assertEquals("a", removals.get(0).getKey());
+    assertEquals(6, (int) removals.get(0).getValue());
+    assertEquals(RemovalCause.SIZE, removals.get(0).getCause());
+    assertEquals(0, replacedNotifications.get());
+  }
+
+  public void testWeigher_completionIsNotAWrite() throws Exception {
+    PendingLoader loader = new PendingLoader();
+    FakeTicker ticker = new FakeTicker();
+    AsyncLoadingCache<String, Integer> cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(10)
+            .weigher((String key, Integer value) -> value)
+            .expireAfterWrite(10, SECONDS)
+            .ticker(ticker)
+            .buildAsync(loader);
+
+    ListenableFuture<Integer> a = cache.get("a");
+    ticker.advance(6, SECONDS);
+    loader.futures.get("a").set(1);
+    assertSame(a, cache.getIfPresent("a"));
+
+    // the entry still expires 10 seconds after it was loaded, not after its future completed
+    ticker.advance(5, SECONDS);
+    assertNull(cache.getIfPresent("a"));
+  }
+
+  public void testBuildAsync_weakValues() {
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().weakValues();
+    assertThrows(IllegalStateException.class, () -> builder.buildAsync(new PendingLoader()));
+  }
+}
@@ -31,11 +31,17 @@ import static org.junit.Assert.assertThrows;
 import com.google.common.annotations.GwtCompatible;
 import com.google.common.annotations.GwtIncompatible;
 import com.google.common.base.Ticker;
+import com.google.common.cache.AbstractCache.SimpleStatsCounter;
+import com.google.common.cache.AbstractCache.StatsCounter;
 import com.google.common.cache.TestingRemovalListeners.CountingRemovalListener;
 import com.google.common.cache.TestingRemovalListeners.QueuingRemovalListener;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.testing.FakeTicker;
 import com.google.common.testing.NullPointerTester;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
@@ -211,6 +217,23 @@ public class CacheBuilderTest extends TestCase {
         () -> CacheBuilder.newBuilder().maximumSize(1).weigher(constantWeigher(42)));
   }
 
+  @GwtIncompatible // evictionPolicy
+  public void testEvictionPolicy_setTwice() {
+    CacheBuilder<Object, Object> builder =
+        CacheBuilder.newBuilder().evictionPolicy(EvictionPolicy.WINDOW_TINY_LFU);
+    assertThrows(
+        IllegalStateException.class,
+        () -> builder.evictionPolicy(EvictionPolicy.LEAST_RECENTLY_USED));
+  }
+
+  @GwtIncompatible // evictionPolicy
+  public void testEvictionPolicy_withoutMaximumSize() {
+    CacheBuilder<Object, Object> builder =
+        CacheBuilder.newBuilder().evictionPolicy(EvictionPolicy.WINDOW_TINY_LFU);
+    assertThrows(IllegalStateException.class, () -> builder.build(identityLoader()));
+    assertThrows(IllegalStateException.class, () -> builder.build());
+  }
+
   @GwtIncompatible // weakKeys
   public void testKeyStrengthSetTwice() {
     CacheBuilder<Object, Object> builder1 = CacheBuilder.newBuilder().weakKeys();
@@ -635,6 +658,140 @@ public class CacheBuilderTest extends TestCase {
     assertEquals(computeCount.get(), cache.size() + removalListener.size());
   }
 
+  /** Records the detailed statistics of one segment, as well as the totals. */
+  private static final class RecordingStatsCounter implements StatsCounter {
+    final SimpleStatsCounter delegate = new SimpleStatsCounter();
+    final List<Long> evictionAges = Collections.synchronizedList(new ArrayList<Long>());
+    final AtomicInteger lockContentions = new AtomicInteger();
+    final AtomicInteger drains = new AtomicInteger();
+
+    @Override
+    public void recordHits(int count) {
+      delegate.recordHits(count);
+    }
+
+    @Override
+    public void recordMisses(int count) {
+      delegate.recordMisses(count);
+    }
+
+    @Override
+    public void recordLoadSuccess(long loadTime) {
+      delegate.recordLoadSuccess(loadTime);
+    }
+
+    @Override
+    public void recordLoadException(long loadTime) {
+      delegate.recordLoadException(loadTime);
+    }
+
+    @Override
+    public void recordEviction() {
+      delegate.recordEviction();
+    }
+
+    @Override
+    public void recordEvictionAge(long age) {
+      evictionAges.add(age);
+    }
+
+    @Override
+    public void recordLockContention() {
+      lockContentions.incrementAndGet();
+    }
+
+    @Override
+    public void recordDrain(long drainTime) {
+      drains.incrementAndGet();
+    }
+
+    @Override
+    public CacheStats snapshot() {
+      return delegate.snapshot();
+    }
+  }
+
+  @GwtIncompatible // recordStats(Supplier)
+  public void testRecordStats_supplier() {
+    List<RecordingStatsCounter> counters = new ArrayList<>();
+    LoadingCache<Integer, Integer> cache =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(2)
+            .recordStats(
+                () -> {
+                  RecordingStatsCounter counter = new RecordingStatsCounter();
+                  counters.add(counter);
+                  return counter;
+                })
+            .build(identityLoader());
+    // one counter for each segment, and one for the cache
+    assertThat(counters).hasSize(3);
+
+    for (int i = 0; i < 10; i++) {
+      cache.getUnchecked(i);
+      cache.getUnchecked(i);
+    }
+    CacheStats stats = cache.stats();
+    assertEquals(10, stats.hitCount());
+    assertEquals(10, stats.missCount());
+    assertEquals(10, stats.loadSuccessCount());
+    long drains = 0;
+    for (RecordingStatsCounter counter : counters) {
+      drains += counter.drains.get();
+    }
+    assertThat(drains).isGreaterThan(0L);
+  }
+
+  @GwtIncompatible // recordStats(Supplier)
+  public void testRecordStats_evictionAge() {
+    RecordingStatsCounter counter = new RecordingStatsCounter();
+    FakeTicker ticker = new FakeTicker();
+    Cache<Integer, Integer> cache =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .maximumSize(1)
+            .ticker(ticker)
+            .recordStats(() -> counter)
+            .build();
+
+    cache.put(1, 1);
+    ticker.advance(5);
+    cache.put(1, 2);
+    ticker.advance(3);
+    cache.put(2, 2);
+    assertThat(counter.evictionAges).containsExactly(3L);
+    assertEquals(1, counter.snapshot().evictionCount());
+
+    cache.invalidateAll();
+    assertThat(counter.evictionAges).containsExactly(3L);
+  }
+
+  @GwtIncompatible // threads
+  public void testRecordStats_lockContention() throws Exception {
+    RecordingStatsCounter counter = new RecordingStatsCounter();
+    LoadingCache<Integer, Integer> cache =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .recordStats(() -> counter)
+            .build(identityLoader());
+    LocalCache.Segment<Integer, Integer> segment = CacheTesting.toLocalCache(cache).segments[0];
+
+    segment.lock();
+    assertEquals(0, counter.lockContentions.get());
+    Thread writer = new Thread(() -> cache.put(1, 1));
+    try {
+      writer.start();
+      while (!segment.hasQueuedThreads()) {
+        Thread.yield();
+      }
+      assertEquals(1, counter.lockContentions.get());
+    } finally {
+      segment.unlock();
+    }
+    writer.join();
+    assertEquals(1, (int) cache.getIfPresent(1));
+  }
+
   @GwtIncompatible // NullPointerTester
   public void testNullParameters() throws Exception {
     NullPointerTester tester = new NullPointerTester();
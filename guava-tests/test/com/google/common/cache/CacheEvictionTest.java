@@ -21,6 +21,7 @@ import static com.google.common.cache.TestingWeighers.intKeyWeigher;
 import static com.google.common.cache.TestingWeighers.intValueWeigher;
 import static com.google.common.truth.Truth.assertThat;
 import static java.util.Arrays.asList;
+import static java.util.Objects.requireNonNull;
 
 import com.google.common.cache.CacheTesting.Receiver;
 import com.google.common.cache.TestingCacheLoaders.IdentityLoader;
@@ -409,6 +410,123 @@ public class CacheEvictionTest extends TestCase {
     assertThat(keySet).containsExactly(5, 6, 7, 8, 9, 10, 11, 12);
   }
 
+  public void testEviction_windowTinyLfu_maxSize() {
+    CountingRemovalListener<Integer, Integer> removalListener = countingRemovalListener();
+    IdentityLoader<Integer> loader = identityLoader();
+    LoadingCache<Integer, Integer> cache =
+        CacheBuilder.newBuilder()
+            .maximumSize(MAX_SIZE)
+            .evictionPolicy(EvictionPolicy.WINDOW_TINY_LFU)
+            .removalListener(removalListener)
+            .build(loader);
+    for (int i = 0; i < 2 * MAX_SIZE; i++) {
+      cache.getUnchecked(i);
+      assertTrue(cache.size() <= MAX_SIZE);
+    }
+
+    assertEquals(MAX_SIZE, cache.size());
+    CacheTesting.processPendingNotifications(cache);
+    assertEquals(MAX_SIZE, removalListener.getCount());
+    CacheTesting.checkValidState(cache);
+  }
+
+  public void testEviction_windowTinyLfu_maxWeight() {
+    IdentityLoader<Integer> loader = identityLoader();
+    LoadingCache<Integer, Integer> cache =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .maximumWeight(2 * MAX_SIZE)
+            .weigher(constantWeigher(2))
+            .evictionPolicy(EvictionPolicy.WINDOW_TINY_LFU)
+            .build(loader);
+    for (int i = 0; i < 2 * MAX_SIZE; i++) {
+      cache.getUnchecked(i);
+      assertEquals(Math.min(i + 1, MAX_SIZE), cache.size());
+    }
+
+    assertEquals(MAX_SIZE, cache.size());
+    CacheTesting.checkValidState(cache);
+  }
+
+  public void testEviction_windowTinyLfu_warmUpKeepsFrequencies() {
+    LoadingCache<Integer, Integer> cache =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .maximumSize(MAX_SIZE)
+            .evictionPolicy(EvictionPolicy.WINDOW_TINY_LFU)
+            .build(identityLoader());
+    LocalCache<Integer, Integer> map = CacheTesting.toLocalCache(cache);
+    FrequencySketch sketch = requireNonNull(map.segments[0].frequencySketch);
+    for (int i = 0; i < 10; i++) {
+      cache.getUnchecked(-1);
+    }
+    CacheTesting.drainRecencyQueues(cache);
+    int frequency = sketch.frequency(map.hash(-1));
+    assertThat(frequency).isAtLeast(10);
+
+    // filling the cache doesn't discard the frequencies recorded while it was nearly empty
+    for (int i = 0; i < MAX_SIZE - 1; i++) {
+      cache.getUnchecked(i);
+    }
+    CacheTesting.drainRecencyQueues(cache);
+    assertThat(sketch.frequency(map.hash(-1))).isAtLeast(frequency);
+  }
+
+  public void testEviction_windowTinyLfu_scanResistant() {
+    // a working set of popular keys that fits in the cache, interleaved with a scan of keys that
+    // are requested only once and that pushes the popular keys out of an LRU cache
+    LoadingCache<Integer, Integer> lru =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .maximumSize(MAX_SIZE)
+            .recordStats()
+            .build(identityLoader());
+    LoadingCache<Integer, Integer> tinyLfu =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .maximumSize(MAX_SIZE)
+            .evictionPolicy(EvictionPolicy.WINDOW_TINY_LFU)
+            .recordStats()
+            .build(identityLoader());
+    int hotKeys = MAX_SIZE * 3 / 4;
+    for (int i = 0; i < 100 * MAX_SIZE; i++) {
+      int hot = i % hotKeys;
+      int scan = MAX_SIZE + i;
+      lru.getUnchecked(hot);
+      lru.getUnchecked(scan);
+      tinyLfu.getUnchecked(hot);
+      tinyLfu.getUnchecked(scan);
+    }
+
+    for (int hot = 0; hot < hotKeys; hot++) {
+      assertNotNull(tinyLfu.getIfPresent(hot));
+    }
+    assertThat(lru.stats().hitRate()).isLessThan(0.1);
+    assertThat(tinyLfu.stats().hitRate()).isGreaterThan(0.45);
+    CacheTesting.checkValidState(tinyLfu);
+  }
+
+  public void testEviction_windowTinyLfu_invalidateAll() {
+    IdentityLoader<Integer> loader = identityLoader();
+    LoadingCache<Integer, Integer> cache =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .maximumSize(10)
+            .evictionPolicy(EvictionPolicy.WINDOW_TINY_LFU)
+            .build(loader);
+
+    Set<Integer> keySet = cache.asMap().keySet();
+    getAll(cache, asList(0, 1, 2, 3, 4));
+    cache.invalidateAll();
+    CacheTesting.drainRecencyQueues(cache);
+    assertThat(keySet).isEmpty();
+
+    getAll(cache, asList(5, 6, 7, 8, 9, 10, 11, 12));
+    CacheTesting.drainRecencyQueues(cache);
+    assertThat(keySet).containsExactly(5, 6, 7, 8, 9, 10, 11, 12);
+    CacheTesting.checkValidState(cache);
+  }
+
   private static void getAll(LoadingCache<Integer, Integer> cache, List<Integer> keys) {
     for (int i : keys) {
       cache.getUnchecked(i);
@@ -16,9 +16,11 @@ package com.google.common.cache;
 
 import static com.google.common.cache.TestingCacheLoaders.identityLoader;
 import static com.google.common.cache.TestingRemovalListeners.countingRemovalListener;
+import static com.google.common.cache.TestingRemovalListeners.queuingRemovalListener;
 import static com.google.common.truth.Truth.assertThat;
 import static java.util.Arrays.asList;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertThrows;
 
 import com.google.common.cache.TestingCacheLoaders.IdentityLoader;
 import com.google.common.cache.TestingRemovalListeners.CountingRemovalListener;
@@ -72,6 +74,19 @@ public class CacheExpirationTest extends TestCase {
     checkExpiration(cache, loader, ticker, removalListener);
   }
 
+  public void testExpiration_expireAfter() {
+    FakeTicker ticker = new FakeTicker();
+    CountingRemovalListener<String, Integer> removalListener = countingRemovalListener();
+    WatchedCreatorLoader loader = new WatchedCreatorLoader();
+    LoadingCache<String, Integer> cache =
+        CacheBuilder.newBuilder()
+            .expireAfter(fixedExpiry(EXPIRING_TIME))
+            .removalListener(removalListener)
+            .ticker(ticker)
+            .build(loader);
+    checkExpiration(cache, loader, ticker, removalListener);
+  }
+
   private void checkExpiration(
       LoadingCache<String, Integer> cache,
       WatchedCreatorLoader loader,
@@ -124,6 +139,133 @@ public class CacheExpirationTest extends TestCase {
     runExpirationTest(cache, loader, ticker, removalListener);
   }
 
+  public void testExpiringGet_expireAfter() {
+    FakeTicker ticker = new FakeTicker();
+    CountingRemovalListener<String, Integer> removalListener = countingRemovalListener();
+    WatchedCreatorLoader loader = new WatchedCreatorLoader();
+    LoadingCache<String, Integer> cache =
+        CacheBuilder.newBuilder()
+            .expireAfter(fixedExpiry(EXPIRING_TIME))
+            .removalListener(removalListener)
+            .ticker(ticker)
+            .build(loader);
+    runExpirationTest(cache, loader, ticker, removalListener);
+  }
+
+  public void testExpireAfter_variableDurations() {
+    FakeTicker ticker = new FakeTicker();
+    QueuingRemovalListener<Long, String> removalListener = queuingRemovalListener();
+    Cache<Long, String> cache =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .expireAfter((Long key, String value) -> key)
+            .removalListener(removalListener)
+            .ticker(ticker)
+            .build();
+    // the key is the entry's lifetime, spanning every level of the timer wheel
+    long[] durations = {
+      MILLISECONDS.toNanos(10),
+      TimeUnit.SECONDS.toNanos(5),
+      TimeUnit.MINUTES.toNanos(3),
+      TimeUnit.HOURS.toNanos(5),
+      TimeUnit.DAYS.toNanos(3),
+      TimeUnit.DAYS.toNanos(30),
+      Long.MAX_VALUE
+    };
+    for (long duration : durations) {
+      cache.put(duration, "value");
+    }
+
+    for (int i = 0; i < durations.length - 1; i++) {
+      long elapsedBefore = ticker.read();
+      ticker.advance(durations[i] - elapsedBefore - 1);
+      assertTrue(cache.asMap().containsKey(durations[i]));
+      ticker.advance(1);
+      assertFalse(cache.asMap().containsKey(durations[i]));
+      assertTrue(cache.asMap().containsKey(durations[i + 1]));
+
+      // the wheel removes an expired entry once the bucket containing it has elapsed
+      ticker.advance(TimeUnit.SECONDS.toNanos(2));
+      cache.cleanUp();
+      assertEquals(durations.length - i - 1, cache.size());
+      RemovalNotification<Long, String> notification = removalListener.remove();
+      assertEquals(durations[i], (long) notification.getKey());
+      assertEquals(RemovalCause.EXPIRED, notification.getCause());
+      assertThat(removalListener).isEmpty();
+    }
+    assertTrue(cache.asMap().containsKey(Long.MAX_VALUE));
+  }
+
+  public void testExpireAfter_readAndUpdate() {
+    FakeTicker ticker = new FakeTicker();
+    Cache<String, Integer> cache =
+        CacheBuilder.newBuilder()
+            .expireAfter(
+                new Expiry<String, Integer>() {
+                  @Override
+                  public long expireAfterCreate(String key, Integer value) {
+                    return value;
+                  }
+
+                  @Override
+                  public long expireAfterUpdate(String key, Integer value, long currentDuration) {
+                    return currentDuration + value;
+                  }
+
+                  @Override
+                  public long expireAfterRead(String key, Integer value, long currentDuration) {
+                    return key.equals("extended") ? 100 : currentDuration;
+                  }
+                })
+            .ticker(ticker)
+            .build();
+
+    cache.put("extended", 10);
+    cache.put("fixed", 10);
+    ticker.advance(9);
+    assertEquals(10, (int) cache.getIfPresent("extended"));
+    assertEquals(10, (int) cache.getIfPresent("fixed"));
+    ticker.advance(1);
+    assertNull(cache.getIfPresent("fixed"));
+    assertEquals(10, (int) cache.getIfPresent("extended"));
+
+    // the update adds 50 to the 100 remaining after the last read
+    cache.put("extended", 50);
+    ticker.advance(149);
+    assertTrue(cache.asMap().containsKey("extended"));
+    ticker.advance(1);
+    assertFalse(cache.asMap().containsKey("extended"));
+  }
+
+  public void testExpireAfter_negativeDurations() {
+    // a negative ticker reading, so that adding Long.MIN_VALUE to it would overflow
+    FakeTicker ticker = new FakeTicker().advance(-1000);
+    Cache<Long, String> cache =
+        CacheBuilder.newBuilder()
+            .expireAfter((Long key, String value) -> key)
+            .ticker(ticker)
+            .build();
+    for (long duration : new long[] {Long.MIN_VALUE, -1, 0}) {
+      cache.put(duration, "value");
+      assertFalse(cache.asMap().containsKey(duration));
+      assertNull(cache.getIfPresent(duration));
+    }
+    ticker.advance(TimeUnit.DAYS.toNanos(1));
+    cache.cleanUp();
+    assertEquals(0, cache.size());
+  }
+
+  public void testExpireAfter_withTimeToLive() {
+    CacheBuilder<Object, Object> builder =
+        CacheBuilder.newBuilder().expireAfter(fixedExpiry(EXPIRING_TIME));
+    builder.expireAfterWrite(EXPIRING_TIME, MILLISECONDS);
+    assertThrows(IllegalStateException.class, () -> builder.build());
+  }
+
+  private static Expiry<Object, Object> fixedExpiry(long millis) {
+    return (Object key, Object value) -> MILLISECONDS.toNanos(millis);
+  }
+
   private void runExpirationTest(
       LoadingCache<String, Integer> cache,
       WatchedCreatorLoader loader,
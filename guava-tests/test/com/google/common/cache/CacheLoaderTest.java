@@ -16,13 +16,22 @@
 
 package com.google.common.cache;
 
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Queues;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.testing.TestingExecutors;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -102,4 +111,201 @@ public class CacheLoaderTest extends TestCase {
     assertEquals(2, reloadCount.get());
     assertEquals(2, loadAllCount.get());
   }
+
+  public void testBatchLoading_reloadsCombinedIntoOneLoadAll() throws Exception {
+    List<List<Object>> batches = new ArrayList<>();
+    CacheLoader<Object, Object> baseLoader =
+        new CacheLoader<Object, Object>() {
+          @Override
+          public Object load(Object key) {
+            throw new AssertionError();
+          }
+
+          @Override
+          public Map<Object, Object> loadAll(Iterable<?> keys) {
+            batches.add(ImmutableList.copyOf(keys));
+            ImmutableMap.Builder<Object, Object> result = ImmutableMap.builder();
+            for (Object key : keys) {
+              result.put(key, key + "!");
+            }
+            return result.buildOrThrow();
+          }
+        };
+    BatchingCacheLoader<Object, Object> batchingLoader =
+        (BatchingCacheLoader<Object, Object>)
+            CacheLoader.batchLoading(
+                baseLoader, 10, MILLISECONDS, TestingExecutors.noOpScheduledExecutor());
+
+    ListenableFuture<Object> a = batchingLoader.reload("a", "old");
+    ListenableFuture<Object> b = batchingLoader.reload("b", "old");
+    ListenableFuture<Object> a2 = batchingLoader.reload("a", "old");
+    assertSame(a, a2);
+    assertFalse(a.isDone());
+    assertThat(batches).isEmpty();
+
+    batchingLoader.flush();
+    assertThat(batches).containsExactly(ImmutableList.of("a", "b"));
+    assertEquals("a!", a.get());
+    assertEquals("b!", b.get());
+
+    ListenableFuture<Object> c = batchingLoader.reload("a", "a!");
+    assertNotSame(a, c);
+    batchingLoader.flush();
+    assertEquals("a!", c.get());
+    assertThat(batches).hasSize(2);
+  }
+
+  public void testBatchLoading_missingKey() throws Exception {
+    CacheLoader<Object, Object> baseLoader =
+        new CacheLoader<Object, Object>() {
+          @Override
+          public Object load(Object key) {
+            throw new AssertionError();
+          }
+
+          @Override
+          public Map<Object, Object> loadAll(Iterable<?> keys) {
+            return ImmutableMap.of("a", "a!");
+          }
+        };
+    BatchingCacheLoader<Object, Object> batchingLoader =
+        (BatchingCacheLoader<Object, Object>)
+            CacheLoader.batchLoading(
+                baseLoader, 10, MILLISECONDS, TestingExecutors.noOpScheduledExecutor());
+
+    ListenableFuture<Object> a = batchingLoader.reload("a", "old");
+    ListenableFuture<Object> b = batchingLoader.reload("b", "old");
+    batchingLoader.flush();
+    assertEquals("a!", a.get());
+    ExecutionException expected = assertThrows(ExecutionException.class, () -> b.get());
+    assertThat(expected).hasCauseThat().isInstanceOf(InvalidCacheLoadException.class);
+  }
+
+  public void testBatchLoading_loadAllFails() throws Exception {
+    IllegalStateException failure = new IllegalStateException();
+    CacheLoader<Object, Object> baseLoader =
+        new CacheLoader<Object, Object>() {
+          @Override
+          public Object load(Object key) {
+            throw new AssertionError();
+          }
+
+          @Override
+          public Map<Object, Object> loadAll(Iterable<?> keys) {
+            throw failure;
+          }
+        };
+    BatchingCacheLoader<Object, Object> batchingLoader =
+        (BatchingCacheLoader<Object, Object>)
+            CacheLoader.batchLoading(
+                baseLoader, 10, MILLISECONDS, TestingExecutors.noOpScheduledExecutor());
+
+    ListenableFuture<Object> a = batchingLoader.reload("a", "old");
+    ListenableFuture<Object> b = batchingLoader.reload("b", "old");
+    batchingLoader.flush();
+    assertSame(failure, assertThrows(ExecutionException.class, () -> a.get()).getCause());
+    assertSame(failure, assertThrows(ExecutionException.class, () -> b.get()).getCause());
+  }
+
+  public void testBatchLoading_loadAllThrowsError() throws Exception {
+    Error failure = new StackOverflowError();
+    CacheLoader<Object, Object> baseLoader =
+        new CacheLoader<Object, Object>() {
+          @Override
+          public Object load(Object key) {
+            throw new AssertionError();
+          }
+
+          @Override
+          public Map<Object, Object> loadAll(Iterable<?> keys) {
+            throw failure;
+          }
+        };
+    BatchingCacheLoader<Object, Object> batchingLoader =
+        (BatchingCacheLoader<Object, Object>)
+            CacheLoader.batchLoading(
+                baseLoader, 10, MILLISECONDS, TestingExecutors.noOpScheduledExecutor());
+
+    ListenableFuture<Object> a = batchingLoader.reload("a", "old");
+    ListenableFuture<Object> b = batchingLoader.reload("b", "old");
+    assertSame(failure, assertThrows(StackOverflowError.class, () -> batchingLoader.flush()));
+    assertSame(failure, assertThrows(ExecutionException.class, () -> a.get()).getCause());
+    assertSame(failure, assertThrows(ExecutionException.class, () -> b.get()).getCause());
+  }
+
+  public void testBatchLoading_withoutLoadAll() throws Exception {
+    AtomicInteger loadCount = new AtomicInteger();
+    AtomicInteger reloadCount = new AtomicInteger();
+    CacheLoader<Object, Object> baseLoader =
+        new CacheLoader<Object, Object>() {
+          @Override
+          public Object load(Object key) {
+            loadCount.incrementAndGet();
+            return key + "!";
+          }
+
+          @Override
+          public ListenableFuture<Object> reload(Object key, Object oldValue) {
+            reloadCount.incrementAndGet();
+            return Futures.immediateFuture(key + "?");
+          }
+        };
+    BatchingCacheLoader<Object, Object> batchingLoader =
+        (BatchingCacheLoader<Object, Object>)
+            CacheLoader.batchLoading(
+                baseLoader, 10, MILLISECONDS, TestingExecutors.noOpScheduledExecutor());
+
+    ListenableFuture<Object> a = batchingLoader.reload("a", "old");
+    ListenableFuture<Object> b = batchingLoader.reload("b", "old");
+    batchingLoader.flush();
+    assertEquals("a?", a.get());
+    assertEquals("b?", b.get());
+    assertEquals(0, loadCount.get());
+    assertEquals(2, reloadCount.get());
+  }
+
+  public void testBatchLoading_refreshingCache() throws Exception {
+    AtomicInteger loadAllCount = new AtomicInteger();
+    CacheLoader<Integer, Integer> baseLoader =
+        new CacheLoader<Integer, Integer>() {
+          @Override
+          public Integer load(Integer key) {
+            throw new AssertionError();
+          }
+
+          @Override
+          public Map<Integer, Integer> loadAll(Iterable<? extends Integer> keys) {
+            loadAllCount.incrementAndGet();
+            ImmutableMap.Builder<Integer, Integer> result = ImmutableMap.builder();
+            for (Integer key : keys) {
+              result.put(key, -key);
+            }
+            return result.buildOrThrow();
+          }
+        };
+    LoadingCache<Integer, Integer> cache =
+        CacheBuilder.newBuilder()
+            .build(
+                CacheLoader.batchLoading(
+                    baseLoader, 0, MILLISECONDS, TestingExecutors.sameThreadScheduledExecutor()));
+
+    assertEquals(-1, (int) cache.get(1));
+    assertEquals(1, loadAllCount.get());
+    cache.refresh(1);
+    assertEquals(2, loadAllCount.get());
+    assertEquals(-1, (int) cache.getIfPresent(1));
+    assertEquals(ImmutableMap.of(2, -2, 3, -3), cache.getAll(ImmutableList.of(2, 3)));
+    assertEquals(3, loadAllCount.get());
+  }
+
+  public void testBatchLoading_negativeWindow() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            CacheLoader.batchLoading(
+                CacheLoader.from(key -> key),
+                -1,
+                MILLISECONDS,
+                TestingExecutors.noOpScheduledExecutor()));
+  }
 }
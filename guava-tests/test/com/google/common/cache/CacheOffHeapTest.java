@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.cache;
+
+import static com.google.common.cache.TestingRemovalListeners.queuingRemovalListener;
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.cache.LocalCache.OffHeapValueReference;
+import com.google.common.cache.LocalCache.ValueReference;
+import com.google.common.cache.TestingRemovalListeners.QueuingRemovalListener;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.testing.SerializableTester;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import junit.framework.TestCase;
+
+/** Tests for caches built with {@link CacheBuilder#offHeapValues}. */
+public class CacheOffHeapTest extends TestCase {
+
+  /** Stores strings as UTF-8. */
+  private static final ValueCodec<String> UTF8_CODEC =
+      new ValueCodec<String>() {
+        @Override
+        public int encodedSize(String value) {
+          return value.getBytes(UTF_8).length;
+        }
+
+        @Override
+        public void encode(String value, ByteBuffer target) {
+          target.put(value.getBytes(UTF_8));
+        }
+
+        @Override
+        public String decode(ByteBuffer source) {
+          byte[] bytes = new byte[source.remaining()];
+          source.get(bytes);
+          return new String(bytes, UTF_8);
+        }
+      };
+
+  public void testByteArrays() {
+    Cache<String, byte[]> cache =
+        CacheBuilder.newBuilder().offHeapValues(ValueCodec.byteArrays()).build();
+    byte[] value = {1, 2, 3};
+    cache.put("a", value);
+    value[0] = 42;
+
+    byte[] first = cache.getIfPresent("a");
+    assertThat(first).isEqualTo(new byte[] {1, 2, 3});
+    first[1] = 42;
+    assertThat(cache.getIfPresent("a")).isEqualTo(new byte[] {1, 2, 3});
+    assertNotSame(first, cache.getIfPresent("a"));
+
+    cache.put("empty", new byte[0]);
+    assertThat(cache.getIfPresent("empty")).isEmpty();
+  }
+
+  public void testValuesAreStoredOffHeap() {
+    LocalCache<String, String> map =
+        localCache(CacheBuilder.newBuilder().offHeapValues(UTF8_CODEC).build());
+    map.put("a", "apple");
+    LocalCache.Segment<String, String> segment = map.segmentFor(map.hash("a"));
+    ReferenceEntry<String, String> entry = segment.getEntry("a", map.hash("a"));
+    OffHeapValueReference<String, String> valueReference =
+        (OffHeapValueReference<String, String>) entry.getValueReference();
+    assertEquals(5, valueReference.size);
+    ByteBuffer buffer = map.offHeapArena.buffer(valueReference.chunk, valueReference.size);
+    assertTrue(buffer.isDirect());
+    assertEquals("apple", UTF8_CODEC.decode(buffer));
+  }
+
+  public void testMemoryIsReused() {
+    Cache<String, byte[]> cache =
+        CacheBuilder.newBuilder().offHeapValues(ValueCodec.byteArrays()).build();
+    OffHeapArena arena = localCache(cache).offHeapArena;
+    for (int i = 0; i < 10_000; i++) {
+      cache.put("a", new byte[1000]);
+      cache.asMap().putIfAbsent("a", new byte[1000]);
+      cache.put("b", new byte[1000]);
+      cache.invalidate("b");
+    }
+    assertEquals(OffHeapArena.SLAB_BYTES, arena.reservedBytes());
+  }
+
+  public void testConcurrentReadsAndReplacements() throws Exception {
+    Cache<String, byte[]> cache =
+        CacheBuilder.newBuilder().offHeapValues(ValueCodec.byteArrays()).build();
+    cache.put("a", new byte[1000]);
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicBoolean torn = new AtomicBoolean();
+    Thread reader =
+        new Thread(
+            () -> {
+              while (!done.get()) {
+                byte[] value = cache.getIfPresent("a");
+                if (value == null || value.length != 1000) {
+                  torn.set(true);
+                  continue;
+                }
+                for (byte b : value) {
+                  if (b != value[0] || b % 2 != 0) {
+                    torn.set(true);
+                  }
+                }
+              }
+            });
+    reader.start();
+    for (int i = 0; i < 20_000; i++) {
+      byte[] value = new byte[1000];
+      // even bytes for "a", odd bytes for "b"
+      Arrays.fill(value, (byte) (2 * i));
+      cache.put("a", value);
+      Arrays.fill(value, (byte) (2 * i + 1));
+      cache.put("b", value);
+    }
+    done.set(true);
+    reader.join();
+    assertFalse(torn.get());
+  }
+
+  public void testReplacedReferenceReadsNewValue() {
+    LocalCache<String, String> map =
+        localCache(CacheBuilder.newBuilder().offHeapValues(UTF8_CODEC).build());
+    map.put("a", "apple");
+    ValueReference<String, String> valueReference =
+        map.segmentFor(map.hash("a")).getEntry("a", map.hash("a")).getValueReference();
+    map.put("a", "apricot");
+    assertEquals("apricot", valueReference.get());
+    map.remove("a");
+    assertNull(valueReference.get());
+  }
+
+  public void testLoadingCache() throws Exception {
+    LoadingCache<Integer, String> cache =
+        CacheBuilder.newBuilder()
+            .offHeapValues(UTF8_CODEC)
+            .build(CacheLoader.from((Integer key) -> "v" + key));
+    assertEquals("v1", cache.get(1));
+    assertEquals(ImmutableMap.of(1, "v1", 2, "v2"), cache.getAll(ImmutableList.of(1, 2)));
+    assertTrue(cache.asMap().replace(1, "v1", "w1"));
+    assertEquals("w1", cache.get(1));
+  }
+
+  public void testCompute_encodesOutsideLock() {
+    AtomicBoolean encodedUnderLock = new AtomicBoolean();
+    AtomicReference<LocalCache<String, String>> cacheRef = new AtomicReference<>();
+    ValueCodec<String> lockCheckingCodec =
+        new ValueCodec<String>() {
+          @Override
+          public int encodedSize(String value) {
+            if (cacheRef.get().segmentFor(cacheRef.get().hash("a")).isHeldByCurrentThread()) {
+              encodedUnderLock.set(true);
+            }
+            return UTF8_CODEC.encodedSize(value);
+          }
+
+          @Override
+          public void encode(String value, ByteBuffer target) {
+            UTF8_CODEC.encode(value, target);
+          }
+
+          @Override
+          public String decode(ByteBuffer source) {
+            return UTF8_CODEC.decode(source);
+          }
+        };
+    LocalCache<String, String> map =
+        localCache(CacheBuilder.newBuilder().offHeapValues(lockCheckingCodec).build());
+    cacheRef.set(map);
+
+    assertEquals("apple", map.compute("a", (k, v) -> "apple"));
+    assertEquals("apple!", map.compute("a", (k, v) -> v + "!"));
+    assertEquals("apple!", map.get("a"));
+    assertFalse(encodedUnderLock.get());
+    assertThat(map.segmentFor(map.hash("a")).getEntry("a", map.hash("a")).getValueReference())
+        .isInstanceOf(OffHeapValueReference.class);
+  }
+
+  public void testWeigherAndRemovalListener() {
+    QueuingRemovalListener<String, String> removalListener = queuingRemovalListener();
+    Cache<String, String> cache =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .offHeapValues(UTF8_CODEC)
+            .maximumWeight(11)
+            .weigher((String key, String value) -> value.length())
+            .removalListener(removalListener)
+            .build();
+    cache.put("a", "apple");
+    cache.put("b", "berry");
+    assertThat(removalListener).isEmpty();
+    cache.put("c", "cherry");
+
+    RemovalNotification<String, String> notification = removalListener.remove();
+    assertEquals("a", notification.getKey());
+    assertEquals("apple", notification.getValue());
+    assertEquals(RemovalCause.SIZE, notification.getCause());
+    assertNull(cache.getIfPresent("a"));
+
+    cache.put("c", "cake");
+    notification = removalListener.remove();
+    assertEquals("cherry", notification.getValue());
+    assertEquals(RemovalCause.REPLACED, notification.getCause());
+  }
+
+  public void testCodecWritesWrongSize() {
+    Cache<String, String> cache =
+        CacheBuilder.newBuilder()
+            .offHeapValues(
+                new ValueCodec<String>() {
+                  @Override
+                  public int encodedSize(String value) {
+                    return 2 * value.length();
+                  }
+
+                  @Override
+                  public void encode(String value, ByteBuffer target) {
+                    UTF8_CODEC.encode(value, target);
+                  }
+
+                  @Override
+                  public String decode(ByteBuffer source) {
+                    return UTF8_CODEC.decode(source);
+                  }
+                })
+            .build();
+    assertThrows(IllegalStateException.class, () -> cache.put("a", "apple"));
+    assertNull(cache.getIfPresent("a"));
+  }
+
+  public void testSerialization() {
+    Cache<String, byte[]> cache =
+        CacheBuilder.newBuilder().offHeapValues(ValueCodec.byteArrays()).build();
+    cache.put("a", new byte[] {1});
+    Cache<String, byte[]> copy = SerializableTester.reserialize(cache);
+    copy.put("b", new byte[] {2});
+    assertThat(copy.getIfPresent("b")).isEqualTo(new byte[] {2});
+    assertSame(ValueCodec.byteArrays(), localCache(copy).valueCodec);
+  }
+
+  public void testOffHeapValues_weakValues() {
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().weakValues();
+    builder.offHeapValues(ValueCodec.byteArrays());
+    assertThrows(IllegalStateException.class, () -> builder.build());
+  }
+
+  public void testOffHeapValues_setTwice() {
+    CacheBuilder<Object, byte[]> builder =
+        CacheBuilder.newBuilder().offHeapValues(ValueCodec.byteArrays());
+    assertThrows(
+        IllegalStateException.class, () -> builder.offHeapValues(ValueCodec.byteArrays()));
+  }
+
+  private static <K, V> LocalCache<K, V> localCache(Cache<K, V> cache) {
+    return ((LocalCache.LocalManualCache<K, V>) cache).localCache;
+  }
+}
@@ -40,6 +40,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
@@ -245,22 +246,27 @@ class CacheTesting {
       if (cchm.usesAccessQueue()) {
         Set<ReferenceEntry<?, ?>> entries = Sets.newIdentityHashSet();
 
-        ReferenceEntry<?, ?> prev = null;
-        for (ReferenceEntry<?, ?> current : segment.accessQueue) {
-          assertTrue(entries.add(current));
-          if (prev != null) {
-            assertSame(prev, current.getPreviousInAccessQueue());
-            assertSame(prev.getNextInAccessQueue(), current);
-            // read accesses may be slightly misordered
-            assertTrue(
-                prev.getAccessTime() <= current.getAccessTime()
-                    || prev.getAccessTime() - current.getAccessTime() < 1000);
+        // with a window, each entry is in exactly one of the two queues
+        for (Queue<? extends ReferenceEntry<?, ?>> queue :
+            ImmutableList.<Queue<? extends ReferenceEntry<?, ?>>>of(
+                segment.windowQueue, segment.accessQueue)) {
+          ReferenceEntry<?, ?> prev = null;
+          for (ReferenceEntry<?, ?> current : queue) {
+            assertTrue(entries.add(current));
+            if (prev != null) {
+              assertSame(prev, current.getPreviousInAccessQueue());
+              assertSame(prev.getNextInAccessQueue(), current);
+              // read accesses may be slightly misordered
+              assertTrue(
+                  prev.getAccessTime() <= current.getAccessTime()
+                      || prev.getAccessTime() - current.getAccessTime() < 1000);
+            }
+            Object key = current.getKey();
+            if (key != null) {
+              assertSame(current, segment.getEntry(key, current.getHash()));
+            }
+            prev = current;
           }
-          Object key = current.getKey();
-          if (key != null) {
-            assertSame(current, segment.getEntry(key, current.getHash()));
-          }
-          prev = current;
         }
         assertEquals(segment.count, entries.size());
       } else {
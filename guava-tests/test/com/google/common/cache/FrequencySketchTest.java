@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import junit.framework.TestCase;
+
+/** Unit tests for {@link FrequencySketch}. */
+public class FrequencySketchTest extends TestCase {
+
+  public void testIncrement() {
+    FrequencySketch sketch = new FrequencySketch(512);
+    assertEquals(0, sketch.frequency(42));
+    sketch.increment(42);
+    assertEquals(1, sketch.frequency(42));
+    sketch.increment(42);
+    assertEquals(2, sketch.frequency(42));
+  }
+
+  public void testIncrement_saturates() {
+    FrequencySketch sketch = new FrequencySketch(512);
+    for (int i = 0; i < 20; i++) {
+      sketch.increment(42);
+    }
+    assertEquals(15, sketch.frequency(42));
+  }
+
+  public void testReset() {
+    FrequencySketch sketch = new FrequencySketch(512);
+    for (int i = 0; i < 10; i++) {
+      sketch.increment(42);
+    }
+    sketch.reset();
+    assertEquals(5, sketch.frequency(42));
+  }
+
+  public void testAging() {
+    FrequencySketch sketch = new FrequencySketch(64);
+    for (int i = 0; i < 10; i++) {
+      sketch.increment(-1);
+    }
+    // enough distinct keys to fill the sample and halve all counters at least once
+    for (int i = 0; i < 10 * 64; i++) {
+      sketch.increment(i);
+    }
+    assertThat(sketch.frequency(-1)).isLessThan(10);
+  }
+
+  public void testFrequency_distinguishesPopularKeys() {
+    FrequencySketch sketch = new FrequencySketch(1024);
+    for (int i = 0; i < 1024; i++) {
+      sketch.increment(i * 0x9E3779B9);
+      if (i % 8 == 0) {
+        for (int j = 0; j < 4; j++) {
+          sketch.increment(i * 0x9E3779B9);
+        }
+      }
+    }
+    int misordered = 0;
+    for (int i = 0; i < 1024; i += 8) {
+      if (sketch.frequency(i * 0x9E3779B9) <= sketch.frequency((i + 1) * 0x9E3779B9)) {
+        misordered++;
+      }
+    }
+    assertThat(misordered).isLessThan(4);
+  }
+}
@@ -38,6 +38,7 @@ import com.google.common.cache.LocalCache.EntryFactory;
 import com.google.common.cache.LocalCache.LoadingValueReference;
 import com.google.common.cache.LocalCache.LocalLoadingCache;
 import com.google.common.cache.LocalCache.LocalManualCache;
+import com.google.common.cache.LocalCache.ReadBuffer;
 import com.google.common.cache.LocalCache.Segment;
 import com.google.common.cache.LocalCache.Strength;
 import com.google.common.cache.LocalCache.ValueReference;
@@ -2123,6 +2124,32 @@ public class LocalCacheTest extends TestCase {
     }
   }
 
+  public void testReadBuffer() {
+    ReadBuffer<Integer> buffer = new ReadBuffer<>();
+    assertTrue(buffer.isEmpty());
+    assertNull(buffer.poll());
+    for (int i = 0; i < ReadBuffer.CAPACITY; i++) {
+      assertTrue(buffer.offer(i));
+    }
+    assertEquals(ReadBuffer.CAPACITY, buffer.size());
+
+    // a full buffer drops elements instead of growing
+    assertFalse(buffer.offer(-1));
+    assertEquals(ReadBuffer.CAPACITY, buffer.size());
+    assertEquals(0, (int) buffer.peek());
+    assertEquals(ImmutableList.of(0, 1, 2), ImmutableList.copyOf(buffer).subList(0, 3));
+
+    assertEquals(0, (int) buffer.poll());
+    assertEquals(1, (int) buffer.poll());
+    assertTrue(buffer.offer(ReadBuffer.CAPACITY));
+    assertEquals(ReadBuffer.CAPACITY - 1, buffer.size());
+    for (int i = 2; i <= ReadBuffer.CAPACITY; i++) {
+      assertEquals(i, (int) buffer.poll());
+    }
+    assertNull(buffer.poll());
+    assertTrue(buffer.isEmpty());
+  }
+
   public void testRecordRead() {
     for (CacheBuilder<Object, Object> builder : allEvictingMakers()) {
       LocalCache<Object, Object> map = makeLocalCache(builder.concurrencyLevel(1));
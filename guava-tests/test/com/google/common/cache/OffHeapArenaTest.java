@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.cache;
+
+import static com.google.common.cache.OffHeapArena.SLAB_BYTES;
+
+import java.nio.ByteBuffer;
+import junit.framework.TestCase;
+
+/** Tests for {@link OffHeapArena}. */
+public class OffHeapArenaTest extends TestCase {
+
+  public void testAllocate_chunksDoNotOverlap() {
+    OffHeapArena arena = new OffHeapArena();
+    long a = arena.allocate(100);
+    long b = arena.allocate(100);
+    arena.buffer(a, 100).put(new byte[100]);
+    ByteBuffer buffer = arena.buffer(b, 100);
+    for (int i = 0; i < 100; i++) {
+      buffer.put(i, (byte) 1);
+    }
+    ByteBuffer first = arena.buffer(a, 100);
+    assertEquals(100, first.remaining());
+    while (first.hasRemaining()) {
+      assertEquals(0, first.get());
+    }
+    assertEquals(SLAB_BYTES, arena.reservedBytes());
+  }
+
+  public void testFree_reusesChunk() {
+    OffHeapArena arena = new OffHeapArena();
+    long chunk = arena.allocate(100);
+    arena.free(chunk, 100);
+    assertEquals(chunk, arena.allocate(120));
+    assertEquals(SLAB_BYTES, arena.reservedBytes());
+  }
+
+  public void testLargeChunk() {
+    OffHeapArena arena = new OffHeapArena();
+    long chunk = arena.allocate(SLAB_BYTES + 1);
+    assertEquals(SLAB_BYTES + 1, arena.buffer(chunk, SLAB_BYTES + 1).remaining());
+    assertEquals(SLAB_BYTES + 1, arena.reservedBytes());
+    arena.free(chunk, SLAB_BYTES + 1);
+    assertEquals(0, arena.reservedBytes());
+  }
+
+  public void testEmptyChunk() {
+    OffHeapArena arena = new OffHeapArena();
+    long chunk = arena.allocate(0);
+    assertEquals(0, arena.buffer(chunk, 0).remaining());
+    arena.free(chunk, 0);
+    assertEquals(0, arena.reservedBytes());
+  }
+}
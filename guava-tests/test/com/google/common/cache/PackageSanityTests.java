@@ -17,6 +17,7 @@
 package com.google.common.cache;
 
 import com.google.common.testing.AbstractPackageSanityTests;
+import com.google.common.util.concurrent.Futures;
 
 /**
  * Basic sanity tests for the entire package.
@@ -34,6 +35,9 @@ public class PackageSanityTests extends AbstractPackageSanityTests {
             return key;
           }
         });
+    setDefault(
+        AsyncCacheLoader.class,
+        AsyncCacheLoader.from((Object key) -> Futures.immediateFuture(key)));
     setDefault(LocalCache.class, new LocalCache<Object, Object>(CacheBuilder.newBuilder(), null));
     setDefault(CacheBuilder.class, CacheBuilder.newBuilder());
   }
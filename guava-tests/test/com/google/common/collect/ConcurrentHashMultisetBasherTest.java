@@ -57,10 +57,21 @@ public class ConcurrentHashMultisetBasherTest extends TestCase {
     testAddAndRemove(mapMaker.<String, AtomicInteger>makeMap());
   }
 
+  public void testAddAndRemove_contentionAdaptive() throws Exception {
+    testAddAndRemove(new ConcurrentHashMap<String, AtomicInteger>(), true);
+  }
+
   private void testAddAndRemove(ConcurrentMap<String, AtomicInteger> map)
       throws ExecutionException, InterruptedException {
+    testAddAndRemove(map, false);
+  }
+
+  private void testAddAndRemove(
+      ConcurrentMap<String, AtomicInteger> map, boolean contentionAdaptive)
+      throws ExecutionException, InterruptedException {
 
-    final ConcurrentHashMultiset<String> multiset = new ConcurrentHashMultiset<>(map);
+    final ConcurrentHashMultiset<String> multiset =
+        new ConcurrentHashMultiset<>(map, contentionAdaptive);
     int nThreads = 20;
     int tasksPerThread = 10;
     int nTasks = nThreads * tasksPerThread;
@@ -27,6 +27,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.google.common.base.Equivalence;
+import com.google.common.collect.ConcurrentHashMultiset.StripedCounter;
 import com.google.common.collect.testing.features.CollectionFeature;
 import com.google.common.collect.testing.features.CollectionSize;
 import com.google.common.collect.testing.google.MultisetTestSuiteBuilder;
@@ -34,6 +35,7 @@ import com.google.common.collect.testing.google.TestStringMultisetGenerator;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -70,6 +72,15 @@ public class ConcurrentHashMultisetTest extends TestCase {
                 CollectionFeature.ALLOWS_NULL_QUERIES)
             .named("ConcurrentSkipListMultiset")
             .createTestSuite());
+    suite.addTest(
+        MultisetTestSuiteBuilder.using(stripedMultisetGenerator())
+            .withFeatures(
+                CollectionSize.ANY,
+                CollectionFeature.GENERAL_PURPOSE,
+                CollectionFeature.SERIALIZABLE,
+                CollectionFeature.ALLOWS_NULL_QUERIES)
+            .named("ConcurrentHashMultiset, striped")
+            .createTestSuite());
     suite.addTestSuite(ConcurrentHashMultisetTest.class);
     return suite;
   }
@@ -83,6 +94,27 @@ public class ConcurrentHashMultisetTest extends TestCase {
     };
   }
 
+  /** Creates contention-adaptive multisets whose counts are all striped. */
+  private static TestStringMultisetGenerator stripedMultisetGenerator() {
+    return new TestStringMultisetGenerator() {
+      @Override
+      protected Multiset<String> create(String[] elements) {
+        ConcurrentMap<String, AtomicInteger> map = new ConcurrentHashMap<>();
+        Multiset<String> multiset = new ConcurrentHashMultiset<>(map, true);
+        Collections.addAll(multiset, elements);
+        stripeAll(map);
+        return multiset;
+      }
+    };
+  }
+
+  private static void stripeAll(ConcurrentMap<String, AtomicInteger> map) {
+    for (AtomicInteger counter : map.values()) {
+      ((StripedCounter) counter).stripe();
+      assertEquals(StripedCounter.STRIPED, counter.get());
+    }
+  }
+
   private static TestStringMultisetGenerator concurrentSkipListMultisetGenerator() {
     return new TestStringMultisetGenerator() {
       @Override
@@ -317,6 +349,73 @@ public class ConcurrentHashMultisetTest extends TestCase {
     reserializeAndAssert(multiset);
   }
 
+  public void testCreateContentionAdaptive() {
+    ConcurrentHashMultiset<Integer> multiset = ConcurrentHashMultiset.createContentionAdaptive();
+    assertEquals(0, multiset.size());
+    multiset.add(1, 3);
+    assertEquals(3, multiset.count(1));
+  }
+
+  public void testStriped() {
+    ConcurrentMap<String, AtomicInteger> map = new ConcurrentHashMap<>();
+    multiset = new ConcurrentHashMultiset<>(map, true);
+    multiset.add(KEY, 3);
+    stripeAll(map);
+    AtomicInteger counter = map.get(KEY);
+
+    assertEquals(3, multiset.add(KEY, 2));
+    assertEquals(5, multiset.count(KEY));
+    assertEquals(5, multiset.size());
+    assertEquals(ImmutableSet.of(Multisets.immutableEntry(KEY, 5)), multiset.entrySet());
+    assertEquals(5, multiset.remove(KEY, 1));
+    assertEquals(4, multiset.setCount(KEY, 2));
+    assertFalse(multiset.setCount(KEY, 3, 1));
+    assertTrue(multiset.setCount(KEY, 2, 3));
+    assertFalse(multiset.removeExactly(KEY, 4));
+    assertEquals(3, multiset.count(KEY));
+    assertSame(counter, map.get(KEY));
+
+    assertTrue(multiset.removeExactly(KEY, 3));
+    assertEquals(0, counter.get());
+    assertFalse(map.containsKey(KEY));
+    assertEquals(0, multiset.add(KEY, 1));
+    assertNotSame(counter, map.get(KEY));
+    assertEquals(1, multiset.count(KEY));
+  }
+
+  public void testStriped_overflow() {
+    ConcurrentMap<String, AtomicInteger> map = new ConcurrentHashMap<>();
+    multiset = new ConcurrentHashMultiset<>(map, true);
+    multiset.add(KEY, Integer.MAX_VALUE - 1);
+    stripeAll(map);
+    multiset.add(KEY);
+    assertThrows(IllegalArgumentException.class, () -> multiset.add(KEY, 1));
+    assertEquals(Integer.MAX_VALUE, multiset.count(KEY));
+  }
+
+  public void testStriped_removedCount() {
+    ConcurrentMap<String, AtomicInteger> map = new ConcurrentHashMap<>();
+    multiset = new ConcurrentHashMultiset<>(map, true);
+    multiset.add(KEY, 2);
+    stripeAll(map);
+    StripedCounter counter = (StripedCounter) map.get(KEY);
+    multiset.remove(KEY, 2);
+
+    // a thread which still has the removed counter sees it as empty
+    assertEquals(0, counter.count());
+    assertFalse(counter.add(1));
+    assertEquals(-1, counter.update(count -> count + 1));
+  }
+
+  public void testStriped_serialization() {
+    ConcurrentMap<String, AtomicInteger> map = new ConcurrentHashMap<>();
+    multiset = new ConcurrentHashMultiset<>(map, true);
+    multiset.addAll(ImmutableList.of("a", "a", "b"));
+    stripeAll(map);
+    multiset.add("a");
+    reserializeAndAssert(multiset);
+  }
+
   public void testIdentityKeyEquality_strongKeys() {
     testIdentityKeyEquality(STRONG);
   }
@@ -31,12 +31,25 @@ import com.google.common.testing.SerializableTester;
 import com.google.common.util.concurrent.Uninterruptibles;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.Thread.UncaughtExceptionHandler;
 import java.math.RoundingMode;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import junit.framework.TestCase;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -247,10 +260,16 @@ public class BloomFilterTest extends TestCase {
   }
 
   @AndroidIncompatible // see ImmutableTableTest.testNullPointerInstance
-  public void testNullPointers() {
+  public void testNullPointers() throws IOException {
     NullPointerTester tester = new NullPointerTester();
     tester.testAllPublicInstanceMethods(BloomFilter.create(Funnels.unencodedCharsFunnel(), 100));
-    tester.testAllPublicStaticMethods(BloomFilter.class);
+    Path file = Files.createTempFile("BloomFilterTest", ".bin");
+    try (FileChannel channel = FileChannel.open(file)) {
+      tester.setDefault(FileChannel.class, channel);
+      tester.testAllPublicStaticMethods(BloomFilter.class);
+    } finally {
+      Files.delete(file);
+    }
   }
 
   /** Tests that we never get an optimal hashes number of zero. */
@@ -447,6 +466,46 @@ public class BloomFilterTest extends TestCase {
     assertTrue(bf2.mightContain(element2));
   }
 
+  public void testPutAllIterable() {
+    for (BloomFilterStrategies strategy : BloomFilterStrategies.values()) {
+      BloomFilter<Integer> individually =
+          BloomFilter.create(Funnels.integerFunnel(), 10_000, 0.01, strategy);
+      BloomFilter<Integer> bulk =
+          BloomFilter.create(Funnels.integerFunnel(), 10_000, 0.01, strategy);
+      List<Integer> elements = new ArrayList<>();
+      for (int i = 0; i < 1000; i++) {
+        elements.add(i);
+        individually.put(i);
+      }
+      assertTrue(bulk.putAll(elements));
+      assertEquals(individually, bulk);
+      assertFalse(bulk.putAll(elements));
+      assertFalse(bulk.putAll(ImmutableSet.<Integer>of()));
+    }
+  }
+
+  public void testMightContainAll() {
+    for (BloomFilterStrategies strategy : BloomFilterStrategies.values()) {
+      BloomFilter<String> bf =
+          BloomFilter.create(Funnels.unencodedCharsFunnel(), 1000, 0.01, strategy);
+      List<String> elements = new ArrayList<>();
+      for (int i = 0; i < 2000; i++) {
+        elements.add(Integer.toString(i));
+        if (i % 2 == 0) {
+          bf.put(Integer.toString(i));
+        }
+      }
+      BitSet results = new BitSet();
+      results.set(elements.size() + 1);
+      bf.mightContainAll(elements, results);
+      for (int i = 0; i < elements.size(); i++) {
+        assertEquals(bf.mightContain(elements.get(i)), results.get(i));
+      }
+      assertFalse(results.get(elements.size()));
+      assertTrue(results.get(elements.size() + 1));
+    }
+  }
+
   public void testPutAllDifferentSizes() {
     BloomFilter<Integer> bf1 = BloomFilter.create(Funnels.integerFunnel(), 1);
     BloomFilter<Integer> bf2 = BloomFilter.create(Funnels.integerFunnel(), 10);
@@ -512,9 +571,225 @@ public class BloomFilterTest extends TestCase {
    * appending a new constant is allowed.
    */
   public void testBloomFilterStrategies() {
-    assertThat(BloomFilterStrategies.values()).hasLength(2);
+    assertThat(BloomFilterStrategies.values()).hasLength(3);
     assertEquals(BloomFilterStrategies.MURMUR128_MITZ_32, BloomFilterStrategies.values()[0]);
     assertEquals(BloomFilterStrategies.MURMUR128_MITZ_64, BloomFilterStrategies.values()[1]);
+    assertEquals(BloomFilterStrategies.MURMUR128_BLOCKED_512, BloomFilterStrategies.values()[2]);
+  }
+
+  public void testBlocked() {
+    int numInsertions = 100_000;
+    BloomFilter<String> bf =
+        BloomFilter.createBlocked(Funnels.unencodedCharsFunnel(), numInsertions, 0.01);
+    assertEquals(0, bf.bitSize() % BloomFilterStrategies.BLOCK_BITS);
+
+    for (int i = 0; i < numInsertions * 2; i += 2) {
+      bf.put(Integer.toString(i));
+    }
+    for (int i = 0; i < numInsertions * 2; i += 2) {
+      assertTrue(bf.mightContain(Integer.toString(i)));
+    }
+
+    int numFpp = 0;
+    for (int i = 1; i < numInsertions * 2; i += 2) {
+      if (bf.mightContain(Integer.toString(i))) {
+        numFpp++;
+      }
+    }
+    // blocking costs some accuracy, but not much at this fpp
+    double actualFpp = (double) numFpp / numInsertions;
+    assertThat(actualFpp).isLessThan(0.02);
+    assertEquals(actualFpp, bf.expectedFpp(), 0.005);
+  }
+
+  public void testBlocked_smallerThanBlock() throws Exception {
+    BloomFilter<Integer> bf =
+        BloomFilter.create(
+            Funnels.integerFunnel(), 1, 0.5, BloomFilterStrategies.MURMUR128_BLOCKED_512);
+    assertEquals(BloomFilterStrategies.BLOCK_BITS, bf.bitSize());
+
+    // a filter of a single 64-bit word, which could only be read from a stream, still works
+    byte[] serialized = {
+      (byte) BloomFilterStrategies.MURMUR128_BLOCKED_512.ordinal(), 3, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0,
+      0, 0
+    };
+    BloomFilter<Integer> tiny =
+        BloomFilter.readFrom(new ByteArrayInputStream(serialized), Funnels.integerFunnel());
+    assertEquals(64, tiny.bitSize());
+    for (int i = 0; i < 10; i++) {
+      tiny.put(i);
+    }
+    for (int i = 0; i < 10; i++) {
+      assertTrue(tiny.mightContain(i));
+    }
+  }
+
+  public void testBlocked_putAll() {
+    BloomFilter<Integer> bf1 = BloomFilter.createBlocked(Funnels.integerFunnel(), 100, 0.01);
+    BloomFilter<Integer> bf2 = BloomFilter.createBlocked(Funnels.integerFunnel(), 100, 0.01);
+    bf1.put(1);
+    bf2.put(2);
+    assertTrue(bf1.isCompatible(bf2));
+    assertFalse(bf1.isCompatible(BloomFilter.create(Funnels.integerFunnel(), 100, 0.01)));
+    bf1.putAll(bf2);
+    assertTrue(bf1.mightContain(1));
+    assertTrue(bf1.mightContain(2));
+  }
+
+  public void testBlocked_serialization() throws Exception {
+    Funnel<byte[]> funnel = Funnels.byteArrayFunnel();
+    BloomFilter<byte[]> bf = BloomFilter.createBlocked(funnel, 100, 0.01);
+    for (int i = 0; i < 100; i++) {
+      bf.put(Ints.toByteArray(i));
+    }
+    SerializableTester.reserializeAndAssert(bf);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    bf.writeTo(out);
+    BloomFilter<byte[]> read =
+        BloomFilter.readFrom(new ByteArrayInputStream(out.toByteArray()), funnel);
+    assertThat(read).isEqualTo(bf);
+    for (int i = 0; i < 100; i++) {
+      assertTrue(read.mightContain(Ints.toByteArray(i)));
+    }
+  }
+
+  public void testMap() throws Exception {
+    BloomFilter<Integer> bf = BloomFilter.create(Funnels.integerFunnel(), 1000, 0.01);
+    for (int i = 0; i < 1000; i += 2) {
+      bf.put(i);
+    }
+    Path file = writeToTempFile(bf);
+    try {
+      BloomFilter<Integer> mapped = BloomFilter.map(file, Funnels.integerFunnel());
+      assertThat(mapped).isEqualTo(bf);
+      assertEquals(bf.bitSize(), mapped.bitSize());
+      assertEquals(bf.approximateElementCount(), mapped.approximateElementCount());
+      for (int i = 0; i < 2000; i++) {
+        assertEquals(bf.mightContain(i), mapped.mightContain(i));
+      }
+      assertThrows(ReadOnlyBufferException.class, () -> mapped.put(-1));
+
+      BloomFilter<Integer> copy = mapped.copy();
+      assertTrue(copy.put(-1));
+      assertTrue(copy.mightContain(-1));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  public void testMap_readWrite() throws Exception {
+    BloomFilter<Integer> bf = BloomFilter.create(Funnels.integerFunnel(), 1000, 0.01);
+    bf.put(1);
+    Path file = writeToTempFile(bf);
+    try {
+      try (FileChannel channel =
+          FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        BloomFilter<Integer> mapped =
+            BloomFilter.map(channel, Funnels.integerFunnel(), MapMode.READ_WRITE);
+        long count = mapped.approximateElementCount();
+        for (int i = 100; i < 200; i++) {
+          mapped.put(i);
+          bf.put(i);
+        }
+        assertThat(mapped.approximateElementCount()).isGreaterThan(count);
+        assertEquals(bf.approximateElementCount(), mapped.approximateElementCount());
+        assertThat(mapped).isEqualTo(bf);
+      }
+      try (InputStream in = Files.newInputStream(file)) {
+        BloomFilter<Integer> read = BloomFilter.readFrom(in, Funnels.integerFunnel());
+        assertThat(read).isEqualTo(bf);
+        for (int i = 100; i < 200; i++) {
+          assertTrue(read.mightContain(i));
+        }
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  public void testMap_readWriteConcurrentLookups() throws Exception {
+    int numInsertions = 5_000;
+    Path file = writeToTempFile(BloomFilter.create(Funnels.integerFunnel(), numInsertions, 0.01));
+    try (FileChannel channel =
+        FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      BloomFilter<Integer> mapped =
+          BloomFilter.map(channel, Funnels.integerFunnel(), MapMode.READ_WRITE);
+      AtomicInteger inserted = new AtomicInteger();
+      AtomicBoolean falseNegative = new AtomicBoolean();
+      Thread reader =
+          new Thread(
+              () -> {
+                while (inserted.get() < numInsertions) {
+                  int limit = inserted.get();
+                  for (int i = 0; i < limit; i++) {
+                    if (!mapped.mightContain(i)) {
+                      falseNegative.set(true);
+                    }
+                  }
+                }
+              });
+      reader.start();
+      for (int i = 0; i < numInsertions; i++) {
+        mapped.put(i);
+        inserted.set(i + 1);
+      }
+      reader.join();
+      assertFalse(falseNegative.get());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  public void testMap_private() throws Exception {
+    BloomFilter<Integer> bf = BloomFilter.createBlocked(Funnels.integerFunnel(), 1000, 0.01);
+    bf.put(1);
+    Path file = writeToTempFile(bf);
+    try {
+      byte[] before = Files.readAllBytes(file);
+      try (FileChannel channel =
+          FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        BloomFilter<Integer> mapped =
+            BloomFilter.map(channel, Funnels.integerFunnel(), MapMode.PRIVATE);
+        assertTrue(mapped.mightContain(1));
+        assertTrue(mapped.put(2));
+        assertTrue(mapped.mightContain(2));
+      }
+      assertThat(Files.readAllBytes(file)).isEqualTo(before);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  public void testMap_invalid() throws Exception {
+    BloomFilter<Integer> bf = BloomFilter.create(Funnels.integerFunnel(), 1000, 0.01);
+    Path file = writeToTempFile(bf);
+    try {
+      byte[] bytes = Files.readAllBytes(file);
+
+      // truncated bits
+      Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+      assertThrows(IOException.class, () -> BloomFilter.map(file, Funnels.integerFunnel()));
+
+      // truncated header
+      Files.write(file, Arrays.copyOf(bytes, 3));
+      assertThrows(IOException.class, () -> BloomFilter.map(file, Funnels.integerFunnel()));
+
+      // unknown strategy
+      bytes[0] = 100;
+      Files.write(file, bytes);
+      assertThrows(IOException.class, () -> BloomFilter.map(file, Funnels.integerFunnel()));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static Path writeToTempFile(BloomFilter<?> bf) throws IOException {
+    Path file = Files.createTempFile("BloomFilterTest", ".bin");
+    try (OutputStream out = Files.newOutputStream(file)) {
+      bf.writeTo(out);
+    }
+    return file;
   }
 
 
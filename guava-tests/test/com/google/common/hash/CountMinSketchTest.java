@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.testing.EqualsTester;
+import com.google.common.testing.NullPointerTester;
+import com.google.common.testing.SerializableTester;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/** Tests for {@link CountMinSketch}. */
+public class CountMinSketchTest extends TestCase {
+
+  public void testCreate() {
+    CountMinSketch<Integer> sketch = CountMinSketch.create(Funnels.integerFunnel(), 0.001, 0.01);
+    assertEquals(5, sketch.depth());
+    assertEquals(2719, sketch.width());
+    assertEquals(0, sketch.totalCount());
+    assertEquals(0, sketch.estimateCount(1));
+  }
+
+  public void testAdd() {
+    CountMinSketch<Integer> sketch = CountMinSketch.create(Funnels.integerFunnel(), 0.001, 0.01);
+    assertEquals(1, sketch.add(1));
+    assertEquals(4, sketch.add(1, 3));
+    assertEquals(4, sketch.add(1, 0));
+    assertEquals(4, sketch.estimateCount(1));
+    assertEquals(4, sketch.totalCount());
+    assertThrows(IllegalArgumentException.class, () -> sketch.add(1, -1));
+  }
+
+  public void testAccuracy() {
+    double relativeError = 0.01;
+    CountMinSketch<Integer> sketch =
+        CountMinSketch.create(Funnels.integerFunnel(), relativeError, 0.01);
+    // a skewed stream: element i occurs about 200_000 / i^2 times
+    int[] counts = new int[10_000];
+    Random random = new Random(0);
+    for (int n = 0; n < 200_000; n++) {
+      int element = (int) Math.min(counts.length - 1, 1 / random.nextDouble());
+      counts[element]++;
+      sketch.add(element);
+    }
+    assertEquals(200_000, sketch.totalCount());
+    int badEstimates = 0;
+    for (int i = 0; i < counts.length; i++) {
+      long estimate = sketch.estimateCount(i);
+      assertThat(estimate).isAtLeast(counts[i]);
+      if (estimate - counts[i] > relativeError * sketch.totalCount()) {
+        badEstimates++;
+      }
+    }
+    assertThat(badEstimates).isLessThan(counts.length / 100);
+  }
+
+  public void testPutAll() {
+    CountMinSketch<Integer> a = CountMinSketch.create(Funnels.integerFunnel(), 0.01, 0.01);
+    CountMinSketch<Integer> b = CountMinSketch.create(Funnels.integerFunnel(), 0.01, 0.01);
+    a.add(1, 3);
+    b.add(1, 4);
+    b.add(2);
+    assertTrue(a.isCompatible(b));
+    a.putAll(b);
+    assertEquals(7, a.estimateCount(1));
+    assertEquals(1, a.estimateCount(2));
+    assertEquals(8, a.totalCount());
+  }
+
+  public void testPutAll_incompatible() {
+    CountMinSketch<Integer> sketch = CountMinSketch.create(Funnels.integerFunnel(), 0.01, 0.01);
+    CountMinSketch<Integer> wider = CountMinSketch.create(Funnels.integerFunnel(), 0.001, 0.01);
+    assertFalse(sketch.isCompatible(wider));
+    assertFalse(sketch.isCompatible(sketch));
+    assertThrows(IllegalArgumentException.class, () -> sketch.putAll(wider));
+    assertThrows(IllegalArgumentException.class, () -> sketch.putAll(sketch));
+  }
+
+  public void testCopy() {
+    CountMinSketch<Integer> original = CountMinSketch.create(Funnels.integerFunnel(), 0.01, 0.01);
+    original.add(1);
+    CountMinSketch<Integer> copy = original.copy();
+    assertEquals(original, copy);
+    copy.add(1);
+    assertEquals(1, original.estimateCount(1));
+    assertEquals(2, copy.estimateCount(1));
+  }
+
+  public void testEquals() {
+    CountMinSketch<Integer> a = CountMinSketch.create(Funnels.integerFunnel(), 0.01, 0.01);
+    a.add(1);
+    CountMinSketch<Integer> b = CountMinSketch.create(Funnels.integerFunnel(), 0.01, 0.01);
+    b.add(1);
+    new EqualsTester()
+        .addEqualityGroup(a, b)
+        .addEqualityGroup(CountMinSketch.create(Funnels.integerFunnel(), 0.01, 0.01))
+        .addEqualityGroup(CountMinSketch.create(Funnels.integerFunnel(), 0.001, 0.01))
+        .addEqualityGroup(CountMinSketch.create(Funnels.integerFunnel(), 0.01, 0.001))
+        .addEqualityGroup(CountMinSketch.create(Funnels.longFunnel(), 0.01, 0.01))
+        .testEquals();
+  }
+
+  public void testPreconditions() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> CountMinSketch.create(Funnels.integerFunnel(), 0.0, 0.01));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> CountMinSketch.create(Funnels.integerFunnel(), 1.0, 0.01));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> CountMinSketch.create(Funnels.integerFunnel(), 0.01, 0.0));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> CountMinSketch.create(Funnels.integerFunnel(), 0.01, 1.0));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> CountMinSketch.create(Funnels.integerFunnel(), 1e-12, 0.01));
+  }
+
+  public void testNullPointers() {
+    NullPointerTester tester = new NullPointerTester();
+    tester.testAllPublicInstanceMethods(
+        CountMinSketch.create(Funnels.unencodedCharsFunnel(), 0.01, 0.01));
+    tester.testAllPublicStaticMethods(CountMinSketch.class);
+  }
+
+  public void testSerialization() {
+    CountMinSketch<Integer> sketch = CountMinSketch.create(Funnels.integerFunnel(), 0.01, 0.01);
+    sketch.add(1, 10);
+    CountMinSketch<Integer> copy = SerializableTester.reserializeAndAssert(sketch);
+    assertEquals(10, copy.totalCount());
+  }
+
+  public void testCustomSerialization() throws Exception {
+    CountMinSketch<Integer> sketch = CountMinSketch.create(Funnels.integerFunnel(), 0.01, 0.01);
+    for (int i = 0; i < 100; i++) {
+      sketch.add(i, i);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    sketch.writeTo(out);
+    CountMinSketch<Integer> read =
+        CountMinSketch.readFrom(
+            new ByteArrayInputStream(out.toByteArray()), Funnels.integerFunnel());
+    assertEquals(sketch, read);
+    assertEquals(sketch.totalCount(), read.totalCount());
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.Range;
+import com.google.common.testing.EqualsTester;
+import com.google.common.testing.NullPointerTester;
+import com.google.common.testing.SerializableTester;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import junit.framework.TestCase;
+
+/** Tests for {@link CountingBloomFilter}. */
+public class CountingBloomFilterTest extends TestCase {
+
+  public void testPutAndRemove() {
+    CountingBloomFilter<Integer> filter =
+        CountingBloomFilter.create(Funnels.integerFunnel(), 1000, 0.01);
+    assertFalse(filter.mightContain(1));
+    assertFalse(filter.remove(1));
+
+    assertTrue(filter.put(1));
+    assertFalse(filter.put(1));
+    assertTrue(filter.mightContain(1));
+
+    assertTrue(filter.remove(1));
+    assertTrue(filter.mightContain(1));
+    assertTrue(filter.remove(1));
+    assertFalse(filter.mightContain(1));
+    assertEquals(CountingBloomFilter.create(Funnels.integerFunnel(), 1000, 0.01), filter);
+  }
+
+  public void testRemove_keepsOtherElements() {
+    int numInsertions = 10_000;
+    CountingBloomFilter<Integer> filter =
+        CountingBloomFilter.create(Funnels.integerFunnel(), numInsertions, 0.01);
+    for (int i = 0; i < numInsertions; i++) {
+      filter.put(i);
+    }
+    for (int i = 0; i < numInsertions; i += 2) {
+      assertTrue(filter.remove(i));
+    }
+    int stillPresent = 0;
+    for (int i = 0; i < numInsertions; i++) {
+      if (i % 2 == 1) {
+        assertTrue(filter.mightContain(i));
+      } else if (filter.mightContain(i)) {
+        stillPresent++;
+      }
+    }
+    assertThat(stillPresent).isLessThan(numInsertions / 2 / 50);
+    assertThat(filter.approximateElementCount())
+        .isIn(Range.closed((long) (numInsertions / 2 * 0.95), (long) (numInsertions / 2 * 1.05)));
+  }
+
+  public void testExpectedFpp() {
+    int numInsertions = 10_000;
+    CountingBloomFilter<Integer> filter =
+        CountingBloomFilter.create(Funnels.integerFunnel(), numInsertions, 0.03);
+    assertEquals(0.0, filter.expectedFpp());
+    for (int i = 0; i < numInsertions; i++) {
+      filter.put(i);
+    }
+    int falsePositives = 0;
+    for (int i = numInsertions; i < 2 * numInsertions; i++) {
+      if (filter.mightContain(i)) {
+        falsePositives++;
+      }
+    }
+    assertEquals((double) falsePositives / numInsertions, filter.expectedFpp(), 0.01);
+    assertEquals(0.03, filter.expectedFpp(), 0.01);
+  }
+
+  public void testSaturatedCounter() {
+    CountingBloomFilter<Integer> filter =
+        CountingBloomFilter.create(Funnels.integerFunnel(), 1, 0.5);
+    for (int i = 0; i < 20; i++) {
+      filter.put(1);
+    }
+    for (int i = 0; i < 20; i++) {
+      filter.remove(1);
+    }
+    // the counters stuck at their maximum, so the element can no longer be removed
+    assertTrue(filter.mightContain(1));
+  }
+
+  public void testCopy() {
+    CountingBloomFilter<Integer> original =
+        CountingBloomFilter.create(Funnels.integerFunnel(), 100, 0.01);
+    original.put(1);
+    CountingBloomFilter<Integer> copy = original.copy();
+    assertEquals(original, copy);
+    copy.remove(1);
+    assertTrue(original.mightContain(1));
+    assertFalse(copy.mightContain(1));
+  }
+
+  public void testEquals() {
+    CountingBloomFilter<Integer> a = CountingBloomFilter.create(Funnels.integerFunnel(), 100, 0.01);
+    a.put(1);
+    CountingBloomFilter<Integer> b = CountingBloomFilter.create(Funnels.integerFunnel(), 100, 0.01);
+    b.put(1);
+    new EqualsTester()
+        .addEqualityGroup(a, b)
+        .addEqualityGroup(CountingBloomFilter.create(Funnels.integerFunnel(), 100, 0.01))
+        .addEqualityGroup(CountingBloomFilter.create(Funnels.integerFunnel(), 100, 0.001))
+        .addEqualityGroup(CountingBloomFilter.create(Funnels.longFunnel(), 100, 0.01))
+        .testEquals();
+  }
+
+  public void testPreconditions() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> CountingBloomFilter.create(Funnels.integerFunnel(), -1, 0.01));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> CountingBloomFilter.create(Funnels.integerFunnel(), 1, 0.0));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> CountingBloomFilter.create(Funnels.integerFunnel(), 1, 1.0));
+  }
+
+  public void testNullPointers() {
+    NullPointerTester tester = new NullPointerTester();
+    tester.testAllPublicInstanceMethods(
+        CountingBloomFilter.create(Funnels.unencodedCharsFunnel(), 100, 0.01));
+    tester.testAllPublicStaticMethods(CountingBloomFilter.class);
+  }
+
+  public void testSerialization() {
+    CountingBloomFilter<Integer> filter =
+        CountingBloomFilter.create(Funnels.integerFunnel(), 100, 0.01);
+    for (int i = 0; i < 10; i++) {
+      filter.put(i);
+    }
+    CountingBloomFilter<Integer> copy = SerializableTester.reserializeAndAssert(filter);
+    assertTrue(copy.remove(3));
+    assertEquals(filter.expectedFpp(), copy.expectedFpp(), 0.01);
+  }
+
+  public void testCustomSerialization() throws Exception {
+    CountingBloomFilter<Integer> filter =
+        CountingBloomFilter.create(Funnels.integerFunnel(), 100, 0.01);
+    for (int i = 0; i < 10; i++) {
+      filter.put(i);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    filter.writeTo(out);
+    CountingBloomFilter<Integer> read =
+        CountingBloomFilter.readFrom(
+            new ByteArrayInputStream(out.toByteArray()), Funnels.integerFunnel());
+    assertEquals(filter, read);
+    assertEquals(filter.expectedFpp(), read.expectedFpp());
+  }
+
+  public void testReadFrom_bloomFilter() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BloomFilter.createBlocked(Funnels.integerFunnel(), 100, 0.01).writeTo(out);
+    assertThrows(
+        IOException.class,
+        () ->
+            CountingBloomFilter.readFrom(
+                new ByteArrayInputStream(out.toByteArray()), Funnels.integerFunnel()));
+  }
+
+  public void testReadFrom_sameStrategyBloomFilter() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BloomFilter.create(Funnels.integerFunnel(), 100, 0.01).writeTo(out);
+    assertThrows(
+        IOException.class,
+        () ->
+            CountingBloomFilter.readFrom(
+                new ByteArrayInputStream(out.toByteArray()), Funnels.integerFunnel()));
+  }
+
+  public void testBloomFilterReadFrom_countingBloomFilter() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    CountingBloomFilter.create(Funnels.integerFunnel(), 100, 0.01).writeTo(out);
+    assertThrows(
+        IOException.class,
+        () ->
+            BloomFilter.readFrom(
+                new ByteArrayInputStream(out.toByteArray()), Funnels.integerFunnel()));
+  }
+}
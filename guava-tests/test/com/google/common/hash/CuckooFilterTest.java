@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.testing.EqualsTester;
+import com.google.common.testing.NullPointerTester;
+import com.google.common.testing.SerializableTester;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import junit.framework.TestCase;
+
+/** Tests for {@link CuckooFilter}. */
+public class CuckooFilterTest extends TestCase {
+
+  public void testPutAndDelete() {
+    CuckooFilter<Integer> filter = CuckooFilter.create(Funnels.integerFunnel(), 1000, 0.001);
+    assertFalse(filter.mightContain(1));
+    assertFalse(filter.delete(1));
+
+    assertTrue(filter.put(1));
+    assertTrue(filter.put(1));
+    assertTrue(filter.mightContain(1));
+    assertEquals(2, filter.approximateElementCount());
+
+    assertTrue(filter.delete(1));
+    assertTrue(filter.mightContain(1));
+    assertTrue(filter.delete(1));
+    assertFalse(filter.mightContain(1));
+    assertEquals(0, filter.approximateElementCount());
+    assertEquals(CuckooFilter.create(Funnels.integerFunnel(), 1000, 0.001), filter);
+  }
+
+  public void testFpp() {
+    int numInsertions = 100_000;
+    double fpp = 0.001;
+    CuckooFilter<Integer> filter = CuckooFilter.create(Funnels.integerFunnel(), numInsertions, fpp);
+    assertEquals(13, filter.fingerprintBits());
+    for (int i = 0; i < numInsertions; i++) {
+      assertTrue(filter.put(i));
+    }
+    for (int i = 0; i < numInsertions; i++) {
+      assertTrue(filter.mightContain(i));
+    }
+    assertEquals(numInsertions, filter.approximateElementCount());
+
+    int falsePositives = 0;
+    for (int i = numInsertions; i < 11 * numInsertions; i++) {
+      if (filter.mightContain(i)) {
+        falsePositives++;
+      }
+    }
+    double actualFpp = (double) falsePositives / (10 * numInsertions);
+    assertThat(actualFpp).isLessThan(fpp);
+    assertEquals(actualFpp, filter.expectedFpp(), 0.0002);
+  }
+
+  public void testBitSize_smallerThanBloomFilter() {
+    int numInsertions = 1_000_000;
+    for (double fpp : new double[] {1e-4, 1e-5, 1e-6, 1e-8}) {
+      CuckooFilter<Integer> cuckooFilter =
+          CuckooFilter.create(Funnels.integerFunnel(), numInsertions, fpp);
+      BloomFilter<Integer> bloomFilter =
+          BloomFilter.create(Funnels.integerFunnel(), numInsertions, fpp);
+      assertThat(cuckooFilter.bitSize()).isLessThan(bloomFilter.bitSize());
+    }
+  }
+
+  public void testPutAndDelete_fingerprintsSpanningLongs() {
+    // 13-bit fingerprints, so most longs hold part of a slot at each end
+    CuckooFilter<Integer> filter = CuckooFilter.create(Funnels.integerFunnel(), 1000, 0.001);
+    assertEquals(13, filter.fingerprintBits());
+    assertEquals(1000 / 0.9 * 13, filter.bitSize(), 64 + 4 * 13);
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(filter.put(i));
+    }
+    for (int i = 0; i < 1000; i += 2) {
+      assertTrue(filter.delete(i));
+    }
+    for (int i = 1; i < 1000; i += 2) {
+      assertTrue(filter.mightContain(i));
+    }
+    assertEquals(500, filter.approximateElementCount());
+  }
+
+  public void testDelete_keepsOtherElements() {
+    int numInsertions = 10_000;
+    CuckooFilter<Integer> filter =
+        CuckooFilter.create(Funnels.integerFunnel(), numInsertions, 0.001);
+    for (int i = 0; i < numInsertions; i++) {
+      filter.put(i);
+    }
+    for (int i = 0; i < numInsertions; i += 2) {
+      assertTrue(filter.delete(i));
+    }
+    int stillPresent = 0;
+    for (int i = 0; i < numInsertions; i++) {
+      if (i % 2 == 1) {
+        assertTrue(filter.mightContain(i));
+      } else if (filter.mightContain(i)) {
+        stillPresent++;
+      }
+    }
+    assertThat(stillPresent).isLessThan(10);
+    assertEquals(numInsertions / 2, filter.approximateElementCount());
+  }
+
+  public void testPut_full() {
+    CuckooFilter<Integer> filter = CuckooFilter.create(Funnels.integerFunnel(), 1000, 0.01);
+    int i = 0;
+    CuckooFilter<Integer> before;
+    do {
+      before = filter.copy();
+    } while (filter.put(i++));
+    i--;
+    // well past the expected insertions, up to the maximum load
+    assertThat(i).isGreaterThan(1000);
+    assertThat(i).isAtMost(1112);
+
+    // a failed insertion leaves the filter unchanged
+    assertEquals(before, filter);
+    for (int j = 0; j < i; j++) {
+      assertTrue(filter.mightContain(j));
+    }
+  }
+
+  public void testCopy() {
+    CuckooFilter<Integer> original = CuckooFilter.create(Funnels.integerFunnel(), 100, 0.01);
+    original.put(1);
+    CuckooFilter<Integer> copy = original.copy();
+    assertEquals(original, copy);
+    copy.delete(1);
+    assertTrue(original.mightContain(1));
+    assertFalse(copy.mightContain(1));
+  }
+
+  public void testEquals() {
+    CuckooFilter<Integer> a = CuckooFilter.create(Funnels.integerFunnel(), 100, 0.01);
+    a.put(1);
+    CuckooFilter<Integer> b = CuckooFilter.create(Funnels.integerFunnel(), 100, 0.01);
+    b.put(1);
+    new EqualsTester()
+        .addEqualityGroup(a, b)
+        .addEqualityGroup(CuckooFilter.create(Funnels.integerFunnel(), 100, 0.01))
+        .addEqualityGroup(CuckooFilter.create(Funnels.integerFunnel(), 100, 0.0001))
+        .addEqualityGroup(CuckooFilter.create(Funnels.integerFunnel(), 1000, 0.01))
+        .addEqualityGroup(CuckooFilter.create(Funnels.longFunnel(), 100, 0.01))
+        .testEquals();
+  }
+
+  public void testPreconditions() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> CuckooFilter.create(Funnels.integerFunnel(), -1, 0.01));
+    assertThrows(
+        IllegalArgumentException.class, () -> CuckooFilter.create(Funnels.integerFunnel(), 1, 0.0));
+    assertThrows(
+        IllegalArgumentException.class, () -> CuckooFilter.create(Funnels.integerFunnel(), 1, 1.0));
+    assertEquals(
+        32, CuckooFilter.create(Funnels.integerFunnel(), 1, Double.MIN_VALUE).fingerprintBits());
+  }
+
+  public void testNullPointers() {
+    NullPointerTester tester = new NullPointerTester();
+    tester.testAllPublicInstanceMethods(
+        CuckooFilter.create(Funnels.unencodedCharsFunnel(), 100, 0.01));
+    tester.testAllPublicStaticMethods(CuckooFilter.class);
+  }
+
+  public void testSerialization() {
+    CuckooFilter<Integer> filter = CuckooFilter.create(Funnels.integerFunnel(), 100, 0.01);
+    for (int i = 0; i < 10; i++) {
+      filter.put(i);
+    }
+    CuckooFilter<Integer> copy = SerializableTester.reserializeAndAssert(filter);
+    assertEquals(10, copy.approximateElementCount());
+    assertTrue(copy.delete(3));
+  }
+
+  public void testCustomSerialization() throws Exception {
+    CuckooFilter<Integer> filter = CuckooFilter.create(Funnels.integerFunnel(), 100, 0.00001);
+    for (int i = 0; i < 10; i++) {
+      filter.put(i);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    filter.writeTo(out);
+    CuckooFilter<Integer> read =
+        CuckooFilter.readFrom(new ByteArrayInputStream(out.toByteArray()), Funnels.integerFunnel());
+    assertEquals(filter, read);
+    assertEquals(10, read.approximateElementCount());
+    assertEquals(filter.expectedFpp(), read.expectedFpp());
+  }
+
+  public void testToCuckooFilter() {
+    CuckooFilter<Integer> filter =
+        IntStream.range(0, 1000)
+            .boxed()
+            .parallel()
+            .collect(CuckooFilter.toCuckooFilter(Funnels.integerFunnel(), 1000, 0.01));
+    assertEquals(1000, filter.approximateElementCount());
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(filter.mightContain(i));
+    }
+  }
+
+  public void testToCuckooFilter_full() {
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            IntStream.range(0, 10_000)
+                .boxed()
+                .collect(CuckooFilter.toCuckooFilter(Funnels.integerFunnel(), 1000, 0.01)));
+  }
+
+  public void testConcurrentLookups() throws Exception {
+    for (int round = 0; round < 30; round++) {
+      checkConcurrentLookups();
+    }
+  }
+
+  private static void checkConcurrentLookups() throws Exception {
+    // Fill the filter most of the way first, so that later insertions move the fingerprints of
+    // the elements being looked up.
+    int numInsertions = 20_000;
+    CuckooFilter<Integer> filter =
+        CuckooFilter.create(Funnels.integerFunnel(), numInsertions, 0.01);
+    int prefilled = numInsertions * 3 / 4;
+    for (int i = 0; i < prefilled; i++) {
+      assertTrue(filter.put(i));
+    }
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicBoolean falseNegative = new AtomicBoolean();
+    List<Thread> readers = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      Thread reader =
+          new Thread(
+              () -> {
+                while (!done.get()) {
+                  for (int i = 0; i < prefilled; i++) {
+                    if (!filter.mightContain(i)) {
+                      falseNegative.set(true);
+                    }
+                  }
+                }
+              });
+      reader.start();
+      readers.add(reader);
+    }
+    for (int i = prefilled; filter.put(i); i++) {}
+    done.set(true);
+    for (Thread reader : readers) {
+      reader.join();
+    }
+    assertFalse(falseNegative.get());
+  }
+}
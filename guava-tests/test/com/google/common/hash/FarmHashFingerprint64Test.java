@@ -147,6 +147,10 @@ public class FarmHashFingerprint64Test extends TestCase {
   }
 
   /** Convenience method to compute a fingerprint on a subset of a byte array. */
+  public void testHashToLong() {
+    HashTestUtils.assertHashToLongEquivalence(HASH_FN);
+  }
+
   private static long fingerprint(byte[] bytes, int length) {
     return HASH_FN.hashBytes(bytes, 0, length).asLong();
   }
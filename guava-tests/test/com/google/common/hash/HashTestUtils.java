@@ -20,6 +20,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
 import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.google.common.primitives.Ints;
@@ -478,6 +479,47 @@ final class HashTestUtils {
     assertHashBytesThrowsCorrectExceptions(hashFunction);
     assertIndependentHashers(hashFunction);
     assertShortcutsAreEquivalent(hashFunction, 512);
+    assertHashToLongEquivalence(hashFunction);
+  }
+
+  /**
+   * Checks that the {@code hashToLong} methods agree with {@code padToLong} of the corresponding
+   * {@code HashCode} methods, for all short input lengths and all kinds of buffers.
+   */
+  static void assertHashToLongEquivalence(HashFunction hashFunction) {
+    Random random = new Random(1L);
+    for (int i = 0; i < 100; i++) {
+      long l = random.nextLong();
+      assertEquals(hashFunction.hashLong(l).padToLong(), hashFunction.hashToLong(l));
+    }
+    for (int len = 0; len < 100; len++) {
+      byte[] bytes = new byte[len + 10];
+      random.nextBytes(bytes);
+      int off = random.nextInt(10);
+      long expected = hashFunction.hashBytes(bytes, off, len).padToLong();
+      assertEquals(expected, hashFunction.hashToLong(bytes, off, len));
+
+      ByteBuffer heap = ByteBuffer.wrap(bytes, off, len).slice();
+      ByteBuffer direct = ByteBuffer.allocateDirect(len);
+      direct.put(bytes, off, len).flip();
+      for (ByteBuffer buffer :
+          ImmutableList.of(
+              heap,
+              heap.duplicate().order(ByteOrder.LITTLE_ENDIAN),
+              heap.asReadOnlyBuffer(),
+              direct,
+              direct.duplicate().order(ByteOrder.LITTLE_ENDIAN))) {
+        ByteOrder order = buffer.order();
+        assertEquals(expected, hashFunction.hashToLong(buffer));
+        assertFalse(buffer.hasRemaining());
+        assertEquals(order, buffer.order());
+      }
+    }
+    try {
+      hashFunction.hashToLong(new byte[128], 64, 256 /* too long len */);
+      Assert.fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
   }
 
   static void assertHashByteBufferInvariants(HashFunction hashFunction) {
@@ -135,6 +135,33 @@ public class HashingTest extends TestCase {
     assertEquals("Hashing.fingerprint2011()", Hashing.fingerprint2011().toString());
   }
 
+  public void testXxHash64() {
+    HashTestUtils.check2BitAvalanche(Hashing.xxHash64(), 250, 0.20);
+    HashTestUtils.checkAvalanche(Hashing.xxHash64(), 250, 0.17);
+    HashTestUtils.checkNo2BitCharacteristics(Hashing.xxHash64());
+    HashTestUtils.checkNoFunnels(Hashing.xxHash64());
+    HashTestUtils.assertInvariants(Hashing.xxHash64());
+    assertEquals("Hashing.xxHash64(0)", Hashing.xxHash64().toString());
+  }
+
+  public void testXxh3_64() {
+    HashTestUtils.check2BitAvalanche(Hashing.xxh3_64(), 250, 0.20);
+    HashTestUtils.checkAvalanche(Hashing.xxh3_64(), 250, 0.17);
+    HashTestUtils.checkNo2BitCharacteristics(Hashing.xxh3_64());
+    HashTestUtils.checkNoFunnels(Hashing.xxh3_64());
+    HashTestUtils.assertInvariants(Hashing.xxh3_64());
+    assertEquals("Hashing.xxh3_64()", Hashing.xxh3_64().toString());
+  }
+
+  public void testXxh3_128() {
+    HashTestUtils.check2BitAvalanche(Hashing.xxh3_128(), 250, 0.20);
+    HashTestUtils.checkAvalanche(Hashing.xxh3_128(), 250, 0.17);
+    HashTestUtils.checkNo2BitCharacteristics(Hashing.xxh3_128());
+    HashTestUtils.checkNoFunnels(Hashing.xxh3_128());
+    HashTestUtils.assertInvariants(Hashing.xxh3_128());
+    assertEquals("Hashing.xxh3_128()", Hashing.xxh3_128().toString());
+  }
+
   @AndroidIncompatible // slow TODO(cpovirk): Maybe just reduce iterations under Android.
   public void testGoodFastHash() {
     for (int i = 1; i < 200; i += 17) {
@@ -256,6 +283,57 @@ public class HashingTest extends TestCase {
   private static final double MAX_PERCENT_SPREAD = 0.5;
   private static final long RANDOM_SEED = 177L;
 
+  public void testCrc32cCombine() {
+    Random random = new Random(0);
+    for (int length = 0; length < 300; length++) {
+      byte[] bytes = new byte[length];
+      random.nextBytes(bytes);
+      HashCode expected = Hashing.crc32c().hashBytes(bytes);
+      for (int split = 0; split <= length; split++) {
+        HashCode crcA = Hashing.crc32c().hashBytes(bytes, 0, split);
+        HashCode crcB = Hashing.crc32c().hashBytes(bytes, split, length - split);
+        assertEquals(expected, Hashing.crc32cCombine(crcA, crcB, length - split));
+      }
+    }
+  }
+
+  public void testCrc32cCombine_longSecondPart() {
+    byte[] bytes = new byte[(1 << 20) + 13];
+    new Random(0).nextBytes(bytes);
+    HashCode crcA = Hashing.crc32c().hashBytes(bytes, 0, 7);
+    HashCode crcB = Hashing.crc32c().hashBytes(bytes, 7, bytes.length - 7);
+    assertEquals(
+        Hashing.crc32c().hashBytes(bytes), Hashing.crc32cCombine(crcA, crcB, bytes.length - 7));
+  }
+
+  public void testCrc32cCombine_hugeLengths() {
+    // Lengths past 2^29 bytes use powers of x beyond x^(2^31), which cycle with period 31 rather
+    // than 32 for the CRC32C polynomial. Combining is associative, which checks them without
+    // hashing that much data.
+    HashCode a = Hashing.crc32c().hashInt(1);
+    HashCode b = Hashing.crc32c().hashInt(2);
+    HashCode c = Hashing.crc32c().hashInt(3);
+    long[] lengths = {1, (1L << 29) + 5, (1L << 30) + 12345, (1L << 31) - 7, (1L << 40) + 1};
+    for (long n : lengths) {
+      for (long m : lengths) {
+        assertEquals(
+            Hashing.crc32cCombine(Hashing.crc32cCombine(a, b, n), c, m),
+            Hashing.crc32cCombine(a, Hashing.crc32cCombine(b, c, m), n + m));
+      }
+    }
+  }
+
+  public void testCrc32cCombine_illegalArguments() {
+    HashCode crc = HashCode.fromInt(0);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> Hashing.crc32cCombine(HashCode.fromLong(0), crc, 1));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> Hashing.crc32cCombine(crc, HashCode.fromLong(0), 1));
+    assertThrows(IllegalArgumentException.class, () -> Hashing.crc32cCombine(crc, crc, -1));
+  }
+
   public void testCombineOrdered_empty() {
     assertThrows(
         IllegalArgumentException.class,
@@ -499,6 +577,15 @@ public class HashingTest extends TestCase {
           .put(Hashing.fingerprint2011(), EMPTY_STRING, "e365a64a907cad23")
           .put(Hashing.fingerprint2011(), TQBFJOTLD, "c9688c84e813b089")
           .put(Hashing.fingerprint2011(), TQBFJOTLDP, "a714d70f1d569cd0")
+          .put(Hashing.xxHash64(), EMPTY_STRING, "99e9d85137db46ef")
+          .put(Hashing.xxHash64(), TQBFJOTLD, "bc71da1f362d240b")
+          .put(Hashing.xxHash64(), TQBFJOTLDP, "73ad51577033ad44")
+          .put(Hashing.xxh3_64(), EMPTY_STRING, "c294d3380580062d")
+          .put(Hashing.xxh3_64(), TQBFJOTLD, "65b38f41a5197dce")
+          .put(Hashing.xxh3_64(), TQBFJOTLDP, "19db515d22e014b6")
+          .put(Hashing.xxh3_128(), EMPTY_STRING, "7f498d4624c30160d8984701d306aa99")
+          .put(Hashing.xxh3_128(), TQBFJOTLD, "51768a3a2ecca124fae7a35c2050d6dd")
+          .put(Hashing.xxh3_128(), TQBFJOTLDP, "3cc729b82de0f83f156a3e3195826ad0")
           .build();
 
   public void testAllHashFunctionsHaveKnownHashes() throws Exception {
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.testing.NullPointerTester;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/** Tests for {@link HeavyHitters}. */
+public class HeavyHittersTest extends TestCase {
+
+  public void testTopK() {
+    HeavyHitters<Integer> heavyHitters =
+        HeavyHitters.create(Funnels.integerFunnel(), 3, 0.001, 0.01);
+    assertThat(heavyHitters.topK()).isEmpty();
+    heavyHitters.add(1, 10);
+    heavyHitters.add(2, 20);
+    heavyHitters.add(3, 5);
+    heavyHitters.add(4, 30);
+    heavyHitters.add(5, 1);
+    assertThat(heavyHitters.topK()).containsExactly(4, 30L, 2, 20L, 1, 10L).inOrder();
+    assertEquals(66, heavyHitters.totalCount());
+    assertEquals(5, heavyHitters.estimateCount(3));
+  }
+
+  public void testTopK_stream() {
+    int k = 10;
+    HeavyHitters<Integer> heavyHitters =
+        HeavyHitters.create(Funnels.integerFunnel(), k, 0.001, 0.01);
+    // element i occurs about 1_000_000 / i^2 times, so elements 1 to k are the most frequent,
+    // each by a wide margin over the next, among up to a million distinct elements
+    Random random = new Random(0);
+    for (int n = 0; n < 1_000_000; n++) {
+      int element = (int) Math.min(1_000_000, 1 / random.nextDouble());
+      heavyHitters.add(element);
+    }
+    ImmutableMap<Integer, Long> topK = heavyHitters.topK();
+    assertThat(topK).hasSize(k);
+    assertThat(topK.keySet()).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10).inOrder();
+  }
+
+  public void testTopK_newHeavyHitter() {
+    HeavyHitters<Integer> heavyHitters =
+        HeavyHitters.create(Funnels.integerFunnel(), 2, 0.001, 0.01);
+    for (int i = 0; i < 1000; i++) {
+      heavyHitters.add(i, 2);
+    }
+    // an element that starts out rare, after the threshold has risen
+    for (int i = 0; i < 10; i++) {
+      heavyHitters.add(-1);
+    }
+    heavyHitters.add(-2, 100);
+    assertThat(heavyHitters.topK().keySet()).containsExactly(-2, -1).inOrder();
+  }
+
+  public void testPreconditions() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> HeavyHitters.create(Funnels.integerFunnel(), 0, 0.01, 0.01));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> HeavyHitters.create(Funnels.integerFunnel(), 1, 0.0, 0.01));
+    HeavyHitters<Integer> heavyHitters =
+        HeavyHitters.create(Funnels.integerFunnel(), 1, 0.01, 0.01);
+    assertThrows(IllegalArgumentException.class, () -> heavyHitters.add(1, -1));
+  }
+
+  public void testNullPointers() {
+    NullPointerTester tester = new NullPointerTester();
+    tester.testAllPublicInstanceMethods(
+        HeavyHitters.create(Funnels.unencodedCharsFunnel(), 10, 0.01, 0.01));
+    tester.testAllPublicStaticMethods(HeavyHitters.class);
+  }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.testing.EqualsTester;
+import com.google.common.testing.NullPointerTester;
+import com.google.common.testing.SerializableTester;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.stream.IntStream;
+import junit.framework.TestCase;
+
+/** Tests for {@link HyperLogLog}. */
+public class HyperLogLogTest extends TestCase {
+
+  public void testEmpty() {
+    HyperLogLog<Integer> sketch = HyperLogLog.create(Funnels.integerFunnel());
+    assertEquals(0, sketch.approximateElementCount());
+    assertTrue(sketch.isSparse());
+  }
+
+  public void testPut() {
+    HyperLogLog<Integer> sketch = HyperLogLog.create(Funnels.integerFunnel());
+    assertTrue(sketch.put(1));
+    assertFalse(sketch.put(1));
+    assertEquals(1, sketch.approximateElementCount());
+  }
+
+  public void testSparse_nearlyExact() {
+    HyperLogLog<Integer> sketch = HyperLogLog.create(Funnels.integerFunnel());
+    for (int i = 0; i < 1000; i++) {
+      sketch.put(i);
+      sketch.put(i);
+    }
+    assertTrue(sketch.isSparse());
+    assertEquals(1000, sketch.approximateElementCount(), 2);
+  }
+
+  public void testAccuracy() {
+    for (int precision : new int[] {HyperLogLog.MIN_PRECISION, 10, 14, HyperLogLog.MAX_PRECISION}) {
+      HyperLogLog<Integer> sketch = HyperLogLog.create(Funnels.integerFunnel(), precision);
+      int n = 0;
+      for (int cardinality : new int[] {100, 1000, 10_000, 100_000, 1_000_000}) {
+        for (; n < cardinality; n++) {
+          sketch.put(n);
+        }
+        // four standard errors, so that this is deterministic in practice
+        assertEquals(
+            "precision " + precision + ", cardinality " + cardinality,
+            cardinality,
+            sketch.approximateElementCount(),
+            4 * sketch.relativeStandardError() * cardinality);
+      }
+      assertFalse(sketch.isSparse());
+    }
+  }
+
+  public void testEstimate_smallAndLargeCardinalities() {
+    // all registers are zero
+    int[] histogram = new int[Long.SIZE - 4 + 2];
+    histogram[0] = 16;
+    assertEquals(0.0, HyperLogLog.estimate(histogram, 4));
+    // all registers have the largest value
+    histogram[0] = 0;
+    histogram[histogram.length - 1] = 16;
+    assertThat(HyperLogLog.estimate(histogram, 4)).isGreaterThan(1e18);
+  }
+
+  public void testPutAll() {
+    HyperLogLog<Integer> a = HyperLogLog.create(Funnels.integerFunnel());
+    HyperLogLog<Integer> b = HyperLogLog.create(Funnels.integerFunnel());
+    HyperLogLog<Integer> union = HyperLogLog.create(Funnels.integerFunnel());
+    for (int i = 0; i < 100; i++) {
+      a.put(i);
+      union.put(i);
+    }
+    for (int i = 50; i < 150; i++) {
+      b.put(i);
+      union.put(i);
+    }
+    assertTrue(a.isCompatible(b));
+    a.putAll(b);
+    assertTrue(a.isSparse());
+    assertEquals(union, a);
+    assertEquals(150, a.approximateElementCount());
+  }
+
+  public void testPutAll_sparseAndDense() {
+    HyperLogLog<Integer> sparse = HyperLogLog.create(Funnels.integerFunnel(), 10);
+    HyperLogLog<Integer> dense = HyperLogLog.create(Funnels.integerFunnel(), 10);
+    HyperLogLog<Integer> union = HyperLogLog.create(Funnels.integerFunnel(), 10);
+    for (int i = 0; i < 100; i++) {
+      sparse.put(-i);
+      union.put(-i);
+    }
+    for (int i = 0; i < 10_000; i++) {
+      dense.put(i);
+      union.put(i);
+    }
+    assertTrue(sparse.isSparse());
+    assertFalse(dense.isSparse());
+
+    HyperLogLog<Integer> sparseThenDense = sparse.copy();
+    sparseThenDense.putAll(dense);
+    assertEquals(union, sparseThenDense);
+    HyperLogLog<Integer> denseThenSparse = dense.copy();
+    denseThenSparse.putAll(sparse);
+    assertEquals(union, denseThenSparse);
+  }
+
+  public void testPutAll_incompatible() {
+    HyperLogLog<Integer> sketch = HyperLogLog.create(Funnels.integerFunnel(), 10);
+    HyperLogLog<Integer> otherPrecision = HyperLogLog.create(Funnels.integerFunnel(), 11);
+    assertFalse(sketch.isCompatible(otherPrecision));
+    assertThrows(IllegalArgumentException.class, () -> sketch.putAll(otherPrecision));
+  }
+
+  public void testCopy() {
+    HyperLogLog<Integer> original = HyperLogLog.create(Funnels.integerFunnel());
+    original.put(1);
+    HyperLogLog<Integer> copy = original.copy();
+    assertEquals(original, copy);
+    copy.put(2);
+    assertEquals(1, original.approximateElementCount());
+    assertEquals(2, copy.approximateElementCount());
+  }
+
+  public void testEquals() {
+    HyperLogLog<Integer> a = HyperLogLog.create(Funnels.integerFunnel());
+    a.put(1);
+    HyperLogLog<Integer> b = HyperLogLog.create(Funnels.integerFunnel());
+    b.put(1);
+    new EqualsTester()
+        .addEqualityGroup(a, b)
+        .addEqualityGroup(HyperLogLog.create(Funnels.integerFunnel()))
+        .addEqualityGroup(HyperLogLog.create(Funnels.integerFunnel(), 10))
+        .addEqualityGroup(HyperLogLog.create(Funnels.longFunnel()))
+        .testEquals();
+  }
+
+  public void testPreconditions() {
+    assertThrows(
+        IllegalArgumentException.class, () -> HyperLogLog.create(Funnels.integerFunnel(), 3));
+    assertThrows(
+        IllegalArgumentException.class, () -> HyperLogLog.create(Funnels.integerFunnel(), 19));
+  }
+
+  public void testNullPointers() {
+    NullPointerTester tester = new NullPointerTester();
+    tester.testAllPublicInstanceMethods(HyperLogLog.create(Funnels.unencodedCharsFunnel()));
+    tester.testAllPublicStaticMethods(HyperLogLog.class);
+  }
+
+  public void testSerialization() {
+    HyperLogLog<Integer> sparse = HyperLogLog.create(Funnels.integerFunnel(), 10);
+    for (int i = 0; i < 10; i++) {
+      sparse.put(i);
+    }
+    SerializableTester.reserializeAndAssert(sparse);
+    HyperLogLog<Integer> dense = HyperLogLog.create(Funnels.integerFunnel(), 10);
+    for (int i = 0; i < 1000; i++) {
+      dense.put(i);
+    }
+    SerializableTester.reserializeAndAssert(dense);
+  }
+
+  public void testCustomSerialization() throws Exception {
+    for (int cardinality : new int[] {0, 10, 1000, 100_000}) {
+      HyperLogLog<Integer> sketch = HyperLogLog.create(Funnels.integerFunnel(), 12);
+      for (int i = 0; i < cardinality; i++) {
+        sketch.put(i);
+      }
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      sketch.writeTo(out);
+      if (!sketch.isSparse()) {
+        assertEquals(2 + (1 << 12) * 6 / 8, out.size());
+      }
+      HyperLogLog<Integer> read =
+          HyperLogLog.readFrom(
+              new ByteArrayInputStream(out.toByteArray()), Funnels.integerFunnel());
+      assertEquals(sketch, read);
+      assertEquals(sketch.approximateElementCount(), read.approximateElementCount());
+    }
+  }
+
+  public void testCustomSerialization_invalid() {
+    assertThrows(
+        IOException.class,
+        () ->
+            HyperLogLog.readFrom(
+                new ByteArrayInputStream(new byte[] {30, 1}), Funnels.integerFunnel()));
+    assertThrows(
+        IOException.class,
+        () ->
+            HyperLogLog.readFrom(
+                new ByteArrayInputStream(new byte[] {14, 2}), Funnels.integerFunnel()));
+    assertThrows(
+        IOException.class,
+        () ->
+            HyperLogLog.readFrom(
+                new ByteArrayInputStream(new byte[] {14, 1, 0}), Funnels.integerFunnel()));
+  }
+
+  public void testToHyperLogLog() {
+    HyperLogLog<Integer> sketch =
+        IntStream.range(0, 100_000)
+            .boxed()
+            .parallel()
+            .collect(HyperLogLog.toHyperLogLog(Funnels.integerFunnel(), 14));
+    HyperLogLog<Integer> expected = HyperLogLog.create(Funnels.integerFunnel(), 14);
+    for (int i = 0; i < 100_000; i++) {
+      expected.put(i);
+    }
+    assertEquals(expected, sketch);
+  }
+}
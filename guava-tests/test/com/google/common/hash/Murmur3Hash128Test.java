@@ -22,6 +22,7 @@ import com.google.common.base.Charsets;
 import com.google.common.hash.HashTestUtils.HashFn;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Random;
 import junit.framework.TestCase;
 
 /** Tests for {@link Murmur3_128HashFunction}. */
@@ -78,4 +79,23 @@ public class Murmur3Hash128Test extends TestCase {
   public void testInvariants() {
     HashTestUtils.assertInvariants(murmur3_128());
   }
+
+  public void testReusableHasher() {
+    Murmur3_128HashFunction.Murmur3_128Hasher hasher =
+        new Murmur3_128HashFunction(42).newReusableHasher();
+    Random random = new Random(0);
+    for (int length = 0; length < 100; length++) {
+      byte[] input = new byte[length];
+      random.nextBytes(input);
+      hasher.reset();
+      hasher.putBytes(input);
+      hasher.finish();
+
+      ByteBuffer expected =
+          ByteBuffer.wrap(murmur3_128(42).hashBytes(input).asBytes())
+              .order(ByteOrder.LITTLE_ENDIAN);
+      assertEquals(expected.getLong(), hasher.h1());
+      assertEquals(expected.getLong(), hasher.h2());
+    }
+  }
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.testing.EqualsTester;
+import com.google.common.testing.NullPointerTester;
+import com.google.common.testing.SerializableTester;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import junit.framework.TestCase;
+
+/** Tests for {@link ScalableBloomFilter}. */
+public class ScalableBloomFilterTest extends TestCase {
+
+  public void testGrowsAndKeepsFpp() {
+    int initialExpectedInsertions = 1000;
+    int numInsertions = 100 * initialExpectedInsertions;
+    double fpp = 0.01;
+    ScalableBloomFilter<Integer> filter =
+        ScalableBloomFilter.create(Funnels.integerFunnel(), initialExpectedInsertions, fpp);
+    assertEquals(1, filter.subFilterCount());
+
+    for (int i = 0; i < numInsertions; i++) {
+      filter.put(i);
+    }
+    for (int i = 0; i < numInsertions; i++) {
+      assertTrue(filter.mightContain(i));
+    }
+    // 1000 + 2000 + ... + 64000 < 100000 < 1000 + 2000 + ... + 128000
+    assertEquals(7, filter.subFilterCount());
+
+    int falsePositives = 0;
+    for (int i = numInsertions; i < 2 * numInsertions; i++) {
+      if (filter.mightContain(i)) {
+        falsePositives++;
+      }
+    }
+    assertThat((double) falsePositives / numInsertions).isLessThan(fpp);
+    assertThat(filter.expectedFpp()).isLessThan(fpp);
+    assertThat(filter.approximateElementCount()).isAtLeast((long) (numInsertions * 0.97));
+    assertThat(filter.approximateElementCount()).isAtMost((long) (numInsertions * 1.03));
+  }
+
+  public void testPut_returnValue() {
+    ScalableBloomFilter<Integer> filter =
+        ScalableBloomFilter.create(Funnels.integerFunnel(), 10, 0.01);
+    assertTrue(filter.put(1));
+    assertFalse(filter.put(1));
+  }
+
+  public void testPut_duplicatesDontGrow() {
+    ScalableBloomFilter<Integer> filter =
+        ScalableBloomFilter.create(Funnels.integerFunnel(), 10, 0.01);
+    for (int i = 0; i < 1000; i++) {
+      filter.put(i % 5);
+    }
+    assertEquals(1, filter.subFilterCount());
+  }
+
+  public void testCopy() {
+    ScalableBloomFilter<Integer> original =
+        ScalableBloomFilter.create(Funnels.integerFunnel(), 10, 0.01);
+    for (int i = 0; i < 20; i++) {
+      original.put(i);
+    }
+    ScalableBloomFilter<Integer> copy = original.copy();
+    assertEquals(original, copy);
+    copy.put(100);
+    assertFalse(original.mightContain(100));
+  }
+
+  public void testEquals() {
+    ScalableBloomFilter<Integer> a = ScalableBloomFilter.create(Funnels.integerFunnel(), 10, 0.01);
+    ScalableBloomFilter<Integer> b = ScalableBloomFilter.create(Funnels.integerFunnel(), 10, 0.01);
+    a.put(1);
+    b.put(1);
+    ScalableBloomFilter<Integer> grown =
+        ScalableBloomFilter.create(Funnels.integerFunnel(), 10, 0.01);
+    for (int i = 0; i < 20; i++) {
+      grown.put(i);
+    }
+    new EqualsTester()
+        .addEqualityGroup(a, b)
+        .addEqualityGroup(ScalableBloomFilter.create(Funnels.integerFunnel(), 10, 0.01))
+        .addEqualityGroup(ScalableBloomFilter.create(Funnels.integerFunnel(), 10, 0.02))
+        .addEqualityGroup(ScalableBloomFilter.create(Funnels.integerFunnel(), 11, 0.01))
+        .addEqualityGroup(grown)
+        .testEquals();
+  }
+
+  public void testPreconditions() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ScalableBloomFilter.create(Funnels.integerFunnel(), 0, 0.01));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ScalableBloomFilter.create(Funnels.integerFunnel(), 1, 0.0));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ScalableBloomFilter.create(Funnels.integerFunnel(), 1, 1.0));
+  }
+
+  public void testNullPointers() {
+    NullPointerTester tester = new NullPointerTester();
+    tester.testAllPublicInstanceMethods(
+        ScalableBloomFilter.create(Funnels.unencodedCharsFunnel(), 100, 0.01));
+    tester.testAllPublicStaticMethods(ScalableBloomFilter.class);
+  }
+
+  public void testSerialization() {
+    ScalableBloomFilter<Integer> filter =
+        ScalableBloomFilter.create(Funnels.integerFunnel(), 10, 0.01);
+    for (int i = 0; i < 25; i++) {
+      filter.put(i);
+    }
+    ScalableBloomFilter<Integer> copy = SerializableTester.reserializeAndAssert(filter);
+    assertEquals(filter.subFilterCount(), copy.subFilterCount());
+
+    // the copy keeps counting insertions into its last sub-filter where the original left off
+    for (int i = 25; i < 35; i++) {
+      filter.put(i);
+      copy.put(i);
+    }
+    assertEquals(filter, copy);
+  }
+
+  public void testCustomSerialization() throws Exception {
+    ScalableBloomFilter<Integer> filter =
+        ScalableBloomFilter.create(Funnels.integerFunnel(), 10, 0.01);
+    for (int i = 0; i < 25; i++) {
+      filter.put(i);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    filter.writeTo(out);
+    ScalableBloomFilter<Integer> read =
+        ScalableBloomFilter.readFrom(
+            new ByteArrayInputStream(out.toByteArray()), Funnels.integerFunnel());
+    assertEquals(filter, read);
+    for (int i = 25; i < 35; i++) {
+      filter.put(i);
+      read.put(i);
+    }
+    assertEquals(filter, read);
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.hash;
+
+import junit.framework.TestCase;
+
+/** Unit tests for {@link XxHash64HashFunction}. */
+public class XxHash64HashFunctionTest extends TestCase {
+
+  private static final long PRIME32 = 0x9E3779B1L;
+
+  /** The sanity-check buffer of the reference implementation. */
+  static final byte[] SANITY_BUFFER = sanityBuffer(3000);
+
+  // From the reference implementation, for prefixes of SANITY_BUFFER:
+  // {length, hash with seed 0, hash with seed PRIME32}
+  private static final long[][] EXPECTED = {
+    {0, 0xEF46DB3751D8E999L, 0xAC75FDA2929B17EFL},
+    {1, 0xE934A84ADB052768L, 0x5014607643A9B4C3L},
+    {3, 0x74B65698EF6B6959L, 0x91585FAA69E67A0CL},
+    {4, 0xE244DDBCF81E29E4L, 0x9C2A66164D52EBC2L},
+    {7, 0xF47E693F2584AA3AL, 0xD95B1C3FC528E191L},
+    {8, 0xCA240B08878D6FF6L, 0x42A2317919726086L},
+    {14, 0xB89B3598E0BD0A0AL, 0x9BB5720D90B3D7F1L},
+    {31, 0xB0A1E0B773272144L, 0x0949F78362CFF163L},
+    {32, 0x91382F920A08001CL, 0x134F5CE3D4DA1311L},
+    {33, 0x840F6F0A6B922839L, 0x0CC8AF76C15890B2L},
+    {63, 0x3D49364633B19231L, 0x6E4E808497F06447L},
+    {64, 0xC1F8DC73FE9686CAL, 0x202B92C43BF1E4CBL},
+    {100, 0x6988DA507BD96A0FL, 0xAEC821CF5A925BE7L},
+    {222, 0x06CC5BD930BCEC3AL, 0x0B105469DF89AF66L},
+    {1024, 0x2E307F2FE063991AL, 0x5C94E9479691DD09L},
+  };
+
+  public void testKnownValues() {
+    for (long[] expected : EXPECTED) {
+      int length = (int) expected[0];
+      assertHash(expected[1], Hashing.xxHash64(), length);
+      assertHash(expected[2], Hashing.xxHash64(PRIME32), length);
+    }
+  }
+
+  private static void assertHash(long expected, HashFunction hashFunction, int length) {
+    String message = hashFunction + ", length " + length;
+    assertEquals(message, expected, hashFunction.hashBytes(SANITY_BUFFER, 0, length).asLong());
+    assertEquals(message, expected, hashFunction.hashToLong(SANITY_BUFFER, 0, length));
+    // the hasher processes 32-byte stripes; feed it in pieces that straddle them
+    Hasher hasher = hashFunction.newHasher();
+    for (int i = 0; i < length; i += 5) {
+      hasher.putBytes(SANITY_BUFFER, i, Math.min(5, length - i));
+    }
+    assertEquals(message, expected, hasher.hash().asLong());
+  }
+
+  public void testHashToLong_long() {
+    for (long input : new long[] {0, 1, -1, PRIME32, Long.MIN_VALUE}) {
+      assertEquals(
+          Hashing.xxHash64().hashLong(input).asLong(), Hashing.xxHash64().hashToLong(input));
+      assertEquals(
+          Hashing.xxHash64(PRIME32).hashLong(input).asLong(),
+          Hashing.xxHash64(PRIME32).hashToLong(input));
+    }
+  }
+
+  public void testEqualsAndToString() {
+    assertEquals(Hashing.xxHash64(), Hashing.xxHash64(0));
+    assertFalse(Hashing.xxHash64().equals(Hashing.xxHash64(1)));
+    assertEquals("Hashing.xxHash64(42)", Hashing.xxHash64(42).toString());
+  }
+
+  static byte[] sanityBuffer(int length) {
+    byte[] buffer = new byte[length];
+    long byteGen = PRIME32;
+    for (int i = 0; i < length; i++) {
+      buffer[i] = (byte) (byteGen >>> 56);
+      byteGen *= 0x9E3779B185EBCA87L;
+    }
+    return buffer;
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.hash.XxHash64HashFunctionTest.SANITY_BUFFER;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/** Unit tests for {@link Xxh3HashFunction}. */
+public class Xxh3HashFunctionTest extends TestCase {
+
+  // From the reference implementation, for prefixes of the sanity-check buffer:
+  // {length, XXH3_64bits, low 64 bits of XXH3_128bits, high 64 bits of XXH3_128bits}
+  private static final long[][] EXPECTED = {
+    {0, 0x2D06800538D394C2L, 0x6001C324468D497FL, 0x99AA06D3014798D8L},
+    {1, 0xC44BDFF4074EECDBL, 0xC44BDFF4074EECDBL, 0xA6CD5E9392000F6AL},
+    {2, 0x7A9978044CB8A8BBL, 0x7A9978044CB8A8BBL, 0x76750C3C7BF95668L},
+    {3, 0x3F968B83E9A87DC3L, 0x3F968B83E9A87DC3L, 0x96C9E69D71259702L},
+    {4, 0xCEB277F560083438L, 0x9ED107EEB27C98A0L, 0xB82A7C2448B34634L},
+    {6, 0x3CC50D1B34772C2CL, 0xB3670D4E3433079CL, 0x9694E719A50D5BBAL},
+    {8, 0x92731F68D8A8A634L, 0x50CF99BAD5CF962EL, 0xAC605166DCC08D79L},
+    {9, 0x56D6BD7878198283L, 0xB2039104D2F1051CL, 0x46FFF7EB3F33B11DL},
+    {12, 0x08662ADD2C628C21L, 0xAC713755E669B3AAL, 0xF0D757519DAA69F3L},
+    {16, 0x027B4CB04C597E4BL, 0xD47638BF87AC5789L, 0x06A5C500F7396F72L},
+    {17, 0x0E1175449B89E26FL, 0x38EFB512B295E427L, 0xE5399DAFC2044A09L},
+    {24, 0x6CBF7A5DC0F3B4ABL, 0xE0CD03A55C67FB66L, 0x38B743E62D36C245L},
+    {32, 0x94FF320E8376E4ABL, 0x670FA996661BF5B4L, 0x6150186E2042FED0L},
+    {33, 0x074D4144802696E4L, 0x6246F7ACF0C8E960L, 0xF3D787B7E8F05AA5L},
+    {48, 0x7DEC70F0C65E9E15L, 0x38C21D9AB227C26DL, 0x902509D02BE46121L},
+    {64, 0xDE96C1C20CCF3645L, 0xBAAC72D2BCCAD454L, 0xE0668855BEEE497BL},
+    {65, 0x3A7AD8EAB439DC7EL, 0xE44C86E2E92A5BA6L, 0x098412D12D021F10L},
+    {80, 0x343EA68F9ABB0DA5L, 0x4A8493E30E045AB1L, 0x1B99D942679B886FL},
+    {96, 0x59CD6D668D3B94A5L, 0xEAD78FFFC5D92544L, 0x59D9A99194EE1E91L},
+    {97, 0x841ABEA77038FA62L, 0x5C7C428AFE659495L, 0x247E976273D35654L},
+    {112, 0xDA9C79C5E82B6452L, 0xD9FC5736A42E238CL, 0x361B27F9AE9736D7L},
+    {128, 0xE774EFC8B7526505L, 0xE67909F8F46F8EE1L, 0x787EF7A7D8DBD6C0L},
+    {129, 0xFD683CD797A1F6F8L, 0xC9117C1E071386D3L, 0x556BB86EDA8BF18DL},
+    {160, 0xDAF28E443726DCD8L, 0x17A14D54F0EC0009L, 0x7194C95FB3E8AD9DL},
+    {195, 0x64586F630891D72FL, 0x22C90DA6224BAD51L, 0xB9F4A641EC0B3980L},
+    {240, 0xC0D6647A0E620F7EL, 0xF13E75B202DDF57DL, 0x9D788A87FF2DB6B9L},
+    {241, 0x281410FD53152172L, 0x281410FD53152172L, 0x49460F718BB2B59BL},
+    {255, 0x917C8BFDC005F818L, 0x917C8BFDC005F818L, 0x1D091BC34725BB40L},
+    {256, 0x62945C6F9A69E20AL, 0x62945C6F9A69E20AL, 0xF5EC1864384CF377L},
+    {257, 0x6E11E30AC089BE1CL, 0x6E11E30AC089BE1CL, 0x654DCA40790FEE68L},
+    {403, 0x8F23B428730C6887L, 0x8F23B428730C6887L, 0x21A8A2F2D52DCDB8L},
+    {512, 0x2670A49459B231DAL, 0x2670A49459B231DAL, 0x3ABF5EA6711E2968L},
+    {1023, 0x6E2516D2B7082F69L, 0x6E2516D2B7082F69L, 0x6E8B1C6604214328L},
+    {1024, 0x95C63C696323768EL, 0x95C63C696323768EL, 0x20CCBE01F48BC142L},
+    {1025, 0x890C433F563CA294L, 0x890C433F563CA294L, 0x556D4FD89BFD35CBL},
+    {1088, 0xDC372746BE48034FL, 0xDC372746BE48034FL, 0x86159BE24D2A9900L},
+    {2048, 0x8C9A8E3F25D392D6L, 0x8C9A8E3F25D392D6L, 0x4D222AFEA62CA944L},
+    {2049, 0xB8091341C9BA5C29L, 0xB8091341C9BA5C29L, 0xD011EC9B332500AFL},
+    {2240, 0x644826E2B5FAFEAEL, 0x644826E2B5FAFEAEL, 0xB14DE1856769C469L},
+    {2367, 0xD4771B3A18E7F2FEL, 0xD4771B3A18E7F2FEL, 0xFE8465C7BB2EC02CL},
+    {2900, 0x7B6F5EF50BDC37B6L, 0x7B6F5EF50BDC37B6L, 0x84D42DAF5AF28340L},
+  };
+
+  public void testKnownValues() {
+    for (long[] expected : EXPECTED) {
+      int length = (int) expected[0];
+      String message = "length " + length;
+      assertEquals(
+          message, expected[1], Hashing.xxh3_64().hashBytes(SANITY_BUFFER, 0, length).asLong());
+      assertEquals(message, expected[1], Hashing.xxh3_64().hashToLong(SANITY_BUFFER, 0, length));
+      HashCode hash128 = Hashing.xxh3_128().hashBytes(SANITY_BUFFER, 0, length);
+      ByteBuffer bytes = ByteBuffer.wrap(hash128.asBytes()).order(ByteOrder.LITTLE_ENDIAN);
+      assertEquals(message, expected[2], bytes.getLong());
+      assertEquals(message, expected[3], bytes.getLong());
+    }
+  }
+
+  /**
+   * The hasher buffers the input and holds back the last stripe, so check it against inputs that
+   * end on and around stripe, buffer and block boundaries, fed to it in pieces of various sizes.
+   */
+  public void testHasher() {
+    Random random = new Random(0);
+    for (HashFunction hashFunction : new HashFunction[] {Hashing.xxh3_64(), Hashing.xxh3_128()}) {
+      for (long[] expected : EXPECTED) {
+        int length = (int) expected[0];
+        HashCode hashCode = hashFunction.hashBytes(SANITY_BUFFER, 0, length);
+        for (int maxPiece : new int[] {1, 7, 64, 100, 300, 1000}) {
+          Hasher hasher = hashFunction.newHasher();
+          for (int i = 0; i < length; ) {
+            int piece = Math.min(random.nextInt(maxPiece) + 1, length - i);
+            if (piece == 1) {
+              hasher.putByte(SANITY_BUFFER[i]);
+            } else {
+              hasher.putBytes(SANITY_BUFFER, i, piece);
+            }
+            i += piece;
+          }
+          assertEquals(hashFunction + ", length " + length, hashCode, hasher.hash());
+        }
+      }
+    }
+  }
+
+  public void testHashToLong_long() {
+    for (long input : new long[] {0, 1, -1, 0x0123456789ABCDEFL, Long.MIN_VALUE}) {
+      assertEquals(Hashing.xxh3_64().hashLong(input).asLong(), Hashing.xxh3_64().hashToLong(input));
+    }
+  }
+}
@@ -21,6 +21,7 @@ import static com.google.common.io.BaseEncoding.base32Hex;
 import static com.google.common.io.BaseEncoding.base64;
 import static com.google.common.io.BaseEncoding.base64Url;
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
 
 import com.google.common.annotations.GwtCompatible;
 import com.google.common.annotations.GwtIncompatible;
@@ -35,6 +36,11 @@ import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Random;
 import junit.framework.TestCase;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -450,6 +456,18 @@ public class BaseEncodingTest extends TestCase {
   private static void testDecodes(BaseEncoding encoding, String encoded, String decoded) {
     assertThat(encoding.canDecode(encoded)).isTrue();
     assertThat(encoding.decode(encoded)).isEqualTo(decoded.getBytes(UTF_8));
+    testDecodesToArray(encoding, encoded, decoded.getBytes(UTF_8));
+  }
+
+  private static void testDecodesToArray(BaseEncoding encoding, String encoded, byte[] decoded) {
+    // exactly the size of the decoded bytes, and with room to spare
+    for (int extra = 0; extra <= 2; extra += 2) {
+      byte[] target = new byte[1 + decoded.length + extra];
+      target[0] = 42;
+      assertThat(encoding.decodeTo(encoded, target, 1)).isEqualTo(decoded.length);
+      assertThat(target[0]).isEqualTo(42);
+      assertThat(Arrays.copyOfRange(target, 1, 1 + decoded.length)).isEqualTo(decoded);
+    }
   }
 
   private static void testDecodesByBytes(BaseEncoding encoding, String encoded, byte[] decoded) {
@@ -515,6 +533,39 @@ public class BaseEncodingTest extends TestCase {
         }
       }
     },
+    DECODE_TO {
+      @Override
+      void assertFailsToDecode(
+          BaseEncoding encoding, String cannotDecode, @Nullable String expectedMessage) {
+        try {
+          encoding.decodeTo(cannotDecode, new byte[cannotDecode.length()], 0);
+          fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+          if (expectedMessage != null) {
+            assertThat(expected).hasCauseThat().hasMessageThat().isEqualTo(expectedMessage);
+          }
+        }
+      }
+    },
+    @GwtIncompatible // CharBuffer,ByteBuffer
+    DECODE_TO_BUFFER {
+      @Override
+      void assertFailsToDecode(
+          BaseEncoding encoding, String cannotDecode, @Nullable String expectedMessage) {
+        CharBuffer chars = CharBuffer.wrap(cannotDecode);
+        ByteBuffer target = ByteBuffer.allocate(cannotDecode.length());
+        try {
+          encoding.decodeTo(chars, target);
+          fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+          if (expectedMessage != null) {
+            assertThat(expected).hasCauseThat().hasMessageThat().isEqualTo(expectedMessage);
+          }
+        }
+        assertThat(chars.position()).isEqualTo(0);
+        assertThat(target.position()).isEqualTo(0);
+      }
+    },
     DECODE_CHECKED {
       @Override
       void assertFailsToDecode(
@@ -587,6 +638,115 @@ public class BaseEncodingTest extends TestCase {
     }
   }
 
+  public void testDecodeTo_array_tooSmall() {
+    byte[] target = new byte[5];
+    try {
+      base64().decodeTo("Zm9vYg==", target, 2);
+      fail("Expected IndexOutOfBoundsException");
+    } catch (IndexOutOfBoundsException expected) {
+    }
+    assertThat(target).isEqualTo(new byte[5]);
+
+    try {
+      base64().decodeTo("Zm9v", target, 6);
+      fail("Expected IndexOutOfBoundsException");
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  @GwtIncompatible // ByteBuffer,CharBuffer
+  public void testBuffers() {
+    ImmutableList<BaseEncoding> encodings =
+        ImmutableList.of(
+            base64(),
+            base64Url().omitPadding(),
+            base32(),
+            base32Hex().lowerCase(),
+            base16(),
+            base64().withSeparator("\n", 7),
+            base32().omitPadding().withSeparator(";;", 3));
+    Random random = new Random(0);
+    for (BaseEncoding encoding : encodings) {
+      for (int length : new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 100, 1000}) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        String encoded = encoding.encode(bytes);
+        testEncodesToBuffers(encoding, bytes, encoded);
+        testDecodesFromBuffers(encoding, encoded, bytes);
+      }
+    }
+  }
+
+  @GwtIncompatible // ByteBuffer,CharBuffer
+  private static void testEncodesToBuffers(BaseEncoding encoding, byte[] bytes, String encoded) {
+    String message = encoding + " of " + bytes.length + " bytes";
+    ByteBuffer heapBytes = ByteBuffer.allocate(bytes.length + 2);
+    heapBytes.position(1);
+    heapBytes = heapBytes.slice();
+    heapBytes.put(bytes).flip();
+    ByteBuffer directBytes = ByteBuffer.allocateDirect(bytes.length);
+    directBytes.put(bytes).flip();
+    for (ByteBuffer input : ImmutableList.of(heapBytes, directBytes)) {
+      for (CharBuffer target :
+          ImmutableList.of(
+              CharBuffer.allocate(encoded.length() + 10),
+              // exactly the size of the encoding, and not backed by an array
+              ByteBuffer.allocateDirect(2 * (encoded.length() + 1)).asCharBuffer())) {
+        target.put('x');
+        encoding.encodeTo(input, target);
+        assertWithMessage(message).that(input.hasRemaining()).isFalse();
+        target.flip();
+        assertWithMessage(message).that(target.toString()).isEqualTo("x" + encoded);
+        input.rewind();
+      }
+    }
+    if (!encoded.isEmpty()) {
+      CharBuffer tooSmall = CharBuffer.allocate(encoded.length() - 1);
+      try {
+        encoding.encodeTo(heapBytes, tooSmall);
+        fail("Expected BufferOverflowException");
+      } catch (BufferOverflowException expected) {
+      }
+      assertWithMessage(message).that(heapBytes.position()).isEqualTo(0);
+      assertWithMessage(message).that(tooSmall.position()).isEqualTo(0);
+    }
+  }
+
+  @GwtIncompatible // ByteBuffer,CharBuffer
+  private static void testDecodesFromBuffers(BaseEncoding encoding, String encoded, byte[] bytes) {
+    String message = encoding + " of " + bytes.length + " bytes";
+    char[] array = ("x" + encoded).toCharArray();
+    CharBuffer heapChars = CharBuffer.wrap(array, 1, encoded.length());
+    for (CharBuffer input : ImmutableList.of(heapChars, CharBuffer.wrap(encoded))) {
+      for (ByteBuffer target :
+          ImmutableList.of(
+              ByteBuffer.allocate(bytes.length + 10),
+              // exactly the size of the decoding, and not backed by an array
+              ByteBuffer.allocateDirect(bytes.length + 1))) {
+        target.put((byte) 42);
+        encoding.decodeTo(input, target);
+        assertWithMessage(message).that(input.hasRemaining()).isFalse();
+        target.flip();
+        assertWithMessage(message).that(target.get()).isEqualTo(42);
+        byte[] decoded = new byte[target.remaining()];
+        target.get(decoded);
+        assertWithMessage(message).that(decoded).isEqualTo(bytes);
+        input.rewind();
+        input.position(input == heapChars ? 1 : 0);
+      }
+    }
+    if (bytes.length > 0) {
+      ByteBuffer tooSmall = ByteBuffer.allocate(bytes.length - 1);
+      try {
+        encoding.decodeTo(heapChars, tooSmall);
+        fail("Expected BufferOverflowException");
+      } catch (BufferOverflowException expected) {
+      }
+      assertWithMessage(message).that(heapChars.position()).isEqualTo(1);
+      assertWithMessage(message).that(tooSmall.position()).isEqualTo(0);
+    }
+  }
+
   public void testToString() {
     assertThat(base64().toString()).isEqualTo("BaseEncoding.base64().withPadChar('=')");
     assertThat(base32Hex().omitPadding().toString())
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.io;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import junit.framework.TestCase;
+
+/** Tests for {@link BufferPool}. */
+public class BufferPoolTest extends TestCase {
+
+  public void testAllocating() {
+    BufferPool pool = BufferPool.forName("none");
+    byte[] bytes = pool.acquireBytes();
+    assertThat(bytes).hasLength(ByteStreams.BUFFER_SIZE);
+    pool.releaseBytes(bytes);
+    assertThat(pool.acquireBytes()).isNotSameInstanceAs(bytes);
+
+    char[] chars = pool.acquireChars();
+    assertThat(chars).hasLength(CharStreams.DEFAULT_BUF_SIZE);
+    pool.releaseChars(chars);
+    assertThat(pool.acquireChars()).isNotSameInstanceAs(chars);
+
+    ByteBuffer buffer = pool.acquireByteBuffer();
+    assertThat(buffer.capacity()).isEqualTo(ByteStreams.BUFFER_SIZE);
+    assertThat(buffer.isDirect()).isFalse();
+  }
+
+  public void testThreadLocal_reusesReleasedBuffers() {
+    BufferPool pool = BufferPool.forName("thread_local");
+    byte[] bytes = pool.acquireBytes();
+    assertThat(bytes).hasLength(ByteStreams.BUFFER_SIZE);
+    pool.releaseBytes(bytes);
+    assertThat(pool.acquireBytes()).isSameInstanceAs(bytes);
+
+    char[] chars = pool.acquireChars();
+    assertThat(chars).hasLength(CharStreams.DEFAULT_BUF_SIZE);
+    pool.releaseChars(chars);
+    assertThat(pool.acquireChars()).isSameInstanceAs(chars);
+
+    ByteBuffer buffer = pool.acquireByteBuffer();
+    assertThat(buffer.isDirect()).isFalse();
+    buffer.putInt(42);
+    pool.releaseByteBuffer(buffer);
+    ByteBuffer reused = pool.acquireByteBuffer();
+    assertThat(reused).isSameInstanceAs(buffer);
+    assertThat(reused.position()).isEqualTo(0);
+    assertThat(reused.remaining()).isEqualTo(ByteStreams.BUFFER_SIZE);
+  }
+
+  public void testThreadLocal_releasedBuffersAreZeroed() {
+    BufferPool pool = BufferPool.forName("thread_local");
+    byte[] bytes = pool.acquireBytes();
+    Arrays.fill(bytes, (byte) 1);
+    pool.releaseBytes(bytes);
+    assertThat(pool.acquireBytes()).isEqualTo(new byte[ByteStreams.BUFFER_SIZE]);
+
+    char[] chars = pool.acquireChars();
+    Arrays.fill(chars, 'a');
+    pool.releaseChars(chars);
+    assertThat(pool.acquireChars()).isEqualTo(new char[CharStreams.DEFAULT_BUF_SIZE]);
+
+    BufferPool directPool = BufferPool.forName("thread_local_direct");
+    ByteBuffer buffer = directPool.acquireByteBuffer();
+    while (buffer.hasRemaining()) {
+      buffer.put((byte) 1);
+    }
+    directPool.releaseByteBuffer(buffer);
+    ByteBuffer reused = directPool.acquireByteBuffer();
+    while (reused.hasRemaining()) {
+      assertEquals(0, reused.get());
+    }
+  }
+
+  public void testThreadLocal_nestedAcquisitionsGetDistinctBuffers() {
+    BufferPool pool = BufferPool.forName("thread_local");
+    byte[] outer = pool.acquireBytes();
+    pool.releaseBytes(outer);
+
+    outer = pool.acquireBytes();
+    byte[] inner = pool.acquireBytes();
+    assertThat(inner).isNotSameInstanceAs(outer);
+    pool.releaseBytes(inner);
+    pool.releaseBytes(outer);
+  }
+
+  public void testThreadLocal_otherThreadsGetTheirOwnBuffers() throws Exception {
+    BufferPool pool = BufferPool.forName("thread_local");
+    byte[] bytes = pool.acquireBytes();
+    pool.releaseBytes(bytes);
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      byte[] other = executor.submit(pool::acquireBytes).get();
+      assertThat(other).isNotSameInstanceAs(bytes);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  public void testThreadLocalDirect() {
+    BufferPool pool = BufferPool.forName("thread_local_direct");
+    ByteBuffer buffer = pool.acquireByteBuffer();
+    assertThat(buffer.isDirect()).isTrue();
+    assertThat(buffer.capacity()).isEqualTo(ByteStreams.BUFFER_SIZE);
+    pool.releaseByteBuffer(buffer);
+    assertThat(pool.acquireByteBuffer()).isSameInstanceAs(buffer);
+  }
+}
@@ -20,13 +20,18 @@ import static com.google.common.io.TestOption.CLOSE_THROWS;
 import static com.google.common.io.TestOption.OPEN_THROWS;
 import static com.google.common.io.TestOption.READ_THROWS;
 import static com.google.common.io.TestOption.WRITE_THROWS;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertThrows;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.EnumSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Tests for the default implementations of {@code ByteSink} methods.
@@ -64,6 +69,25 @@ public class ByteSinkTest extends IoTestCase {
     assertArrayEquals(bytes, sink.getBytes());
   }
 
+  public void testWriteAsync() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertNull(sink.writeAsync(bytes, executor).get());
+      assertTrue(sink.wasStreamOpened() && sink.wasStreamClosed());
+      assertArrayEquals(bytes, sink.getBytes());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  public void testWriteAsync_writeThrows() {
+    TestByteSink failSink = new TestByteSink(WRITE_THROWS);
+    ListenableFuture<?> future = failSink.writeAsync(bytes, directExecutor());
+    ExecutionException expected = assertThrows(ExecutionException.class, future::get);
+    assertTrue(expected.getCause() instanceof IOException);
+    assertTrue(failSink.wasStreamClosed());
+  }
+
   public void testWriteFrom_inputStream() throws IOException {
     ByteArrayInputStream in = new ByteArrayInputStream(bytes);
     sink.writeFrom(in);
@@ -23,6 +23,7 @@ import static com.google.common.io.TestOption.OPEN_THROWS;
 import static com.google.common.io.TestOption.READ_THROWS;
 import static com.google.common.io.TestOption.SKIP_THROWS;
 import static com.google.common.io.TestOption.WRITE_THROWS;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertThrows;
 
@@ -30,16 +31,23 @@ import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
 import com.google.common.io.Closer.LoggingSuppressor;
 import com.google.common.primitives.UnsignedBytes;
 import com.google.common.testing.TestLogHandler;
+import com.google.common.util.concurrent.ListenableFuture;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import junit.framework.TestSuite;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -174,6 +182,32 @@ public class ByteSourceTest extends IoTestCase {
     assertTrue(source.wasStreamOpened() && source.wasStreamClosed());
   }
 
+  public void testCopyToAsync() throws Exception {
+    TestByteSink sink = new TestByteSink();
+    ListenableFuture<Long> future = source.copyToAsync(sink, directExecutor());
+    assertEquals(bytes.length, (long) future.get());
+    assertTrue(source.wasStreamOpened() && source.wasStreamClosed());
+    assertArrayEquals(bytes, sink.getBytes());
+  }
+
+  public void testReadAsync() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertArrayEquals(bytes, source.readAsync(executor).get());
+      assertTrue(source.wasStreamOpened() && source.wasStreamClosed());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  public void testReadAsync_readThrows() {
+    TestByteSource failSource = new TestByteSource(bytes, READ_THROWS);
+    ListenableFuture<byte[]> future = failSource.readAsync(directExecutor());
+    ExecutionException expected = assertThrows(ExecutionException.class, future::get);
+    assertTrue(expected.getCause() instanceof IOException);
+    assertTrue(failSource.wasStreamClosed());
+  }
+
   public void testHash() throws IOException {
     ByteSource byteSource = new TestByteSource("hamburger\n".getBytes(Charsets.US_ASCII));
 
@@ -181,6 +215,34 @@ public class ByteSourceTest extends IoTestCase {
     assertEquals("cfa0c5002275c90508338a5cdb2a9781", byteSource.hash(Hashing.md5()).toString());
   }
 
+  public void testHashParallel() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      HashCode hashCode = source.hashParallel(Hashing.sha256(), 1000, executor);
+      List<HashCode> chunkHashes = new ArrayList<>();
+      for (int offset = 0; offset < bytes.length; offset += 1000) {
+        chunkHashes.add(Hashing.sha256().hashBytes(bytes, offset, 1000));
+      }
+      assertEquals(Hashing.combineOrdered(chunkHashes), hashCode);
+      assertEquals(hashCode, ByteSource.wrap(bytes).hashParallel(Hashing.sha256(), 1000, executor));
+      assertFalse(hashCode.equals(source.hashParallel(Hashing.sha256(), 999, executor)));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  public void testHashParallel_readThrows() {
+    TestByteSource failSource = new TestByteSource(bytes, READ_THROWS);
+    assertThrows(
+        IOException.class, () -> failSource.hashParallel(Hashing.md5(), 100, directExecutor()));
+  }
+
+  public void testHashParallel_illegalChunkSize() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> source.hashParallel(Hashing.md5(), 0, directExecutor()));
+  }
+
   public void testContentEquals() throws IOException {
     assertTrue(source.contentEquals(source));
     assertTrue(source.wasStreamOpened() && source.wasStreamClosed());
@@ -18,6 +18,7 @@ package com.google.common.io;
 
 import static com.google.common.io.SourceSinkFactory.ByteSourceFactory;
 import static com.google.common.io.SourceSinkFactory.CharSourceFactory;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertThrows;
 
@@ -32,6 +33,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Random;
 import junit.framework.TestSuite;
@@ -219,6 +222,21 @@ public class ByteSourceTester extends SourceSinkTester<ByteSource, byte[], ByteS
     assertEquals(expectedHash, source.hash(Hashing.md5()));
   }
 
+  public void testHashParallel() throws IOException {
+    assertEquals(
+        Hashing.md5().hashBytes(expected),
+        source.hashParallel(Hashing.md5(), Math.max(expected.length, 1), directExecutor()));
+    int chunkSize = 3;
+    List<HashCode> chunkHashes = new ArrayList<>();
+    for (int offset = 0; offset < expected.length || offset == 0; offset += chunkSize) {
+      int length = Math.min(chunkSize, expected.length - offset);
+      chunkHashes.add(Hashing.md5().hashBytes(expected, offset, length));
+    }
+    assertEquals(
+        Hashing.combineOrdered(chunkHashes),
+        source.hashParallel(Hashing.md5(), chunkSize, directExecutor()));
+  }
+
   public void testSlice_illegalArguments() {
     assertThrows(
         "expected IllegalArgumentException for call to slice with offset -1: " + source,
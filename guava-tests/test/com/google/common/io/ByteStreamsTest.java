@@ -24,6 +24,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
@@ -74,6 +75,34 @@ public class ByteStreamsTest extends IoTestCase {
     }
   }
 
+  public void testCopyFileStreams() throws IOException {
+    byte[] data = newPreFilledByteArray(100000);
+    File from = createTempFile();
+    File to = createTempFile();
+    Files.write(data, from);
+    Files.write(new byte[] {1, 2, 3}, to);
+    try (FileInputStream in = new FileInputStream(from);
+        FileOutputStream out = new FileOutputStream(to, true)) {
+      assertEquals(10, in.skip(10));
+      assertEquals(data.length - 10, ByteStreams.copy(in, out));
+      assertEquals(-1, in.read());
+    }
+    byte[] expected = new byte[data.length - 7];
+    System.arraycopy(new byte[] {1, 2, 3}, 0, expected, 0, 3);
+    System.arraycopy(data, 10, expected, 3, data.length - 10);
+    assertThat(Files.toByteArray(to)).isEqualTo(expected);
+  }
+
+  public void testCopyFileStreams_emptyFile() throws IOException {
+    File from = createTempFile();
+    File to = createTempFile();
+    try (FileInputStream in = new FileInputStream(from);
+        FileOutputStream out = new FileOutputStream(to)) {
+      assertEquals(0, ByteStreams.copy(in, out));
+    }
+    assertEquals(0, to.length());
+  }
+
   public void testReadFully() throws IOException {
     byte[] b = new byte[10];
 
@@ -21,15 +21,24 @@ import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static com.google.common.jimfs.Feature.SECURE_DIRECTORY_STREAM;
 import static com.google.common.jimfs.Feature.SYMBOLIC_LINKS;
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertThrows;
 
 import com.google.common.collect.ObjectArrays;
 import com.google.common.jimfs.Configuration;
 import com.google.common.jimfs.Feature;
 import com.google.common.jimfs.Jimfs;
+import com.google.common.primitives.Bytes;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystemException;
@@ -39,9 +48,13 @@ import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
 import java.util.EnumSet;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -63,6 +76,16 @@ public class MoreFilesTest extends TestCase {
     suite.addTest(
         ByteSourceTester.tests(
             "MoreFiles.asByteSource[Path]", SourceSinkFactories.pathByteSourceFactory(), true));
+    suite.addTest(
+        ByteSourceTester.tests(
+            "MoreFiles.asMappedByteSource[Path]",
+            SourceSinkFactories.mappedPathByteSourceFactory(MappedByteSource.DEFAULT_WINDOW_SIZE),
+            true));
+    suite.addTest(
+        ByteSourceTester.tests(
+            "MoreFiles.asMappedByteSource[Path, 7-byte windows]",
+            SourceSinkFactories.mappedPathByteSourceFactory(7),
+            true));
     suite.addTest(
         ByteSinkTester.tests(
             "MoreFiles.asByteSink[Path]", SourceSinkFactories.pathByteSinkFactory()));
@@ -187,6 +210,186 @@ public class MoreFilesTest extends TestCase {
     }
   }
 
+  public void testByteSource_copyTo() throws IOException {
+    byte[] data = new byte[100000];
+    new Random(0).nextBytes(data);
+    Path from = createTempFile();
+    Files.write(from, data);
+    ByteSource source = MoreFiles.asByteSource(from);
+
+    Path to = createTempFile();
+    Files.write(to, new byte[] {1, 2, 3});
+    assertThat(source.copyTo(MoreFiles.asByteSink(to))).isEqualTo(data.length);
+    assertThat(Files.readAllBytes(to)).isEqualTo(data);
+
+    assertThat(source.copyTo(MoreFiles.asByteSink(to, StandardOpenOption.APPEND)))
+        .isEqualTo(data.length);
+    assertThat(Files.readAllBytes(to)).isEqualTo(Bytes.concat(data, data));
+
+    assertThat(source.copyTo(com.google.common.io.Files.asByteSink(to.toFile())))
+        .isEqualTo(data.length);
+    assertThat(Files.readAllBytes(to)).isEqualTo(data);
+
+    try (FileOutputStream out = new FileOutputStream(to.toFile(), true)) {
+      assertThat(source.copyTo(out)).isEqualTo(data.length);
+    }
+    assertThat(Files.readAllBytes(to)).isEqualTo(Bytes.concat(data, data));
+
+    Files.delete(to);
+    ByteSource fileSource = com.google.common.io.Files.asByteSource(from.toFile());
+    assertThat(fileSource.copyTo(MoreFiles.asByteSink(to))).isEqualTo(data.length);
+    assertThat(Files.readAllBytes(to)).isEqualTo(data);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> source.copyTo(MoreFiles.asByteSink(to, StandardOpenOption.READ)));
+  }
+
+  public void testByteSource_copyTo_jimfs() throws IOException {
+    try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix())) {
+      Path from = fs.getPath("from");
+      Path to = fs.getPath("to");
+      MoreFiles.asCharSink(from, UTF_8).write("foo");
+      assertThat(MoreFiles.asByteSource(from).copyTo(MoreFiles.asByteSink(to))).isEqualTo(3);
+      assertThat(MoreFiles.asCharSource(to, UTF_8).read()).isEqualTo("foo");
+    }
+  }
+
+  public void testByteSource_readAsync() throws Exception {
+    // Larger than one chunk, and not a whole number of chunks.
+    byte[] data = new byte[(3 << 20) + 12345];
+    new Random(0).nextBytes(data);
+    Path file = createTempFile();
+    Files.write(file, data);
+    ByteSource source = MoreFiles.asByteSource(file);
+    ByteSource empty = MoreFiles.asByteSource(createTempFile());
+
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      assertThat(source.readAsync(pool).get()).isEqualTo(data);
+      assertThat(empty.readAsync(pool).get()).isEmpty();
+    } finally {
+      pool.shutdown();
+    }
+    // Completes each chunk on the thread that starts it.
+    ExecutorService direct = newDirectExecutorService();
+    assertThat(source.readAsync(direct).get()).isEqualTo(data);
+    // Not an ExecutorService, so reads through a stream.
+    assertThat(source.readAsync(directExecutor()).get()).isEqualTo(data);
+  }
+
+  public void testByteSource_readAsync_failures() throws Exception {
+    ExecutorService direct = newDirectExecutorService();
+    Future<byte[]> missing = MoreFiles.asByteSource(tempDir.resolve("missing")).readAsync(direct);
+    ExecutionException expected = assertThrows(ExecutionException.class, missing::get);
+    assertThat(expected).hasCauseThat().isInstanceOf(NoSuchFileException.class);
+
+    Future<byte[]> directory = MoreFiles.asByteSource(tempDir).readAsync(direct);
+    expected = assertThrows(ExecutionException.class, directory::get);
+    assertThat(expected).hasCauseThat().isInstanceOf(IOException.class);
+  }
+
+  public void testByteSource_readAsync_cancel() throws Exception {
+    Path file = createTempFile();
+    Files.write(file, new byte[100]);
+    CountDownLatch latch = new CountDownLatch(1);
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    try {
+      pool.execute(() -> Uninterruptibles.awaitUninterruptibly(latch));
+      Future<byte[]> future = MoreFiles.asByteSource(file).readAsync(pool);
+      assertThat(future.cancel(false)).isTrue();
+      latch.countDown();
+      assertThat(future.isCancelled()).isTrue();
+    } finally {
+      pool.shutdown();
+    }
+    assertThat(pool.awaitTermination(10, SECONDS)).isTrue();
+  }
+
+  public void testByteSink_writeAsync() throws Exception {
+    byte[] data = new byte[(3 << 20) + 12345];
+    new Random(0).nextBytes(data);
+    Path file = createTempFile();
+    Files.write(file, new byte[4 << 20]);
+
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      assertThat(MoreFiles.asByteSink(file).writeAsync(data, pool).get()).isNull();
+      assertThat(Files.readAllBytes(file)).isEqualTo(data);
+
+      // Asynchronous channels can't append, so this writes through a stream.
+      ByteSink appending = MoreFiles.asByteSink(file, StandardOpenOption.APPEND);
+      appending.writeAsync(data, pool).get();
+      assertThat(Files.readAllBytes(file)).isEqualTo(Bytes.concat(data, data));
+    } finally {
+      pool.shutdown();
+    }
+
+    Path created = tempDir.resolve("created");
+    MoreFiles.asByteSink(created).writeAsync(data, newDirectExecutorService()).get();
+    assertThat(Files.readAllBytes(created)).isEqualTo(data);
+
+    Future<?> existing =
+        MoreFiles.asByteSink(created, StandardOpenOption.CREATE_NEW)
+            .writeAsync(data, newDirectExecutorService());
+    ExecutionException expected = assertThrows(ExecutionException.class, existing::get);
+    assertThat(expected).hasCauseThat().isInstanceOf(FileAlreadyExistsException.class);
+  }
+
+  public void testByteSourceAndSink_async_jimfs() throws Exception {
+    try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix())) {
+      Path path = fs.getPath("file");
+      byte[] data = "foo".getBytes(UTF_8);
+      ExecutorService pool = Executors.newSingleThreadExecutor();
+      try {
+        MoreFiles.asByteSink(path).writeAsync(data, pool).get();
+        assertThat(MoreFiles.asByteSource(path).readAsync(pool).get()).isEqualTo(data);
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+
+  public void testMappedByteSource_largerThanTwoGigabytes() throws IOException {
+    Path file = createTempFile();
+    long size = 3L << 30;
+    byte[] tail = "tail".getBytes(UTF_8);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      // Sparse on most file systems, so this doesn't need 3 GiB of disk.
+      channel.write(ByteBuffer.wrap(tail), size - tail.length);
+    }
+    ByteSource source = MoreFiles.asMappedByteSource(file);
+    assertThat(source.size()).isEqualTo(size);
+    ByteSource end = source.slice(size - tail.length - 1, 100);
+    assertThat(end.read()).isEqualTo(Bytes.concat(new byte[1], tail));
+    assertThat(end.size()).isEqualTo(tail.length + 1);
+
+    try (InputStream in = source.openStream()) {
+      assertThat(ByteStreams.skipUpTo(in, size - 2)).isEqualTo(size - 2);
+      assertThat(in.read()).isEqualTo('i');
+      assertThat(in.read()).isEqualTo('l');
+      assertThat(in.read()).isEqualTo(-1);
+    }
+  }
+
+  public void testMappedByteSource_contentEquals() throws IOException {
+    Path file = createTempFile();
+    Files.write(file, "abcabcab".getBytes(UTF_8));
+    ByteSource source = new MappedByteSource(file, 0, Long.MAX_VALUE, 2);
+    assertThat(source.slice(0, 3).contentEquals(source.slice(3, 3))).isTrue();
+    assertThat(source.slice(0, 3).contentEquals(source.slice(3, 100))).isFalse();
+    assertThat(source.slice(0, 5).contentEquals(source.slice(3, 100))).isTrue();
+    assertThat(source.slice(0, 6).contentEquals(source.slice(3, 100))).isFalse();
+    assertThat(source.slice(1, 3).contentEquals(source.slice(3, 3))).isFalse();
+    assertThat(source.slice(0, 3).contentEquals(ByteSource.wrap("abc".getBytes(UTF_8)))).isTrue();
+  }
+
+  public void testMappedByteSource_directory() throws IOException {
+    ByteSource source = MoreFiles.asMappedByteSource(tempDir);
+    assertThat(source.sizeIfKnown()).isAbsent();
+    assertThrows(IOException.class, () -> source.size());
+  }
+
   public void testEqual() throws IOException {
     try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix())) {
       Path fooPath = fs.getPath("foo");
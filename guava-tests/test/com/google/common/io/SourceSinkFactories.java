@@ -106,6 +106,11 @@ public class SourceSinkFactories {
     return new PathByteSourceFactory();
   }
 
+  @AndroidIncompatible
+  public static ByteSourceFactory mappedPathByteSourceFactory(long windowSize) {
+    return new MappedPathByteSourceFactory(windowSize);
+  }
+
   @AndroidIncompatible
   public static ByteSinkFactory pathByteSinkFactory() {
     return new PathByteSinkFactory(null);
@@ -515,6 +520,24 @@ public class SourceSinkFactories {
     }
   }
 
+  @AndroidIncompatible
+  private static class MappedPathByteSourceFactory extends PathByteSourceFactory {
+    private final long windowSize;
+
+    MappedPathByteSourceFactory(long windowSize) {
+      this.windowSize = windowSize;
+    }
+
+    @Override
+    public ByteSource createSource(byte[] bytes) throws IOException {
+      checkNotNull(bytes);
+      Path file = createFile();
+
+      java.nio.file.Files.write(file, bytes);
+      return new MappedByteSource(file, 0, Long.MAX_VALUE, windowSize);
+    }
+  }
+
   @AndroidIncompatible
   private static class PathByteSinkFactory extends Jdk7FileFactory implements ByteSinkFactory {
 
@@ -23,9 +23,13 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 import com.google.common.testing.NullPointerTester;
 import com.google.common.testing.SerializableTester;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import junit.framework.TestCase;
 
 /**
@@ -559,6 +563,46 @@ public class AtomicLongMapTest extends TestCase {
     assertEquals(sum, map.sum());
   }
 
+  public void testAddAll() {
+    AtomicLongMap<String> map = AtomicLongMap.create(ImmutableMap.of("1", 1L, "2", 2L));
+    map.addAll(ImmutableMap.of("2", 20L, "3", 30L));
+    assertEquals(ImmutableMap.of("1", 1L, "2", 22L, "3", 30L), map.asMap());
+
+    map.put("1", 0L);
+    map.addAll(ImmutableMap.of("1", 5L));
+    assertEquals(5L, map.get("1"));
+  }
+
+  public void testForEach() {
+    AtomicLongMap<String> map = AtomicLongMap.create(ImmutableMap.of("1", 1L, "2", 2L));
+    map.put("3", 0L);
+    Map<String, Long> seen = new HashMap<>();
+    map.forEach((key, value) -> seen.put(key, value));
+    assertEquals(ImmutableMap.of("1", 1L, "2", 2L, "3", 0L), seen);
+  }
+
+  public void testAsMap_isLive() {
+    AtomicLongMap<String> map = AtomicLongMap.create();
+    Map<String, Long> asMap = map.asMap();
+    map.incrementAndGet("a");
+    assertEquals(ImmutableMap.of("a", 1L), asMap);
+    map.addAndGet("a", 2);
+    assertEquals(3L, (long) asMap.get("a"));
+    map.remove("a");
+    assertTrue(asMap.isEmpty());
+  }
+
+  public void testUpdate_fromRemovedZero() {
+    AtomicLongMap<String> map = AtomicLongMap.create();
+    map.put("a", 1L);
+    assertEquals(0L, map.decrementAndGet("a"));
+    assertTrue(map.containsKey("a"));
+    assertEquals(0L, map.getAndUpdate("a", x -> x + 7));
+    assertEquals(7L, map.get("a"));
+    assertEquals(7L, map.remove("a"));
+    assertFalse(map.containsKey("a"));
+  }
+
   public void testEmpty() {
     AtomicLongMap<String> map = AtomicLongMap.create();
     assertEquals(0L, map.get("a"));
@@ -575,4 +619,29 @@ public class AtomicLongMapTest extends TestCase {
     AtomicLongMap<String> reserialized = SerializableTester.reserialize(map);
     assertEquals(map.asMap(), reserialized.asMap());
   }
+
+  @J2ktIncompatible
+  @GwtIncompatible // serialization
+  public void testSerialization_keepsZerosAndStaysMutable() {
+    AtomicLongMap<String> map = AtomicLongMap.create();
+    map.put("a", 3L);
+    map.put("b", 0L);
+    AtomicLongMap<String> reserialized = SerializableTester.reserialize(map);
+    assertEquals(ImmutableMap.of("a", 3L, "b", 0L), reserialized.asMap());
+    assertEquals(4L, reserialized.incrementAndGet("a"));
+    assertEquals(1L, reserialized.incrementAndGet("b"));
+    assertEquals(3L, map.get("a"));
+  }
+
+  @J2ktIncompatible
+  @GwtIncompatible // serialization
+  public void testSerializedForm() {
+    // The serialized form of the original, Long-valued implementation, which must stay readable.
+    ObjectStreamClass streamClass = ObjectStreamClass.lookup(AtomicLongMap.class);
+    assertEquals(-193610662228457848L, streamClass.getSerialVersionUID());
+    ObjectStreamField[] fields = streamClass.getFields();
+    assertEquals(1, fields.length);
+    assertEquals("map", fields[0].getName());
+    assertEquals(ConcurrentHashMap.class, fields[0].getType());
+  }
 }
@@ -187,6 +187,40 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
      */
     void recordEviction();
 
+    /**
+     * Records how long an entry had been in the cache when it was evicted, measured from the last
+     * time its value was written. This is called in addition to {@link #recordEviction}, but only
+     * by caches built with {@linkplain CacheBuilder#recordStats(com.google.common.base.Supplier)
+     * custom counters}. The default implementation does nothing.
+     *
+     * @param age the number of nanoseconds since the evicted entry's value was written
+     * @since NEXT
+     */
+    @SuppressWarnings("GoodTime") // should accept a java.time.Duration
+    default void recordEvictionAge(long age) {}
+
+    /**
+     * Records that a thread had to wait for the lock of a cache segment because another thread held
+     * it. This is only called by caches built with {@linkplain
+     * CacheBuilder#recordStats(com.google.common.base.Supplier) custom counters}, which give each
+     * segment its own counter. The default implementation does nothing.
+     *
+     * @since NEXT
+     */
+    default void recordLockContention() {}
+
+    /**
+     * Records the time spent on routine maintenance of a cache segment while holding its lock, such
+     * as removing expired and collected entries. This is only called by caches built with
+     * {@linkplain CacheBuilder#recordStats(com.google.common.base.Supplier) custom counters}. The
+     * default implementation does nothing.
+     *
+     * @param drainTime the number of nanoseconds the maintenance took
+     * @since NEXT
+     */
+    @SuppressWarnings("GoodTime") // should accept a java.time.Duration
+    default void recordDrain(long drainTime) {}
+
     /**
      * Returns a snapshot of this counter's values. Note that this may be an inconsistent view, as
      * it may be interleaved with update operations.
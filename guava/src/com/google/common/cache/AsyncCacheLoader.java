@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.cache.CacheLoader.UnsupportedLoadingOperationException;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.Map;
+
+/**
+ * Starts computing or retrieving values, based on a key, for use in populating an {@link
+ * AsyncLoadingCache}. Unlike a {@link CacheLoader}, which blocks the calling thread until the value
+ * is available, an {@code AsyncCacheLoader} returns a {@link ListenableFuture} as soon as the work
+ * has been started.
+ *
+ * <p>Most implementations will only need to implement {@link #load}. Usage example:
+ *
+ * <pre>{@code
+ * AsyncCacheLoader<Key, Graph> loader = AsyncCacheLoader.from(key -> client.fetchGraph(key));
+ * AsyncLoadingCache<Key, Graph> cache = CacheBuilder.newBuilder().buildAsync(loader);
+ * }</pre>
+ *
+ * @since NEXT
+ */
+@GwtIncompatible // ListenableFuture
+@ElementTypesAreNonnullByDefault
+public abstract class AsyncCacheLoader<K, V> {
+  /** Constructor for use by subclasses. */
+  protected AsyncCacheLoader() {}
+
+  /**
+   * Starts computing or retrieving the value corresponding to {@code key}. This method should not
+   * block; any expensive work should be done by the returned future.
+   *
+   * @param key the non-null key whose value should be loaded
+   * @return a future of the value associated with {@code key}; <b>must not be null, and must not
+   *     succeed with null</b>
+   * @throws Exception if unable to start loading the value. This has the same effect as returning
+   *     a failed future.
+   */
+  public abstract ListenableFuture<V> load(K key) throws Exception;
+
+  /**
+   * Starts computing or retrieving the values corresponding to {@code keys}. This method is called
+   * by {@link AsyncLoadingCache#getAll}.
+   *
+   * <p>This method should be overridden when bulk retrieval is significantly more efficient than
+   * many individual lookups. If it is not overridden, {@link AsyncLoadingCache#getAll} calls {@link
+   * #load} for each key which isn't already cached. If the map that the returned future succeeds
+   * with doesn't contain all requested {@code keys}, the futures of the missing keys fail with
+   * {@link CacheLoader.InvalidCacheLoadException}.
+   *
+   * @param keys the unique, non-null keys whose values should be loaded
+   * @return a future of a map from each key in {@code keys} to the value associated with that key;
+   *     <b>the map may not contain null values</b>
+   * @throws Exception if unable to start loading the values
+   */
+  public ListenableFuture<Map<K, V>> loadAll(Iterable<? extends K> keys) throws Exception {
+    // This will be caught by getAll(), causing it to fall back to multiple calls to load
+    throw new UnsupportedLoadingOperationException();
+  }
+
+  /**
+   * Returns an asynchronous cache loader that uses {@code function} to load keys, without
+   * supporting bulk loading. This allows creating a loader using a lambda expression.
+   *
+   * @param function the function used to start loading values; must never return {@code null}
+   */
+  public static <K, V> AsyncCacheLoader<K, V> from(AsyncFunction<K, V> function) {
+    checkNotNull(function);
+    return new AsyncCacheLoader<K, V>() {
+      @Override
+      public ListenableFuture<V> load(K key) throws Exception {
+        return function.apply(checkNotNull(key));
+      }
+    };
+  }
+}
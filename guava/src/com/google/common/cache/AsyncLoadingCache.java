@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.cache;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.errorprone.annotations.CompatibleWith;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.CheckForNull;
+
+/**
+ * A semi-persistent mapping from keys to futures of values, whose values are loaded by an {@link
+ * AsyncCacheLoader}. None of its methods wait for a value to be loaded, so a request thread can
+ * chain the returned futures with {@link
+ * com.google.common.util.concurrent.Futures#transformAsync} instead of blocking.
+ *
+ * <p>The cache stores the future of each value as soon as the load has started, so concurrent
+ * requests for a key that is still loading share the same future. A future that fails is removed
+ * from the cache, so that the next request for its key starts a new load.
+ *
+ * <p>Implementations of this interface are expected to be thread-safe, and can be safely accessed
+ * by multiple concurrent threads. The common way to build instances is using {@link
+ * CacheBuilder#buildAsync}.
+ *
+ * @param <K> the type of the cache's keys, which are not permitted to be null
+ * @param <V> the type of the cache's values, which are not permitted to be null
+ * @since NEXT
+ */
+@GwtIncompatible // ListenableFuture
+@ElementTypesAreNonnullByDefault
+public interface AsyncLoadingCache<K, V> {
+
+  /**
+   * Returns the future of the value associated with {@code key}, first starting to load it if
+   * necessary. If the loader throws an exception or returns a future that fails, the returned
+   * future fails with the same exception.
+   */
+  ListenableFuture<V> get(K key);
+
+  /**
+   * Returns a future of a map of the values associated with {@code keys}, starting to load the
+   * values which are not already cached or loading. The returned map contains the entries in the
+   * order of {@code keys}, and the future succeeds once every value has been loaded.
+   *
+   * <p>If {@link AsyncCacheLoader#loadAll} is overridden, the keys which are not cached are loaded
+   * with a single call to it; otherwise they are loaded with individual calls to {@link
+   * AsyncCacheLoader#load}. If any value fails to load, the returned future fails.
+   */
+  ListenableFuture<ImmutableMap<K, V>> getAll(Iterable<? extends K> keys);
+
+  /**
+   * Returns the future associated with {@code key} in this cache, which may still be loading, or
+   * {@code null} if there is none. This method never starts a load.
+   */
+  @CheckForNull
+  ListenableFuture<V> getIfPresent(@CompatibleWith("K") Object key);
+
+  /**
+   * Associates {@code valueFuture} with {@code key} in this cache, replacing any previous value or
+   * load. If {@code valueFuture} fails, it is removed from the cache.
+   */
+  void put(K key, ListenableFuture<V> valueFuture);
+
+  /**
+   * Loads a new value for {@code key}, using {@link AsyncCacheLoader#load}. The previous value, if
+   * any, continues to be returned by {@link #get} until the new value has been loaded, and is kept
+   * if the new value fails to load.
+   */
+  void refresh(K key);
+
+  /** Discards any cached value or load for key {@code key}. */
+  void invalidate(@CompatibleWith("K") Object key);
+
+  /** Discards all entries in the cache. */
+  void invalidateAll();
+
+  /**
+   * Returns the approximate number of entries in this cache, including those which are still
+   * loading.
+   */
+  long size();
+
+  /**
+   * Returns a current snapshot of this cache's cumulative statistics. A load is counted as soon as
+   * its future has been obtained from the loader, so load times don't include the time until the
+   * value is available, and loads whose future later fails count as successful.
+   */
+  CacheStats stats();
+
+  /**
+   * Returns a view of the entries stored in this cache as a thread-safe map. Modifications made to
+   * the map directly affect the cache.
+   */
+  ConcurrentMap<K, ListenableFuture<V>> asMap();
+
+  /** Performs any pending maintenance operations needed by the cache. */
+  void cleanUp();
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.annotation.CheckForNull;
+
+/**
+ * A {@link CacheLoader} that collects the keys requested through {@link #load} and {@link #reload}
+ * during a short window and then loads all of them with a single call to the delegate's {@link
+ * CacheLoader#loadAll}. See {@link CacheLoader#batchLoading}.
+ */
+@GwtIncompatible
+@ElementTypesAreNonnullByDefault
+final class BatchingCacheLoader<K, V> extends CacheLoader<K, V> {
+  private final CacheLoader<K, V> loader;
+  private final long windowNanos;
+  private final ScheduledExecutorService executor;
+
+  /** The keys waiting for the next batch, in request order. */
+  @GuardedBy("this")
+  private Map<K, PendingLoad<V>> pending = new LinkedHashMap<>();
+
+  /** The keys of batches which have been handed to the loader but have not completed yet. */
+  @GuardedBy("this")
+  private final Map<K, ListenableFuture<V>> inFlight = new HashMap<>();
+
+  BatchingCacheLoader(
+      CacheLoader<K, V> loader, long windowNanos, ScheduledExecutorService executor) {
+    this.loader = checkNotNull(loader);
+    this.windowNanos = windowNanos;
+    this.executor = checkNotNull(executor);
+  }
+
+  /**
+   * Adds {@code key} to the next batch, blocking until the batch is loaded. The wait includes the
+   * batching window.
+   */
+  @Override
+  public V load(K key) throws Exception {
+    try {
+      return enqueue(key, null).get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      Throwables.throwIfInstanceOf(cause, Exception.class);
+      Throwables.throwIfUnchecked(cause);
+      throw e;
+    }
+  }
+
+  /** Adds {@code key} to the next batch. */
+  @Override
+  public ListenableFuture<V> reload(K key, V oldValue) {
+    return enqueue(key, checkNotNull(oldValue));
+  }
+
+  @Override
+  public Map<K, V> loadAll(Iterable<? extends K> keys) throws Exception {
+    return loader.loadAll(keys);
+  }
+
+  private ListenableFuture<V> enqueue(K key, @CheckForNull V oldValue) {
+    checkNotNull(key);
+    SettableFuture<V> future = SettableFuture.create();
+    boolean startsBatch;
+    synchronized (this) {
+      PendingLoad<V> existing = pending.get(key);
+      if (existing != null) {
+        return existing.future;
+      }
+      ListenableFuture<V> running = inFlight.get(key);
+      if (running != null) {
+        return running;
+      }
+      startsBatch = pending.isEmpty();
+      pending.put(key, new PendingLoad<>(future, oldValue));
+    }
+    if (startsBatch) {
+      try {
+        executor.schedule(this::flush, windowNanos, NANOSECONDS);
+      } catch (RuntimeException | Error e) {
+        // the executor rejected the batch, so nobody else will complete it
+        flush();
+      }
+    }
+    return future;
+  }
+
+  /** Loads the keys collected so far. */
+  void flush() {
+    Map<K, PendingLoad<V>> batch;
+    synchronized (this) {
+      batch = pending;
+      pending = new LinkedHashMap<>();
+      for (Map.Entry<K, PendingLoad<V>> entry : batch.entrySet()) {
+        inFlight.put(entry.getKey(), entry.getValue().future);
+      }
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      Map<K, V> loaded;
+      try {
+        loaded = loader.loadAll(batch.keySet());
+      } catch (UnsupportedLoadingOperationException e) {
+        loadIndividually(batch);
+        return;
+      } catch (Exception e) {
+        if (e instanceof InterruptedException) {
+          Thread.currentThread().interrupt();
+        }
+        for (PendingLoad<V> load : batch.values()) {
+          load.future.setException(e);
+        }
+        return;
+      } catch (Error e) {
+        for (PendingLoad<V> load : batch.values()) {
+          load.future.setException(e);
+        }
+        throw e;
+      }
+      for (Map.Entry<K, PendingLoad<V>> entry : batch.entrySet()) {
+        V value = loaded.get(entry.getKey());
+        if (value == null) {
+          entry
+              .getValue()
+              .future
+              .setException(
+                  new InvalidCacheLoadException(
+                      "loadAll failed to return a value for " + entry.getKey()));
+        } else {
+          entry.getValue().future.set(value);
+        }
+      }
+    } finally {
+      synchronized (this) {
+        inFlight.keySet().removeAll(batch.keySet());
+      }
+    }
+  }
+
+  /** Falls back to loading each key on its own when the loader doesn't support bulk loading. */
+  private void loadIndividually(Map<K, PendingLoad<V>> batch) {
+    Iterator<Map.Entry<K, PendingLoad<V>>> entries = batch.entrySet().iterator();
+    while (entries.hasNext()) {
+      Map.Entry<K, PendingLoad<V>> entry = entries.next();
+      K key = entry.getKey();
+      PendingLoad<V> load = entry.getValue();
+      try {
+        if (load.oldValue == null) {
+          load.future.set(loader.load(key));
+        } else {
+          load.future.setFuture(loader.reload(key, load.oldValue));
+        }
+      } catch (Exception e) {
+        if (e instanceof InterruptedException) {
+          Thread.currentThread().interrupt();
+        }
+        load.future.setException(e);
+      } catch (Error e) {
+        // fail the rest of the batch too, since rethrowing abandons it
+        load.future.setException(e);
+        while (entries.hasNext()) {
+          entries.next().getValue().future.setException(e);
+        }
+        throw e;
+      }
+    }
+  }
+
+  private static final class PendingLoad<V> {
+    final SettableFuture<V> future;
+    @CheckForNull final V oldValue;
+
+    PendingLoad(SettableFuture<V> future, @CheckForNull V oldValue) {
+      this.future = future;
+      this.oldValue = oldValue;
+    }
+  }
+}
@@ -87,12 +87,15 @@ import javax.annotation.CheckForNull;
  * {@code CacheBuilder} builds caches with any combination of the following features:
  *
  * <ul>
- *   <li>automatic loading of entries into the cache
- *   <li>least-recently-used eviction when a maximum size is exceeded (note that the cache is
- *       divided into segments, each of which does LRU internally)
- *   <li>time-based expiration of entries, measured since last access or last write
+ *   <li>automatic loading of entries into the cache, either blocking or {@linkplain #buildAsync
+ *       returning futures}
+ *   <li>least-recently-used (or frequency-aware) eviction when a maximum size is exceeded (note
+ *       that the cache is divided into segments, each of which evicts independently)
+ *   <li>time-based expiration of entries, measured since last access or last write, or computed
+ *       for each entry
  *   <li>keys automatically wrapped in {@code WeakReference}
- *   <li>values automatically wrapped in {@code WeakReference} or {@code SoftReference}
+ *   <li>values automatically wrapped in {@code WeakReference} or {@code SoftReference}, or stored
+ *       off-heap
  *   <li>notification of evicted (or otherwise removed) entries
  *   <li>accumulation of cache access statistics
  * </ul>
@@ -286,9 +289,11 @@ public final class CacheBuilder<K, V> {
   long maximumSize = UNSET_INT;
   long maximumWeight = UNSET_INT;
   @CheckForNull Weigher<? super K, ? super V> weigher;
+  @CheckForNull EvictionPolicy evictionPolicy;
 
   @CheckForNull Strength keyStrength;
   @CheckForNull Strength valueStrength;
+  @CheckForNull ValueCodec<?> valueCodec;
 
   @SuppressWarnings("GoodTime") // should be a java.time.Duration
   long expireAfterWriteNanos = UNSET_INT;
@@ -296,6 +301,8 @@ public final class CacheBuilder<K, V> {
   @SuppressWarnings("GoodTime") // should be a java.time.Duration
   long expireAfterAccessNanos = UNSET_INT;
 
+  @CheckForNull Expiry<? super K, ? super V> expiry;
+
   @SuppressWarnings("GoodTime") // should be a java.time.Duration
   long refreshNanos = UNSET_INT;
 
@@ -605,6 +612,35 @@ public final class CacheBuilder<K, V> {
     return (Weigher<K1, V1>) MoreObjects.firstNonNull(weigher, OneWeigher.INSTANCE);
   }
 
+  /**
+   * Specifies the algorithm used to choose which entry to evict when the cache exceeds its {@link
+   * #maximumSize} or {@link #maximumWeight}. Use of this method requires a corresponding call to
+   * one of those methods prior to calling {@link #build}.
+   *
+   * <p>By default, the cache uses {@link EvictionPolicy#LEAST_RECENTLY_USED}. {@link
+   * EvictionPolicy#WINDOW_TINY_LFU} usually achieves a better hit rate, in particular when the
+   * cache is also used for keys that are only ever requested once.
+   *
+   * @param evictionPolicy the algorithm that selects entries for size-based eviction
+   * @return this {@code CacheBuilder} instance (for chaining)
+   * @throws IllegalStateException if an eviction policy was already set
+   * @since NEXT
+   */
+  @GwtIncompatible // To be supported
+  @CanIgnoreReturnValue
+  public CacheBuilder<K, V> evictionPolicy(EvictionPolicy evictionPolicy) {
+    checkState(
+        this.evictionPolicy == null,
+        "eviction policy was already set to %s",
+        this.evictionPolicy);
+    this.evictionPolicy = checkNotNull(evictionPolicy);
+    return this;
+  }
+
+  EvictionPolicy getEvictionPolicy() {
+    return MoreObjects.firstNonNull(evictionPolicy, EvictionPolicy.LEAST_RECENTLY_USED);
+  }
+
   /**
    * Specifies that each key (not value) stored in the cache should be wrapped in a {@link
    * WeakReference} (by default, strong references are used).
@@ -698,6 +734,55 @@ public final class CacheBuilder<K, V> {
     return MoreObjects.firstNonNull(valueStrength, Strength.STRONG);
   }
 
+  /**
+   * Specifies that each value stored in the cache should be encoded with {@code codec} into memory
+   * outside of the Java heap (a direct {@link java.nio.ByteBuffer}), and decoded again whenever it
+   * is read. Only the keys and a small handle for each value remain on the heap, so the garbage
+   * collector doesn't need to copy or scan the values however large the cache grows. The values are
+   * stored in slabs of direct memory; the memory of a value is freed as soon as the value is
+   * removed or replaced and no read of it is in progress, and is then reused for later values. The
+   * slabs count towards the JVM's {@code -XX:MaxDirectMemorySize} limit and are released once the
+   * cache has been garbage collected.
+   *
+   * <p>The {@linkplain #weigher weigher} and {@linkplain #removalListener removal listener} see the
+   * values as usual: the weigher is given the value being written, and removal notifications carry
+   * a decoded copy of the removed value. A weigher returning the encoded size bounds the cache's
+   * off-heap memory with {@link #maximumWeight}.
+   *
+   * <p><b>Note:</b> every read returns a newly decoded instance, so the cache no longer returns the
+   * same instance that was put in it. Conditional operations such as {@code
+   * asMap().replace(key, oldValue, newValue)} compare values with the {@linkplain
+   * #valueEquivalence value equivalence}, which by default is {@link Object#equals} and therefore
+   * compares arrays by identity; specify a value equivalence if you need them to work with arrays.
+   *
+   * <p><b>Warning:</b> after this method is invoked, do not continue to use <i>this</i> cache
+   * builder reference; instead use the reference this method <i>returns</i>. At runtime, these
+   * point to the same instance, but only the returned reference has the correct generic type
+   * information to ensure type safety.
+   *
+   * @param codec the codec used to encode and decode the cached values, for example {@link
+   *     ValueCodec#byteArrays()}
+   * @return this {@code CacheBuilder} instance (for chaining)
+   * @throws IllegalStateException if a codec was already set
+   * @since NEXT
+   */
+  @GwtIncompatible // ByteBuffer
+  @CanIgnoreReturnValue
+  public <K1 extends K, V1 extends V> CacheBuilder<K1, V1> offHeapValues(ValueCodec<V1> codec) {
+    checkState(valueCodec == null, "offHeapValues was already set to %s", valueCodec);
+    // safely limiting the kinds of caches this can produce
+    @SuppressWarnings("unchecked")
+    CacheBuilder<K1, V1> me = (CacheBuilder<K1, V1>) this;
+    me.valueCodec = checkNotNull(codec);
+    return me;
+  }
+
+  @SuppressWarnings("unchecked") // the codec's type is fixed by offHeapValues
+  @CheckForNull
+  <V1 extends V> ValueCodec<V1> getValueCodec() {
+    return (ValueCodec<V1>) valueCodec;
+  }
+
   /**
    * Specifies that each entry should be automatically removed from the cache once a fixed duration
    * has elapsed after the entry's creation, or the most recent replacement of its value.
@@ -844,6 +929,51 @@ public final class CacheBuilder<K, V> {
         : expireAfterAccessNanos;
   }
 
+  /**
+   * Specifies that each entry should be automatically removed from the cache once the duration
+   * computed for it by {@code expiry} has elapsed. The duration is computed when the entry is
+   * created, when its value is replaced, and when it is read, so different entries may stay in the
+   * cache for different lengths of time. For example, cached HTTP responses can each expire
+   * according to their own headers.
+   *
+   * <p>Expired entries are found using a hierarchical timer wheel, so that cleaning them up costs
+   * amortized constant time per entry, regardless of how the entries' durations are distributed. A
+   * read that shortens an entry's duration takes effect immediately, but the entry may then stay in
+   * memory until the wheel reaches its original expiration time.
+   *
+   * <p>Expired entries may be counted in {@link Cache#size}, but will never be visible to read or
+   * write operations. Expired entries are cleaned up as part of the routine maintenance described
+   * in the class javadoc.
+   *
+   * <p><b>Warning:</b> after this method is invoked, do not continue to use <i>this</i> cache
+   * builder reference; instead use the reference this method <i>returns</i>. At runtime, these
+   * point to the same instance, but only the returned reference has the correct generic type
+   * information to ensure type safety.
+   *
+   * @param expiry the expiry to compute the duration of each entry with
+   * @return this {@code CacheBuilder} instance (for chaining)
+   * @throws IllegalStateException if an expiry was already set
+   * @since NEXT
+   */
+  @GwtIncompatible // Expiry
+  @CanIgnoreReturnValue
+  public <K1 extends K, V1 extends V> CacheBuilder<K1, V1> expireAfter(
+      Expiry<? super K1, ? super V1> expiry) {
+    checkState(this.expiry == null, "expiry was already set to %s", this.expiry);
+    // safely limiting the kinds of caches this can produce
+    @SuppressWarnings("unchecked")
+    CacheBuilder<K1, V1> me = (CacheBuilder<K1, V1>) this;
+    me.expiry = checkNotNull(expiry);
+    return me;
+  }
+
+  // Make a safe contravariant cast now so we don't have to do it over and over.
+  @SuppressWarnings("unchecked")
+  @CheckForNull
+  <K1 extends K, V1 extends V> Expiry<K1, V1> getExpiry() {
+    return (Expiry<K1, V1>) expiry;
+  }
+
   /**
    * Specifies that active entries are eligible for automatic refresh once a fixed duration has
    * elapsed after the entry's creation, or the most recent replacement of its value. The semantics
@@ -1003,8 +1133,38 @@ public final class CacheBuilder<K, V> {
     return this;
   }
 
+  /**
+   * Enable the accumulation of statistics during the operation of the cache, using counters created
+   * by {@code statsCounterSupplier}. The supplier is called once for each segment of the cache (see
+   * {@link #concurrencyLevel}) and once more for operations which don't belong to a segment; {@link
+   * Cache#stats} returns the sum of their {@linkplain StatsCounter#snapshot snapshots}.
+   *
+   * <p>Besides the totals reported by {@link CacheStats}, these counters are told about each load
+   * with its latency, the age of each evicted entry, each time a thread waits for the lock of their
+   * segment, and the duration of each round of maintenance of their segment. Since each segment has
+   * its own counter, this can be used to find a contended segment or a slow loader. The counters
+   * are often called while the cache holds locks, so they must be thread-safe and fast, and must
+   * not access the cache. Recording these statistics requires reading the {@linkplain #ticker
+   * ticker} more often than {@link #recordStats()}.
+   *
+   * @param statsCounterSupplier creates the counters for the cache
+   * @return this {@code CacheBuilder} instance (for chaining)
+   * @since NEXT
+   */
+  @CanIgnoreReturnValue
+  public CacheBuilder<K, V> recordStats(Supplier<? extends StatsCounter> statsCounterSupplier) {
+    this.statsCounterSupplier = checkNotNull(statsCounterSupplier);
+    return this;
+  }
+
   boolean isRecordingStats() {
-    return statsCounterSupplier == CACHE_STATS_COUNTER;
+    return statsCounterSupplier != NULL_STATS_COUNTER;
+  }
+
+  /** Returns whether the stats counters were supplied by the user, rather than by the cache. */
+  boolean isRecordingDetailedStats() {
+    return statsCounterSupplier != NULL_STATS_COUNTER
+        && statsCounterSupplier != CACHE_STATS_COUNTER;
   }
 
   Supplier<? extends StatsCounter> getStatsCounterSupplier() {
@@ -1026,9 +1186,43 @@ public final class CacheBuilder<K, V> {
   public <K1 extends K, V1 extends V> LoadingCache<K1, V1> build(
       CacheLoader<? super K1, V1> loader) {
     checkWeightWithWeigher();
+    checkEvictionPolicy();
+    checkExpiry();
+    checkValueCodec();
     return new LocalCache.LocalLoadingCache<>(this, loader);
   }
 
+  /**
+   * Builds a cache which starts loading values with the supplied {@code AsyncCacheLoader} and
+   * returns futures of them, instead of blocking the calling thread until the value is loaded. The
+   * cache stores each future as soon as it is returned by the loader, so concurrent requests for a
+   * key share a single load, and removes futures which fail.
+   *
+   * <p>The {@linkplain #weigher weigher} and {@linkplain #removalListener removal listener} are
+   * applied to the values of the futures: a future weighs nothing until it has succeeded, and
+   * removal notifications are only sent for futures which have succeeded. {@link
+   * #refreshAfterWrite} keeps returning the old value until the new one has been loaded.
+   *
+   * <p>This method does not alter the state of this {@code CacheBuilder} instance, so it can be
+   * invoked again to create multiple independent caches.
+   *
+   * @param loader the loader used to start loading new values
+   * @return a cache having the requested features
+   * @throws IllegalStateException if {@link #weakValues} was requested, since nothing else would
+   *     keep the cached futures reachable
+   * @since NEXT
+   */
+  @GwtIncompatible // ListenableFuture
+  public <K1 extends K, V1 extends V> AsyncLoadingCache<K1, V1> buildAsync(
+      AsyncCacheLoader<? super K1, V1> loader) {
+    checkWeightWithWeigher();
+    checkEvictionPolicy();
+    checkState(valueStrength != Strength.WEAK, "weakValues is not supported by buildAsync");
+    checkState(expiry == null, "expireAfter is not supported by buildAsync");
+    checkState(valueCodec == null, "offHeapValues is not supported by buildAsync");
+    return new LocalAsyncLoadingCache<>(this, loader);
+  }
+
   /**
    * Builds a cache which does not automatically load values when keys are requested.
    *
@@ -1043,6 +1237,9 @@ public final class CacheBuilder<K, V> {
    */
   public <K1 extends K, V1 extends V> Cache<K1, V1> build() {
     checkWeightWithWeigher();
+    checkEvictionPolicy();
+    checkExpiry();
+    checkValueCodec();
     checkNonLoadingCache();
     return new LocalCache.LocalManualCache<>(this);
   }
@@ -1066,6 +1263,30 @@ public final class CacheBuilder<K, V> {
     }
   }
 
+  private void checkEvictionPolicy() {
+    if (evictionPolicy != null) {
+      checkState(
+          maximumSize != UNSET_INT || maximumWeight != UNSET_INT,
+          "evictionPolicy requires maximumSize or maximumWeight");
+    }
+  }
+
+  private void checkValueCodec() {
+    if (valueCodec != null) {
+      checkState(
+          getValueStrength() == Strength.STRONG,
+          "offHeapValues cannot be combined with weakValues or softValues");
+    }
+  }
+
+  private void checkExpiry() {
+    if (expiry != null) {
+      checkState(
+          expireAfterWriteNanos == UNSET_INT && expireAfterAccessNanos == UNSET_INT,
+          "expireAfter cannot be combined with expireAfterWrite or expireAfterAccess");
+    }
+  }
+
   /**
    * Returns a string representation for this CacheBuilder instance. The exact form of the returned
    * string is not specified.
@@ -1085,12 +1306,21 @@ public final class CacheBuilder<K, V> {
     if (maximumWeight != UNSET_INT) {
       s.add("maximumWeight", maximumWeight);
     }
+    if (evictionPolicy != null) {
+      s.add("evictionPolicy", Ascii.toLowerCase(evictionPolicy.toString()));
+    }
     if (expireAfterWriteNanos != UNSET_INT) {
       s.add("expireAfterWrite", expireAfterWriteNanos + "ns");
     }
     if (expireAfterAccessNanos != UNSET_INT) {
       s.add("expireAfterAccess", expireAfterAccessNanos + "ns");
     }
+    if (expiry != null) {
+      s.addValue("expireAfter");
+    }
+    if (valueCodec != null) {
+      s.add("offHeapValues", valueCodec);
+    }
     if (keyStrength != null) {
       s.add("keyStrength", Ascii.toLowerCase(keyStrength.toString()));
     }
@@ -14,6 +14,7 @@
 
 package com.google.common.cache;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.annotations.GwtCompatible;
@@ -26,6 +27,8 @@ import com.google.common.util.concurrent.ListenableFutureTask;
 import java.io.Serializable;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Computes or retrieves values, based on a key, for use in populating a {@link LoadingCache}.
@@ -207,6 +210,41 @@ public abstract class CacheLoader<K, V> {
     };
   }
 
+  /**
+   * Returns a {@code CacheLoader} which wraps {@code loader}, combining the keys passed to {@link
+   * CacheLoader#load} and {@link CacheLoader#reload} within {@code window} of each other into a
+   * single call to {@code loader.loadAll}, which runs on {@code executor}.
+   *
+   * <p>This is useful when each call to the backing store is expensive but it can answer many keys
+   * at once, for example a remote service with a bulk lookup. With {@link
+   * CacheBuilder#refreshAfterWrite}, refreshes of many entries that become stale around the same
+   * time are then served by a few bulk requests instead of one request per key, and {@code reload}
+   * returns immediately instead of blocking the thread that triggered the refresh. A key that is
+   * requested again while it is waiting for its batch, or while its batch is loading, shares the
+   * pending result instead of being loaded twice.
+   *
+   * <p>A call to {@code load} blocks until its batch has been loaded, so the batching window is
+   * added to the latency of every cache miss; keep it short. If {@code loader} doesn't override
+   * {@code loadAll}, the keys of each batch are loaded one at a time using {@code loader.load} or
+   * {@code loader.reload}. A key missing from the map returned by {@code loadAll} fails with
+   * {@link InvalidCacheLoadException}, and if {@code loadAll} throws any other exception, every key
+   * of the batch fails with it. Calls to the returned loader's own {@code loadAll} (such as those
+   * made by {@link LoadingCache#getAll}) go straight to {@code loader}.
+   *
+   * @param loader the loader used to load the batches
+   * @param window how long to wait for more keys after the first key of a batch is requested
+   * @param unit the unit that {@code window} is expressed in
+   * @param executor the executor used to wait out the window and to run {@code loader.loadAll}
+   * @throws IllegalArgumentException if {@code window} is negative
+   * @since NEXT
+   */
+  @GwtIncompatible // ScheduledExecutorService
+  public static <K, V> CacheLoader<K, V> batchLoading(
+      CacheLoader<K, V> loader, long window, TimeUnit unit, ScheduledExecutorService executor) {
+    checkArgument(window >= 0, "window must not be negative: %s %s", window, unit);
+    return new BatchingCacheLoader<>(loader, unit.toNanos(window), executor);
+  }
+
   private static final class SupplierToCacheLoader<V> extends CacheLoader<Object, V>
       implements Serializable {
     private final Supplier<V> computingSupplier;
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.cache;
+
+import com.google.common.annotations.GwtIncompatible;
+
+/**
+ * Calculates how long each cache entry may stay in the cache, for caches built with {@link
+ * CacheBuilder#expireAfter}. For example, the entries of a cache of HTTP responses might each
+ * expire according to the {@code max-age} of the response.
+ *
+ * <p>All durations are in nanoseconds, as measured by the cache's {@linkplain CacheBuilder#ticker
+ * ticker}. A duration of zero or less makes the entry expire immediately. The methods are called
+ * while the cache holds a lock (except for {@link #expireAfterRead}), so they should be fast and
+ * must not access the cache.
+ *
+ * @since NEXT
+ */
+@GwtIncompatible
+@FunctionalInterface
+@ElementTypesAreNonnullByDefault
+public interface Expiry<K, V> {
+
+  /**
+   * Returns how long the entry for {@code key} may stay in the cache after it was created, either
+   * by being loaded or by being put into the cache.
+   *
+   * @return the length of time in nanoseconds until the entry expires
+   */
+  long expireAfterCreate(K key, V value);
+
+  /**
+   * Returns how long the entry for {@code key} may stay in the cache after its value was replaced
+   * by {@code value}, including by a refresh. The default implementation treats the new value like
+   * a newly created entry.
+   *
+   * @param currentDuration the time remaining in nanoseconds until the entry would have expired
+   *     with its previous value
+   * @return the length of time in nanoseconds until the entry expires
+   */
+  default long expireAfterUpdate(K key, V value, long currentDuration) {
+    return expireAfterCreate(key, value);
+  }
+
+  /**
+   * Returns how long the entry for {@code key} may stay in the cache after it was read. The default
+   * implementation returns {@code currentDuration}, so that reads don't affect expiration.
+   *
+   * @param currentDuration the time remaining in nanoseconds until the entry would have expired
+   * @return the length of time in nanoseconds until the entry expires
+   */
+  default long expireAfterRead(K key, V value, long currentDuration) {
+    return currentDuration;
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.cache;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * A probabilistic estimate of how often each key of a cache segment has been used recently, used
+ * by {@link EvictionPolicy#WINDOW_TINY_LFU} to decide whether a newly inserted entry deserves to
+ * displace an existing one.
+ *
+ * <p>This is a count-min sketch of four rows of 4-bit counters, so a popularity can be at most 15.
+ * Each row is indexed by a differently seeded rehash of the key's hash code, and the estimate is
+ * the minimum of the four counters. To keep the history recent, every counter is halved once the
+ * number of increments reaches ten times the sketch's capacity.
+ *
+ * <p>Instances are not thread-safe; a segment only touches its sketch while holding its lock.
+ */
+@GwtIncompatible
+@ElementTypesAreNonnullByDefault
+final class FrequencySketch {
+  /*
+   * Each long in the table holds sixteen 4-bit counters. Row i of the sketch uses the counters
+   * whose offset within the long is in [4 * i, 4 * i + 3], so that the four counters of a key are
+   * spread over four (usually different) longs without needing four separate arrays.
+   */
+
+  private static final long[] SEEDS = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+  private static final long RESET_MASK = 0x7777777777777777L;
+
+  private final long[] table;
+  private final int tableMask;
+  private final int sampleSize;
+  private int additions;
+
+  /**
+   * Creates a sketch that can accurately estimate the popularity of {@code maximumSize} distinct
+   * keys. The sketch never grows, since growing would discard all recorded frequencies.
+   */
+  FrequencySketch(long maximumSize) {
+    int maximum = (int) Math.max(1, Math.min(maximumSize, 1 << 30));
+    table = new long[Math.max(1, Integer.highestOneBit(maximum - 1) << 1)];
+    tableMask = table.length - 1;
+    sampleSize = (10 * maximum <= 0) ? Integer.MAX_VALUE : 10 * maximum;
+  }
+
+  /** Returns the estimated number of recent occurrences of {@code hash}, between 0 and 15. */
+  int frequency(int hash) {
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i);
+      int count = (int) ((table[index] >>> offsetOf(hash, i)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /** Records one more occurrence of {@code hash}, aging the sketch if its sample is full. */
+  void increment(int hash) {
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), offsetOf(hash, i));
+    }
+    if (added && ++additions == sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(int index, int offset) {
+    long mask = 0xfL << offset;
+    if ((table[index] & mask) != mask) {
+      table[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  /** Halves every counter, so that old popularity fades away. */
+  @VisibleForTesting
+  void reset() {
+    int odd = 0;
+    for (int i = 0; i < table.length; i++) {
+      odd += Long.bitCount(table[i] & 0x1111111111111111L);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    additions = (additions - (odd >>> 2)) >>> 1;
+  }
+
+  private int indexOf(int hash, int row) {
+    long h = (hash + SEEDS[row]) * SEEDS[row];
+    h += h >>> 32;
+    return ((int) h) & tableMask;
+  }
+
+  private static int offsetOf(int hash, int row) {
+    // a different pair of hash bits for each row chooses one of the four counters the row owns
+    return ((row << 2) + ((hash >>> (row << 3)) & 3)) << 2;
+  }
+}
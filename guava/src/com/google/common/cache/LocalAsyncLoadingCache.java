@@ -0,0 +1,320 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.CheckForNull;
+
+/**
+ * An {@link AsyncLoadingCache} backed by a {@link LocalCache} whose values are the futures
+ * returned by the {@link AsyncCacheLoader}.
+ *
+ * <p>The weigher and removal listener of the builder are written in terms of the values rather
+ * than their futures, so they are adapted: a future is weighed once it has succeeded (it weighs
+ * nothing while it is loading), and removal notifications are only sent for futures which have
+ * succeeded.
+ */
+@GwtIncompatible // ListenableFuture
+@ElementTypesAreNonnullByDefault
+final class LocalAsyncLoadingCache<K, V> implements AsyncLoadingCache<K, V> {
+  private final LocalCache.LocalLoadingCache<K, ListenableFuture<V>> cache;
+  private final boolean weighsValues;
+
+  LocalAsyncLoadingCache(
+      CacheBuilder<? super K, ? super V> builder, AsyncCacheLoader<? super K, V> loader) {
+    checkNotNull(loader);
+    @SuppressWarnings("unchecked") // a new builder has neither a weigher nor a removal listener
+    CacheBuilder<K, ListenableFuture<V>> futureBuilder =
+        (CacheBuilder<K, ListenableFuture<V>>) (CacheBuilder<?, ?>) CacheBuilder.newBuilder();
+    futureBuilder.strictParsing = builder.strictParsing;
+    futureBuilder.initialCapacity = builder.initialCapacity;
+    futureBuilder.concurrencyLevel = builder.concurrencyLevel;
+    futureBuilder.maximumSize = builder.maximumSize;
+    futureBuilder.maximumWeight = builder.maximumWeight;
+    futureBuilder.evictionPolicy = builder.evictionPolicy;
+    futureBuilder.keyStrength = builder.keyStrength;
+    futureBuilder.valueStrength = builder.valueStrength;
+    futureBuilder.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+    futureBuilder.expireAfterAccessNanos = builder.expireAfterAccessNanos;
+    futureBuilder.refreshNanos = builder.refreshNanos;
+    futureBuilder.keyEquivalence = builder.keyEquivalence;
+    futureBuilder.ticker = builder.ticker;
+    futureBuilder.statsCounterSupplier = builder.statsCounterSupplier;
+
+    Weigher<? super K, ? super V> weigher = builder.weigher;
+    weighsValues = weigher != null;
+    if (weigher != null) {
+      futureBuilder.weigher = new FutureWeigher<K, V>(weigher);
+    }
+    RemovalListener<? super K, ? super V> removalListener = builder.removalListener;
+    if (removalListener != null) {
+      futureBuilder.removalListener = new FutureRemovalListener<K, V>(removalListener);
+    }
+    cache = new LocalCache.LocalLoadingCache<>(futureBuilder, new FutureLoader(loader));
+  }
+
+  @Override
+  public ListenableFuture<V> get(K key) {
+    ListenableFuture<V> future;
+    try {
+      future = cache.get(key);
+    } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+      return Futures.immediateFailedFuture(e.getCause());
+    }
+    return checkCompleted(key, future);
+  }
+
+  @Override
+  public ListenableFuture<ImmutableMap<K, V>> getAll(Iterable<? extends K> keys) {
+    ImmutableMap<K, ListenableFuture<V>> futures;
+    try {
+      futures = cache.getAll(keys);
+    } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+      return Futures.immediateFailedFuture(e.getCause());
+    }
+    for (Map.Entry<K, ListenableFuture<V>> entry : futures.entrySet()) {
+      ListenableFuture<V> unused = checkCompleted(entry.getKey(), entry.getValue());
+    }
+    ImmutableList<K> orderedKeys = futures.keySet().asList();
+    return Futures.transform(
+        Futures.allAsList(futures.values()),
+        (List<V> values) -> {
+          ImmutableMap.Builder<K, V> result = ImmutableMap.builderWithExpectedSize(values.size());
+          for (int i = 0; i < values.size(); i++) {
+            result.put(orderedKeys.get(i), values.get(i));
+          }
+          return result.buildOrThrow();
+        },
+        directExecutor());
+  }
+
+  @Override
+  @CheckForNull
+  public ListenableFuture<V> getIfPresent(Object key) {
+    ListenableFuture<V> future = cache.getIfPresent(key);
+    if (future != null) {
+      @SuppressWarnings("unchecked") // the key is in the cache, so it's a K
+      K castKey = (K) key;
+      return checkCompleted(castKey, future);
+    }
+    return null;
+  }
+
+  @Override
+  public void put(K key, ListenableFuture<V> valueFuture) {
+    cache.put(key, valueFuture);
+    onCompletion(key, valueFuture);
+  }
+
+  @Override
+  public void refresh(K key) {
+    cache.refresh(key);
+  }
+
+  @Override
+  public void invalidate(Object key) {
+    cache.invalidate(key);
+  }
+
+  @Override
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  @Override
+  public long size() {
+    return cache.size();
+  }
+
+  @Override
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  @Override
+  public ConcurrentMap<K, ListenableFuture<V>> asMap() {
+    return cache.asMap();
+  }
+
+  @Override
+  public void cleanUp() {
+    cache.cleanUp();
+  }
+
+  /**
+   * Arranges for {@code future} to be removed from the cache if it fails, or to be weighed again if
+   * it succeeds while the cache has a weigher.
+   */
+  private void onCompletion(K key, ListenableFuture<V> future) {
+    if (future.isDone()) {
+      completed(key, future);
+    } else {
+      future.addListener(() -> completed(key, future), directExecutor());
+    }
+  }
+
+  private void completed(K key, ListenableFuture<V> future) {
+    if (!succeeded(future)) {
+      cache.asMap().remove(key, future);
+    } else if (weighsValues) {
+      cache.localCache.reweigh(key, future);
+    }
+  }
+
+  /**
+   * Removes {@code future} from the cache if it has already failed. This catches futures which
+   * failed before the cache stored them, which {@link #onCompletion} cannot remove.
+   */
+  private ListenableFuture<V> checkCompleted(K key, ListenableFuture<V> future) {
+    if (future.isDone() && !succeeded(future)) {
+      cache.asMap().remove(key, future);
+    }
+    return future;
+  }
+
+  private static boolean succeeded(ListenableFuture<?> future) {
+    try {
+      Futures.getDone(future);
+      return true;
+    } catch (ExecutionException | RuntimeException e) {
+      return false;
+    }
+  }
+
+  /** Adapts the {@link AsyncCacheLoader} to a {@link CacheLoader} of futures. */
+  private final class FutureLoader extends CacheLoader<K, ListenableFuture<V>> {
+    private final AsyncCacheLoader<? super K, V> loader;
+
+    FutureLoader(AsyncCacheLoader<? super K, V> loader) {
+      this.loader = loader;
+    }
+
+    /** Fails the returned future, like any other loading failure, if the loader returns null. */
+    @Override
+    public ListenableFuture<V> load(K key) throws Exception {
+      ListenableFuture<V> future = loadNonNull(key);
+      onCompletion(key, future);
+      return future;
+    }
+
+    /**
+     * Loads the new value without replacing the old future until the new value is available, so
+     * that readers keep seeing the old value in the meantime.
+     */
+    @Override
+    public ListenableFuture<ListenableFuture<V>> reload(K key, ListenableFuture<V> oldValue)
+        throws Exception {
+      return Futures.transform(loadNonNull(key), Futures::immediateFuture, directExecutor());
+    }
+
+    private ListenableFuture<V> loadNonNull(K key) throws Exception {
+      ListenableFuture<V> future = loader.load(key);
+      if (future == null) {
+        String message = "AsyncCacheLoader returned null for key " + key + ".";
+        future = Futures.immediateFailedFuture(new InvalidCacheLoadException(message));
+      }
+      return future;
+    }
+
+    @Override
+    public Map<K, ListenableFuture<V>> loadAll(Iterable<? extends K> keys) throws Exception {
+      @SuppressWarnings("unchecked") // the loader only returns the keys it is asked for
+      ListenableFuture<Map<K, V>> loaded =
+          (ListenableFuture<Map<K, V>>) (ListenableFuture<?>) loader.loadAll(keys);
+      checkNotNull(loaded, "loadAll returned a null future");
+      Map<K, ListenableFuture<V>> result = Maps.newLinkedHashMap();
+      for (K key : keys) {
+        ListenableFuture<V> future =
+            Futures.transform(
+                loaded,
+                values -> {
+                  V value = values.get(key);
+                  if (value == null) {
+                    throw new InvalidCacheLoadException(
+                        "loadAll failed to return a value for " + key);
+                  }
+                  return value;
+                },
+                directExecutor());
+        onCompletion(key, future);
+        result.put(key, future);
+      }
+      return result;
+    }
+  }
+
+  /** Weighs a future by its value once it has succeeded. */
+  private static final class FutureWeigher<K, V> implements Weigher<K, ListenableFuture<V>> {
+    private final Weigher<? super K, ? super V> weigher;
+
+    FutureWeigher(Weigher<? super K, ? super V> weigher) {
+      this.weigher = weigher;
+    }
+
+    @Override
+    public int weigh(K key, ListenableFuture<V> value) {
+      if (!value.isDone()) {
+        return 0;
+      }
+      try {
+        return weigher.weigh(key, Futures.getDone(value));
+      } catch (ExecutionException | RuntimeException e) {
+        // failed futures are removed as soon as they are noticed
+        return 0;
+      }
+    }
+  }
+
+  /** Notifies the user's removal listener of the removal of succeeded futures. */
+  private static final class FutureRemovalListener<K, V>
+      implements RemovalListener<K, ListenableFuture<V>> {
+    private final RemovalListener<? super K, ? super V> listener;
+
+    FutureRemovalListener(RemovalListener<? super K, ? super V> listener) {
+      this.listener = listener;
+    }
+
+    @Override
+    public void onRemoval(RemovalNotification<K, ListenableFuture<V>> notification) {
+      ListenableFuture<V> future = notification.getValue();
+      if (future == null || !future.isDone()) {
+        return;
+      }
+      V value;
+      try {
+        value = Futures.getDone(future);
+      } catch (ExecutionException | RuntimeException e) {
+        return;
+      }
+      listener.onRemoval(
+          RemovalNotification.create(notification.getKey(), value, notification.getCause()));
+    }
+  }
+}
@@ -22,6 +22,7 @@ import static com.google.common.util.concurrent.Futures.transform;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static com.google.common.util.concurrent.Uninterruptibles.getUninterruptibly;
 import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import com.google.common.annotations.GwtCompatible;
@@ -62,13 +63,16 @@ import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
 import java.util.AbstractCollection;
 import java.util.AbstractMap;
 import java.util.AbstractQueue;
 import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Queue;
@@ -79,6 +83,8 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiFunction;
@@ -170,6 +176,19 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
   // TODO(fry): empirically optimize this
   static final int DRAIN_MAX = 16;
 
+  /**
+   * The most keys per segment that the frequency sketch of {@link EvictionPolicy#WINDOW_TINY_LFU}
+   * is sized for when the cache has a weigher. The sketch is allocated when the segment is built,
+   * and a maximum weight (often in bytes) says little about the number of entries.
+   */
+  static final int MAX_WEIGHED_SKETCH_KEYS = 1 << 20;
+
+  /**
+   * The longest duration, in nanoseconds (about 146 years), that an {@link Expiry} can keep an
+   * entry for; longer durations are treated as this one.
+   */
+  static final long MAX_EXPIRY_NANOS = Long.MAX_VALUE >> 1;
+
   // Fields
 
   static final Logger logger = Logger.getLogger(LocalCache.class.getName());
@@ -204,12 +223,21 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
   /** Strategy for referencing values. */
   final Strength valueStrength;
 
+  /** Encodes values into off-heap memory, or null if values are kept on the heap. */
+  @CheckForNull final ValueCodec<V> valueCodec;
+
+  /** Holds the encoded values, or null if values are kept on the heap. */
+  @CheckForNull final OffHeapArena offHeapArena;
+
   /** The maximum weight of this map. UNSET_INT if there is no maximum. */
   final long maxWeight;
 
   /** Weigher to weigh cache entries. */
   final Weigher<K, V> weigher;
 
+  /** The algorithm choosing which entries to evict when over the maximum weight. */
+  final EvictionPolicy evictionPolicy;
+
   /** How long after the last access to an entry the map will retain that entry. */
   final long expireAfterAccessNanos;
 
@@ -219,6 +247,9 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
   /** How long after the last write an entry becomes a candidate for refresh. */
   final long refreshNanos;
 
+  /** Computes how long each entry is retained, or null if entries don't expire individually. */
+  @CheckForNull final Expiry<K, V> expiry;
+
   /** Entries waiting to be consumed by the removal listener. */
   // TODO(fry): define a new type which creates event objects and automates the clear logic
   final Queue<RemovalNotification<K, V>> removalNotificationQueue;
@@ -241,6 +272,12 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
    */
   final StatsCounter globalStatsCounter;
 
+  /**
+   * Whether the stats counters were supplied by the user, who is told about lock contention, drain
+   * durations and eviction ages as well as the totals of {@link CacheStats}.
+   */
+  final boolean recordsDetailedStats;
+
   /** The default cache loader to use on loading operations. */
   @CheckForNull final CacheLoader<? super K, V> defaultLoader;
 
@@ -253,15 +290,19 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
 
     keyStrength = builder.getKeyStrength();
     valueStrength = builder.getValueStrength();
+    valueCodec = builder.getValueCodec();
+    offHeapArena = (valueCodec == null) ? null : new OffHeapArena();
 
     keyEquivalence = builder.getKeyEquivalence();
     valueEquivalence = builder.getValueEquivalence();
 
     maxWeight = builder.getMaximumWeight();
     weigher = builder.getWeigher();
+    evictionPolicy = builder.getEvictionPolicy();
     expireAfterAccessNanos = builder.getExpireAfterAccessNanos();
     expireAfterWriteNanos = builder.getExpireAfterWriteNanos();
     refreshNanos = builder.getRefreshNanos();
+    expiry = builder.getExpiry();
 
     removalListener = builder.getRemovalListener();
     removalNotificationQueue =
@@ -269,6 +310,7 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
             ? LocalCache.discardingQueue()
             : new ConcurrentLinkedQueue<>();
 
+    recordsDetailedStats = builder.isRecordingDetailedStats();
     ticker = builder.getTicker(recordsTime());
     entryFactory = EntryFactory.getFactory(keyStrength, usesAccessEntries(), usesWriteEntries());
     globalStatsCounter = builder.getStatsCounterSupplier().get();
@@ -333,8 +375,12 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
     return weigher != OneWeigher.INSTANCE;
   }
 
+  boolean usesFrequencySketch() {
+    return evictsBySize() && evictionPolicy == EvictionPolicy.WINDOW_TINY_LFU;
+  }
+
   boolean expires() {
-    return expiresAfterWrite() || expiresAfterAccess();
+    return expiresAfterWrite() || expiresAfterAccess() || expiresVariably();
   }
 
   boolean expiresAfterWrite() {
@@ -345,6 +391,16 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
     return expireAfterAccessNanos > 0;
   }
 
+  /*
+   * When entries expire variably, each entry's expiration time is stored in its access time, and
+   * its write queue links are used to place it in a bucket of the segment's TimerWheel. Neither is
+   * otherwise used, since expireAfter can't be combined with expireAfterAccess or
+   * expireAfterWrite.
+   */
+  boolean expiresVariably() {
+    return expiry != null;
+  }
+
   boolean refreshes() {
     return refreshNanos > 0;
   }
@@ -358,7 +414,7 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
   }
 
   boolean recordsWrite() {
-    return expiresAfterWrite() || refreshes();
+    return expiresAfterWrite() || refreshes() || recordsDetailedStats;
   }
 
   boolean recordsAccess() {
@@ -366,15 +422,15 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
   }
 
   boolean recordsTime() {
-    return recordsWrite() || recordsAccess();
+    return recordsWrite() || recordsAccess() || expiresVariably();
   }
 
   boolean usesWriteEntries() {
-    return usesWriteQueue() || recordsWrite();
+    return usesWriteQueue() || recordsWrite() || expiresVariably();
   }
 
   boolean usesAccessEntries() {
-    return usesAccessQueue() || recordsAccess();
+    return usesAccessQueue() || recordsAccess() || expiresVariably();
   }
 
   boolean usesKeyReferences() {
@@ -971,6 +1027,86 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
     return (Queue) DISCARDING_QUEUE;
   }
 
+  /**
+   * A bounded, lossy queue used to record reads. Any number of threads may offer elements
+   * concurrently, but only one thread at a time (the holder of the segment lock) may poll.
+   *
+   * <p>Offering never blocks or allocates: elements are stored in a fixed-size ring, and {@link
+   * #offer} simply drops the element and returns {@code false} when the ring is full or another
+   * thread is concurrently claiming the same slot. Losing a read only means that the entry's
+   * position in the access order is not updated.
+   */
+  static final class ReadBuffer<E> extends AbstractQueue<E> {
+    /** The number of slots, which must be a power of two. */
+    static final int CAPACITY = 2 * (DRAIN_THRESHOLD + 1);
+
+    static final int MASK = CAPACITY - 1;
+
+    final AtomicReferenceArray<@Nullable E> buffer = new AtomicReferenceArray<>(CAPACITY);
+
+    /** The number of slots claimed by producers so far. */
+    final AtomicLong writeCounter = new AtomicLong();
+
+    /** The number of elements polled so far; only written by the consumer. */
+    volatile long readCounter;
+
+    @Override
+    public boolean offer(E e) {
+      checkNotNull(e);
+      long tail = writeCounter.get();
+      if (tail - readCounter >= CAPACITY || !writeCounter.compareAndSet(tail, tail + 1)) {
+        return false;
+      }
+      buffer.lazySet(index(tail), e);
+      return true;
+    }
+
+    @CheckForNull
+    @Override
+    public E poll() {
+      long head = readCounter;
+      int index = index(head);
+      E e = buffer.get(index);
+      if (e == null) {
+        // empty, or the next slot was claimed but its element is not published yet
+        return null;
+      }
+      buffer.lazySet(index, null);
+      readCounter = head + 1;
+      return e;
+    }
+
+    @CheckForNull
+    @Override
+    public E peek() {
+      return buffer.get(index(readCounter));
+    }
+
+    @Override
+    public @NonNegative int size() {
+      long size = writeCounter.get() - readCounter;
+      return (int) Math.max(0, Math.min(size, CAPACITY));
+    }
+
+    /** Returns a weakly consistent snapshot of the elements which have not been polled yet. */
+    @Override
+    public Iterator<E> iterator() {
+      List<E> elements = new ArrayList<>();
+      for (long i = readCounter, tail = writeCounter.get(); i < tail; i++) {
+        E e = buffer.get(index(i));
+        if (e == null) {
+          break;
+        }
+        elements.add(e);
+      }
+      return Collections.unmodifiableList(elements).iterator();
+    }
+
+    private static int index(long counter) {
+      return (int) counter & MASK;
+    }
+  }
+
   /*
    * Note: All of this duplicate code sucks, but it saves a lot of memory. If only Java had mixins!
    * To maintain this code, make a change for the strong reference type. Then, cut and paste, and
@@ -1625,6 +1761,197 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
     public void notifyNewValue(V newValue) {}
   }
 
+  /**
+   * References a value encoded into a chunk of an {@link OffHeapArena}. The chunk is never modified
+   * while the value is in the cache, so concurrent readers can decode it without locking.
+   *
+   * <p>The reference is {@linkplain #encode created} before the segment lock is taken, and is
+   * {@linkplain #retire retired} under the lock once the value is replaced or removed. Its chunk is
+   * freed as soon as it is both retired and not being decoded by any reader; a reader which finds
+   * the reference retired reads the value that replaced it instead, if any.
+   */
+  static final class OffHeapValueReference<K, V> implements ValueReference<K, V> {
+    @SuppressWarnings("rawtypes") // the field's type is the raw class
+    private static final AtomicIntegerFieldUpdater<OffHeapValueReference> STATE =
+        AtomicIntegerFieldUpdater.newUpdater(OffHeapValueReference.class, "state");
+
+    /** The bit of {@link #state} that is set once the reference is retired. */
+    private static final int RETIRED = 1;
+
+    /** The amount that each reader decoding the value adds to {@link #state}. */
+    private static final int READER = 2;
+
+    final ValueCodec<V> codec;
+    final OffHeapArena arena;
+    final long chunk;
+    final int size;
+
+    /** The weight of the value, set by {@link Segment#setValue} before publishing the reference. */
+    int weight;
+
+    /** Whether the reference has been stored in an entry. Only accessed by the creating thread. */
+    boolean stored;
+
+    /** The readers decoding the value, times {@link #READER}, plus {@link #RETIRED} if retired. */
+    private volatile int state;
+
+    /** The reference that replaced this one, if it was replaced rather than removed. */
+    @CheckForNull private volatile ValueReference<K, V> successor;
+
+    private OffHeapValueReference(ValueCodec<V> codec, OffHeapArena arena, long chunk, int size) {
+      this.codec = codec;
+      this.arena = arena;
+      this.chunk = chunk;
+      this.size = size;
+    }
+
+    /**
+     * Encodes {@code value} into newly allocated memory. The caller must either {@linkplain
+     * Segment#setValue store} the returned reference or {@linkplain #discardIfNotStored discard}
+     * it.
+     */
+    static <K, V> OffHeapValueReference<K, V> encode(
+        ValueCodec<V> codec, OffHeapArena arena, V value) {
+      int size = codec.encodedSize(value);
+      checkState(size >= 0, "Encoded sizes must be non-negative");
+      long chunk = arena.allocate(size);
+      try {
+        ByteBuffer buffer = arena.buffer(chunk, size);
+        codec.encode(value, buffer);
+        checkState(
+            !buffer.hasRemaining(),
+            "%s wrote %s bytes, but its encoded size was %s",
+            codec,
+            buffer.position(),
+            size);
+      } catch (Throwable t) {
+        arena.free(chunk, size);
+        throw t;
+      }
+      return new OffHeapValueReference<>(codec, arena, chunk, size);
+    }
+
+    /** Frees the memory of this reference unless it was stored in an entry. */
+    void discardIfNotStored() {
+      if (!stored) {
+        arena.free(chunk, size);
+      }
+    }
+
+    @Override
+    @CheckForNull
+    public V get() {
+      int state;
+      do {
+        state = this.state;
+        if ((state & RETIRED) != 0) {
+          ValueReference<K, V> successor = this.successor;
+          return (successor == null) ? null : successor.get();
+        }
+      } while (!STATE.compareAndSet(this, state, state + READER));
+      try {
+        return codec.decode(arena.buffer(chunk, size).asReadOnlyBuffer());
+      } finally {
+        if (STATE.addAndGet(this, -READER) == RETIRED) {
+          arena.free(chunk, size);
+        }
+      }
+    }
+
+    /**
+     * Marks this reference as no longer in the cache, freeing its memory once no reader is decoding
+     * it. Later reads return the value of {@code successor}, or null if there is none.
+     */
+    void retire(@CheckForNull ValueReference<K, V> successor) {
+      this.successor = successor;
+      int state;
+      do {
+        state = this.state;
+        if ((state & RETIRED) != 0) {
+          return;
+        }
+      } while (!STATE.compareAndSet(this, state, state | RETIRED));
+      if (state == 0) {
+        arena.free(chunk, size);
+      }
+    }
+
+    /**
+     * Retires {@code valueReference} if it is off the heap, or the off-heap value that it is
+     * loading a replacement for.
+     */
+    static <K, V> void retire(
+        ValueReference<K, V> valueReference, @CheckForNull ValueReference<K, V> successor) {
+      if (valueReference instanceof OffHeapValueReference) {
+        ((OffHeapValueReference<K, V>) valueReference).retire(successor);
+      } else if (valueReference instanceof LoadingValueReference) {
+        retire(((LoadingValueReference<K, V>) valueReference).getOldValue(), successor);
+      }
+    }
+
+    @Override
+    public int getWeight() {
+      return weight;
+    }
+
+    @Override
+    @CheckForNull
+    public ReferenceEntry<K, V> getEntry() {
+      return null;
+    }
+
+    @Override
+    public ValueReference<K, V> copyFor(
+        ReferenceQueue<V> queue, V value, ReferenceEntry<K, V> entry) {
+      return this;
+    }
+
+    @Override
+    public boolean isLoading() {
+      return false;
+    }
+
+    @Override
+    public boolean isActive() {
+      return true;
+    }
+
+    @Override
+    public V waitForValue() {
+      return get();
+    }
+
+    @Override
+    public void notifyNewValue(V newValue) {}
+  }
+
+  /** The codec returned by {@link ValueCodec#byteArrays}. */
+  enum ByteArrayCodec implements ValueCodec<byte[]> {
+    INSTANCE;
+
+    @Override
+    public int encodedSize(byte[] value) {
+      return value.length;
+    }
+
+    @Override
+    public void encode(byte[] value, ByteBuffer target) {
+      target.put(value);
+    }
+
+    @Override
+    public byte[] decode(ByteBuffer source) {
+      byte[] value = new byte[source.remaining()];
+      source.get(value);
+      return value;
+    }
+
+    @Override
+    public String toString() {
+      return "ValueCodec.byteArrays()";
+    }
+  }
+
   /** References a weak value. */
   static final class WeightedWeakValueReference<K, V> extends WeakValueReference<K, V> {
     final int weight;
@@ -1813,9 +2140,21 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
     if (expiresAfterWrite() && (now - entry.getWriteTime() >= expireAfterWriteNanos)) {
       return true;
     }
+    if (expiresVariably() && (now - entry.getAccessTime() >= 0)) {
+      return true;
+    }
     return false;
   }
 
+  /**
+   * Returns the time at which an entry expires when {@code duration} nanoseconds remain, limiting
+   * the duration to between zero and {@link #MAX_EXPIRY_NANOS} so that neither the sum nor
+   * comparisons with the result can overflow.
+   */
+  static long expirationTime(long now, long duration) {
+    return now + Math.max(0, Math.min(duration, MAX_EXPIRY_NANOS));
+  }
+
   // queues
 
   // Guarded By Segment.this
@@ -1951,7 +2290,7 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
     /**
      * The recency queue is used to record which entries were accessed for updating the access
      * list's ordering. It is drained as a batch operation when either the DRAIN_THRESHOLD is
-     * crossed or a write occurs on the segment.
+     * crossed or a write occurs on the segment. Reads are dropped when it is full.
      */
     final Queue<ReferenceEntry<K, V>> recencyQueue;
 
@@ -1968,6 +2307,15 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
     @GuardedBy("this")
     final Queue<ReferenceEntry<K, V>> writeQueue;
 
+    /**
+     * The elements currently in the map, bucketed by expiration time, if entries expire variably.
+     * This is also the segment's {@link #writeQueue}, so that adding and removing entries keeps it
+     * up to date.
+     */
+    @GuardedBy("this")
+    @CheckForNull
+    final TimerWheel<K, V> timerWheel;
+
     /**
      * A queue of elements currently in the map, ordered by access time. Elements are added to the
      * tail of the queue on access (note that writes count as accesses).
@@ -1975,6 +2323,29 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
     @GuardedBy("this")
     final Queue<ReferenceEntry<K, V>> accessQueue;
 
+    /**
+     * When using {@link EvictionPolicy#WINDOW_TINY_LFU}, a queue of recently added entries ordered
+     * by access time. These entries have not been admitted to the access queue yet; they are
+     * considered for admission once they are pushed out of the window by newer entries.
+     */
+    @GuardedBy("this")
+    final Queue<ReferenceEntry<K, V>> windowQueue;
+
+    /**
+     * The entries of the window queue. Both queues link entries through the same fields, so this
+     * is needed to tell which queue an entry is in.
+     */
+    @GuardedBy("this")
+    final Set<ReferenceEntry<K, V>> windowEntries;
+
+    /**
+     * Estimates how often keys were used recently. Only present when using {@link
+     * EvictionPolicy#WINDOW_TINY_LFU}.
+     */
+    @GuardedBy("this")
+    @CheckForNull
+    final FrequencySketch frequencySketch;
+
     /** Accumulates cache statistics. */
     final StatsCounter statsCounter;
 
@@ -1993,11 +2364,42 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
       valueReferenceQueue = map.usesValueReferences() ? new ReferenceQueue<>() : null;
 
       recencyQueue =
-          map.usesAccessQueue() ? new ConcurrentLinkedQueue<>() : LocalCache.discardingQueue();
+          map.usesAccessQueue() ? new ReadBuffer<>() : LocalCache.discardingQueue();
 
-      writeQueue = map.usesWriteQueue() ? new WriteQueue<>() : LocalCache.discardingQueue();
+      timerWheel = map.expiresVariably() ? new TimerWheel<>(map.ticker.read()) : null;
+      if (timerWheel != null) {
+        writeQueue = timerWheel;
+      } else {
+        writeQueue = map.usesWriteQueue() ? new WriteQueue<>() : LocalCache.discardingQueue();
+      }
 
       accessQueue = map.usesAccessQueue() ? new AccessQueue<>() : LocalCache.discardingQueue();
+
+      windowQueue = map.usesFrequencySketch() ? new AccessQueue<>() : LocalCache.discardingQueue();
+
+      windowEntries =
+          map.usesFrequencySketch()
+              ? Sets.<ReferenceEntry<K, V>>newIdentityHashSet()
+              : Collections.<ReferenceEntry<K, V>>emptySet();
+
+      frequencySketch =
+          map.usesFrequencySketch()
+              ? new FrequencySketch(
+                  map.customWeigher()
+                      ? Math.min(maxSegmentWeight, MAX_WEIGHED_SKETCH_KEYS)
+                      : maxSegmentWeight)
+              : null;
+    }
+
+    /** Acquires the segment lock, recording whether another thread held it at the time. */
+    @Override
+    public void lock() {
+      if (!map.recordsDetailedStats) {
+        super.lock();
+      } else if (!tryLock()) {
+        statsCounter.recordLockContention();
+        super.lock();
+      }
     }
 
     AtomicReferenceArray<ReferenceEntry<K, V>> newEntryArray(int size) {
@@ -2040,23 +2442,57 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
 
       ReferenceEntry<K, V> newEntry = map.entryFactory.copyEntry(this, original, newNext, key);
       newEntry.setValueReference(valueReference.copyFor(this.valueReferenceQueue, value, newEntry));
+      if (windowEntries.remove(original)) {
+        windowEntries.add(newEntry);
+      }
       return newEntry;
     }
 
     /** Sets a new value of an entry. Adds newly created entries at the end of the access queue. */
     @GuardedBy("this")
-    void setValue(ReferenceEntry<K, V> entry, K key, V value, long now) {
+    void setValue(
+        ReferenceEntry<K, V> entry,
+        K key,
+        V value,
+        @CheckForNull OffHeapValueReference<K, V> encoded,
+        long now) {
       ValueReference<K, V> previous = entry.getValueReference();
       int weight = map.weigher.weigh(key, value);
       checkState(weight >= 0, "Weights must be non-negative");
 
-      ValueReference<K, V> valueReference =
-          map.valueStrength.referenceValue(this, entry, value, weight);
+      ValueReference<K, V> valueReference;
+      if (encoded == null) {
+        valueReference = map.valueStrength.referenceValue(this, entry, value, weight);
+      } else {
+        encoded.weight = weight;
+        encoded.stored = true;
+        valueReference = encoded;
+      }
       entry.setValueReference(valueReference);
+      OffHeapValueReference.retire(previous, valueReference);
       recordWrite(entry, weight, now);
       previous.notifyNewValue(value);
     }
 
+    /**
+     * Encodes {@code value} if this cache keeps its values off the heap, or returns null. This is
+     * done before taking the lock, so that encoding and allocating memory don't hold it up; the
+     * caller passes the result to {@link #setValue} and then to {@link #discardIfNotStored}.
+     */
+    @CheckForNull
+    OffHeapValueReference<K, V> encodeOffHeap(V value) {
+      ValueCodec<V> codec = map.valueCodec;
+      return (codec == null)
+          ? null
+          : OffHeapValueReference.encode(codec, requireNonNull(map.offHeapArena), value);
+    }
+
+    static void discardIfNotStored(@CheckForNull OffHeapValueReference<?, ?> encoded) {
+      if (encoded != null) {
+        encoded.discardIfNotStored();
+      }
+    }
+
     // loading
 
     @CanIgnoreReturnValue
@@ -2164,7 +2600,7 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
 
               // immediately reuse invalid entries
               writeQueue.remove(e);
-              accessQueue.remove(e);
+              removeFromAccessOrder(e);
               this.count = newCount; // write-volatile
             }
             break;
@@ -2236,6 +2672,8 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
       ComputingValueReference<K, V> computingValueReference = null;
       boolean createNewEntry = true;
       V newValue;
+      // the value stored on the heap under the lock, to be moved off it once the lock is released
+      ValueReference<K, V> storedOnHeap = null;
 
       lock();
       try {
@@ -2266,7 +2704,7 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
 
             // immediately reuse invalid entries
             writeQueue.remove(e);
-            accessQueue.remove(e);
+            removeFromAccessOrder(e);
             createNewEntry = false;
             break;
           }
@@ -2293,12 +2731,10 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
             recordWrite(e, 0, now); // no change in weight
             return newValue;
           }
-          try {
-            return getAndRecordStats(
-                key, hash, computingValueReference, Futures.immediateFuture(newValue));
-          } catch (ExecutionException exception) {
-            throw new AssertionError("impossible; Futures.immediateFuture can't throw");
-          }
+          statsCounter.recordLoadSuccess(computingValueReference.elapsedNanos());
+          // the function has to run under the lock, but encoding its result doesn't
+          storedOnHeap =
+              storeLoadedValueReference(key, hash, computingValueReference, newValue, null);
         } else if (createNewEntry || valueReference.isLoading()) {
           removeLoadingValue(key, hash, computingValueReference);
           return null;
@@ -2310,6 +2746,31 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
         unlock();
         postWriteCleanup();
       }
+      if (storedOnHeap != null && map.valueCodec != null) {
+        moveOffHeap(key, hash, storedOnHeap, newValue);
+      }
+      return newValue;
+    }
+
+    /**
+     * Replaces {@code storedOnHeap}, which {@link #compute} stored under the lock, with a copy
+     * encoded outside of it, unless the entry has been written in the meantime.
+     */
+    void moveOffHeap(K key, int hash, ValueReference<K, V> storedOnHeap, V value) {
+      OffHeapValueReference<K, V> encoded = requireNonNull(encodeOffHeap(value));
+      lock();
+      try {
+        ReferenceEntry<K, V> e = getEntry(key, hash);
+        if (e != null && e.getValueReference() == storedOnHeap && storedOnHeap.get() != null) {
+          // the same value, so its weight, write time and notifications all stay as they are
+          encoded.weight = storedOnHeap.getWeight();
+          encoded.stored = true;
+          e.setValueReference(encoded);
+        }
+      } finally {
+        unlock();
+        discardIfNotStored(encoded);
+      }
     }
 
     // at most one of loadSync/loadAsync may be called for any given LoadingValueReference
@@ -2553,7 +3014,11 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
       if (map.recordsAccess()) {
         entry.setAccessTime(now);
       }
-      recencyQueue.add(entry);
+      if (map.expiry != null) {
+        recordExpiryRead(map.expiry, entry, now);
+      }
+      // if the recency queue is full, this read is forgotten rather than waiting for a drain
+      recencyQueue.offer(entry);
     }
 
     /**
@@ -2568,7 +3033,10 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
       if (map.recordsAccess()) {
         entry.setAccessTime(now);
       }
-      accessQueue.add(entry);
+      if (map.expiry != null) {
+        recordExpiryRead(map.expiry, entry, now);
+      }
+      recordAccessOrder(entry);
     }
 
     /**
@@ -2587,10 +3055,78 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
       if (map.recordsWrite()) {
         entry.setWriteTime(now);
       }
-      accessQueue.add(entry);
+      if (map.expiry != null) {
+        recordExpiryWrite(map.expiry, entry, now);
+      }
+      if (frequencySketch != null) {
+        if (!accessQueue.contains(entry)) {
+          // new entries start out in the window
+          windowEntries.add(entry);
+        }
+      }
+      recordAccessOrder(entry);
       writeQueue.add(entry);
     }
 
+    /**
+     * Asks {@code expiry} how long {@code entry} may stay in the cache after a read. The entry
+     * stays in its timer wheel bucket; if that bucket is reached too early, the entry is
+     * rescheduled then.
+     */
+    void recordExpiryRead(Expiry<K, V> expiry, ReferenceEntry<K, V> entry, long now) {
+      K key = entry.getKey();
+      V value = entry.getValueReference().get();
+      if (key != null && value != null) {
+        long currentDuration = entry.getAccessTime() - now;
+        long duration = expiry.expireAfterRead(key, value, currentDuration);
+        if (duration != currentDuration) {
+          entry.setAccessTime(expirationTime(now, duration));
+        }
+      }
+    }
+
+    /**
+     * Asks {@code expiry} how long {@code entry} may stay in the cache after its value was written.
+     * The caller then (re)schedules it in the timer wheel.
+     */
+    @GuardedBy("this")
+    void recordExpiryWrite(Expiry<K, V> expiry, ReferenceEntry<K, V> entry, long now) {
+      // the key and value were just written under the lock, so they are present
+      K key = checkNotNull(entry.getKey());
+      V value = checkNotNull(entry.getValueReference().get());
+      long duration;
+      if (writeQueue.contains(entry)) {
+        duration = expiry.expireAfterUpdate(key, value, entry.getAccessTime() - now);
+      } else {
+        duration = expiry.expireAfterCreate(key, value);
+      }
+      entry.setAccessTime(expirationTime(now, duration));
+    }
+
+    /**
+     * Moves {@code entry} to the tail of the queue it belongs to, recording the access in the
+     * frequency sketch if there is one.
+     */
+    @GuardedBy("this")
+    void recordAccessOrder(ReferenceEntry<K, V> entry) {
+      if (frequencySketch != null) {
+        frequencySketch.increment(entry.getHash());
+        if (windowEntries.contains(entry)) {
+          windowQueue.add(entry);
+          return;
+        }
+      }
+      accessQueue.add(entry);
+    }
+
+    /** Removes {@code entry} from the access queue or window queue it is in. */
+    @GuardedBy("this")
+    void removeFromAccessOrder(ReferenceEntry<K, V> entry) {
+      // the queues share the entry's links, so this removes the entry from either of them
+      accessQueue.remove(entry);
+      windowEntries.remove(entry);
+    }
+
     /**
      * Drains the recency queue, updating eviction metadata that the entries therein were read in
      * the specified relative order. This currently amounts to adding them to relevant eviction
@@ -2600,13 +3136,14 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
     @GuardedBy("this")
     void drainRecencyQueue() {
       ReferenceEntry<K, V> e;
-      while ((e = recencyQueue.poll()) != null) {
+      // bounded, so that a drain cannot be kept going by concurrent readers
+      for (int i = 0; i < ReadBuffer.CAPACITY && (e = recencyQueue.poll()) != null; i++) {
         // An entry may be in the recency queue despite it being removed from
         // the map . This can occur when the entry was concurrently read while a
         // writer is removing it from the segment or after a clear has removed
         // all the segment's entries.
         if (accessQueue.contains(e)) {
-          accessQueue.add(e);
+          recordAccessOrder(e);
         }
       }
     }
@@ -2628,6 +3165,10 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
     @GuardedBy("this")
     void expireEntries(long now) {
       drainRecencyQueue();
+      if (timerWheel != null) {
+        // moves the entries that are due to the head of the writeQueue
+        timerWheel.advance(now);
+      }
 
       ReferenceEntry<K, V> e;
       while ((e = writeQueue.peek()) != null && map.isExpired(e, now)) {
@@ -2640,6 +3181,11 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
           throw new AssertionError();
         }
       }
+      while ((e = windowQueue.peek()) != null && map.isExpired(e, now)) {
+        if (!removeEntry(e, e.getHash(), RemovalCause.EXPIRED)) {
+          throw new AssertionError();
+        }
+      }
     }
 
     // eviction
@@ -2679,6 +3225,12 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
         }
       }
 
+      FrequencySketch sketch = frequencySketch;
+      if (sketch != null) {
+        evictEntriesByFrequency(sketch);
+        return;
+      }
+
       while (totalWeight > maxSegmentWeight) {
         ReferenceEntry<K, V> e = getNextEvictable();
         if (!removeEntry(e, e.getHash(), RemovalCause.SIZE)) {
@@ -2687,16 +3239,77 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
       }
     }
 
+    /**
+     * Performs eviction using {@link EvictionPolicy#WINDOW_TINY_LFU}. The least recently used
+     * entries of an over-full window are appended to the access queue as candidates. Then, while
+     * the segment is over capacity, the oldest remaining candidate competes with the least recently
+     * used entry of the access queue, and whichever of them was used less often recently is
+     * evicted.
+     */
+    @GuardedBy("this")
+    void evictEntriesByFrequency(FrequencySketch sketch) {
+      int maxWindowSize = Math.max(1, count / 100);
+      ReferenceEntry<K, V> candidate = null;
+      int candidates = 0;
+      ReferenceEntry<K, V> e;
+      while (windowEntries.size() > maxWindowSize && (e = windowQueue.peek()) != null) {
+        windowEntries.remove(e);
+        accessQueue.add(e);
+        if (candidates++ == 0) {
+          candidate = e;
+        }
+      }
+
+      while (totalWeight > maxSegmentWeight) {
+        if (candidates > 0
+            && (!accessQueue.contains(candidate)
+                || candidate.getValueReference().getWeight() == 0)) {
+          // the candidate was removed or copied by a previous eviction, or is exempt from
+          // eviction; leave the remaining candidates in the access queue
+          candidates = 0;
+        }
+        ReferenceEntry<K, V> victim = firstEvictable(accessQueue);
+        if (victim == null) {
+          // only the window has entries that can be evicted
+          victim = firstEvictable(windowQueue);
+          if (victim == null) {
+            throw new AssertionError();
+          }
+        } else if (candidates > 0) {
+          if (candidate == victim
+              || sketch.frequency(candidate.getHash()) <= sketch.frequency(victim.getHash())) {
+            // reject the candidate
+            victim = candidate;
+            candidate = candidate.getNextInAccessQueue();
+            candidates--;
+          }
+        }
+        if (!removeEntry(victim, victim.getHash(), RemovalCause.SIZE)) {
+          throw new AssertionError();
+        }
+      }
+    }
+
     // TODO(fry): instead implement this with an eviction head
     @GuardedBy("this")
     ReferenceEntry<K, V> getNextEvictable() {
-      for (ReferenceEntry<K, V> e : accessQueue) {
+      ReferenceEntry<K, V> e = firstEvictable(accessQueue);
+      if (e == null) {
+        throw new AssertionError();
+      }
+      return e;
+    }
+
+    @GuardedBy("this")
+    @CheckForNull
+    ReferenceEntry<K, V> firstEvictable(Queue<ReferenceEntry<K, V>> queue) {
+      for (ReferenceEntry<K, V> e : queue) {
         int weight = e.getValueReference().getWeight();
         if (weight > 0) {
           return e;
         }
       }
-      throw new AssertionError();
+      return null;
     }
 
     /** Returns first entry of bin for given hash. */
@@ -2813,6 +3426,7 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
     @CanIgnoreReturnValue
     @CheckForNull
     V put(K key, int hash, V value, boolean onlyIfAbsent) {
+      OffHeapValueReference<K, V> encoded = encodeOffHeap(value);
       lock();
       try {
         long now = map.ticker.read();
@@ -2844,10 +3458,10 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
               if (valueReference.isActive()) {
                 enqueueNotification(
                     key, hash, entryValue, valueReference.getWeight(), RemovalCause.COLLECTED);
-                setValue(e, key, value, now);
+                setValue(e, key, value, encoded, now);
                 newCount = this.count; // count remains unchanged
               } else {
-                setValue(e, key, value, now);
+                setValue(e, key, value, encoded, now);
                 newCount = this.count + 1;
               }
               this.count = newCount; // write-volatile
@@ -2864,7 +3478,7 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
               ++modCount;
               enqueueNotification(
                   key, hash, entryValue, valueReference.getWeight(), RemovalCause.REPLACED);
-              setValue(e, key, value, now);
+              setValue(e, key, value, encoded, now);
               evictEntries(e);
               return entryValue;
             }
@@ -2874,7 +3488,7 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
         // Create a new entry.
         ++modCount;
         ReferenceEntry<K, V> newEntry = newEntry(key, hash, first);
-        setValue(newEntry, key, value, now);
+        setValue(newEntry, key, value, encoded, now);
         table.set(index, newEntry);
         newCount = this.count + 1;
         this.count = newCount; // write-volatile
@@ -2882,6 +3496,7 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
         return null;
       } finally {
         unlock();
+        discardIfNotStored(encoded);
         postWriteCleanup();
       }
     }
@@ -2957,6 +3572,7 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
     }
 
     boolean replace(K key, int hash, V oldValue, V newValue) {
+      OffHeapValueReference<K, V> encoded = encodeOffHeap(newValue);
       lock();
       try {
         long now = map.ticker.read();
@@ -2998,7 +3614,7 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
               ++modCount;
               enqueueNotification(
                   key, hash, entryValue, valueReference.getWeight(), RemovalCause.REPLACED);
-              setValue(e, key, newValue, now);
+              setValue(e, key, newValue, encoded, now);
               evictEntries(e);
               return true;
             } else {
@@ -3013,12 +3629,14 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
         return false;
       } finally {
         unlock();
+        discardIfNotStored(encoded);
         postWriteCleanup();
       }
     }
 
     @CheckForNull
     V replace(K key, int hash, V newValue) {
+      OffHeapValueReference<K, V> encoded = encodeOffHeap(newValue);
       lock();
       try {
         long now = map.ticker.read();
@@ -3059,13 +3677,48 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
             ++modCount;
             enqueueNotification(
                 key, hash, entryValue, valueReference.getWeight(), RemovalCause.REPLACED);
-            setValue(e, key, newValue, now);
+            setValue(e, key, newValue, encoded, now);
             evictEntries(e);
             return entryValue;
           }
         }
 
         return null;
+      } finally {
+        unlock();
+        discardIfNotStored(encoded);
+        postWriteCleanup();
+      }
+    }
+
+    /**
+     * Weighs the value of the entry for {@code key} again if that value is still {@code value},
+     * evicting entries if the segment is now over capacity. Unlike replacing the value with itself,
+     * this doesn't count as a write of the entry, so its write time and expiration are unchanged
+     * and no removal notification is sent.
+     */
+    void reweigh(K key, int hash, V value) {
+      lock();
+      try {
+        long now = map.ticker.read();
+        preWriteCleanup(now);
+
+        ReferenceEntry<K, V> e = getEntry(key, hash);
+        if (e == null) {
+          return;
+        }
+        ValueReference<K, V> valueReference = e.getValueReference();
+        if (valueReference.isLoading() || valueReference.get() != value) {
+          return;
+        }
+        int weight = map.weigher.weigh(key, value);
+        checkState(weight >= 0, "Weights must be non-negative");
+        int oldWeight = valueReference.getWeight();
+        if (weight != oldWeight) {
+          e.setValueReference(map.valueStrength.referenceValue(this, e, value, weight));
+          totalWeight += weight - oldWeight;
+          evictEntries(e);
+        }
       } finally {
         unlock();
         postWriteCleanup();
@@ -3168,6 +3821,22 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
     @CanIgnoreReturnValue
     boolean storeLoadedValue(
         K key, int hash, LoadingValueReference<K, V> oldValueReference, V newValue) {
+      return storeLoadedValueReference(
+              key, hash, oldValueReference, newValue, encodeOffHeap(newValue))
+          != null;
+    }
+
+    /**
+     * Stores {@code newValue}, already {@linkplain #encodeOffHeap encoded} if it is kept off the
+     * heap, and returns its new value reference, or null if the load was clobbered.
+     */
+    @CheckForNull
+    ValueReference<K, V> storeLoadedValueReference(
+        K key,
+        int hash,
+        LoadingValueReference<K, V> oldValueReference,
+        V newValue,
+        @CheckForNull OffHeapValueReference<K, V> encoded) {
       lock();
       try {
         long now = map.ticker.read();
@@ -3201,27 +3870,30 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
                 enqueueNotification(key, hash, entryValue, oldValueReference.getWeight(), cause);
                 newCount--;
               }
-              setValue(e, key, newValue, now);
+              setValue(e, key, newValue, encoded, now);
+              ValueReference<K, V> stored = e.getValueReference();
               this.count = newCount; // write-volatile
               evictEntries(e);
-              return true;
+              return stored;
             }
 
             // the loaded value was already clobbered
             enqueueNotification(key, hash, newValue, 0, RemovalCause.REPLACED);
-            return false;
+            return null;
           }
         }
 
         ++modCount;
         ReferenceEntry<K, V> newEntry = newEntry(key, hash, first);
-        setValue(newEntry, key, newValue, now);
+        setValue(newEntry, key, newValue, encoded, now);
+        ValueReference<K, V> stored = newEntry.getValueReference();
         table.set(index, newEntry);
         this.count = newCount; // write-volatile
         evictEntries(newEntry);
-        return true;
+        return stored;
       } finally {
         unlock();
+        discardIfNotStored(encoded);
         postWriteCleanup();
       }
     }
@@ -3245,6 +3917,7 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
                 enqueueNotification(
                     key, e.getHash(), value, e.getValueReference().getWeight(), cause);
               }
+              OffHeapValueReference.retire(e.getValueReference(), null);
             }
           }
           for (int i = 0; i < table.length(); ++i) {
@@ -3253,6 +3926,8 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
           clearReferenceQueues();
           writeQueue.clear();
           accessQueue.clear();
+          windowQueue.clear();
+          windowEntries.clear();
           readCount.set(0);
 
           ++modCount;
@@ -3275,8 +3950,12 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
         ValueReference<K, V> valueReference,
         RemovalCause cause) {
       enqueueNotification(key, hash, value, valueReference.getWeight(), cause);
+      OffHeapValueReference.retire(valueReference, null);
+      if (map.recordsDetailedStats && cause.wasEvicted() && !valueReference.isLoading()) {
+        statsCounter.recordEvictionAge(map.ticker.read() - entry.getWriteTime());
+      }
       writeQueue.remove(entry);
-      accessQueue.remove(entry);
+      removeFromAccessOrder(entry);
 
       if (valueReference.isLoading()) {
         valueReference.notifyNewValue(null);
@@ -3313,8 +3992,9 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
           entry.getValueReference().get(),
           entry.getValueReference().getWeight(),
           RemovalCause.COLLECTED);
+      OffHeapValueReference.retire(entry.getValueReference(), null);
       writeQueue.remove(entry);
-      accessQueue.remove(entry);
+      removeFromAccessOrder(entry);
     }
 
     /** Removes an entry whose key has been garbage collected. */
@@ -3497,11 +4177,15 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
 
     void runLockedCleanup(long now) {
       if (tryLock()) {
+        long start = map.recordsDetailedStats ? map.ticker.read() : 0;
         try {
           drainReferenceQueues();
           expireEntries(now); // calls drainRecencyQueue
           readCount.set(0);
         } finally {
+          if (map.recordsDetailedStats) {
+            statsCounter.recordDrain(map.ticker.read() - start);
+          }
           unlock();
         }
       }
@@ -3810,6 +4494,183 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
     }
   }
 
+  /**
+   * A hierarchical timer wheel of the entries of a segment whose entries {@linkplain
+   * #expiresVariably expire variably}, bucketed by their expiration time (stored in their access
+   * time). Each level of the wheel divides time into buckets of a fixed span: level 0 has 64
+   * buckets of about a second, level 1 has 64 buckets of about a minute, and so on, with a single
+   * overflow bucket for entries expiring in more than about six days. An entry is placed in the
+   * finest level whose buckets cover its remaining lifetime.
+   *
+   * <p>{@link #advance} visits the buckets whose span has elapsed since the previous call, moves
+   * the entries which have expired to a queue of due entries, and moves the others to a bucket of a
+   * finer level. Each entry is therefore visited at most once per level, instead of the whole
+   * segment being scanned. The due entries are returned by {@link #peek} and {@link #poll}, in no
+   * particular order.
+   *
+   * <p>Each bucket is a {@link WriteQueue}, sharing the entries' write queue links, so that copying
+   * an entry keeps its place in the wheel just as it would keep its place in a write queue.
+   */
+  static final class TimerWheel<K, V> extends AbstractQueue<ReferenceEntry<K, V>> {
+    /** The number of buckets of each level, which must be powers of two. */
+    static final int[] BUCKETS = {64, 64, 32, 4, 1};
+
+    /**
+     * The log2 of the span in nanoseconds of the buckets of each level: about 1.07 seconds, 1.14
+     * minutes, 1.22 hours, 1.63 days and 6.5 days.
+     */
+    static final int[] SHIFTS = {30, 36, 42, 47, 49};
+
+    final WriteQueue<K, V>[][] wheel;
+
+    /** Entries which have expired, waiting to be removed from the segment. */
+    final WriteQueue<K, V> due = new WriteQueue<>();
+
+    /** Entries of elapsed buckets, waiting to be either moved to {@link #due} or rescheduled. */
+    private final WriteQueue<K, V> elapsed = new WriteQueue<>();
+
+    /** The time of the last call to {@link #advance}. */
+    long nanos;
+
+    @SuppressWarnings({"unchecked", "rawtypes"}) // generic array creation
+    TimerWheel(long nanos) {
+      this.nanos = nanos;
+      wheel = new WriteQueue[BUCKETS.length][];
+      for (int i = 0; i < BUCKETS.length; i++) {
+        wheel[i] = new WriteQueue[BUCKETS[i]];
+        for (int j = 0; j < BUCKETS[i]; j++) {
+          wheel[i][j] = new WriteQueue<>();
+        }
+      }
+    }
+
+    /**
+     * Moves the entries which have expired by {@code now} to the due queue, and reschedules the
+     * entries of elapsed buckets which have not.
+     */
+    void advance(long now) {
+      long previous = nanos;
+      nanos = now;
+      // due entries which were not removed may have had their expiration extended by a read
+      transferAll(due, elapsed);
+      for (int i = 0; i < BUCKETS.length; i++) {
+        long previousTicks = previous >> SHIFTS[i];
+        long delta = (now >> SHIFTS[i]) - previousTicks;
+        if (delta <= 0) {
+          // coarser levels tick even less often
+          break;
+        }
+        int mask = BUCKETS[i] - 1;
+        long steps = Math.min(delta + 1, BUCKETS[i]);
+        for (long j = 0; j < steps; j++) {
+          transferAll(wheel[i][(int) ((previousTicks + j) & mask)], elapsed);
+        }
+      }
+      ReferenceEntry<K, V> e;
+      while ((e = elapsed.poll()) != null) {
+        offer(e);
+      }
+    }
+
+    /** Moves all entries of {@code from} to the tail of {@code to}, in constant time. */
+    private static <K, V> void transferAll(WriteQueue<K, V> from, WriteQueue<K, V> to) {
+      ReferenceEntry<K, V> first = from.head.getNextInWriteQueue();
+      if (first == from.head) {
+        return;
+      }
+      ReferenceEntry<K, V> last = from.head.getPreviousInWriteQueue();
+      connectWriteOrder(to.head.getPreviousInWriteQueue(), first);
+      connectWriteOrder(last, to.head);
+      connectWriteOrder(from.head, from.head);
+    }
+
+    /** Returns the bucket, or the due queue, that {@code entry} belongs in. */
+    private WriteQueue<K, V> bucketFor(ReferenceEntry<K, V> entry) {
+      long expirationTime = entry.getAccessTime();
+      long duration = expirationTime - nanos;
+      if (duration <= 0) {
+        return due;
+      }
+      for (int i = 0; i < BUCKETS.length - 1; i++) {
+        if (duration < (long) BUCKETS[i] << SHIFTS[i]) {
+          int index = (int) ((expirationTime >> SHIFTS[i]) & (BUCKETS[i] - 1));
+          return wheel[i][index];
+        }
+      }
+      return wheel[BUCKETS.length - 1][0];
+    }
+
+    // implements Queue
+
+    /** Schedules {@code entry} according to its current expiration time, unlinking it first. */
+    @Override
+    public boolean offer(ReferenceEntry<K, V> entry) {
+      return bucketFor(entry).offer(entry);
+    }
+
+    @CheckForNull
+    @Override
+    public ReferenceEntry<K, V> peek() {
+      return due.peek();
+    }
+
+    @CheckForNull
+    @Override
+    public ReferenceEntry<K, V> poll() {
+      return due.poll();
+    }
+
+    @Override
+    @CanIgnoreReturnValue
+    public boolean remove(@UnknownSignedness Object o) {
+      // every bucket shares the entries' links, so any of them can unlink an entry
+      return due.remove(o);
+    }
+
+    @Override
+    public boolean contains(@UnknownSignedness Object o) {
+      return due.contains(o);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return size() == 0;
+    }
+
+    @Override
+    public @NonNegative int size() {
+      int size = due.size();
+      for (WriteQueue<K, V>[] level : wheel) {
+        for (WriteQueue<K, V> bucket : level) {
+          size += bucket.size();
+        }
+      }
+      return size;
+    }
+
+    @Override
+    public void clear() {
+      due.clear();
+      for (WriteQueue<K, V>[] level : wheel) {
+        for (WriteQueue<K, V> bucket : level) {
+          bucket.clear();
+        }
+      }
+    }
+
+    @Override
+    public Iterator<ReferenceEntry<K, V>> iterator() {
+      List<Iterator<ReferenceEntry<K, V>>> iterators = new ArrayList<>();
+      iterators.add(due.iterator());
+      for (WriteQueue<K, V>[] level : wheel) {
+        for (WriteQueue<K, V> bucket : level) {
+          iterators.add(bucket.iterator());
+        }
+      }
+      return Iterators.concat(iterators.iterator());
+    }
+  }
+
   /**
    * A custom queue for managing access order. Note that this is tightly integrated with {@code
    * ReferenceEntry}, upon which it relies to perform its linking.
@@ -4352,6 +5213,17 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
     return segmentFor(hash).replace(key, hash, value);
   }
 
+  /**
+   * Weighs the value of the entry for {@code key} again if that value is still {@code value},
+   * without counting this as a write of the entry.
+   */
+  void reweigh(K key, V value) {
+    checkNotNull(key);
+    checkNotNull(value);
+    int hash = hash(key);
+    segmentFor(hash).reweigh(key, hash, value);
+  }
+
   @Override
   public void clear() {
     for (Segment<K, V> segment : segments) {
@@ -4758,6 +5630,8 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
     final Equivalence<Object> valueEquivalence;
     final long expireAfterWriteNanos;
     final long expireAfterAccessNanos;
+    @CheckForNull final Expiry<? super K, ? super V> expiry;
+    @CheckForNull final ValueCodec<V> valueCodec;
     final long maxWeight;
     final Weigher<K, V> weigher;
     final int concurrencyLevel;
@@ -4775,6 +5649,8 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
           cache.valueEquivalence,
           cache.expireAfterWriteNanos,
           cache.expireAfterAccessNanos,
+          cache.expiry,
+          cache.valueCodec,
           cache.maxWeight,
           cache.weigher,
           cache.concurrencyLevel,
@@ -4790,6 +5666,8 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
         Equivalence<Object> valueEquivalence,
         long expireAfterWriteNanos,
         long expireAfterAccessNanos,
+        @CheckForNull Expiry<? super K, ? super V> expiry,
+        @CheckForNull ValueCodec<V> valueCodec,
         long maxWeight,
         Weigher<K, V> weigher,
         int concurrencyLevel,
@@ -4802,6 +5680,8 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
       this.valueEquivalence = valueEquivalence;
       this.expireAfterWriteNanos = expireAfterWriteNanos;
       this.expireAfterAccessNanos = expireAfterAccessNanos;
+      this.expiry = expiry;
+      this.valueCodec = valueCodec;
       this.maxWeight = maxWeight;
       this.weigher = weigher;
       this.concurrencyLevel = concurrencyLevel;
@@ -4826,6 +5706,12 @@ class LocalCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
       if (expireAfterAccessNanos > 0) {
         builder.expireAfterAccess(expireAfterAccessNanos, TimeUnit.NANOSECONDS);
       }
+      if (expiry != null) {
+        Object unused = builder.expireAfter(expiry);
+      }
+      if (valueCodec != null) {
+        Object unused = builder.offHeapValues(valueCodec);
+      }
       if (weigher != OneWeigher.INSTANCE) {
         Object unused = builder.weigher(weigher);
         if (maxWeight != UNSET_INT) {
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Direct memory for the values of a cache built with {@link CacheBuilder#offHeapValues}, handed out
+ * in chunks which are explicitly {@linkplain #free freed}.
+ *
+ * <p>Chunks are carved out of slabs of {@value #SLAB_BYTES} bytes, each slab holding chunks of one
+ * power-of-two size, and freed chunks are reused for later chunks of the same size. So allocating
+ * a chunk rarely allocates direct memory, and a chunk costs no heap memory beyond the {@code long}
+ * identifying it. Slabs are kept for reuse until the arena is garbage collected. A chunk larger
+ * than a slab gets a slab of its own, which is dropped when the chunk is freed.
+ *
+ * <p>A chunk is identified by a {@code long} holding the index of its slab in the upper half and
+ * its offset within the slab in the lower half.
+ */
+@GwtIncompatible // ByteBuffer
+@ElementTypesAreNonnullByDefault
+final class OffHeapArena {
+  /** The size of each slab holding chunks of up to the same size. */
+  @VisibleForTesting static final int SLAB_BYTES = 1 << 20;
+
+  /** The size of the smallest chunks. */
+  private static final int MIN_CHUNK_BYTES = 16;
+
+  /** The chunk of zero bytes, which takes no memory. */
+  static final long EMPTY_CHUNK = -1;
+
+  /**
+   * The slabs, indexed by the upper half of a chunk. Entries are only written while holding the
+   * lock on this arena, and only for chunks which are not yet published, or which have been freed.
+   */
+  private volatile @Nullable ByteBuffer[] slabs = new ByteBuffer[16];
+
+  @GuardedBy("this")
+  private int slabCount;
+
+  /** The indexes of dropped slabs, which are reused before new indexes. */
+  @GuardedBy("this")
+  private int[] freeSlabIndexes = new int[0];
+
+  @GuardedBy("this")
+  private int freeSlabIndexCount;
+
+  /** The size classes, for chunks of {@code MIN_CHUNK_BYTES << i} bytes. */
+  private final SizeClass[] sizeClasses;
+
+  OffHeapArena() {
+    int count = Integer.numberOfTrailingZeros(SLAB_BYTES / MIN_CHUNK_BYTES) + 1;
+    sizeClasses = new SizeClass[count];
+    for (int i = 0; i < count; i++) {
+      sizeClasses[i] = new SizeClass(MIN_CHUNK_BYTES << i);
+    }
+  }
+
+  /** Returns a chunk of at least {@code size} bytes. */
+  long allocate(int size) {
+    checkArgument(size >= 0, "size (%s) must be >= 0", size);
+    if (size == 0) {
+      return EMPTY_CHUNK;
+    } else if (size > SLAB_BYTES) {
+      return chunk(addSlab(ByteBuffer.allocateDirect(size)), 0);
+    }
+    SizeClass sizeClass = sizeClassFor(size);
+    synchronized (sizeClass) {
+      if (sizeClass.freeCount > 0) {
+        return sizeClass.freeChunks[--sizeClass.freeCount];
+      }
+      if (sizeClass.slabIndex < 0 || sizeClass.nextOffset == SLAB_BYTES) {
+        sizeClass.slabIndex = addSlab(ByteBuffer.allocateDirect(SLAB_BYTES));
+        sizeClass.nextOffset = 0;
+      }
+      long chunk = chunk(sizeClass.slabIndex, sizeClass.nextOffset);
+      sizeClass.nextOffset += sizeClass.chunkBytes;
+      return chunk;
+    }
+  }
+
+  /**
+   * Frees {@code chunk}, which was allocated with {@code size}. The chunk must not be read or
+   * written afterwards.
+   */
+  void free(long chunk, int size) {
+    if (chunk == EMPTY_CHUNK) {
+      return;
+    } else if (size > SLAB_BYTES) {
+      dropSlab(slabIndex(chunk));
+      return;
+    }
+    SizeClass sizeClass = sizeClassFor(size);
+    synchronized (sizeClass) {
+      if (sizeClass.freeCount == sizeClass.freeChunks.length) {
+        sizeClass.freeChunks =
+            Arrays.copyOf(sizeClass.freeChunks, Math.max(16, sizeClass.freeCount * 2));
+      }
+      sizeClass.freeChunks[sizeClass.freeCount++] = chunk;
+    }
+  }
+
+  /**
+   * Returns a buffer over the {@code size} bytes of {@code chunk}, with its own position and limit.
+   */
+  ByteBuffer buffer(long chunk, int size) {
+    if (chunk == EMPTY_CHUNK) {
+      return ByteBuffer.allocate(0);
+    }
+    ByteBuffer buffer = requireNonNull(slabs[slabIndex(chunk)]).duplicate();
+    int offset = (int) chunk;
+    Java8Compatibility.limit(buffer, offset + size);
+    Java8Compatibility.position(buffer, offset);
+    return buffer.slice();
+  }
+
+  /** Returns the number of bytes of direct memory held by this arena. */
+  @VisibleForTesting
+  synchronized long reservedBytes() {
+    long bytes = 0;
+    for (int i = 0; i < slabCount; i++) {
+      ByteBuffer slab = slabs[i];
+      if (slab != null) {
+        bytes += slab.capacity();
+      }
+    }
+    return bytes;
+  }
+
+  private synchronized int addSlab(ByteBuffer slab) {
+    int index;
+    if (freeSlabIndexCount > 0) {
+      index = freeSlabIndexes[--freeSlabIndexCount];
+    } else {
+      if (slabCount == slabs.length) {
+        slabs = Arrays.copyOf(slabs, slabCount * 2);
+      }
+      index = slabCount++;
+    }
+    slabs[index] = slab;
+    return index;
+  }
+
+  private synchronized void dropSlab(int index) {
+    slabs[index] = null;
+    if (freeSlabIndexCount == freeSlabIndexes.length) {
+      freeSlabIndexes = Arrays.copyOf(freeSlabIndexes, Math.max(16, freeSlabIndexCount * 2));
+    }
+    freeSlabIndexes[freeSlabIndexCount++] = index;
+  }
+
+  private SizeClass sizeClassFor(int size) {
+    int chunkBytes = Math.max(MIN_CHUNK_BYTES, Integer.highestOneBit(size - 1) << 1);
+    return sizeClasses[Integer.numberOfTrailingZeros(chunkBytes / MIN_CHUNK_BYTES)];
+  }
+
+  private static long chunk(int slabIndex, int offset) {
+    return ((long) slabIndex << 32) | offset;
+  }
+
+  private static int slabIndex(long chunk) {
+    return (int) (chunk >>> 32);
+  }
+
+  /** The chunks of one size. */
+  private static final class SizeClass {
+    final int chunkBytes;
+
+    /** The slab from which new chunks are carved, or -1 before the first chunk. */
+    @GuardedBy("this")
+    int slabIndex = -1;
+
+    @GuardedBy("this")
+    int nextOffset;
+
+    @GuardedBy("this")
+    long[] freeChunks = new long[0];
+
+    @GuardedBy("this")
+    int freeCount;
+
+    SizeClass(int chunkBytes) {
+      this.chunkBytes = chunkBytes;
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.cache;
+
+import com.google.common.annotations.GwtIncompatible;
+import java.nio.ByteBuffer;
+
+/**
+ * Converts cache values to and from bytes, so that a cache built with {@link
+ * CacheBuilder#offHeapValues} can store them outside of the Java heap.
+ *
+ * <p>Implementations must be thread-safe, and should be fast: a value is encoded every time it is
+ * written to the cache, and decoded every time it is read.
+ *
+ * @since NEXT
+ */
+@GwtIncompatible // ByteBuffer
+@ElementTypesAreNonnullByDefault
+public interface ValueCodec<V> {
+
+  /** Returns the number of bytes that {@link #encode} will write for {@code value}. */
+  int encodedSize(V value);
+
+  /**
+   * Writes the {@linkplain #encodedSize encoded size} bytes representing {@code value} to {@code
+   * target}, starting at its position.
+   */
+  void encode(V value, ByteBuffer target);
+
+  /**
+   * Returns the value represented by the remaining bytes of {@code source}, which were written by
+   * {@link #encode}. {@code source} is a read-only view of the stored bytes which the codec may
+   * consume; the returned value must not refer to it.
+   */
+  V decode(ByteBuffer source);
+
+  /** Returns a codec which stores byte arrays as they are, decoding each read to a new array. */
+  static ValueCodec<byte[]> byteArrays() {
+    return LocalCache.ByteArrayCodec.INSTANCE;
+  }
+}
@@ -29,6 +29,7 @@ import com.google.common.collect.Serialization.FieldSetter;
 import com.google.common.math.IntMath;
 import com.google.common.primitives.Ints;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
 import com.google.j2objc.annotations.WeakOuter;
 import java.io.IOException;
 import java.io.ObjectInputStream;
@@ -42,6 +43,8 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntUnaryOperator;
 import javax.annotation.CheckForNull;
 import org.checkerframework.checker.index.qual.NonNegative;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -57,6 +60,10 @@ import org.checkerframework.framework.qual.CFComment;
  * A multiset that supports concurrent modifications and that provides atomic versions of most
  * {@code Multiset} operations (exceptions where noted). Null elements are not supported.
  *
+ * <p>A multiset returned by {@link #createContentionAdaptive} spreads the count of each element
+ * that many threads add to at once over several counters, so that adding to a popular element
+ * scales with the number of threads.
+ *
  * <p>See the Guava User Guide article on <a href=
  * "https://github.com/google/guava/wiki/NewCollectionTypesExplained#multiset">{@code Multiset}</a>.
  *
@@ -78,11 +85,19 @@ public final class ConcurrentHashMultiset<E> extends AbstractMultiset<E> impleme
    * the entry from the Map. If another operation sees a zero in the map, it knows that the entry is
    * about to be removed, so this operation may remove it (often by replacing it with a new
    * AtomicInteger).
+   *
+   * In a contention-adaptive multiset, the counters are StripedCounters. When threads contend to
+   * add to one, its value is set to the negative STRIPED, and its count is kept by its striped
+   * cells instead; every operation which sees that value asks the StripedCounter for the count.
+   * When a striped count is removed, the value is set to zero, so that it's removed like any other.
    */
 
   /** The number of occurrences of each element. */
   private final transient ConcurrentMap<E, AtomicInteger> countMap;
 
+  /** Whether the counters of this multiset are {@link StripedCounter}s. */
+  private final boolean contentionAdaptive;
+
   // This constant allows the deserialization code to set a final field. This holder class
   // makes sure it is not initialized unless an instance is deserialized.
   private static class FieldSettersHolder {
@@ -133,10 +148,60 @@ public final class ConcurrentHashMultiset<E> extends AbstractMultiset<E> impleme
     return new ConcurrentHashMultiset<>(countMap);
   }
 
+  /**
+   * Creates a new, empty {@code ConcurrentHashMultiset} which adapts to contention, using the
+   * default initial capacity, load factor, and concurrency settings.
+   *
+   * <p>When several threads add to the same element at once, the count of that element is spread
+   * over several counters, like a {@link java.util.concurrent.atomic.LongAdder}, which the threads
+   * can add to without contending with each other. This makes counting the occurrences of a few
+   * popular elements from many threads scale much better than with {@link #create()}. In exchange,
+   * each such element takes up to a few kilobytes, finding its count requires summing its counters,
+   * and the previous count returned by {@link #add(Object, int)} may include the occurrences added
+   * by other threads at the same time. Counts which are not contended are kept as by {@link
+   * #create()}.
+   *
+   * @since NEXT
+   */
+  public static <E> ConcurrentHashMultiset<E> createContentionAdaptive() {
+    return new ConcurrentHashMultiset<>(new ConcurrentHashMap<E, AtomicInteger>(), true);
+  }
+
   @VisibleForTesting
   ConcurrentHashMultiset(ConcurrentMap<E, AtomicInteger> countMap) {
+    this(countMap, false);
+  }
+
+  @VisibleForTesting
+  ConcurrentHashMultiset(ConcurrentMap<E, AtomicInteger> countMap, boolean contentionAdaptive) {
     checkArgument(countMap.isEmpty(), "the backing map (%s) must be empty", countMap);
     this.countMap = countMap;
+    this.contentionAdaptive = contentionAdaptive;
+  }
+
+  private AtomicInteger newCounter(int count) {
+    return contentionAdaptive ? new StripedCounter(count) : new AtomicInteger(count);
+  }
+
+  /** Returns the count held by {@code counter}, which may be striped. */
+  private static int countOf(AtomicInteger counter) {
+    int value = counter.get();
+    return (value == StripedCounter.STRIPED) ? ((StripedCounter) counter).count() : value;
+  }
+
+  /**
+   * Updates the striped count held by {@code counter}, removing it from the map if it becomes zero.
+   * Returns the previous count, or -1 if the count had already been removed.
+   */
+  private int updateStriped(
+      @CheckForNull Object element, AtomicInteger counter, IntUnaryOperator function) {
+    int oldCount = ((StripedCounter) counter).update(function);
+    if (counter.get() == 0) {
+      // The count was removed; clean up the map. If the removal fails, another thread has already
+      // replaced it with a new counter, which is fine.
+      countMap.remove(element, counter);
+    }
+    return oldCount;
   }
 
   // Query Operations
@@ -150,7 +215,7 @@ public final class ConcurrentHashMultiset<E> extends AbstractMultiset<E> impleme
   @Override
   public @NonNegative int count(@CheckForNull @UnknownSignedness Object element) {
     AtomicInteger existingCounter = Maps.safeGet(countMap, element);
-    return (existingCounter == null) ? 0 : existingCounter.get();
+    return (existingCounter == null) ? 0 : countOf(existingCounter);
   }
 
   /**
@@ -164,7 +229,7 @@ public final class ConcurrentHashMultiset<E> extends AbstractMultiset<E> impleme
   public @NonNegative int size() {
     long sum = 0L;
     for (AtomicInteger value : countMap.values()) {
-      sum += value.get();
+      sum += countOf(value);
     }
     return Ints.saturatedCast(sum);
   }
@@ -223,7 +288,7 @@ public final class ConcurrentHashMultiset<E> extends AbstractMultiset<E> impleme
     while (true) {
       AtomicInteger existingCounter = Maps.safeGet(countMap, element);
       if (existingCounter == null) {
-        existingCounter = countMap.putIfAbsent(element, new AtomicInteger(occurrences));
+        existingCounter = countMap.putIfAbsent(element, newCounter(occurrences));
         if (existingCounter == null) {
           return 0;
         }
@@ -232,7 +297,13 @@ public final class ConcurrentHashMultiset<E> extends AbstractMultiset<E> impleme
 
       while (true) {
         int oldValue = existingCounter.get();
-        if (oldValue != 0) {
+        if (oldValue == StripedCounter.STRIPED) {
+          StripedCounter stripedCounter = (StripedCounter) existingCounter;
+          if (stripedCounter.add(occurrences)) {
+            return Math.max(0, stripedCounter.count() - occurrences);
+          }
+          // The count was removed concurrently, so the value is now zero
+        } else if (oldValue != 0) {
           try {
             int newValue = IntMath.checkedAdd(oldValue, occurrences);
             if (existingCounter.compareAndSet(oldValue, newValue)) {
@@ -243,11 +314,16 @@ public final class ConcurrentHashMultiset<E> extends AbstractMultiset<E> impleme
             throw new IllegalArgumentException(
                 "Overflow adding " + occurrences + " occurrences to a count of " + oldValue);
           }
+          // Another thread updated the count at the same time. If that happens to a StripedCounter,
+          // spread its count over several cells so that the threads stop contending.
+          if (existingCounter instanceof StripedCounter) {
+            ((StripedCounter) existingCounter).stripe();
+          }
         } else {
           // In the case of a concurrent remove, we might observe a zero value, which means another
           // thread is about to remove (element, existingCounter) from the map. Rather than wait,
           // we can just do that work here.
-          AtomicInteger newCounter = new AtomicInteger(occurrences);
+          AtomicInteger newCounter = newCounter(occurrences);
           if ((countMap.putIfAbsent(element, newCounter) == null)
               || countMap.replace(element, existingCounter, newCounter)) {
             return 0;
@@ -292,7 +368,12 @@ public final class ConcurrentHashMultiset<E> extends AbstractMultiset<E> impleme
     }
     while (true) {
       int oldValue = existingCounter.get();
-      if (oldValue != 0) {
+      if (oldValue == StripedCounter.STRIPED) {
+        return Math.max(
+            0,
+            updateStriped(
+                element, existingCounter, count -> Math.max(0, count - occurrences)));
+      } else if (oldValue != 0) {
         int newValue = Math.max(0, oldValue - occurrences);
         if (existingCounter.compareAndSet(oldValue, newValue)) {
           if (newValue == 0) {
@@ -333,6 +414,14 @@ public final class ConcurrentHashMultiset<E> extends AbstractMultiset<E> impleme
     }
     while (true) {
       int oldValue = existingCounter.get();
+      if (oldValue == StripedCounter.STRIPED) {
+        int oldCount =
+            updateStriped(
+                element,
+                existingCounter,
+                count -> (count < occurrences) ? count : count - occurrences);
+        return oldCount >= occurrences;
+      }
       if (oldValue < occurrences) {
         return false;
       }
@@ -366,7 +455,7 @@ public final class ConcurrentHashMultiset<E> extends AbstractMultiset<E> impleme
         if (count == 0) {
           return 0;
         } else {
-          existingCounter = countMap.putIfAbsent(element, new AtomicInteger(count));
+          existingCounter = countMap.putIfAbsent(element, newCounter(count));
           if (existingCounter == null) {
             return 0;
           }
@@ -376,11 +465,19 @@ public final class ConcurrentHashMultiset<E> extends AbstractMultiset<E> impleme
 
       while (true) {
         int oldValue = existingCounter.get();
+        if (oldValue == StripedCounter.STRIPED) {
+          int oldCount = updateStriped(element, existingCounter, unused -> count);
+          if (oldCount >= 0) {
+            return oldCount;
+          }
+          // The count was removed concurrently, so the value is now zero
+          oldValue = 0;
+        }
         if (oldValue == 0) {
           if (count == 0) {
             return 0;
           } else {
-            AtomicInteger newCounter = new AtomicInteger(count);
+            AtomicInteger newCounter = newCounter(count);
             if ((countMap.putIfAbsent(element, newCounter) == null)
                 || countMap.replace(element, existingCounter, newCounter)) {
               return 0;
@@ -426,10 +523,20 @@ public final class ConcurrentHashMultiset<E> extends AbstractMultiset<E> impleme
         return true;
       } else {
         // if our write lost the race, it must have lost to a nonzero value, so we can stop
-        return countMap.putIfAbsent(element, new AtomicInteger(newCount)) == null;
+        return countMap.putIfAbsent(element, newCounter(newCount)) == null;
       }
     }
     int oldValue = existingCounter.get();
+    if (oldValue == StripedCounter.STRIPED) {
+      int oldCount =
+          updateStriped(
+              element, existingCounter, count -> (count == expectedOldCount) ? newCount : count);
+      if (oldCount >= 0) {
+        return oldCount == expectedOldCount;
+      }
+      // The count was removed concurrently, so the value is now zero
+      oldValue = 0;
+    }
     if (oldValue == expectedOldCount) {
       if (oldValue == 0) {
         if (newCount == 0) {
@@ -437,7 +544,7 @@ public final class ConcurrentHashMultiset<E> extends AbstractMultiset<E> impleme
           countMap.remove(element, existingCounter);
           return true;
         } else {
-          AtomicInteger newCounter = new AtomicInteger(newCount);
+          AtomicInteger newCounter = newCounter(newCount);
           return (countMap.putIfAbsent(element, newCounter) == null)
               || countMap.replace(element, existingCounter, newCounter);
         }
@@ -529,7 +636,7 @@ public final class ConcurrentHashMultiset<E> extends AbstractMultiset<E> impleme
                 return endOfData();
               }
               Map.Entry<E, AtomicInteger> mapEntry = mapEntries.next();
-              int count = mapEntry.getValue().get();
+              int count = countOf(mapEntry.getValue());
               if (count != 0) {
                 return Multisets.immutableEntry(mapEntry.getKey(), count);
               }
@@ -618,6 +725,187 @@ public final class ConcurrentHashMultiset<E> extends AbstractMultiset<E> impleme
   public boolean remove(@Nullable @UnknownSignedness Object arg0) { return super.remove(arg0); }
   }
 
+  /**
+   * The counter of an element in a {@linkplain #createContentionAdaptive contention-adaptive}
+   * multiset. It starts out as an ordinary counter, whose value is the count. Once threads contend
+   * to add to it, it is {@linkplain #stripe striped}: its value becomes {@link #STRIPED}, and the
+   * count is {@link #base} plus the sum of the {@link #cells}, which threads add to with little
+   * contention, like the cells of a {@code LongAdder}.
+   *
+   * <p>Every operation on a striped count except additions is done while holding the lock of the
+   * counter. It first folds the cells into the count, moving them to the next epoch: a cell can
+   * only be added to when its epoch matches that of {@link #limit}, so additions wait for the lock
+   * until the count is opened again with the new base and limit. The limit keeps each cell small
+   * enough that the count can't overflow. If the count becomes zero, the counter is left folded and
+   * its value is set to zero, so that it is removed like any other counter.
+   */
+  @VisibleForTesting
+  static final class StripedCounter extends AtomicInteger {
+    /** The value of a counter whose count is striped. */
+    static final int STRIPED = -1;
+
+    private static final int STRIPES =
+        Math.min(IntMath.ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors()), 64);
+
+    /** The number of longs from one cell to the next, so that each is in its own cache line. */
+    private static final int PADDING = 8;
+
+    /**
+     * The additions of each thread, packing the epoch into the upper 32 bits and the count into the
+     * lower 32 bits. This is written before the value is set to {@link #STRIPED}, and is only read
+     * after seeing that value.
+     */
+    @CheckForNull private AtomicLongArray cells;
+
+    /** The part of the count which is not in the cells. */
+    private volatile int base;
+
+    /** The current epoch in the upper 32 bits, and the maximum count of a cell in the lower. */
+    private volatile long limit;
+
+    @GuardedBy("this")
+    private int epoch;
+
+    StripedCounter(int count) {
+      super(count);
+    }
+
+    /** Spreads this count over several cells, unless it has been removed. */
+    synchronized void stripe() {
+      int count = get();
+      if (count > 0) {
+        if (cells == null) {
+          cells = new AtomicLongArray(STRIPES * PADDING);
+        }
+        open(count);
+        // If this fails, another thread just updated the count, so we'll try again next time.
+        compareAndSet(count, STRIPED);
+      }
+    }
+
+    /**
+     * Adds to the striped count, returning {@code false} if the count was removed in the meantime.
+     *
+     * @throws IllegalArgumentException if the count would exceed {@link Integer#MAX_VALUE}
+     */
+    boolean add(int occurrences) {
+      AtomicLongArray cells = requireNonNull(this.cells);
+      int stripe = Hashing.smear(Thread.currentThread().hashCode());
+      for (int attempt = 0; attempt < STRIPES; attempt++) {
+        long limit = this.limit;
+        int index = ((stripe + attempt) & (STRIPES - 1)) * PADDING;
+        long cell = cells.get(index);
+        if (cellEpoch(cell) != cellEpoch(limit)
+            || cellCount(cell) > cellCount(limit) - occurrences) {
+          break;
+        }
+        if (cells.compareAndSet(index, cell, cell + occurrences)) {
+          return true;
+        }
+        // another thread shares this cell; try the next one
+      }
+      return addLocked(occurrences);
+    }
+
+    private synchronized boolean addLocked(int occurrences) {
+      if (get() != STRIPED) {
+        return false;
+      }
+      int count = fold();
+      if (count > Integer.MAX_VALUE - occurrences) {
+        open(count);
+        throw new IllegalArgumentException(
+            "Overflow adding " + occurrences + " occurrences to a count of " + count);
+      }
+      open(count + occurrences);
+      return true;
+    }
+
+    /** Returns the striped count, or zero if it was removed. */
+    int count() {
+      AtomicLongArray cells = requireNonNull(this.cells);
+      long limit = this.limit;
+      long count = base;
+      for (int i = 0; i < cells.length(); i += PADDING) {
+        long cell = cells.get(i);
+        if (cellEpoch(cell) != cellEpoch(limit)) {
+          // the cells are being folded, or the count was removed
+          return lockedCount();
+        }
+        count += cellCount(cell);
+      }
+      return (int) count;
+    }
+
+    private synchronized int lockedCount() {
+      if (get() != STRIPED) {
+        return 0;
+      }
+      AtomicLongArray cells = requireNonNull(this.cells);
+      long count = base;
+      for (int i = 0; i < cells.length(); i += PADDING) {
+        count += cellCount(cells.get(i));
+      }
+      return (int) count;
+    }
+
+    /**
+     * Sets the striped count to the result of applying {@code function} to it, returning the
+     * previous count, or -1 if the count had already been removed. If the new count is zero, the
+     * count is removed, and the value of this counter becomes zero.
+     */
+    synchronized int update(IntUnaryOperator function) {
+      if (get() != STRIPED) {
+        return -1;
+      }
+      int oldCount = fold();
+      int newCount = function.applyAsInt(oldCount);
+      if (newCount == 0) {
+        set(0);
+      } else {
+        open(newCount);
+      }
+      return oldCount;
+    }
+
+    /**
+     * Moves the cells to the next epoch, returning the count. Until {@link #open} is called,
+     * additions wait for the lock.
+     */
+    @GuardedBy("this")
+    private int fold() {
+      AtomicLongArray cells = requireNonNull(this.cells);
+      long emptyCell = (long) ++epoch << 32;
+      long count = base;
+      for (int i = 0; i < cells.length(); i += PADDING) {
+        count += cellCount(cells.getAndSet(i, emptyCell));
+      }
+      return (int) count;
+    }
+
+    /** Lets threads add to the empty cells of the current epoch, starting from {@code count}. */
+    @GuardedBy("this")
+    private void open(int count) {
+      base = count;
+      limit = ((long) epoch << 32) | ((Integer.MAX_VALUE - count) / STRIPES);
+    }
+
+    private static int cellEpoch(long cell) {
+      return (int) (cell >>> 32);
+    }
+
+    private static int cellCount(long cell) {
+      return (int) cell;
+    }
+
+    private Object writeReplace() {
+      int value = get();
+      return new AtomicInteger((value == STRIPED) ? count() : value);
+    }
+
+    private static final long serialVersionUID = 0;
+  }
+
   /** @serialData the ConcurrentMap of elements and their counts. */
   private void writeObject(ObjectOutputStream stream) throws IOException {
     stream.defaultWriteObject();
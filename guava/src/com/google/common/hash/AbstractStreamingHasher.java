@@ -186,13 +186,26 @@ abstract class AbstractStreamingHasher extends AbstractHasher {
 
   @Override
   public final HashCode hash() {
+    processAll();
+    return makeHash();
+  }
+
+  /** Processes all the data that have been provided, including any incomplete last chunk. */
+  final void processAll() {
     munch();
     Java8Compatibility.flip(buffer);
     if (buffer.remaining() > 0) {
       processRemaining(buffer);
       Java8Compatibility.position(buffer, buffer.limit());
     }
-    return makeHash();
+  }
+
+  /**
+   * Discards any data that have been provided but not processed. Subclasses that can be reused for
+   * another input call this when they reset their own state.
+   */
+  final void clearBuffer() {
+    Java8Compatibility.clear(buffer);
   }
 
   /**
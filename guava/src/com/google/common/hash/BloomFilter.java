@@ -22,6 +22,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Objects;
 import com.google.common.base.Predicate;
 import com.google.common.hash.BloomFilterStrategies.LockFreeBitArray;
+import com.google.common.hash.Murmur3_128HashFunction.Murmur3_128Hasher;
 import com.google.common.math.DoubleMath;
 import com.google.common.math.LongMath;
 import com.google.common.primitives.SignedBytes;
@@ -36,6 +37,14 @@ import java.io.ObjectInputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.stream.Collector;
 import javax.annotation.CheckForNull;
 import org.checkerframework.checker.index.qual.LessThan;
@@ -103,6 +112,20 @@ public final class BloomFilter<T extends @Nullable Object> implements Predicate<
         int numHashFunctions,
         LockFreeBitArray bits);
 
+    /**
+     * Like {@link #put}, but for an element whose {@link Hashing#murmur3_128} hash has already been
+     * computed. {@code lowerHash} and {@code upperHash} are the first and last eight bytes of the
+     * hash code, read as little-endian longs.
+     */
+    boolean putHash(long lowerHash, long upperHash, int numHashFunctions, LockFreeBitArray bits);
+
+    /**
+     * Like {@link #mightContain}, but for an element whose {@link Hashing#murmur3_128} hash has
+     * already been computed, as for {@link #putHash}.
+     */
+    boolean mightContainHash(
+        long lowerHash, long upperHash, int numHashFunctions, LockFreeBitArray bits);
+
     /**
      * Identifier used to encode this strategy, when marshalled as part of a BloomFilter. Only
      * values in the [-128, 127] range are valid for the compact serial form. Non-negative values
@@ -125,6 +148,13 @@ public final class BloomFilter<T extends @Nullable Object> implements Predicate<
   /** The strategy we employ to map an element T to {@code numHashFunctions} bit indexes. */
   private final Strategy strategy;
 
+  /**
+   * The number of elements that {@link #putAll(Iterable)} and {@link #mightContainAll} hash before
+   * accessing the bit array. Separating the two keeps the hashing loop tight, and lets the CPU
+   * overlap the memory accesses of consecutive elements.
+   */
+  private static final int BATCH_SIZE = 256;
+
   /** Creates a BloomFilter. */
   private BloomFilter(
       LockFreeBitArray bits, @IntRange(from = 0, to = 255) int numHashFunctions, Funnel<? super T> funnel, Strategy strategy) {
@@ -181,6 +211,91 @@ public final class BloomFilter<T extends @Nullable Object> implements Predicate<
     return strategy.put(object, funnel, numHashFunctions, bits);
   }
 
+  /**
+   * Puts all the given elements into this {@code BloomFilter}, like calling {@link #put} for each
+   * of them, but faster: elements are hashed in batches with a single reused hasher, before any of
+   * their bits are set.
+   *
+   * @return true if the Bloom filter's bits changed as a result of this operation, which means
+   *     that at least one of the elements is <i>definitely</i> added for the first time
+   * @since NEXT
+   */
+  @CanIgnoreReturnValue
+  public boolean putAll(Iterable<? extends T> objects) {
+    checkNotNull(objects);
+    Murmur3_128Hasher hasher = Murmur3_128HashFunction.MURMUR3_128.newReusableHasher();
+    long[] hashes = new long[2 * BATCH_SIZE];
+    boolean bitsChanged = false;
+    Iterator<? extends T> iterator = objects.iterator();
+    while (iterator.hasNext()) {
+      int count = hashBatch(iterator, hasher, hashes);
+      for (int i = 0; i < count; i++) {
+        bitsChanged |= strategy.putHash(hashes[2 * i], hashes[2 * i + 1], numHashFunctions, bits);
+      }
+    }
+    return bitsChanged;
+  }
+
+  /**
+   * Sets bit {@code i} of {@code results} to whether the element at index {@code i} of {@code
+   * objects} <i>might</i> have been put in this Bloom filter, like calling {@link #mightContain}
+   * for each of them, but faster: elements are hashed in batches with a single reused hasher,
+   * before any of their bits are read. Bits of {@code results} beyond {@code objects.size()} are
+   * left as they are, so the same {@code BitSet} can be reused for batches of the same size.
+   *
+   * @since NEXT
+   */
+  public void mightContainAll(List<? extends T> objects, BitSet results) {
+    checkNotNull(results);
+    Murmur3_128Hasher hasher = Murmur3_128HashFunction.MURMUR3_128.newReusableHasher();
+    long[] hashes = new long[2 * BATCH_SIZE];
+    Iterator<? extends T> iterator = objects.iterator();
+    int index = 0;
+    while (iterator.hasNext()) {
+      int count = hashBatch(iterator, hasher, hashes);
+      for (int i = 0; i < count; i++) {
+        results.set(
+            index++,
+            strategy.mightContainHash(hashes[2 * i], hashes[2 * i + 1], numHashFunctions, bits));
+      }
+    }
+  }
+
+  /**
+   * Like {@link #mightContain}, but for an element whose {@link Hashing#murmur3_128} hash has
+   * already been computed, as for {@link Strategy#mightContainHash}.
+   */
+  boolean mightContainHash(long lowerHash, long upperHash) {
+    return strategy.mightContainHash(lowerHash, upperHash, numHashFunctions, bits);
+  }
+
+  /**
+   * Like {@link #put}, but for an element whose {@link Hashing#murmur3_128} hash has already been
+   * computed, as for {@link Strategy#putHash}.
+   */
+  @CanIgnoreReturnValue
+  boolean putHash(long lowerHash, long upperHash) {
+    return strategy.putHash(lowerHash, upperHash, numHashFunctions, bits);
+  }
+
+  /**
+   * Hashes up to {@link #BATCH_SIZE} elements from {@code iterator} with {@link
+   * Hashing#murmur3_128}, storing the two halves of the hash of each in consecutive elements of
+   * {@code hashes}, and returns the number of elements hashed.
+   */
+  private int hashBatch(Iterator<? extends T> iterator, Murmur3_128Hasher hasher, long[] hashes) {
+    int count = 0;
+    while (count < BATCH_SIZE && iterator.hasNext()) {
+      hasher.reset();
+      funnel.funnel(iterator.next(), hasher);
+      hasher.finish();
+      hashes[2 * count] = hasher.h1();
+      hashes[2 * count + 1] = hasher.h2();
+      count++;
+    }
+    return count;
+  }
+
   /**
    * Returns the probability that {@linkplain #mightContain(Object)} will erroneously return {@code
    * true} for an object that has not actually been put in the {@code BloomFilter}.
@@ -441,6 +556,16 @@ public final class BloomFilter<T extends @Nullable Object> implements Predicate<
     @SuppressWarnings("value:assignment") // This warning might be a true postive.
     @IntRange(from=0, to=2147483647) long numBits = optimalNumOfBits(expectedInsertions, fpp);
     int numHashFunctions = optimalNumOfHashFunctions(expectedInsertions, numBits);
+    if (strategy == BloomFilterStrategies.MURMUR128_BLOCKED_512) {
+      // whole blocks only, so that every bit of the array can be used; the extra bits only lower
+      // the false positive probability, so they don't call for more hash functions
+      @SuppressWarnings("value:assignment") // Can only overflow where numBits above already might.
+      @IntRange(from = 0, to = Integer.MAX_VALUE)
+      long wholeBlockBits =
+          LongMath.divide(numBits, BloomFilterStrategies.BLOCK_BITS, RoundingMode.CEILING)
+              * BloomFilterStrategies.BLOCK_BITS;
+      numBits = wholeBlockBits;
+    }
     try {
       return new BloomFilter<T>(new LockFreeBitArray(numBits), numHashFunctions, funnel, strategy);
     } catch (IllegalArgumentException e) {
@@ -448,6 +573,34 @@ public final class BloomFilter<T extends @Nullable Object> implements Predicate<
     }
   }
 
+  /**
+   * Creates a blocked {@link BloomFilter} with the expected number of insertions and expected false
+   * positive probability.
+   *
+   * <p>A blocked Bloom filter sets and tests all the bits of an element within a single block of
+   * 512 bits, the size of a typical cache line. Since the blocks are not aligned to cache lines,
+   * each {@link #put} or {@link #mightContain} touches at most two cache lines of the filter rather
+   * than one per hash function. For filters much larger than the CPU caches this makes lookups
+   * several times faster. In exchange the actual false positive probability is somewhat higher
+   * than {@code fpp}, by a factor that grows as {@code fpp} shrinks; pass a lower {@code fpp} to
+   * compensate.
+   *
+   * <p>Apart from that, the returned filter behaves like one returned by {@link #create(Funnel,
+   * long, double)}: it can be {@linkplain #writeTo written} and {@linkplain #readFrom read}, and
+   * {@linkplain #putAll combined} with other blocked filters of the same size.
+   *
+   * @param funnel the funnel of T's that the constructed {@code BloomFilter} will use
+   * @param expectedInsertions the number of expected insertions to the constructed {@code
+   *     BloomFilter}; must be positive
+   * @param fpp the desired false positive probability (must be positive and less than 1.0)
+   * @return a {@code BloomFilter}
+   * @since NEXT
+   */
+  public static <T extends @Nullable Object> BloomFilter<T> createBlocked(
+      Funnel<? super T> funnel, @Positive long expectedInsertions, double fpp) {
+    return create(funnel, expectedInsertions, fpp, BloomFilterStrategies.MURMUR128_BLOCKED_512);
+  }
+
   /**
    * Creates a {@link BloomFilter} with the expected number of insertions and a default expected
    * false positive probability of 3%.
@@ -558,7 +711,7 @@ public final class BloomFilter<T extends @Nullable Object> implements Predicate<
     final Strategy strategy;
 
     SerialForm(BloomFilter<T> bf) {
-      this.data = LockFreeBitArray.toPlainArray(bf.bits.data);
+      this.data = bf.bits.toPlainArray();
       this.numHashFunctions = bf.numHashFunctions;
       this.funnel = bf.funnel;
       this.strategy = bf.strategy;
@@ -587,9 +740,9 @@ public final class BloomFilter<T extends @Nullable Object> implements Predicate<
     DataOutputStream dout = new DataOutputStream(out);
     dout.writeByte(SignedBytes.checkedCast(strategy.ordinal()));
     dout.writeByte(UnsignedBytes.checkedCast(numHashFunctions)); // note: checked at the c'tor
-    dout.writeInt(bits.data.length());
-    for (int i = 0; i < bits.data.length(); i++) {
-      dout.writeLong(bits.data.get(i));
+    dout.writeInt(bits.dataLength());
+    for (int i = 0; i < bits.dataLength(); i++) {
+      dout.writeLong(bits.getData(i));
     }
   }
 
@@ -649,5 +802,88 @@ public final class BloomFilter<T extends @Nullable Object> implements Predicate<
     }
   }
 
+  /**
+   * Returns a {@code BloomFilter} backed by a read-only memory mapping of {@code file}, which must
+   * hold a filter written by {@linkplain #writeTo(OutputStream)}. Unlike {@link
+   * #readFrom(InputStream, Funnel)}, nothing is copied onto the heap: {@link #mightContain} reads
+   * the bits straight out of the mapping, so even very large filters are ready to use at once and
+   * pages are only loaded from disk as lookups touch them. Calling {@link #put} on the returned
+   * filter throws {@link java.nio.ReadOnlyBufferException}.
+   *
+   * <p>The {@code Funnel} to be used is not encoded in the file, so it must be provided here.
+   * <b>Warning:</b> the funnel provided <b>must</b> behave identically to the one used to populate
+   * the original Bloom filter!
+   *
+   * @throws IOException if the file cannot be read or mapped, or if its contents do not appear to
+   *     be a BloomFilter written using the {@linkplain #writeTo(OutputStream)} method.
+   * @since NEXT
+   */
+  public static <T extends @Nullable Object> BloomFilter<T> map(
+      Path file, Funnel<? super T> funnel) throws IOException {
+    checkNotNull(file, "Path");
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return map(channel, funnel, MapMode.READ_ONLY);
+    }
+  }
+
+  /**
+   * Returns a {@code BloomFilter} backed by a memory mapping of {@code channel}, which must hold a
+   * filter written by {@linkplain #writeTo(OutputStream)} at its start. As with {@link #map(Path,
+   * Funnel)}, nothing is copied onto the heap.
+   *
+   * <p>With {@link MapMode#READ_WRITE}, elements {@linkplain #put added} to the returned filter are
+   * written through to the file, so it can be updated incrementally and stays in the format read
+   * by {@link #readFrom(InputStream, Funnel)}. With {@link MapMode#PRIVATE}, additions are only
+   * visible to the returned filter. Lookups never take a lock. Since mapped buffers have no
+   * compare-and-swap, additions to a writable mapping take a lock, unlike those of a filter on the
+   * heap; a lookup that starts after an addition has returned sees it. {@link
+   * #approximateElementCount} and {@link #expectedFpp} read the whole mapping on their first call.
+   *
+   * <p>The mapping remains valid after {@code channel} is closed. The channel must be open for
+   * reading, and for writing too unless {@code mode} is {@link MapMode#READ_ONLY}.
+   *
+   * @throws IOException if the channel cannot be read or mapped, or if its contents do not appear
+   *     to be a BloomFilter written using the {@linkplain #writeTo(OutputStream)} method.
+   * @since NEXT
+   */
+  @SuppressWarnings("value:argument") // numHashFunctions is read as an unsigned byte
+  public static <T extends @Nullable Object> BloomFilter<T> map(
+      FileChannel channel, Funnel<? super T> funnel, MapMode mode) throws IOException {
+    checkNotNull(channel, "FileChannel");
+    checkNotNull(funnel, "Funnel");
+    checkNotNull(mode, "MapMode");
+    // See writeTo for the layout of the header.
+    ByteBuffer header = ByteBuffer.allocate(MAPPED_HEADER_BYTES);
+    while (header.hasRemaining()) {
+      if (channel.read(header, header.position()) < 0) {
+        throw new IOException(
+            "Unable to map BloomFilter: file is too short (" + channel.size() + " bytes)");
+      }
+    }
+    int strategyOrdinal = header.get(0);
+    int numHashFunctions = UnsignedBytes.toInt(header.get(1));
+    int dataLength = header.getInt(2);
+    String description =
+        " strategyOrdinal: "
+            + strategyOrdinal
+            + " numHashFunctions: "
+            + numHashFunctions
+            + " dataLength: "
+            + dataLength;
+    if (strategyOrdinal < 0
+        || strategyOrdinal >= BloomFilterStrategies.values().length
+        || numHashFunctions == 0
+        || dataLength <= 0
+        || channel.size() < MAPPED_HEADER_BYTES + (long) dataLength * Long.BYTES) {
+      throw new IOException("Unable to map BloomFilter from FileChannel." + description);
+    }
+    Strategy strategy = BloomFilterStrategies.values()[strategyOrdinal];
+    LockFreeBitArray bits = LockFreeBitArray.map(channel, mode, MAPPED_HEADER_BYTES, dataLength);
+    return new BloomFilter<T>(bits, numHashFunctions, funnel, strategy);
+  }
+
+  /** The size of the header that {@link #writeTo} writes before the bits. */
+  private static final int MAPPED_HEADER_BYTES = 6;
+
   private static final long serialVersionUID = 0xcafebabe;
 }
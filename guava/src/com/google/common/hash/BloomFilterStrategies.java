@@ -15,14 +15,21 @@
 package com.google.common.hash;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
 
 import com.google.common.math.LongMath;
 import com.google.common.primitives.Ints;
 import com.google.common.primitives.Longs;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.io.IOException;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLongArray;
 import javax.annotation.CheckForNull;
+import org.checkerframework.checker.index.qual.Positive;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.signedness.qual.UnknownSignedness;
 import org.checkerframework.common.value.qual.IntRange;
@@ -49,15 +56,11 @@ enum BloomFilterStrategies implements BloomFilter.Strategy {
    */
   MURMUR128_MITZ_32() {
     @Override
-    public <T extends @Nullable Object> boolean put(
-        @ParametricNullness T object,
-        Funnel<? super T> funnel,
-        int numHashFunctions,
-        LockFreeBitArray bits) {
+    public boolean putHash(
+        long lowerHash, long upperHash, int numHashFunctions, LockFreeBitArray bits) {
       long bitSize = bits.bitSize();
-      long hash64 = Hashing.murmur3_128().hashObject(object, funnel).asLong();
-      int hash1 = (int) hash64;
-      int hash2 = (int) (hash64 >>> 32);
+      int hash1 = (int) lowerHash;
+      int hash2 = (int) (lowerHash >>> 32);
 
       boolean bitsChanged = false;
       for (int i = 1; i <= numHashFunctions; i++) {
@@ -72,15 +75,11 @@ enum BloomFilterStrategies implements BloomFilter.Strategy {
     }
 
     @Override
-    public <T extends @Nullable Object> boolean mightContain(
-        @ParametricNullness T object,
-        Funnel<? super T> funnel,
-        int numHashFunctions,
-        LockFreeBitArray bits) {
+    public boolean mightContainHash(
+        long lowerHash, long upperHash, int numHashFunctions, LockFreeBitArray bits) {
       long bitSize = bits.bitSize();
-      long hash64 = Hashing.murmur3_128().hashObject(object, funnel).asLong();
-      int hash1 = (int) hash64;
-      int hash2 = (int) (hash64 >>> 32);
+      int hash1 = (int) lowerHash;
+      int hash2 = (int) (lowerHash >>> 32);
 
       for (int i = 1; i <= numHashFunctions; i++) {
         int combinedHash = hash1 + (i * hash2);
@@ -103,88 +102,222 @@ enum BloomFilterStrategies implements BloomFilter.Strategy {
    */
   MURMUR128_MITZ_64() {
     @Override
-    public <T extends @Nullable Object> boolean put(
-        @ParametricNullness T object,
-        Funnel<? super T> funnel,
-        int numHashFunctions,
-        LockFreeBitArray bits) {
+    public boolean putHash(
+        long lowerHash, long upperHash, int numHashFunctions, LockFreeBitArray bits) {
       long bitSize = bits.bitSize();
-      @SuppressWarnings("value:assignment")
-      byte @MinLen(16)[] bytes = Hashing.murmur3_128().hashObject(object, funnel).getBytesInternal();
-      long hash1 = lowerEight(bytes);
-      long hash2 = upperEight(bytes);
 
       boolean bitsChanged = false;
-      long combinedHash = hash1;
+      long combinedHash = lowerHash;
       for (int i = 0; i < numHashFunctions; i++) {
         // Make the combined hash positive and indexable
         bitsChanged |= bits.set((combinedHash & Long.MAX_VALUE) % bitSize);
-        combinedHash += hash2;
+        combinedHash += upperHash;
       }
       return bitsChanged;
     }
 
     @Override
-    public <T extends @Nullable Object> boolean mightContain(
-        @ParametricNullness T object,
-        Funnel<? super T> funnel,
-        int numHashFunctions,
-        LockFreeBitArray bits) {
+    public boolean mightContainHash(
+        long lowerHash, long upperHash, int numHashFunctions, LockFreeBitArray bits) {
       long bitSize = bits.bitSize();
-      @SuppressWarnings("value:assignment")
-      byte @MinLen(16)[] bytes = Hashing.murmur3_128().hashObject(object, funnel).getBytesInternal();
-      long hash1 = lowerEight(bytes);
-      long hash2 = upperEight(bytes);
 
-      long combinedHash = hash1;
+      long combinedHash = lowerHash;
       for (int i = 0; i < numHashFunctions; i++) {
         // Make the combined hash positive and indexable
         if (!bits.get((combinedHash & Long.MAX_VALUE) % bitSize)) {
           return false;
         }
-        combinedHash += hash2;
+        combinedHash += upperHash;
+      }
+      return true;
+    }
+  },
+  /**
+   * Like {@link #MURMUR128_MITZ_64}, but all the bits of an element are in the same block of 512
+   * bits, which is the size of a cache line on most hardware. The array of longs is not aligned to
+   * cache lines, so a block may straddle two of them, but each operation still touches at most two
+   * cache lines instead of {@code numHashFunctions} of them, which makes a large filter much
+   * faster. In exchange, the bits of the elements are less evenly spread, so the false positive
+   * probability is somewhat higher for the same number of bits; see "Cache-, Hash- and
+   * Space-Efficient Bloom Filters" by Felix Putze, Peter Sanders and Johannes Singler.
+   *
+   * <p>The lower half of the hash selects the block. Within the block, the upper half of the hash
+   * supplies a start and an odd stride for the Kirsch-Mitzenmacher trick, which gives distinct bits
+   * for up to 512 hash functions.
+   */
+  MURMUR128_BLOCKED_512() {
+    @Override
+    public boolean putHash(
+        long lowerHash, long upperHash, int numHashFunctions, LockFreeBitArray bits) {
+      long bitSize = bits.bitSize();
+      long blockStart = blockStart(lowerHash, bitSize);
+      int index = (int) upperHash;
+      int stride = (int) (upperHash >>> 32) | 1;
+
+      boolean bitsChanged = false;
+      for (int i = 0; i < numHashFunctions; i++) {
+        bitsChanged |= bits.set(bitIndex(blockStart, index, bitSize));
+        index += stride;
+      }
+      return bitsChanged;
+    }
+
+    @Override
+    public boolean mightContainHash(
+        long lowerHash, long upperHash, int numHashFunctions, LockFreeBitArray bits) {
+      long bitSize = bits.bitSize();
+      long blockStart = blockStart(lowerHash, bitSize);
+      int index = (int) upperHash;
+      int stride = (int) (upperHash >>> 32) | 1;
+
+      for (int i = 0; i < numHashFunctions; i++) {
+        if (!bits.get(bitIndex(blockStart, index, bitSize))) {
+          return false;
+        }
+        index += stride;
       }
       return true;
     }
 
-    private /* static */ long lowerEight(byte @MinLen(8)[] bytes) {
-      return Longs.fromBytes(
-          bytes[7], bytes[6], bytes[5], bytes[4], bytes[3], bytes[2], bytes[1], bytes[0]);
+    /**
+     * Returns the first bit of the block selected by {@code hash}. Any bits after the last whole
+     * block are unused; {@link BloomFilter} sizes the bit arrays of this strategy in whole blocks.
+     */
+    private /* static */ long blockStart(long hash, long bitSize) {
+      long numBlocks = Math.max(1, bitSize / BLOCK_BITS);
+      return ((hash & Long.MAX_VALUE) % numBlocks) * BLOCK_BITS;
     }
 
-    private /* static */ long upperEight(byte @MinLen(16)[] bytes) {
-      return Longs.fromBytes(
-          bytes[15], bytes[14], bytes[13], bytes[12], bytes[11], bytes[10], bytes[9], bytes[8]);
+    private /* static */ long bitIndex(long blockStart, int index, long bitSize) {
+      long bitIndex = blockStart + (index & (BLOCK_BITS - 1));
+      // only a bit array smaller than one block can be too short
+      return (bitIndex < bitSize) ? bitIndex : bitIndex % bitSize;
     }
   };
 
+  @Override
+  public <T extends @Nullable Object> boolean put(
+      @ParametricNullness T object,
+      Funnel<? super T> funnel,
+      int numHashFunctions,
+      LockFreeBitArray bits) {
+    @SuppressWarnings("value:assignment")
+    byte @MinLen(16)[] bytes = Hashing.murmur3_128().hashObject(object, funnel).getBytesInternal();
+    return putHash(lowerEight(bytes), upperEight(bytes), numHashFunctions, bits);
+  }
+
+  @Override
+  public <T extends @Nullable Object> boolean mightContain(
+      @ParametricNullness T object,
+      Funnel<? super T> funnel,
+      int numHashFunctions,
+      LockFreeBitArray bits) {
+    @SuppressWarnings("value:assignment")
+    byte @MinLen(16)[] bytes = Hashing.murmur3_128().hashObject(object, funnel).getBytesInternal();
+    return mightContainHash(lowerEight(bytes), upperEight(bytes), numHashFunctions, bits);
+  }
+
+  /**
+   * Fills {@code indexes} with one index below {@code size} per hash function, derived from {@code
+   * object} the same way as the bit indexes of {@link #MURMUR128_MITZ_64}. This is for filters that
+   * keep something other than a bit at each index, like {@link CountingBloomFilter}.
+   */
+  static <T extends @Nullable Object> void murmur128Mitz64Indexes(
+      @ParametricNullness T object, Funnel<? super T> funnel, long size, long[] indexes) {
+    @SuppressWarnings("value:assignment")
+    byte @MinLen(16)[] bytes = Hashing.murmur3_128().hashObject(object, funnel).getBytesInternal();
+    long hash1 = lowerEight(bytes);
+    long hash2 = upperEight(bytes);
+
+    long combinedHash = hash1;
+    for (int i = 0; i < indexes.length; i++) {
+      // Make the combined hash positive and indexable
+      indexes[i] = (combinedHash & Long.MAX_VALUE) % size;
+      combinedHash += hash2;
+    }
+  }
+
+  /** The number of bits in each block of {@link #MURMUR128_BLOCKED_512}. */
+  static final int BLOCK_BITS = 512;
+
+  static long lowerEight(byte @MinLen(8)[] bytes) {
+    return Longs.fromBytes(
+        bytes[7], bytes[6], bytes[5], bytes[4], bytes[3], bytes[2], bytes[1], bytes[0]);
+  }
+
+  static long upperEight(byte @MinLen(16)[] bytes) {
+    return Longs.fromBytes(
+        bytes[15], bytes[14], bytes[13], bytes[12], bytes[11], bytes[10], bytes[9], bytes[8]);
+  }
+
   /**
    * Models a lock-free array of bits.
    *
    * <p>We use this instead of java.util.BitSet because we need access to the array of longs and we
    * need compare-and-swap.
+   *
+   * <p>The bits are normally held in an {@link AtomicLongArray}. An array {@linkplain #map mapped}
+   * from a file instead reads the longs straight out of the mapped buffers, without locking.
+   * Buffers have no compare-and-swap, so writes to a writable mapping take the array's lock, and
+   * then write the volatile {@link #mappedWrites}, which reads of the mapping read first. So a
+   * read that starts after a write has returned sees its bits. Bits are only ever set, so a read
+   * that races with a write sees at least the bits that were set before the write started.
    */
   @SuppressWarnings("value:argument") // Since `Ints.checkedCast` returns the int value that is equal to non negative`long bits`,
   // Ints.checkedCast() can't return negative value
   static final class LockFreeBitArray {
     private static final int LONG_ADDRESSABLE_BITS = 6;
-    final AtomicLongArray data;
+
+    /**
+     * The number of longs in each mapped buffer. A single buffer can address at most 2 GB, so
+     * larger arrays are mapped in 1 GB chunks.
+     */
+    private static final int LONGS_PER_CHUNK = 1 << 27;
+
+    @CheckForNull private final AtomicLongArray data;
+    @CheckForNull private final ByteBuffer[] mappedChunks;
+
+    /** Whether the array is mapped read-only, so that nothing can write to it. */
+    private final boolean mappedReadOnly;
+
+    /**
+     * The number of writes to a writable mapping. Only written while holding the lock on this,
+     * after the mapped buffer, so that reading it first makes those writes visible.
+     */
+    private volatile int mappedWrites;
+
+    private final int dataLength;
     private final LongAddable bitCount;
 
+    /**
+     * Whether {@link #bitCount} reflects the set bits. Mapped arrays count their bits on first use
+     * rather than when they are mapped, which would mean reading the whole file.
+     */
+    @GuardedBy("this")
+    private boolean bitCountKnown;
+
     LockFreeBitArray(@IntRange(from = 0, to = Integer.MAX_VALUE) long bits) {
       checkArgument(bits > 0, "data length is zero!");
       // Avoid delegating to this(long[]), since AtomicLongArray(long[]) will clone its input and
       // thus double memory usage.
       this.data =
           new AtomicLongArray(Ints.checkedCast(LongMath.divide(bits, 64, RoundingMode.CEILING)));//(1)
+      this.mappedChunks = null;
+      this.mappedReadOnly = false;
+      this.dataLength = data.length();
       this.bitCount = LongAddables.create();
+      this.bitCountKnown = true;
     }
 
     // Used by serialization
     LockFreeBitArray(long[] data) {
       checkArgument(data.length > 0, "data length is zero!");
       this.data = new AtomicLongArray(data);
+      this.mappedChunks = null;
+      this.mappedReadOnly = false;
+      this.dataLength = data.length;
       this.bitCount = LongAddables.create();
+      this.bitCountKnown = true;
       long bitCount = 0;
       for (long value : data) {
         bitCount += Long.bitCount(value);
@@ -192,6 +325,40 @@ enum BloomFilterStrategies implements BloomFilter.Strategy {
       this.bitCount.add(bitCount);
     }
 
+    private LockFreeBitArray(ByteBuffer[] mappedChunks, boolean readOnly, int dataLength) {
+      this.data = null;
+      this.mappedChunks = mappedChunks;
+      this.mappedReadOnly = readOnly;
+      this.dataLength = dataLength;
+      this.bitCount = LongAddables.create();
+      this.bitCountKnown = false;
+    }
+
+    /**
+     * Maps {@code dataLength} big-endian longs of {@code channel}, starting at {@code position},
+     * into a bit array. Nothing is read until the array is used.
+     */
+    static LockFreeBitArray map(
+        FileChannel channel, MapMode mode, long position, @Positive int dataLength)
+        throws IOException {
+      checkArgument(dataLength > 0, "data length is zero!");
+      ByteBuffer[] chunks = new ByteBuffer[(dataLength - 1) / LONGS_PER_CHUNK + 1];
+      for (int i = 0; i < chunks.length; i++) {
+        long firstLong = (long) i * LONGS_PER_CHUNK;
+        long longs = Math.min(LONGS_PER_CHUNK, dataLength - firstLong);
+        chunks[i] = channel.map(mode, position + firstLong * Long.BYTES, longs * Long.BYTES);
+      }
+      return new LockFreeBitArray(chunks, mode == MapMode.READ_ONLY, dataLength);
+    }
+
+    private ByteBuffer chunk(int longIndex) {
+      return requireNonNull(mappedChunks)[longIndex / LONGS_PER_CHUNK];
+    }
+
+    private static int offset(int longIndex) {
+      return (longIndex % LONGS_PER_CHUNK) * Long.BYTES;
+    }
+
     /** Returns true if the bit changed value. */
     boolean set(long bitIndex) {
       if (get(bitIndex)) {
@@ -200,6 +367,9 @@ enum BloomFilterStrategies implements BloomFilter.Strategy {
 
       int longIndex = (int) (bitIndex >>> LONG_ADDRESSABLE_BITS);
       long mask = 1L << bitIndex; // only cares about low 6 bits of bitIndex
+      if (data == null) {
+        return orMapped(longIndex, mask) != 0;
+      }
 
       long oldValue;
       long newValue;
@@ -216,8 +386,46 @@ enum BloomFilterStrategies implements BloomFilter.Strategy {
       return true;
     }
 
+    /**
+     * ORs {@code value} into the {@code longIndex}th long of a mapped array, and returns the number
+     * of bits that changed.
+     */
+    private synchronized int orMapped(int longIndex, long value) {
+      ByteBuffer chunk = chunk(longIndex);
+      int offset = offset(longIndex);
+      long oldValue = chunk.getLong(offset);
+      long newValue = oldValue | value;
+      if (oldValue == newValue) {
+        return 0;
+      }
+      chunk.putLong(offset, newValue);
+      int writes = mappedWrites;
+      mappedWrites = writes + 1; // write-volatile
+      int bitsAdded = Long.bitCount(newValue) - Long.bitCount(oldValue);
+      if (bitCountKnown) {
+        bitCount.add(bitsAdded);
+      }
+      return bitsAdded;
+    }
+
     boolean get(long bitIndex) {
-      return (data.get((int) (bitIndex >>> LONG_ADDRESSABLE_BITS)) & (1L << bitIndex)) != 0;
+      return (getData((int) (bitIndex >>> LONG_ADDRESSABLE_BITS)) & (1L << bitIndex)) != 0;
+    }
+
+    /** Returns the {@code i}th {@code long} of the array. */
+    long getData(int i) {
+      return data != null ? data.get(i) : getMapped(i);
+    }
+
+    /**
+     * Returns the {@code longIndex}th long of a mapped array. Unless the mapping is read-only, this
+     * first reads {@link #mappedWrites} to see the writes of {@link #orMapped}.
+     */
+    private long getMapped(int longIndex) {
+      if (!mappedReadOnly) {
+        int unused = mappedWrites; // read-volatile
+      }
+      return chunk(longIndex).getLong(offset(longIndex));
     }
 
     /**
@@ -235,9 +443,21 @@ enum BloomFilterStrategies implements BloomFilter.Strategy {
       return array;
     }
 
+    /** Like {@link #toPlainArray(AtomicLongArray)}, but for arrays that may be mapped. */
+    long[] toPlainArray() {
+      if (data != null) {
+        return toPlainArray(data);
+      }
+      long[] array = new long[dataLength];
+      for (int i = 0; i < array.length; ++i) {
+        array[i] = getData(i);
+      }
+      return array;
+    }
+
     /** Number of bits */
     long bitSize() {
-      return (long) data.length() * Long.SIZE;
+      return (long) dataLength * Long.SIZE;
     }
 
     /**
@@ -249,11 +469,24 @@ enum BloomFilterStrategies implements BloomFilter.Strategy {
      * underestimating, never overestimating.
      */
     long bitCount() {
+      if (data == null) {
+        synchronized (this) {
+          if (!bitCountKnown) {
+            long count = 0;
+            for (int i = 0; i < dataLength; i++) {
+              count += Long.bitCount(getData(i));
+            }
+            bitCount.add(count);
+            bitCountKnown = true;
+          }
+        }
+      }
       return bitCount.sum();
     }
 
+    /** Returns a copy of this array on the heap, even if this array is mapped. */
     LockFreeBitArray copy() {
-      return new LockFreeBitArray(toPlainArray(data));
+      return new LockFreeBitArray(toPlainArray());
     }
 
     /**
@@ -267,12 +500,12 @@ enum BloomFilterStrategies implements BloomFilter.Strategy {
      */
     void putAll(LockFreeBitArray other) {
       checkArgument(
-          data.length() == other.data.length(),
+          dataLength == other.dataLength,
           "BitArrays must be of equal length (%s != %s)",
-          data.length(),
-          other.data.length());
-      for (int i = 0; i < data.length(); i++) {
-        putData(i, other.data.get(i));
+          dataLength,
+          other.dataLength);
+      for (int i = 0; i < dataLength; i++) {
+        putData(i, other.getData(i));
       }
     }
 
@@ -281,6 +514,10 @@ enum BloomFilterStrategies implements BloomFilter.Strategy {
      * AtomicLongArray} with the given value.
      */
     void putData(int i, long longValue) {
+      if (data == null) {
+        orMapped(i, longValue);
+        return;
+      }
       long ourLongOld;
       long ourLongNew;
       boolean changedAnyBits = true;
@@ -299,9 +536,9 @@ enum BloomFilterStrategies implements BloomFilter.Strategy {
       }
     }
 
-    /** Returns the number of {@code long}s in the underlying {@link AtomicLongArray}. */
+    /** Returns the number of {@code long}s in the array. */
     int dataLength() {
-      return data.length();
+      return dataLength;
     }
 
     @Override
@@ -309,7 +546,7 @@ enum BloomFilterStrategies implements BloomFilter.Strategy {
       if (o instanceof LockFreeBitArray) {
         LockFreeBitArray lockFreeBitArray = (LockFreeBitArray) o;
         // TODO(lowasser): avoid allocation here
-        return Arrays.equals(toPlainArray(data), toPlainArray(lockFreeBitArray.data));
+        return Arrays.equals(toPlainArray(), lockFreeBitArray.toPlainArray());
       }
       return false;
     }
@@ -317,7 +554,7 @@ enum BloomFilterStrategies implements BloomFilter.Strategy {
     @Override
     public int hashCode(@UnknownSignedness LockFreeBitArray this) {
       // TODO(lowasser): avoid allocation here
-      return Arrays.hashCode(toPlainArray(data));
+      return Arrays.hashCode(toPlainArray());
     }
   }
 }
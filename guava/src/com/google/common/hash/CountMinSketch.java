@@ -0,0 +1,415 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.hash.BloomFilterStrategies.LockFreeBitArray;
+import com.google.common.math.LongMath;
+import com.google.common.primitives.Ints;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.CheckForNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.common.value.qual.MinLen;
+
+/**
+ * A count-min sketch, which estimates how many times each instance of {@code T} was {@linkplain
+ * #add added} to it using a fixed amount of memory, however many distinct elements it sees. See
+ * "An Improved Data Stream Summary: The Count-Min Sketch and its Applications" by Graham Cormode
+ * and S. Muthukrishnan.
+ *
+ * <p>The sketch is a table of counters with {@code depth} rows of {@code width} counters each.
+ * Each element maps to one counter in every row, and its estimated count is the smallest of them.
+ * Estimates are never lower than the true count. They exceed it by more than {@code relativeError
+ * * totalCount()} with probability at most {@code errorProbability}, the parameters given to {@link
+ * #create}.
+ *
+ * <p>Additions use <i>conservative update</i>: rather than adding to all of an element's counters,
+ * they only raise those that are below the element's new estimate. This keeps the guarantee above
+ * and makes estimates of infrequent elements considerably more accurate.
+ *
+ * <p>Sketches with the same dimensions and funnel can be {@linkplain #putAll merged}, for example
+ * to combine the sketches of several shards.
+ *
+ * <p>Count-min sketches are serializable. They also support a more compact serial representation
+ * via the {@link #writeTo} and {@link #readFrom} methods, with the same compatibility guarantees as
+ * {@link BloomFilter}.
+ *
+ * <p>This class is thread-safe. {@link #estimateCount} is lock-free, while the methods that modify
+ * the sketch take a lock, since a conservative update reads the counters before writing them.
+ *
+ * @param <T> the type of instances that the {@code CountMinSketch} accepts
+ * @since NEXT
+ */
+@Beta
+@ElementTypesAreNonnullByDefault
+public final class CountMinSketch<T extends @Nullable Object> implements Serializable {
+  /** The counters, row by row. */
+  private final AtomicLongArray counters;
+
+  private final int depth;
+  private final int width;
+
+  /** The funnel to translate Ts to bytes */
+  private final Funnel<? super T> funnel;
+
+  /** The sum of all counts added. Only written while holding the lock on this. */
+  private volatile long totalCount;
+
+  private CountMinSketch(
+      long[] counters, int depth, int width, long totalCount, Funnel<? super T> funnel) {
+    checkArgument(depth > 0, "depth (%s) must be > 0", depth);
+    checkArgument(width > 0, "width (%s) must be > 0", width);
+    checkArgument(
+        counters.length == (long) depth * width,
+        "counters length (%s) must be depth * width (%s * %s)",
+        counters.length,
+        depth,
+        width);
+    checkArgument(totalCount >= 0, "totalCount (%s) must be >= 0", totalCount);
+    this.counters = new AtomicLongArray(counters);
+    this.depth = depth;
+    this.width = width;
+    this.totalCount = totalCount;
+    this.funnel = checkNotNull(funnel);
+  }
+
+  /**
+   * Creates an empty {@link CountMinSketch} whose estimates exceed the true count of an element by
+   * more than {@code relativeError * totalCount()} with probability at most {@code
+   * errorProbability}.
+   *
+   * <p>The sketch has {@code ceil(ln(1 / errorProbability))} rows of {@code ceil(e /
+   * relativeError)} counters of 8 bytes each. For example, a relative error of 0.001 with an error
+   * probability of 0.01 takes 5 rows of 2719 counters, about 106 KB.
+   *
+   * <p>The constructed {@code CountMinSketch} will be serializable if the provided {@code
+   * Funnel<T>} is.
+   *
+   * @param funnel the funnel of T's that the constructed {@code CountMinSketch} will use
+   * @param relativeError the error of estimates, relative to the total count (must be positive and
+   *     less than 1.0)
+   * @param errorProbability the probability that an estimate's error exceeds {@code relativeError}
+   *     (must be positive and less than 1.0)
+   * @return a {@code CountMinSketch}
+   */
+  public static <T extends @Nullable Object> CountMinSketch<T> create(
+      Funnel<? super T> funnel, double relativeError, double errorProbability) {
+    checkNotNull(funnel);
+    checkArgument(relativeError > 0.0, "Relative error (%s) must be > 0.0", relativeError);
+    checkArgument(relativeError < 1.0, "Relative error (%s) must be < 1.0", relativeError);
+    checkArgument(
+        errorProbability > 0.0, "Error probability (%s) must be > 0.0", errorProbability);
+    checkArgument(
+        errorProbability < 1.0, "Error probability (%s) must be < 1.0", errorProbability);
+    int depth = (int) Math.ceil(Math.log(1 / errorProbability));
+    double width = Math.ceil(Math.E / relativeError);
+    try {
+      // Ints.checkedCast rejects sizes that don't fit in an array; see the catch below
+      @SuppressWarnings("value:argument")
+      int intWidth = Ints.checkedCast((long) width);
+      @SuppressWarnings("value:argument")
+      int numCounters = Ints.checkedCast(LongMath.checkedMultiply(depth, intWidth));
+      return new CountMinSketch<T>(new long[numCounters], depth, intWidth, 0, funnel);
+    } catch (IllegalArgumentException | ArithmeticException e) {
+      throw new IllegalArgumentException(
+          "Could not create CountMinSketch of " + depth + " rows of " + width + " counters", e);
+    }
+  }
+
+  /**
+   * Creates a new {@code CountMinSketch} that's a copy of this instance. The new instance is equal
+   * to this instance but shares no mutable state.
+   */
+  public synchronized CountMinSketch<T> copy() {
+    return new CountMinSketch<T>(
+        LockFreeBitArray.toPlainArray(counters), depth, width, totalCount, funnel);
+  }
+
+  /**
+   * Adds one occurrence of an element to this sketch.
+   *
+   * @return the estimated count of the element after this addition
+   */
+  @CanIgnoreReturnValue
+  public long add(@ParametricNullness T object) {
+    return add(object, 1);
+  }
+
+  /**
+   * Adds a number of occurrences of an element to this sketch.
+   *
+   * @param occurrences the number of occurrences to add; may be zero, in which case no change is
+   *     made
+   * @return the estimated count of the element after this addition
+   * @throws IllegalArgumentException if {@code occurrences} is negative
+   */
+  @CanIgnoreReturnValue
+  public long add(@ParametricNullness T object, long occurrences) {
+    checkArgument(occurrences >= 0, "occurrences (%s) must be >= 0", occurrences);
+    int[] indexes = indexes(object);
+    synchronized (this) {
+      long newCount = LongMath.saturatedAdd(estimateCount(indexes), occurrences);
+      if (occurrences > 0) {
+        for (int index : indexes) {
+          // all writers hold the lock, and counters only grow
+          if (counters.get(index) < newCount) {
+            counters.set(index, newCount);
+          }
+        }
+        totalCount = LongMath.saturatedAdd(totalCount, occurrences);
+      }
+      return newCount;
+    }
+  }
+
+  /**
+   * Returns an estimate of the number of occurrences of an element that have been {@linkplain #add
+   * added} to this sketch. The estimate is never less than the true count.
+   */
+  public long estimateCount(@ParametricNullness T object) {
+    return estimateCount(indexes(object));
+  }
+
+  private long estimateCount(int[] indexes) {
+    long min = Long.MAX_VALUE;
+    for (int index : indexes) {
+      min = Math.min(min, counters.get(index));
+    }
+    return min;
+  }
+
+  /** Returns the index in {@link #counters} of the element's counter in each row. */
+  private int[] indexes(@ParametricNullness T object) {
+    // the rows' hash functions are combinations of two hashes; see
+    // "Less Hashing, Same Performance: Building a Better Bloom Filter"
+    @SuppressWarnings("value:assignment")
+    byte @MinLen(16)[] bytes = Hashing.murmur3_128().hashObject(object, funnel).getBytesInternal();
+    long hash1 = BloomFilterStrategies.lowerEight(bytes);
+    long hash2 = BloomFilterStrategies.upperEight(bytes);
+    int[] indexes = new int[depth];
+    long combinedHash = hash1;
+    for (int row = 0; row < depth; row++) {
+      indexes[row] = row * width + (int) ((combinedHash & Long.MAX_VALUE) % width);
+      combinedHash += hash2;
+    }
+    return indexes;
+  }
+
+  /** Returns the sum of the counts of all the elements added to this sketch. */
+  public long totalCount() {
+    return totalCount;
+  }
+
+  @VisibleForTesting
+  int depth() {
+    return depth;
+  }
+
+  @VisibleForTesting
+  int width() {
+    return width;
+  }
+
+  /**
+   * Determines whether a given sketch is compatible with this one, so that it can be {@linkplain
+   * #putAll merged} into this one: both must have the same dimensions and equal funnels.
+   *
+   * @param that the sketch to check for compatibility
+   */
+  public boolean isCompatible(CountMinSketch<T> that) {
+    checkNotNull(that);
+    return this != that
+        && this.depth == that.depth
+        && this.width == that.width
+        && this.funnel.equals(that.funnel);
+  }
+
+  /**
+   * Merges another sketch into this one by adding up their counters, so that this sketch's
+   * estimates account for the elements added to either of them. The mutations happen to
+   * <b>this</b> instance.
+   *
+   * @param that the sketch to merge into this one. It is not mutated.
+   * @throws IllegalArgumentException if {@code isCompatible(that) == false}
+   */
+  public void putAll(CountMinSketch<T> that) {
+    checkNotNull(that);
+    checkArgument(this != that, "Cannot combine a CountMinSketch with itself.");
+    checkArgument(
+        this.depth == that.depth && this.width == that.width,
+        "CountMinSketches must have the same dimensions (%s x %s != %s x %s)",
+        this.depth,
+        this.width,
+        that.depth,
+        that.width);
+    checkArgument(
+        this.funnel.equals(that.funnel),
+        "CountMinSketches must have equal funnels (%s != %s)",
+        this.funnel,
+        that.funnel);
+    long[] thatCounters;
+    long thatTotalCount;
+    synchronized (that) {
+      thatCounters = LockFreeBitArray.toPlainArray(that.counters);
+      thatTotalCount = that.totalCount;
+    }
+    synchronized (this) {
+      for (int i = 0; i < thatCounters.length; i++) {
+        counters.set(i, LongMath.saturatedAdd(counters.get(i), thatCounters[i]));
+      }
+      totalCount = LongMath.saturatedAdd(totalCount, thatTotalCount);
+    }
+  }
+
+  @Override
+  public boolean equals(@CheckForNull Object object) {
+    if (object == this) {
+      return true;
+    }
+    if (object instanceof CountMinSketch) {
+      CountMinSketch<?> that = (CountMinSketch<?>) object;
+      return this.depth == that.depth
+          && this.width == that.width
+          && this.funnel.equals(that.funnel)
+          && Arrays.equals(
+              LockFreeBitArray.toPlainArray(this.counters),
+              LockFreeBitArray.toPlainArray(that.counters));
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(
+        depth, width, funnel, Arrays.hashCode(LockFreeBitArray.toPlainArray(counters)));
+  }
+
+  private Object writeReplace() {
+    return new SerialForm<T>(this);
+  }
+
+  private void readObject(ObjectInputStream stream) throws InvalidObjectException {
+    throw new InvalidObjectException("Use SerializedForm");
+  }
+
+  private static class SerialForm<T extends @Nullable Object> implements Serializable {
+    final long[] counters;
+    final int depth;
+    final int width;
+    final long totalCount;
+    final Funnel<? super T> funnel;
+
+    SerialForm(CountMinSketch<T> sketch) {
+      synchronized (sketch) {
+        this.counters = LockFreeBitArray.toPlainArray(sketch.counters);
+        this.totalCount = sketch.totalCount;
+      }
+      this.depth = sketch.depth;
+      this.width = sketch.width;
+      this.funnel = sketch.funnel;
+    }
+
+    Object readResolve() {
+      return new CountMinSketch<T>(counters, depth, width, totalCount, funnel);
+    }
+
+    private static final long serialVersionUID = 1;
+  }
+
+  /**
+   * Writes this {@code CountMinSketch} to an output stream, with a custom format (not Java
+   * serialization).
+   *
+   * <p>Use {@linkplain #readFrom(InputStream, Funnel)} to reconstruct the written sketch.
+   */
+  public synchronized void writeTo(OutputStream out) throws IOException {
+    // Serial form:
+    // 1 big endian int, the depth
+    // 1 big endian int, the width
+    // 1 big endian long, the total count
+    // depth * width big endian longs of counters, row by row
+    DataOutputStream dout = new DataOutputStream(out);
+    dout.writeInt(depth);
+    dout.writeInt(width);
+    dout.writeLong(totalCount);
+    for (int i = 0; i < counters.length(); i++) {
+      dout.writeLong(counters.get(i));
+    }
+  }
+
+  /**
+   * Reads a byte stream, which was written by {@linkplain #writeTo(OutputStream)}, into a {@code
+   * CountMinSketch}.
+   *
+   * <p>The {@code Funnel} to be used is not encoded in the stream, so it must be provided here.
+   * <b>Warning:</b> the funnel provided <b>must</b> behave identically to the one used to populate
+   * the original sketch!
+   *
+   * @throws IOException if the InputStream throws an {@code IOException}, or if its data does not
+   *     appear to be a CountMinSketch serialized using the {@linkplain #writeTo(OutputStream)}
+   *     method.
+   */
+  @SuppressWarnings({
+      "CatchingUnchecked", // sneaky checked exception
+      "value:argument", // Ints.checkedCast rejects sizes that don't fit in an array
+  })
+  public static <T extends @Nullable Object> CountMinSketch<T> readFrom(
+      InputStream in, Funnel<? super T> funnel) throws IOException {
+    checkNotNull(in, "InputStream");
+    checkNotNull(funnel, "Funnel");
+    int depth = -1;
+    int width = -1;
+    try {
+      DataInputStream din = new DataInputStream(in);
+      depth = din.readInt();
+      width = din.readInt();
+      long totalCount = din.readLong();
+      checkArgument(depth > 0 && width > 0, "invalid dimensions");
+
+      long[] counters = new long[Ints.checkedCast(LongMath.checkedMultiply(depth, width))];
+      for (int i = 0; i < counters.length; i++) {
+        counters[i] = din.readLong();
+      }
+      return new CountMinSketch<T>(counters, depth, width, totalCount, funnel);
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) { // sneaky checked exception
+      String message =
+          "Unable to deserialize CountMinSketch from InputStream."
+              + " depth: "
+              + depth
+              + " width: "
+              + width;
+      throw new IOException(message, e);
+    }
+  }
+
+  private static final long serialVersionUID = 1;
+}
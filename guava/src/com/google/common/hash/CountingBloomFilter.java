@@ -0,0 +1,428 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.hash.BloomFilterStrategies.LockFreeBitArray;
+import com.google.common.math.DoubleMath;
+import com.google.common.math.LongMath;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.SignedBytes;
+import com.google.common.primitives.UnsignedBytes;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.CheckForNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.common.value.qual.IntRange;
+
+/**
+ * A Bloom filter that supports {@linkplain #remove removing} elements. Where a {@link BloomFilter}
+ * sets a bit for each of its hash functions, a counting Bloom filter increments a 4-bit counter,
+ * and {@link #remove} decrements the counters again. It takes four times the memory of a {@code
+ * BloomFilter} with the same false positive probability.
+ *
+ * <p>Only remove elements that were put into the filter: removing any other element may decrement
+ * counters that belong to elements which were put, so that {@link #mightContain} would wrongly
+ * return {@code false} for them. A counter that reaches 15 sticks at 15, so elements which share a
+ * crowded counter can no longer cause such false negatives, but can't fully be removed either.
+ *
+ * <p>Counting Bloom filters are serializable, and support the compact serial representation of
+ * {@link #writeTo} and {@link #readFrom}, with the same compatibility guarantees as {@link
+ * BloomFilter}.
+ *
+ * <p>This class is thread-safe and lock-free.
+ *
+ * @param <T> the type of instances that the {@code CountingBloomFilter} accepts
+ * @since NEXT
+ */
+@Beta
+@ElementTypesAreNonnullByDefault
+public final class CountingBloomFilter<T extends @Nullable Object> implements Serializable {
+  private static final int COUNTER_BITS = 4;
+  private static final int COUNTERS_PER_LONG = Long.SIZE / COUNTER_BITS;
+  private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+  /** The strategy whose hashing this filter shares; written as part of the compact serial form. */
+  private static final BloomFilter.Strategy STRATEGY = BloomFilterStrategies.MURMUR128_MITZ_64;
+
+  /**
+   * The first byte of the compact serial form. {@link BloomFilter#readFrom} reads its first byte as
+   * a strategy ordinal, and no {@link BloomFilterStrategies} constant has this one, so neither class
+   * can mistake the other's stream for its own.
+   */
+  private static final byte FORMAT_MARKER = Byte.MIN_VALUE;
+
+  /** The counters, packed {@value #COUNTERS_PER_LONG} to a long. */
+  private final AtomicLongArray counters;
+
+  /** The number of counters which are not zero. */
+  private final LongAddable nonZeroCount;
+
+  /** Number of hashes per element */
+  private final @IntRange(from = 0, to = 255) int numHashFunctions;
+
+  /** The funnel to translate Ts to bytes */
+  private final Funnel<? super T> funnel;
+
+  private CountingBloomFilter(
+      long[] counters,
+      @IntRange(from = 0, to = 255) int numHashFunctions,
+      Funnel<? super T> funnel) {
+    checkArgument(counters.length > 0, "data length is zero!");
+    checkArgument(
+        numHashFunctions > 0, "numHashFunctions (%s) must be > 0", numHashFunctions);
+    checkArgument(
+        numHashFunctions <= 255, "numHashFunctions (%s) must be <= 255", numHashFunctions);
+    this.counters = new AtomicLongArray(counters);
+    this.numHashFunctions = numHashFunctions;
+    this.funnel = checkNotNull(funnel);
+    this.nonZeroCount = LongAddables.create();
+    long nonZeroCount = 0;
+    for (long value : counters) {
+      for (int i = 0; i < COUNTERS_PER_LONG; i++) {
+        if (((value >>> (i * COUNTER_BITS)) & COUNTER_MASK) != 0) {
+          nonZeroCount++;
+        }
+      }
+    }
+    this.nonZeroCount.add(nonZeroCount);
+  }
+
+  /**
+   * Creates a {@link CountingBloomFilter} with the expected number of insertions and expected false
+   * positive probability.
+   *
+   * <p>Note that overflowing a {@code CountingBloomFilter} with significantly more elements than
+   * specified, will result in its saturation, and a sharp deterioration of its false positive
+   * probability.
+   *
+   * <p>The constructed {@code CountingBloomFilter} will be serializable if the provided {@code
+   * Funnel<T>} is.
+   *
+   * @param funnel the funnel of T's that the constructed filter will use
+   * @param expectedInsertions the number of expected insertions to the constructed filter; must be
+   *     positive
+   * @param fpp the desired false positive probability (must be positive and less than 1.0)
+   * @return a {@code CountingBloomFilter}
+   */
+  public static <T extends @Nullable Object> CountingBloomFilter<T> create(
+      Funnel<? super T> funnel, long expectedInsertions, double fpp) {
+    checkNotNull(funnel);
+    checkArgument(
+        expectedInsertions >= 0, "Expected insertions (%s) must be >= 0", expectedInsertions);
+    checkArgument(fpp > 0.0, "False positive probability (%s) must be > 0.0", fpp);
+    checkArgument(fpp < 1.0, "False positive probability (%s) must be < 1.0", fpp);
+
+    if (expectedInsertions == 0) {
+      expectedInsertions = 1;
+    }
+    long numCounters = BloomFilter.optimalNumOfBits(expectedInsertions, fpp);
+    int numHashFunctions = BloomFilter.optimalNumOfHashFunctions(expectedInsertions, numCounters);
+    try {
+      // Ints.checkedCast rejects sizes that don't fit in an array; see the catch below
+      @SuppressWarnings("value:argument")
+      int numLongs =
+          Ints.checkedCast(LongMath.divide(numCounters, COUNTERS_PER_LONG, RoundingMode.CEILING));
+      return new CountingBloomFilter<T>(new long[numLongs], numHashFunctions, funnel);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(
+          "Could not create CountingBloomFilter of " + numCounters + " counters", e);
+    }
+  }
+
+  /**
+   * Creates a new {@code CountingBloomFilter} that's a copy of this instance. The new instance is
+   * equal to this instance but shares no mutable state.
+   */
+  public CountingBloomFilter<T> copy() {
+    return new CountingBloomFilter<T>(
+        LockFreeBitArray.toPlainArray(counters), numHashFunctions, funnel);
+  }
+
+  /**
+   * Returns {@code true} if the element <i>might</i> have been put in this filter and not removed
+   * since, {@code false} if this is <i>definitely</i> not the case.
+   */
+  public boolean mightContain(@ParametricNullness T object) {
+    for (long index : indexes(object)) {
+      if (get(index) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Puts an element into this filter. Ensures that subsequent invocations of {@link #mightContain}
+   * with the same element will always return {@code true}, until the element is {@linkplain
+   * #remove removed} as many times as it was put.
+   *
+   * @return true if the filter definitely did not contain the element before, that is if any of
+   *     its counters was zero. If false, the element might already have been put, or some other
+   *     elements made it look like it had.
+   */
+  public boolean put(@ParametricNullness T object) {
+    boolean wasAbsent = false;
+    for (long index : indexes(object)) {
+      wasAbsent |= increment(index) == 0;
+    }
+    return wasAbsent;
+  }
+
+  /**
+   * Removes one occurrence of an element that was previously {@linkplain #put put} into this
+   * filter. Removing an element that was never put may cause false negatives for the elements that
+   * were.
+   *
+   * @return {@code true} if the counters of the element were decremented, {@code false} if the
+   *     element definitely was not in the filter, in which case the filter is unchanged
+   */
+  public boolean remove(@ParametricNullness T object) {
+    long[] indexes = indexes(object);
+    for (long index : indexes) {
+      if (get(index) == 0) {
+        return false;
+      }
+    }
+    for (long index : indexes) {
+      decrement(index);
+    }
+    return true;
+  }
+
+  /**
+   * Returns the probability that {@linkplain #mightContain(Object)} will erroneously return {@code
+   * true} for an object that is not in this filter.
+   */
+  public double expectedFpp() {
+    return Math.pow((double) nonZeroCount.sum() / numCounters(), numHashFunctions);
+  }
+
+  /**
+   * Returns an estimate for the number of distinct elements that are in this filter. This
+   * approximation is reasonably accurate if it does not exceed the value of {@code
+   * expectedInsertions} that was used when constructing the filter.
+   */
+  public long approximateElementCount() {
+    long numCounters = numCounters();
+    double fractionNonZero = (double) nonZeroCount.sum() / numCounters;
+    // see BloomFilter.approximateElementCount
+    return DoubleMath.roundToLong(
+        -Math.log1p(-fractionNonZero) * numCounters / numHashFunctions, RoundingMode.HALF_UP);
+  }
+
+  /** Returns the number of counters in the underlying array. */
+  @VisibleForTesting
+  long numCounters() {
+    return (long) counters.length() * COUNTERS_PER_LONG;
+  }
+
+  private long[] indexes(@ParametricNullness T object) {
+    long[] indexes = new long[numHashFunctions];
+    BloomFilterStrategies.murmur128Mitz64Indexes(object, funnel, numCounters(), indexes);
+    return indexes;
+  }
+
+  private int get(long index) {
+    return counter(counters.get((int) (index / COUNTERS_PER_LONG)), index);
+  }
+
+  /** Increments the counter at {@code index} unless it is saturated, returning its old value. */
+  private int increment(long index) {
+    int longIndex = (int) (index / COUNTERS_PER_LONG);
+    long oldValue;
+    int count;
+    do {
+      oldValue = counters.get(longIndex);
+      count = counter(oldValue, index);
+      if (count == COUNTER_MASK) {
+        return count;
+      }
+    } while (!counters.compareAndSet(longIndex, oldValue, oldValue + unit(index)));
+
+    if (count == 0) {
+      nonZeroCount.increment();
+    }
+    return count;
+  }
+
+  /** Decrements the counter at {@code index} unless it is zero or saturated. */
+  private void decrement(long index) {
+    int longIndex = (int) (index / COUNTERS_PER_LONG);
+    long oldValue;
+    int count;
+    do {
+      oldValue = counters.get(longIndex);
+      count = counter(oldValue, index);
+      if (count == 0 || count == COUNTER_MASK) {
+        return;
+      }
+    } while (!counters.compareAndSet(longIndex, oldValue, oldValue - unit(index)));
+
+    if (count == 1) {
+      nonZeroCount.add(-1);
+    }
+  }
+
+  private static int counter(long value, long index) {
+    return (int) ((value >>> shift(index)) & COUNTER_MASK);
+  }
+
+  private static long unit(long index) {
+    return 1L << shift(index);
+  }
+
+  private static int shift(long index) {
+    return (int) (index % COUNTERS_PER_LONG) * COUNTER_BITS;
+  }
+
+  @Override
+  public boolean equals(@CheckForNull Object object) {
+    if (object == this) {
+      return true;
+    }
+    if (object instanceof CountingBloomFilter) {
+      CountingBloomFilter<?> that = (CountingBloomFilter<?>) object;
+      return this.numHashFunctions == that.numHashFunctions
+          && this.funnel.equals(that.funnel)
+          && Arrays.equals(
+              LockFreeBitArray.toPlainArray(this.counters),
+              LockFreeBitArray.toPlainArray(that.counters));
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(
+        numHashFunctions, funnel, Arrays.hashCode(LockFreeBitArray.toPlainArray(counters)));
+  }
+
+  private Object writeReplace() {
+    return new SerialForm<T>(this);
+  }
+
+  private void readObject(ObjectInputStream stream) throws InvalidObjectException {
+    throw new InvalidObjectException("Use SerializedForm");
+  }
+
+  private static class SerialForm<T extends @Nullable Object> implements Serializable {
+    final long[] data;
+    final @IntRange(from = 0, to = 255) int numHashFunctions;
+    final Funnel<? super T> funnel;
+
+    SerialForm(CountingBloomFilter<T> filter) {
+      this.data = LockFreeBitArray.toPlainArray(filter.counters);
+      this.numHashFunctions = filter.numHashFunctions;
+      this.funnel = filter.funnel;
+    }
+
+    Object readResolve() {
+      return new CountingBloomFilter<T>(data, numHashFunctions, funnel);
+    }
+
+    private static final long serialVersionUID = 1;
+  }
+
+  /**
+   * Writes this {@code CountingBloomFilter} to an output stream, with a custom format (not Java
+   * serialization).
+   *
+   * <p>Use {@linkplain #readFrom(InputStream, Funnel)} to reconstruct the written filter.
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    // Serial form:
+    // 1 signed byte, FORMAT_MARKER
+    // 1 signed byte for the strategy
+    // 1 unsigned byte for the number of hash functions
+    // 1 big endian int, the number of longs of counters
+    // N big endian longs of counters
+    DataOutputStream dout = new DataOutputStream(out);
+    dout.writeByte(FORMAT_MARKER);
+    dout.writeByte(SignedBytes.checkedCast(STRATEGY.ordinal()));
+    dout.writeByte(UnsignedBytes.checkedCast(numHashFunctions)); // note: checked at the c'tor
+    dout.writeInt(counters.length());
+    for (int i = 0; i < counters.length(); i++) {
+      dout.writeLong(counters.get(i));
+    }
+  }
+
+  /**
+   * Reads a byte stream, which was written by {@linkplain #writeTo(OutputStream)}, into a {@code
+   * CountingBloomFilter}.
+   *
+   * <p>The {@code Funnel} to be used is not encoded in the stream, so it must be provided here.
+   * <b>Warning:</b> the funnel provided <b>must</b> behave identically to the one used to populate
+   * the original filter!
+   *
+   * @throws IOException if the InputStream throws an {@code IOException}, or if its data does not
+   *     appear to be a CountingBloomFilter serialized using the {@linkplain #writeTo(OutputStream)}
+   *     method.
+   */
+  @SuppressWarnings({
+      "CatchingUnchecked", // sneaky checked exception
+      "value:argument", // numHashFunctions is read as an unsigned byte
+  })
+  public static <T extends @Nullable Object> CountingBloomFilter<T> readFrom(
+      InputStream in, Funnel<? super T> funnel) throws IOException {
+    checkNotNull(in, "InputStream");
+    checkNotNull(funnel, "Funnel");
+    int strategyOrdinal = -1;
+    int numHashFunctions = -1;
+    int dataLength = -1;
+    try {
+      DataInputStream din = new DataInputStream(in);
+      checkArgument(din.readByte() == FORMAT_MARKER, "not a CountingBloomFilter");
+      strategyOrdinal = din.readByte();
+      numHashFunctions = UnsignedBytes.toInt(din.readByte());
+      dataLength = din.readInt();
+      checkArgument(strategyOrdinal == STRATEGY.ordinal(), "unsupported strategy");
+
+      long[] data = new long[dataLength];
+      for (int i = 0; i < dataLength; i++) {
+        data[i] = din.readLong();
+      }
+      return new CountingBloomFilter<T>(data, numHashFunctions, funnel);
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) { // sneaky checked exception
+      String message =
+          "Unable to deserialize CountingBloomFilter from InputStream."
+              + " strategyOrdinal: "
+              + strategyOrdinal
+              + " numHashFunctions: "
+              + numHashFunctions
+              + " dataLength: "
+              + dataLength;
+      throw new IOException(message, e);
+    }
+  }
+
+  private static final long serialVersionUID = 1;
+}
@@ -44,6 +44,58 @@ final class Crc32cHashFunction extends AbstractHashFunction {
     return "Hashing.crc32c()";
   }
 
+  /** The CRC32C generator polynomial, bit-reversed to match the reflected bit order. */
+  private static final int REFLECTED_POLYNOMIAL = 0x82f63b78;
+
+  /**
+   * {@code X_POW_2N[k]} is x^(2^k) modulo the generator polynomial, in reflected bit order, for
+   * every {@code k} up to the highest bit of {@code 8 * lengthB}. Unlike for zlib's CRC-32, these
+   * powers repeat every 31 steps rather than 32, so they can't be looked up modulo 32.
+   */
+  private static final int[] X_POW_2N = xPow2nTable();
+
+  private static int[] xPow2nTable() {
+    int[] table = new int[Long.SIZE + 3];
+    int p = 1 << 30; // x^1
+    table[0] = p;
+    for (int k = 1; k < table.length; k++) {
+      table[k] = p = multiplyModP(p, p);
+    }
+    return table;
+  }
+
+  /**
+   * Returns the CRC32C of the concatenation of two byte sequences, given the CRC32C of each and the
+   * length of the second. This follows zlib's {@code crc32_combine}: appending {@code lengthB}
+   * bytes multiplies the first CRC by x^(8 * lengthB), which takes O(log(lengthB)) steps.
+   */
+  static int concatenate(int crcA, int crcB, long lengthB) {
+    // Computes x^(8 * lengthB) as the product of x^(2^k) for each bit k set in 8 * lengthB.
+    int p = 1 << 31; // x^0
+    int k = 3;
+    for (long n = lengthB; n != 0; n >>>= 1, k++) {
+      if ((n & 1) != 0) {
+        p = multiplyModP(X_POW_2N[k], p);
+      }
+    }
+    return multiplyModP(p, crcA) ^ crcB;
+  }
+
+  /** Multiplies two polynomials modulo the generator polynomial, all in reflected bit order. */
+  private static int multiplyModP(int a, int b) {
+    int product = 0;
+    for (int m = 1 << 31; m != 0; m >>>= 1) {
+      if ((a & m) != 0) {
+        product ^= b;
+        if ((a & (m - 1)) == 0) {
+          break;
+        }
+      }
+      b = (b & 1) != 0 ? (b >>> 1) ^ REFLECTED_POLYNOMIAL : b >>> 1;
+    }
+    return product;
+  }
+
   static final class Crc32cHasher extends AbstractStreamingHasher {
 
     /*
@@ -0,0 +1,635 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.hash.BloomFilterStrategies.LockFreeBitArray;
+import com.google.common.math.LongMath;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.UnsignedBytes;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collector;
+import javax.annotation.CheckForNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.common.value.qual.IntRange;
+import org.checkerframework.common.value.qual.MinLen;
+
+/**
+ * A cuckoo filter for instances of {@code T}. Like a {@link BloomFilter}, a cuckoo filter offers an
+ * approximate containment test with one-sided error, but it also supports {@linkplain #delete
+ * deleting} elements, and at false positive probabilities below about 0.01% it takes less space
+ * than a {@code BloomFilter}. See "Cuckoo Filter: Practically Better Than Bloom" by Bin Fan, David
+ * G. Andersen, Michael Kaminsky and Michael D. Mitzenmacher.
+ *
+ * <p>A cuckoo filter stores a short fingerprint of each element in one of two buckets of four
+ * slots. When both buckets are full, {@link #put} moves fingerprints to their alternate buckets to
+ * make room. Unlike a {@code BloomFilter}, a cuckoo filter can become full: once it holds somewhat
+ * more than its expected number of insertions, {@code put} may return {@code false}, and the
+ * element is not added.
+ *
+ * <p>Only delete elements that were put into the filter: deleting any other element may remove
+ * the fingerprint of an element which was put, so that {@link #mightContain} would wrongly return
+ * {@code false} for it.
+ *
+ * <p>Cuckoo filters are serializable. They also support a more compact serial representation via
+ * the {@link #writeTo} and {@link #readFrom} methods, with the same compatibility guarantees as
+ * {@link BloomFilter}.
+ *
+ * <p>This class is thread-safe. The methods that modify the filter take a lock. {@link
+ * #mightContain} normally doesn't: if {@link #put} moved fingerprints while it was looking, which
+ * could have hidden the one it was looking for, it looks again, and after a few such attempts it
+ * takes the lock.
+ *
+ * @param <T> the type of instances that the {@code CuckooFilter} accepts
+ * @since NEXT
+ */
+@Beta
+@ElementTypesAreNonnullByDefault
+public final class CuckooFilter<T extends @Nullable Object> implements Serializable {
+  /** The number of slots in each bucket. */
+  private static final int BUCKET_SIZE = 4;
+
+  /**
+   * The fraction of the slots that are expected to be used. With buckets of four slots, insertions
+   * start to fail at a load of about 95%.
+   */
+  private static final double LOAD_FACTOR = 0.9;
+
+  /** The maximum number of fingerprints that a single insertion will move. */
+  private static final int MAX_KICKS = 500;
+
+  /** The number of lock-free attempts of {@link #mightContain} before it takes the lock. */
+  private static final int MAX_OPTIMISTIC_LOOKUPS = 4;
+
+  /** The widest supported fingerprint. */
+  private static final int MAX_FINGERPRINT_BITS = 32;
+
+  /**
+   * The slots of all buckets, {@code fingerprintBits} each, packed in order from the lowest bit of
+   * the first long, so that no bits are wasted. A slot may span two longs, in which case a
+   * concurrent reader may see it half-written; that only affects the fingerprint being written,
+   * which {@link #putFingerprint} has already copied elsewhere, and {@link #mightContain} looks
+   * again if it may have missed a fingerprint that was being moved. An empty slot is zero.
+   */
+  private final AtomicLongArray data;
+
+  private final @IntRange(from = 1, to = MAX_FINGERPRINT_BITS) int fingerprintBits;
+  private final long numBuckets;
+
+  /** The funnel to translate Ts to bytes */
+  private final Funnel<? super T> funnel;
+
+  /** The number of fingerprints in the filter. Only written while holding the lock on this. */
+  private volatile long count;
+
+  /**
+   * Incremented before and after {@link #putFingerprint} moves fingerprints between buckets, so it
+   * is odd while they are being moved. Only written while holding the lock on this.
+   */
+  private final AtomicLong relocations = new AtomicLong();
+
+  private CuckooFilter(
+      long[] data,
+      @IntRange(from = 1, to = MAX_FINGERPRINT_BITS) int fingerprintBits,
+      long numBuckets,
+      long count,
+      Funnel<? super T> funnel) {
+    checkArgument(
+        fingerprintBits > 0 && fingerprintBits <= MAX_FINGERPRINT_BITS,
+        "fingerprintBits (%s) must be between 1 and %s",
+        fingerprintBits,
+        MAX_FINGERPRINT_BITS);
+    checkArgument(numBuckets > 0, "numBuckets (%s) must be > 0", numBuckets);
+    checkArgument(
+        data.length == numLongs(fingerprintBits, numBuckets),
+        "data length (%s) doesn't match %s buckets of %s-bit fingerprints",
+        data.length,
+        numBuckets,
+        fingerprintBits);
+    checkArgument(count >= 0, "count (%s) must be >= 0", count);
+    this.data = new AtomicLongArray(data);
+    this.fingerprintBits = fingerprintBits;
+    this.numBuckets = numBuckets;
+    this.count = count;
+    this.funnel = checkNotNull(funnel);
+  }
+
+  @SuppressWarnings("value:argument") // Ints.checkedCast rejects sizes that don't fit in an array
+  private static int numLongs(int fingerprintBits, long numBuckets) {
+    long numBits = LongMath.checkedMultiply(numBuckets, (long) BUCKET_SIZE * fingerprintBits);
+    return Ints.checkedCast(LongMath.divide(numBits, Long.SIZE, RoundingMode.CEILING));
+  }
+
+  /**
+   * Creates a {@link CuckooFilter} with the expected number of insertions and expected false
+   * positive probability.
+   *
+   * <p>The filter has room for somewhat more than {@code expectedInsertions} elements, after which
+   * {@link #put} starts to fail. The false positive probability reaches {@code fpp} when the filter
+   * is about full, and is lower before that.
+   *
+   * <p>The constructed {@code CuckooFilter} will be serializable if the provided {@code Funnel<T>}
+   * is.
+   *
+   * @param funnel the funnel of T's that the constructed {@code CuckooFilter} will use
+   * @param expectedInsertions the number of expected insertions to the constructed {@code
+   *     CuckooFilter}; must be positive
+   * @param fpp the desired false positive probability (must be positive and less than 1.0); values
+   *     below about 2e-9 are treated as 2e-9
+   * @return a {@code CuckooFilter}
+   */
+  public static <T extends @Nullable Object> CuckooFilter<T> create(
+      Funnel<? super T> funnel, long expectedInsertions, double fpp) {
+    checkNotNull(funnel);
+    checkArgument(
+        expectedInsertions >= 0, "Expected insertions (%s) must be >= 0", expectedInsertions);
+    checkArgument(fpp > 0.0, "False positive probability (%s) must be > 0.0", fpp);
+    checkArgument(fpp < 1.0, "False positive probability (%s) must be < 1.0", fpp);
+
+    if (expectedInsertions == 0) {
+      expectedInsertions = 1;
+    }
+    // A lookup compares 2 * BUCKET_SIZE fingerprints, each of which matches with probability
+    // 2^-bits.
+    @SuppressWarnings("value:assignment") // bounded by Math.min above and by fpp < 1 below
+    @IntRange(from = 1, to = MAX_FINGERPRINT_BITS)
+    int fingerprintBits =
+        Math.min(MAX_FINGERPRINT_BITS, (int) Math.ceil(log2(2 * BUCKET_SIZE / fpp)));
+    long numBuckets = (long) Math.ceil(expectedInsertions / (BUCKET_SIZE * LOAD_FACTOR));
+    try {
+      return new CuckooFilter<T>(
+          new long[numLongs(fingerprintBits, numBuckets)], fingerprintBits, numBuckets, 0, funnel);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(
+          "Could not create CuckooFilter of " + numBuckets + " buckets", e);
+    }
+  }
+
+  private static double log2(double x) {
+    return Math.log(x) / Math.log(2);
+  }
+
+  /**
+   * Returns a {@code Collector} expecting the specified number of insertions, and yielding a {@link
+   * CuckooFilter} with the specified expected false positive probability.
+   *
+   * <p>The {@code Collector} throws {@link IllegalStateException} if the filter becomes full,
+   * rather than dropping elements.
+   *
+   * @param funnel the funnel of T's that the constructed {@code CuckooFilter} will use
+   * @param expectedInsertions the number of expected insertions to the constructed {@code
+   *     CuckooFilter}; must be positive
+   * @param fpp the desired false positive probability (must be positive and less than 1.0)
+   * @return a {@code Collector} generating a {@code CuckooFilter} of the received elements
+   */
+  public static <T extends @Nullable Object> Collector<T, ?, CuckooFilter<T>> toCuckooFilter(
+      Funnel<? super T> funnel, long expectedInsertions, double fpp) {
+    checkNotNull(funnel);
+    checkArgument(
+        expectedInsertions >= 0, "Expected insertions (%s) must be >= 0", expectedInsertions);
+    checkArgument(fpp > 0.0, "False positive probability (%s) must be > 0.0", fpp);
+    checkArgument(fpp < 1.0, "False positive probability (%s) must be < 1.0", fpp);
+    return Collector.of(
+        () -> CuckooFilter.create(funnel, expectedInsertions, fpp),
+        (filter, element) -> checkState(filter.put(element), "CuckooFilter is full"),
+        (filter1, filter2) -> {
+          filter1.putAllFingerprints(filter2);
+          return filter1;
+        },
+        Collector.Characteristics.UNORDERED);
+  }
+
+  /**
+   * Creates a new {@code CuckooFilter} that's a copy of this instance. The new instance is equal to
+   * this instance but shares no mutable state.
+   */
+  public synchronized CuckooFilter<T> copy() {
+    return new CuckooFilter<T>(
+        LockFreeBitArray.toPlainArray(data), fingerprintBits, numBuckets, count, funnel);
+  }
+
+  /**
+   * Returns {@code true} if the element <i>might</i> have been put in this filter and not deleted
+   * since, {@code false} if this is <i>definitely</i> not the case.
+   */
+  public boolean mightContain(@ParametricNullness T object) {
+    @SuppressWarnings("value:assignment")
+    byte @MinLen(16)[] hash = Hashing.murmur3_128().hashObject(object, funnel).getBytesInternal();
+    long fingerprint = fingerprint(hash);
+    long bucket1 = bucket(hash);
+    long bucket2 = altBucket(bucket1, fingerprint);
+    /*
+     * A concurrent put may move the fingerprint from the bucket not yet checked to the bucket
+     * already checked. A match is always right, but a miss only counts if no fingerprints were
+     * moved while looking.
+     */
+    for (int attempt = 0; attempt < MAX_OPTIMISTIC_LOOKUPS; attempt++) {
+      long version = relocations.get();
+      if ((version & 1) == 0) {
+        if (bucketContains(bucket1, fingerprint) || bucketContains(bucket2, fingerprint)) {
+          return true;
+        }
+        if (relocations.get() == version) {
+          return false;
+        }
+      }
+    }
+    synchronized (this) {
+      return bucketContains(bucket1, fingerprint) || bucketContains(bucket2, fingerprint);
+    }
+  }
+
+  /**
+   * Puts an element into this filter. Ensures that subsequent invocations of {@link #mightContain}
+   * with the same element will return {@code true}, until the element is {@linkplain #delete
+   * deleted} as many times as it was put.
+   *
+   * @return {@code true} if the element was added, {@code false} if the filter is too full to add
+   *     it, in which case the filter is unchanged
+   */
+  public synchronized boolean put(@ParametricNullness T object) {
+    @SuppressWarnings("value:assignment")
+    byte @MinLen(16)[] hash = Hashing.murmur3_128().hashObject(object, funnel).getBytesInternal();
+    return putFingerprint(fingerprint(hash), bucket(hash));
+  }
+
+  /**
+   * Deletes one occurrence of an element that was previously {@linkplain #put put} into this
+   * filter. Deleting an element that was never put may cause false negatives for the elements that
+   * were.
+   *
+   * @return {@code true} if a fingerprint of the element was deleted, {@code false} if the element
+   *     definitely was not in the filter, in which case the filter is unchanged
+   */
+  public synchronized boolean delete(@ParametricNullness T object) {
+    @SuppressWarnings("value:assignment")
+    byte @MinLen(16)[] hash = Hashing.murmur3_128().hashObject(object, funnel).getBytesInternal();
+    long fingerprint = fingerprint(hash);
+    long bucket1 = bucket(hash);
+    if (deleteFromBucket(bucket1, fingerprint)
+        || deleteFromBucket(altBucket(bucket1, fingerprint), fingerprint)) {
+      count--;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the number of elements in this filter: the number of {@linkplain #put insertions} minus
+   * the number of {@linkplain #delete deletions}. This is approximate only in that {@code delete}
+   * may remove the fingerprint of a different element whose fingerprint is the same.
+   */
+  public long approximateElementCount() {
+    return count;
+  }
+
+  /**
+   * Returns the probability that {@linkplain #mightContain(Object)} will erroneously return {@code
+   * true} for an object that is not in this filter.
+   */
+  public double expectedFpp() {
+    // each of the occupied slots of the two buckets matches with probability 1 / (2^bits - 1)
+    double occupiedSlotsPerLookup = 2.0 * count / numBuckets;
+    double fingerprints = (double) ((1L << fingerprintBits) - 1);
+    return -Math.expm1(occupiedSlotsPerLookup * Math.log1p(-1 / fingerprints));
+  }
+
+  /** Returns the number of bits of each fingerprint. */
+  @VisibleForTesting
+  int fingerprintBits() {
+    return fingerprintBits;
+  }
+
+  /** Returns the number of bits in the underlying array. */
+  @VisibleForTesting
+  long bitSize() {
+    return (long) data.length() * Long.SIZE;
+  }
+
+  @GuardedBy("this")
+  private boolean putFingerprint(long fingerprint, long bucket1) {
+    long bucket2 = altBucket(bucket1, fingerprint);
+    if (putInBucket(bucket1, fingerprint) || putInBucket(bucket2, fingerprint)) {
+      count++;
+      return true;
+    }
+
+    /*
+     * Both buckets are full. Look for a path of slots along which each fingerprint can move to its
+     * alternate bucket, ending at a bucket with an empty slot. Nothing is moved until the path is
+     * found, and then fingerprints are moved starting at its end, each being written to its new
+     * slot before being overwritten in its old one.
+     */
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long[] path = new long[MAX_KICKS];
+    int length = 0;
+    long bucket = random.nextBoolean() ? bucket1 : bucket2;
+    for (int kick = 0; kick < MAX_KICKS; kick++) {
+      long slot = bucket * BUCKET_SIZE + random.nextInt(BUCKET_SIZE);
+      if (contains(path, length, slot)) {
+        continue; // moving a fingerprint twice would lose the one that replaced it
+      }
+      path[length++] = slot;
+      bucket = altBucket(bucket, get(slot));
+      long emptySlot = emptySlot(bucket);
+      if (emptySlot >= 0) {
+        long destination = emptySlot;
+        relocations.incrementAndGet();
+        for (int i = length - 1; i >= 0; i--) {
+          set(destination, get(path[i]));
+          destination = path[i];
+        }
+        relocations.incrementAndGet();
+        set(destination, fingerprint);
+        count++;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean contains(long[] path, int length, long slot) {
+    for (int i = 0; i < length; i++) {
+      if (path[i] == slot) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Adds all the fingerprints of {@code that}, which must have the same layout, to this filter. */
+  private void putAllFingerprints(CuckooFilter<T> that) {
+    checkArgument(
+        fingerprintBits == that.fingerprintBits && numBuckets == that.numBuckets,
+        "CuckooFilters must have the same size");
+    synchronized (this) {
+      for (long slot = 0; slot < numBuckets * BUCKET_SIZE; slot++) {
+        long fingerprint = that.get(slot);
+        if (fingerprint != 0) {
+          checkState(putFingerprint(fingerprint, slot / BUCKET_SIZE), "CuckooFilter is full");
+        }
+      }
+    }
+  }
+
+  private long fingerprint(byte @MinLen(16)[] hash) {
+    long fingerprint = BloomFilterStrategies.upperEight(hash) & fingerprintMask();
+    return (fingerprint == 0) ? 1 : fingerprint;
+  }
+
+  private long bucket(byte @MinLen(16)[] hash) {
+    return (BloomFilterStrategies.lowerEight(hash) & Long.MAX_VALUE) % numBuckets;
+  }
+
+  /**
+   * Returns the other bucket that {@code fingerprint} may be in. As {@code (h - bucket) mod n},
+   * this works for any number of buckets, and the alternate bucket of the alternate bucket is
+   * {@code bucket} again.
+   */
+  private long altBucket(long bucket, long fingerprint) {
+    long h = (fmix64(fingerprint) & Long.MAX_VALUE) % numBuckets;
+    long alt = h - bucket;
+    return (alt < 0) ? alt + numBuckets : alt;
+  }
+
+  private static long fmix64(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+
+  private long fingerprintMask() {
+    return (1L << fingerprintBits) - 1;
+  }
+
+  private boolean bucketContains(long bucket, long fingerprint) {
+    for (int i = 0; i < BUCKET_SIZE; i++) {
+      if (get(bucket * BUCKET_SIZE + i) == fingerprint) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Returns the first empty slot of {@code bucket}, or -1 if it is full. */
+  private long emptySlot(long bucket) {
+    for (int i = 0; i < BUCKET_SIZE; i++) {
+      long slot = bucket * BUCKET_SIZE + i;
+      if (get(slot) == 0) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  @GuardedBy("this")
+  private boolean putInBucket(long bucket, long fingerprint) {
+    long slot = emptySlot(bucket);
+    if (slot < 0) {
+      return false;
+    }
+    set(slot, fingerprint);
+    return true;
+  }
+
+  @GuardedBy("this")
+  private boolean deleteFromBucket(long bucket, long fingerprint) {
+    for (int i = 0; i < BUCKET_SIZE; i++) {
+      long slot = bucket * BUCKET_SIZE + i;
+      if (get(slot) == fingerprint) {
+        set(slot, 0);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private long get(long slot) {
+    long bitIndex = slot * fingerprintBits;
+    int index = (int) (bitIndex / Long.SIZE);
+    int shift = (int) (bitIndex % Long.SIZE);
+    long value = data.get(index) >>> shift;
+    if (shift + fingerprintBits > Long.SIZE) {
+      value |= data.get(index + 1) << (Long.SIZE - shift);
+    }
+    return value & fingerprintMask();
+  }
+
+  @GuardedBy("this")
+  private void set(long slot, long fingerprint) {
+    long bitIndex = slot * fingerprintBits;
+    int index = (int) (bitIndex / Long.SIZE);
+    int shift = (int) (bitIndex % Long.SIZE);
+    // all writers hold the lock, so only readers can see the words in between
+    long word = data.get(index);
+    data.set(index, (word & ~(fingerprintMask() << shift)) | (fingerprint << shift));
+    if (shift + fingerprintBits > Long.SIZE) {
+      int lowBits = Long.SIZE - shift;
+      word = data.get(index + 1);
+      data.set(index + 1, (word & ~(fingerprintMask() >>> lowBits)) | (fingerprint >>> lowBits));
+    }
+  }
+
+  @Override
+  public boolean equals(@CheckForNull Object object) {
+    if (object == this) {
+      return true;
+    }
+    if (object instanceof CuckooFilter) {
+      CuckooFilter<?> that = (CuckooFilter<?>) object;
+      return this.fingerprintBits == that.fingerprintBits
+          && this.numBuckets == that.numBuckets
+          && this.funnel.equals(that.funnel)
+          && Arrays.equals(
+              LockFreeBitArray.toPlainArray(this.data), LockFreeBitArray.toPlainArray(that.data));
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(
+        fingerprintBits, numBuckets, funnel, Arrays.hashCode(LockFreeBitArray.toPlainArray(data)));
+  }
+
+  private Object writeReplace() {
+    return new SerialForm<T>(this);
+  }
+
+  private void readObject(ObjectInputStream stream) throws InvalidObjectException {
+    throw new InvalidObjectException("Use SerializedForm");
+  }
+
+  private static class SerialForm<T extends @Nullable Object> implements Serializable {
+    final long[] data;
+    final @IntRange(from = 1, to = MAX_FINGERPRINT_BITS) int fingerprintBits;
+    final long numBuckets;
+    final long count;
+    final Funnel<? super T> funnel;
+
+    SerialForm(CuckooFilter<T> filter) {
+      synchronized (filter) {
+        this.data = LockFreeBitArray.toPlainArray(filter.data);
+        this.count = filter.count;
+      }
+      this.fingerprintBits = filter.fingerprintBits;
+      this.numBuckets = filter.numBuckets;
+      this.funnel = filter.funnel;
+    }
+
+    Object readResolve() {
+      return new CuckooFilter<T>(data, fingerprintBits, numBuckets, count, funnel);
+    }
+
+    private static final long serialVersionUID = 1;
+  }
+
+  /**
+   * Writes this {@code CuckooFilter} to an output stream, with a custom format (not Java
+   * serialization).
+   *
+   * <p>Use {@linkplain #readFrom(InputStream, Funnel)} to reconstruct the written filter.
+   */
+  public synchronized void writeTo(OutputStream out) throws IOException {
+    // Serial form:
+    // 1 unsigned byte for the number of bits of each fingerprint
+    // 1 big endian long, the number of buckets
+    // 1 big endian long, the number of fingerprints
+    // 1 big endian int, the number of longs of slots
+    // N big endian longs of slots
+    DataOutputStream dout = new DataOutputStream(out);
+    dout.writeByte(UnsignedBytes.checkedCast(fingerprintBits));
+    dout.writeLong(numBuckets);
+    dout.writeLong(count);
+    dout.writeInt(data.length());
+    for (int i = 0; i < data.length(); i++) {
+      dout.writeLong(data.get(i));
+    }
+  }
+
+  /**
+   * Reads a byte stream, which was written by {@linkplain #writeTo(OutputStream)}, into a {@code
+   * CuckooFilter}.
+   *
+   * <p>The {@code Funnel} to be used is not encoded in the stream, so it must be provided here.
+   * <b>Warning:</b> the funnel provided <b>must</b> behave identically to the one used to populate
+   * the original filter!
+   *
+   * @throws IOException if the InputStream throws an {@code IOException}, or if its data does not
+   *     appear to be a CuckooFilter serialized using the {@linkplain #writeTo(OutputStream)}
+   *     method.
+   */
+  @SuppressWarnings({
+      "CatchingUnchecked", // sneaky checked exception
+      "value:argument", // fingerprintBits is checked in the c'tor
+  })
+  public static <T extends @Nullable Object> CuckooFilter<T> readFrom(
+      InputStream in, Funnel<? super T> funnel) throws IOException {
+    checkNotNull(in, "InputStream");
+    checkNotNull(funnel, "Funnel");
+    int fingerprintBits = -1;
+    long numBuckets = -1;
+    int dataLength = -1;
+    try {
+      DataInputStream din = new DataInputStream(in);
+      fingerprintBits = UnsignedBytes.toInt(din.readByte());
+      numBuckets = din.readLong();
+      long count = din.readLong();
+      dataLength = din.readInt();
+
+      long[] data = new long[dataLength];
+      for (int i = 0; i < dataLength; i++) {
+        data[i] = din.readLong();
+      }
+      return new CuckooFilter<T>(data, fingerprintBits, numBuckets, count, funnel);
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) { // sneaky checked exception
+      String message =
+          "Unable to deserialize CuckooFilter from InputStream."
+              + " fingerprintBits: "
+              + fingerprintBits
+              + " numBuckets: "
+              + numBuckets
+              + " dataLength: "
+              + dataLength;
+      throw new IOException(message, e);
+    }
+  }
+
+  private static final long serialVersionUID = 1;
+}
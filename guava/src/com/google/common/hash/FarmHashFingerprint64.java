@@ -20,6 +20,7 @@ import static com.google.common.hash.LittleEndianByteArray.load64;
 import static java.lang.Long.rotateRight;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.nio.ByteBuffer;
 import org.checkerframework.checker.index.qual.LTLengthOf;
 import org.checkerframework.checker.index.qual.LengthOf;
 import org.checkerframework.checker.index.qual.NonNegative;
@@ -59,6 +60,41 @@ final class FarmHashFingerprint64 extends AbstractNonStreamingHashFunction {
     return HashCode.fromLong(fingerprint(input, off, len));
   }
 
+  @Override
+  public long hashToLong(long input) {
+    // hashLength0to16 of the 8 little-endian bytes of input
+    long mul = K2 + Long.BYTES * 2L;
+    long a = input + K2;
+    long c = rotateRight(input, 37) * mul + a;
+    long d = (rotateRight(a, 25) + input) * mul;
+    return hashLength16(c, d, mul);
+  }
+
+  @Override
+  public long hashToLong(byte[] input, int off, int len) {
+    checkPositionIndexes(off, off + len, input.length);
+    return fingerprint(input, off, len);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Heap buffers are hashed in place. The contents of other buffers are copied to an array
+   * first.
+   */
+  @Override
+  public long hashToLong(ByteBuffer input) {
+    if (input.hasArray()) {
+      int len = input.remaining();
+      long hash = fingerprint(input.array(), input.arrayOffset() + input.position(), len);
+      Java8Compatibility.position(input, input.limit());
+      return hash;
+    }
+    byte[] bytes = new byte[input.remaining()];
+    input.get(bytes);
+    return fingerprint(bytes, 0, bytes.length);
+  }
+
   @Override
   public @NonNegative int bits() {
     return 64;
@@ -181,6 +181,41 @@ public interface HashFunction {
    */
   HashCode hashBytes(ByteBuffer input);
 
+  /**
+   * Returns the same value as {@code hashLong(input).padToLong()}. Implementations may compute it
+   * without creating a {@link Hasher} or a {@link HashCode}; {@link Hashing#murmur3_128}, {@link
+   * Hashing#sipHash24} and {@link Hashing#farmHashFingerprint64} do, which makes this preferable in
+   * tight loops that only need a {@code long} hash.
+   *
+   * @since NEXT
+   */
+  default long hashToLong(long input) {
+    return hashLong(input).padToLong();
+  }
+
+  /**
+   * Returns the same value as {@code hashBytes(input, off, len).padToLong()}, computed without
+   * intermediate objects where the implementation allows, as for {@link #hashToLong(long)}.
+   *
+   * @throws IndexOutOfBoundsException if {@code off < 0} or {@code off + len > bytes.length} or
+   *     {@code len < 0}
+   * @since NEXT
+   */
+  default long hashToLong(byte[] input, int off, int len) {
+    return hashBytes(input, off, len).padToLong();
+  }
+
+  /**
+   * Returns the same value as {@code hashBytes(input).padToLong()}, computed without intermediate
+   * objects where the implementation allows, as for {@link #hashToLong(long)}. Like {@link
+   * #hashBytes(ByteBuffer)}, this consumes the remaining bytes of {@code input}.
+   *
+   * @since NEXT
+   */
+  default long hashToLong(ByteBuffer input) {
+    return hashBytes(input).padToLong();
+  }
+
   /**
    * Shortcut for {@code newHasher().putUnencodedChars(input).hash()}. The implementation
    * <i>might</i> perform better than its longhand equivalent, but should not perform worse. Note
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.math.IntMath;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Tracks the {@code k} most frequent instances of {@code T} in a stream of unbounded size, using
+ * memory that depends only on {@code k} and the accuracy of the counts, however many distinct
+ * elements arrive.
+ *
+ * <p>Counts are estimated with a {@link CountMinSketch}, so they may be somewhat higher than the
+ * true counts, as described there. Alongside the sketch, this class keeps up to {@code 2k}
+ * candidate elements. Once there are {@code 2k}, it selects the {@code k} with the highest
+ * estimates in linear time, like {@code Ordering.greatestOf}, and only admits new candidates whose
+ * estimates exceed the lowest of those. An element that is not a candidate becomes one again the
+ * next time it is added with an estimate above that threshold.
+ *
+ * <p>Elements are held as keys of a hash map, so they must have suitable {@link Object#equals} and
+ * {@link Object#hashCode} methods, and should be immutable.
+ *
+ * <p>This class is thread-safe.
+ *
+ * @param <T> the type of instances that the {@code HeavyHitters} accepts
+ * @since NEXT
+ */
+@Beta
+@ElementTypesAreNonnullByDefault
+public final class HeavyHitters<T> {
+  private final int k;
+  private final CountMinSketch<T> sketch;
+
+  /** The candidates and their estimated counts when they were last added. */
+  @GuardedBy("this")
+  private final Map<T, Long> candidates;
+
+  /** The estimate that new candidates must exceed; the lowest of the top k at the last trim. */
+  @GuardedBy("this")
+  private long threshold;
+
+  private HeavyHitters(int k, CountMinSketch<T> sketch) {
+    checkArgument(k > 0, "k (%s) must be > 0", k);
+    checkArgument(k <= Integer.MAX_VALUE / 2, "k (%s) must be <= Integer.MAX_VALUE / 2", k);
+    this.k = k;
+    this.sketch = sketch;
+    this.candidates = new HashMap<>();
+  }
+
+  /**
+   * Creates a {@link HeavyHitters} that tracks the {@code k} most frequent elements, counting them
+   * with a {@link CountMinSketch#create(Funnel, double, double) CountMinSketch} of the given
+   * accuracy.
+   *
+   * @param funnel the funnel of T's that the constructed {@code HeavyHitters} will use
+   * @param k the number of most frequent elements to track; must be positive
+   * @param relativeError the error of estimated counts, relative to the total count (must be
+   *     positive and less than 1.0)
+   * @param errorProbability the probability that an estimate's error exceeds {@code relativeError}
+   *     (must be positive and less than 1.0)
+   */
+  public static <T> HeavyHitters<T> create(
+      Funnel<? super T> funnel, int k, double relativeError, double errorProbability) {
+    return new HeavyHitters<T>(k, CountMinSketch.create(funnel, relativeError, errorProbability));
+  }
+
+  /**
+   * Adds one occurrence of an element.
+   *
+   * @return the estimated count of the element after this addition
+   */
+  @CanIgnoreReturnValue
+  public long add(T object) {
+    return add(object, 1);
+  }
+
+  /**
+   * Adds a number of occurrences of an element.
+   *
+   * @param occurrences the number of occurrences to add; may be zero, in which case no change is
+   *     made
+   * @return the estimated count of the element after this addition
+   * @throws IllegalArgumentException if {@code occurrences} is negative
+   */
+  @CanIgnoreReturnValue
+  public synchronized long add(T object, long occurrences) {
+    long count = sketch.add(object, occurrences);
+    if (candidates.containsKey(object) || count > threshold) {
+      candidates.put(object, count);
+      if (candidates.size() == 2 * k) {
+        trim();
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Keeps the k candidates with the highest estimates, and raises the threshold to the lowest of
+   * them. O(k) expected time.
+   */
+  @GuardedBy("this")
+  private void trim() {
+    long[] counts = new long[candidates.size()];
+    int i = 0;
+    for (Entry<T, Long> entry : candidates.entrySet()) {
+      // other elements' additions may have raised the estimate since it was stored
+      long count = sketch.estimateCount(entry.getKey());
+      entry.setValue(count);
+      counts[i++] = count;
+    }
+    long kthCount = select(counts, counts.length - k);
+    // remove everything below the kth count, then as many ties as needed to leave k
+    int ties = 0;
+    for (int j = counts.length - k; j < counts.length; j++) {
+      if (counts[j] == kthCount) {
+        ties++;
+      }
+    }
+    Iterator<Long> iterator = candidates.values().iterator();
+    while (iterator.hasNext()) {
+      long count = iterator.next();
+      if (count < kthCount) {
+        iterator.remove();
+      } else if (count == kthCount) {
+        if (ties > 0) {
+          ties--;
+        } else {
+          iterator.remove();
+        }
+      }
+    }
+    threshold = kthCount;
+  }
+
+  /**
+   * Rearranges {@code array} so that the element at {@code index} is the one that would be there
+   * if the array were sorted, with no greater elements before it and no lesser ones after it, and
+   * returns it. Like {@code TopKSelector}, falls back to sorting if quickselect takes too long.
+   */
+  private static long select(long[] array, int index) {
+    int left = 0;
+    int right = array.length - 1;
+    int iterations = 0;
+    int maxIterations = IntMath.log2(array.length, RoundingMode.CEILING) * 3;
+    while (left < right) {
+      int pivotNewIndex = partition(array, left, right, (left + right + 1) >>> 1);
+      if (pivotNewIndex > index) {
+        right = pivotNewIndex - 1;
+      } else if (pivotNewIndex < index) {
+        left = pivotNewIndex + 1;
+      } else {
+        break;
+      }
+      if (++iterations >= maxIterations) {
+        Arrays.sort(array, left, right + 1);
+        break;
+      }
+    }
+    return array[index];
+  }
+
+  /**
+   * Partitions {@code array} in the range [left, right] around the element at {@code pivotIndex}.
+   * Returns the pivot's new index, so that everything before it is less and everything after it is
+   * greater or equal.
+   */
+  private static int partition(long[] array, int left, int right, int pivotIndex) {
+    long pivotValue = array[pivotIndex];
+    array[pivotIndex] = array[right];
+    int pivotNewIndex = left;
+    for (int i = left; i < right; i++) {
+      if (array[i] < pivotValue) {
+        long tmp = array[pivotNewIndex];
+        array[pivotNewIndex] = array[i];
+        array[i] = tmp;
+        pivotNewIndex++;
+      }
+    }
+    array[right] = array[pivotNewIndex];
+    array[pivotNewIndex] = pivotValue;
+    return pivotNewIndex;
+  }
+
+  /**
+   * Returns an estimate of the number of occurrences of an element that have been {@linkplain #add
+   * added}, whether or not it is among the most frequent ones. The estimate is never less than the
+   * true count.
+   */
+  public long estimateCount(T object) {
+    return sketch.estimateCount(object);
+  }
+
+  /** Returns the sum of the counts of all the elements added. */
+  public long totalCount() {
+    return sketch.totalCount();
+  }
+
+  /**
+   * Returns the (up to) {@code k} elements with the highest estimated counts, mapped to those
+   * counts. The map iterates in descending order of count.
+   */
+  public synchronized ImmutableMap<T, Long> topK() {
+    List<Entry<T, Long>> entries = new ArrayList<>(candidates.size());
+    for (T candidate : candidates.keySet()) {
+      entries.add(Maps.immutableEntry(candidate, sketch.estimateCount(candidate)));
+    }
+    entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+    return ImmutableMap.copyOf(entries.subList(0, Math.min(k, entries.size())));
+  }
+}
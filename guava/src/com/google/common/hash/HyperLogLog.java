@@ -0,0 +1,694 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.primitives.UnsignedBytes;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.stream.Collector;
+import javax.annotation.CheckForNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.common.value.qual.IntRange;
+
+/**
+ * A HyperLogLog sketch, which estimates the number of distinct instances of {@code T} that were
+ * {@linkplain #put put} into it using a small, fixed amount of memory. With the default {@linkplain
+ * #create(Funnel) precision} of 14, a sketch takes at most 16 KB and its estimates have a relative
+ * standard error of about 0.8%, however many elements it has seen. See "HyperLogLog: the analysis
+ * of a near-optimal cardinality estimation algorithm" by Philippe Flajolet et al.
+ *
+ * <p>Like "HyperLogLog in Practice" by Stefan Heule, Marc Nunkesser and Alexander Hall, a sketch
+ * starts out with a sparse representation that holds one small entry per distinct hash it has
+ * seen, and which gives nearly exact counts for small cardinalities. It switches to the usual dense
+ * array of {@code 2^precision} registers once that array would be smaller. Estimates use the
+ * improved estimator of "New cardinality estimation algorithms for HyperLogLog sketches" by Otmar
+ * Ertl, which needs no empirical bias correction.
+ *
+ * <p>Sketches of the same precision and funnel can be {@linkplain #putAll merged}, which yields the
+ * sketch of the union of their elements. This makes it cheap to count distinct elements across
+ * shards: sketch each shard, and merge the sketches.
+ *
+ * <p>Elements are hashed with {@link Hashing#murmur3_128()}. Sketches are serializable. They also
+ * support a more compact serial representation via the {@link #writeTo} and {@link #readFrom}
+ * methods, with the same compatibility guarantees as {@link BloomFilter}.
+ *
+ * <p>This class is thread-safe.
+ *
+ * @param <T> the type of instances that the {@code HyperLogLog} accepts
+ * @since NEXT
+ */
+@Beta
+@ElementTypesAreNonnullByDefault
+public final class HyperLogLog<T extends @Nullable Object> implements Serializable {
+  /** The smallest supported precision. */
+  static final int MIN_PRECISION = 4;
+
+  /** The largest supported precision. */
+  static final int MAX_PRECISION = 18;
+
+  private static final int DEFAULT_PRECISION = 14;
+
+  /**
+   * The precision of the sparse representation's entries. Each entry is the index of one of {@code
+   * 2^SPARSE_PRECISION} registers, which fits in the high bits of an {@code int}, followed by its
+   * value in the low {@link #VALUE_BITS}.
+   */
+  private static final int SPARSE_PRECISION = 25;
+
+  /** The number of bits needed to hold the value of a register. */
+  private static final int VALUE_BITS = 6;
+
+  private static final int VALUE_MASK = (1 << VALUE_BITS) - 1;
+
+  /**
+   * The most entries that the sparse representation holds. Adding an entry moves half of them on
+   * average, which would get slow for the largest precisions.
+   */
+  private static final int MAX_SPARSE_SIZE = 4096;
+
+  private final @IntRange(from = MIN_PRECISION, to = MAX_PRECISION) int precision;
+
+  /** The funnel to translate Ts to bytes */
+  private final Funnel<? super T> funnel;
+
+  /**
+   * The sorted entries of the sparse representation, or null once the sketch is dense. Only the
+   * first {@link #sparseSize} are used.
+   */
+  @GuardedBy("this")
+  @CheckForNull
+  private int[] sparse;
+
+  @GuardedBy("this")
+  private int sparseSize;
+
+  /** The registers of the dense representation, or null while the sketch is sparse. */
+  @GuardedBy("this")
+  @CheckForNull
+  private byte[] registers;
+
+  private HyperLogLog(
+      int precision,
+      @CheckForNull int[] sparse,
+      @CheckForNull byte[] registers,
+      Funnel<? super T> funnel) {
+    this.precision = checkPrecision(precision);
+    this.funnel = checkNotNull(funnel);
+    if (registers != null) {
+      checkArgument(
+          registers.length == 1 << precision,
+          "registers length (%s) must be 2^precision (%s)",
+          registers.length,
+          1 << precision);
+      for (byte value : registers) {
+        checkArgument(
+            value >= 0 && value <= Long.SIZE - precision + 1, "invalid register value (%s)", value);
+      }
+      this.registers = registers;
+    } else {
+      checkNotNull(sparse);
+      for (int i = 0; i < sparse.length; i++) {
+        int value = sparse[i] & VALUE_MASK;
+        checkArgument(
+            sparse[i] >= 0 && value != 0 && value <= Long.SIZE - SPARSE_PRECISION + 1,
+            "invalid entry (%s)",
+            sparse[i]);
+        checkArgument(
+            i == 0 || (sparse[i - 1] >>> VALUE_BITS) < (sparse[i] >>> VALUE_BITS),
+            "entries must be sorted by index");
+      }
+      this.sparse = sparse;
+      this.sparseSize = sparse.length;
+      if (sparseSize > maxSparseSize()) {
+        convertToDense();
+      }
+    }
+  }
+
+  @CanIgnoreReturnValue
+  @SuppressWarnings("value:return") // checked by checkArgument
+  private static @IntRange(from = MIN_PRECISION, to = MAX_PRECISION) int checkPrecision(
+      int precision) {
+    checkArgument(
+        precision >= MIN_PRECISION && precision <= MAX_PRECISION,
+        "precision (%s) must be between %s and %s",
+        precision,
+        MIN_PRECISION,
+        MAX_PRECISION);
+    return precision;
+  }
+
+  /**
+   * Creates an empty {@link HyperLogLog} of precision 14, whose estimates have a relative standard
+   * error of about 0.8%.
+   *
+   * <p>The constructed {@code HyperLogLog} will be serializable if the provided {@code Funnel<T>}
+   * is.
+   *
+   * @param funnel the funnel of T's that the constructed {@code HyperLogLog} will use
+   */
+  public static <T extends @Nullable Object> HyperLogLog<T> create(Funnel<? super T> funnel) {
+    return create(funnel, DEFAULT_PRECISION);
+  }
+
+  /**
+   * Creates an empty {@link HyperLogLog} of the given precision. A sketch of precision {@code p}
+   * has {@code 2^p} registers, takes at most {@code 2^p} bytes, and its estimates have a relative
+   * standard error of about {@code 1.04 / sqrt(2^p)}.
+   *
+   * <p>The constructed {@code HyperLogLog} will be serializable if the provided {@code Funnel<T>}
+   * is.
+   *
+   * @param funnel the funnel of T's that the constructed {@code HyperLogLog} will use
+   * @param precision the base-2 logarithm of the number of registers; must be between 4 and 18
+   */
+  public static <T extends @Nullable Object> HyperLogLog<T> create(
+      Funnel<? super T> funnel, int precision) {
+    checkNotNull(funnel);
+    return new HyperLogLog<T>(precision, new int[0], null, funnel);
+  }
+
+  /**
+   * Returns a {@code Collector} yielding a {@link HyperLogLog} of the given precision, containing
+   * the received elements.
+   *
+   * @param funnel the funnel of T's that the constructed {@code HyperLogLog} will use
+   * @param precision the base-2 logarithm of the number of registers; must be between 4 and 18
+   * @return a {@code Collector} generating a {@code HyperLogLog} of the received elements
+   */
+  public static <T extends @Nullable Object> Collector<T, ?, HyperLogLog<T>> toHyperLogLog(
+      Funnel<? super T> funnel, int precision) {
+    checkNotNull(funnel);
+    checkPrecision(precision);
+    return Collector.of(
+        () -> HyperLogLog.create(funnel, precision),
+        HyperLogLog::put,
+        (sketch1, sketch2) -> {
+          sketch1.putAll(sketch2);
+          return sketch1;
+        },
+        Collector.Characteristics.UNORDERED);
+  }
+
+  /**
+   * Creates a new {@code HyperLogLog} that's a copy of this instance. The new instance is equal to
+   * this instance but shares no mutable state.
+   */
+  public synchronized HyperLogLog<T> copy() {
+    return new HyperLogLog<T>(precision, sparseEntries(), copyOfRegisters(), funnel);
+  }
+
+  /**
+   * Puts an element into this sketch.
+   *
+   * @return {@code true} if the sketch changed as a result of this operation. A result of {@code
+   *     false} means that the element, or another one whose hash is similar enough, was already
+   *     counted.
+   */
+  @CanIgnoreReturnValue
+  public boolean put(@ParametricNullness T object) {
+    long hash = Hashing.murmur3_128().hashObject(object, funnel).asLong();
+    int index = (int) (hash >>> (Long.SIZE - SPARSE_PRECISION));
+    int value = value(hash, SPARSE_PRECISION);
+    synchronized (this) {
+      return putSparseEntry((index << VALUE_BITS) | value);
+    }
+  }
+
+  /**
+   * Returns the value of the register that {@code hash} falls into in a sketch of the given
+   * precision: one more than the number of leading zeros of the rest of the hash.
+   */
+  private static int value(long hash, int precision) {
+    int maxValue = Long.SIZE - precision + 1;
+    return Math.min(Long.numberOfLeadingZeros(hash << precision) + 1, maxValue);
+  }
+
+  /** Adds an entry of the sparse representation, whichever representation this sketch uses. */
+  @GuardedBy("this")
+  private boolean putSparseEntry(int entry) {
+    byte[] registers = this.registers;
+    if (registers != null) {
+      return putDense(registers, entry);
+    }
+    int[] sparse = requireNonNull(this.sparse);
+    int index = entry >>> VALUE_BITS;
+    int position = sparseIndexOf(sparse, sparseSize, index);
+    if (position >= 0) {
+      if (sparse[position] >= entry) {
+        return false;
+      }
+      sparse[position] = entry;
+      return true;
+    }
+    position = -position - 1;
+    if (sparseSize == sparse.length) {
+      sparse = this.sparse = Arrays.copyOf(sparse, Math.max(4, sparse.length * 2));
+    }
+    System.arraycopy(sparse, position, sparse, position + 1, sparseSize - position);
+    sparse[position] = entry;
+    sparseSize++;
+    if (sparseSize > maxSparseSize()) {
+      convertToDense();
+    }
+    return true;
+  }
+
+  /**
+   * Searches the first {@code size} entries for the given index. Returns its position if present,
+   * and otherwise {@code -(insertion point) - 1}, like {@link Arrays#binarySearch}.
+   */
+  private static int sparseIndexOf(int[] sparse, int size, int index) {
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int midIndex = sparse[mid] >>> VALUE_BITS;
+      if (midIndex < index) {
+        low = mid + 1;
+      } else if (midIndex > index) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  /**
+   * Returns the size beyond which the sparse representation, at 4 bytes an entry, would take more
+   * memory than the dense one, at 1 byte a register. It is capped at {@link #MAX_SPARSE_SIZE}.
+   */
+  private int maxSparseSize() {
+    return Math.min((1 << precision) / 4, MAX_SPARSE_SIZE);
+  }
+
+  @GuardedBy("this")
+  private void convertToDense() {
+    int[] sparse = requireNonNull(this.sparse);
+    byte[] registers = new byte[1 << precision];
+    for (int i = 0; i < sparseSize; i++) {
+      putDense(registers, sparse[i]);
+    }
+    this.registers = registers;
+    this.sparse = null;
+    this.sparseSize = 0;
+  }
+
+  /** Folds an entry of the sparse representation into a register. */
+  private boolean putDense(byte[] registers, int entry) {
+    int sparseIndex = entry >>> VALUE_BITS;
+    int extraBits = SPARSE_PRECISION - precision;
+    int index = sparseIndex >>> extraBits;
+    int extraIndexBits = sparseIndex & ((1 << extraBits) - 1);
+    int value;
+    if (extraIndexBits != 0) {
+      // the leading zeros end among the bits that the dense index doesn't use
+      value = Integer.numberOfLeadingZeros(extraIndexBits) - (Integer.SIZE - extraBits) + 1;
+    } else {
+      value = extraBits + (entry & VALUE_MASK);
+    }
+    if (registers[index] >= value) {
+      return false;
+    }
+    registers[index] = (byte) value;
+    return true;
+  }
+
+  /**
+   * Returns an estimate of the number of distinct elements that have been put into this sketch.
+   * Estimates have a relative standard error of about {@linkplain #relativeStandardError() {@code
+   * 1.04 / sqrt(2^precision)}}, and are nearly exact while the sketch is still small.
+   */
+  public long approximateElementCount() {
+    int[] histogram;
+    int estimatePrecision;
+    synchronized (this) {
+      byte[] registers = this.registers;
+      if (registers != null) {
+        estimatePrecision = precision;
+        histogram = new int[Long.SIZE - precision + 2];
+        for (byte value : registers) {
+          histogram[value]++;
+        }
+      } else {
+        int[] sparse = requireNonNull(this.sparse);
+        estimatePrecision = SPARSE_PRECISION;
+        histogram = new int[Long.SIZE - SPARSE_PRECISION + 2];
+        histogram[0] = (1 << SPARSE_PRECISION) - sparseSize;
+        for (int i = 0; i < sparseSize; i++) {
+          histogram[sparse[i] & VALUE_MASK]++;
+        }
+      }
+    }
+    return Math.round(estimate(histogram, estimatePrecision));
+  }
+
+  /**
+   * Ertl's improved raw estimator, from the number of registers of each value. Unlike the original
+   * HyperLogLog estimator, it is accurate for small cardinalities too.
+   */
+  @VisibleForTesting
+  static double estimate(int[] histogram, int precision) {
+    int m = 1 << precision;
+    int maxValue = Long.SIZE - precision + 1;
+    if (histogram[0] == m) {
+      return 0;
+    }
+    double z = m * tau(1 - (double) histogram[maxValue] / m);
+    for (int k = maxValue - 1; k >= 1; k--) {
+      z = 0.5 * (z + histogram[k]);
+    }
+    z += m * sigma((double) histogram[0] / m);
+    return m / (2 * Math.log(2)) * m / z;
+  }
+
+  private static double sigma(double x) {
+    if (x == 1) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double y = 1;
+    double z = x;
+    double previous;
+    do {
+      x *= x;
+      previous = z;
+      z += x * y;
+      y += y;
+    } while (z != previous);
+    return z;
+  }
+
+  private static double tau(double x) {
+    if (x == 0 || x == 1) {
+      return 0;
+    }
+    double y = 1;
+    double z = 1 - x;
+    double previous;
+    do {
+      x = Math.sqrt(x);
+      previous = z;
+      y *= 0.5;
+      z -= (1 - x) * (1 - x) * y;
+    } while (z != previous);
+    return z / 3;
+  }
+
+  /**
+   * Returns the relative standard error of this sketch's {@linkplain #approximateElementCount
+   * estimates} once it is dense, {@code 1.04 / sqrt(2^precision)}.
+   */
+  public double relativeStandardError() {
+    return 1.04 / Math.sqrt(1 << precision);
+  }
+
+  /**
+   * Determines whether a given sketch is compatible with this one, so that it can be {@linkplain
+   * #putAll merged} into this one: both must have the same precision and equal funnels.
+   *
+   * @param that the sketch to check for compatibility
+   */
+  public boolean isCompatible(HyperLogLog<T> that) {
+    checkNotNull(that);
+    return this.precision == that.precision && this.funnel.equals(that.funnel);
+  }
+
+  /**
+   * Merges another sketch into this one, so that this sketch estimates the number of distinct
+   * elements put into either of them. The mutations happen to <b>this</b> instance.
+   *
+   * @param that the sketch to merge into this one. It is not mutated.
+   * @throws IllegalArgumentException if {@code isCompatible(that) == false}
+   */
+  public void putAll(HyperLogLog<T> that) {
+    checkNotNull(that);
+    checkArgument(
+        this.precision == that.precision,
+        "HyperLogLogs must have the same precision (%s != %s)",
+        this.precision,
+        that.precision);
+    checkArgument(
+        this.funnel.equals(that.funnel),
+        "HyperLogLogs must have equal funnels (%s != %s)",
+        this.funnel,
+        that.funnel);
+    int[] thatSparse;
+    byte[] thatRegisters;
+    synchronized (that) {
+      thatSparse = that.sparseEntries();
+      thatRegisters = that.copyOfRegisters();
+    }
+    synchronized (this) {
+      if (thatRegisters != null) {
+        if (this.registers == null) {
+          convertToDense();
+        }
+        byte[] registers = requireNonNull(this.registers);
+        for (int i = 0; i < registers.length; i++) {
+          registers[i] = (byte) Math.max(registers[i], thatRegisters[i]);
+        }
+      } else {
+        for (int entry : requireNonNull(thatSparse)) {
+          putSparseEntry(entry);
+        }
+      }
+    }
+  }
+
+  /** Returns a copy of the sparse entries, or null if this sketch is dense. */
+  @GuardedBy("this")
+  @CheckForNull
+  private int[] sparseEntries() {
+    return sparse == null ? null : Arrays.copyOf(sparse, sparseSize);
+  }
+
+  @GuardedBy("this")
+  @CheckForNull
+  private byte[] copyOfRegisters() {
+    return registers == null ? null : registers.clone();
+  }
+
+  /** Returns whether this sketch still uses the sparse representation. */
+  @VisibleForTesting
+  synchronized boolean isSparse() {
+    return sparse != null;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This implementation uses reference equality to compare funnels. Two sketches that have seen
+   * the same elements are only equal if they also use the same representation.
+   */
+  @Override
+  public boolean equals(@CheckForNull Object object) {
+    if (object == this) {
+      return true;
+    }
+    if (object instanceof HyperLogLog) {
+      HyperLogLog<?> that = (HyperLogLog<?>) object;
+      int[] thatSparse;
+      byte[] thatRegisters;
+      synchronized (that) {
+        thatSparse = that.sparseEntries();
+        thatRegisters = that.copyOfRegisters();
+      }
+      synchronized (this) {
+        return this.precision == that.precision
+            && this.funnel.equals(that.funnel)
+            && Arrays.equals(sparseEntries(), thatSparse)
+            && Arrays.equals(registers, thatRegisters);
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public synchronized int hashCode() {
+    return Objects.hashCode(
+        precision, funnel, Arrays.hashCode(sparseEntries()), Arrays.hashCode(registers));
+  }
+
+  private Object writeReplace() {
+    return new SerialForm<T>(this);
+  }
+
+  private void readObject(ObjectInputStream stream) throws InvalidObjectException {
+    throw new InvalidObjectException("Use SerializedForm");
+  }
+
+  private static class SerialForm<T extends @Nullable Object> implements Serializable {
+    final int precision;
+    @CheckForNull final int[] sparse;
+    @CheckForNull final byte[] registers;
+    final Funnel<? super T> funnel;
+
+    SerialForm(HyperLogLog<T> sketch) {
+      synchronized (sketch) {
+        this.sparse = sketch.sparseEntries();
+        this.registers = sketch.copyOfRegisters();
+      }
+      this.precision = sketch.precision;
+      this.funnel = sketch.funnel;
+    }
+
+    Object readResolve() {
+      return new HyperLogLog<T>(precision, sparse, registers, funnel);
+    }
+
+    private static final long serialVersionUID = 1;
+  }
+
+  /**
+   * Writes this {@code HyperLogLog} to an output stream, with a custom format (not Java
+   * serialization). A dense sketch takes 6 bits per register; a sparse one about 2 to 4 bytes per
+   * distinct hash.
+   *
+   * <p>Use {@linkplain #readFrom(InputStream, Funnel)} to reconstruct the written sketch.
+   */
+  public synchronized void writeTo(OutputStream out) throws IOException {
+    // Serial form:
+    // 1 unsigned byte for the precision
+    // 1 unsigned byte, 1 if the sketch is dense and 0 if it is sparse
+    // if dense, 2^precision registers of 6 bits each, packed into big endian bytes
+    // if sparse, 1 big endian int, the number of entries, and then the difference between each
+    // entry and the previous one (or 0), as unsigned varints
+    DataOutputStream dout = new DataOutputStream(out);
+    dout.writeByte(UnsignedBytes.checkedCast(precision));
+    byte[] registers = this.registers;
+    if (registers != null) {
+      dout.writeByte(1);
+      int buffer = 0;
+      int bufferedBits = 0;
+      for (byte value : registers) {
+        buffer = (buffer << VALUE_BITS) | value;
+        bufferedBits += VALUE_BITS;
+        if (bufferedBits >= Byte.SIZE) {
+          bufferedBits -= Byte.SIZE;
+          dout.writeByte(buffer >>> bufferedBits);
+        }
+      }
+      // 2^precision registers of 6 bits always fill a whole number of bytes
+    } else {
+      int[] sparse = requireNonNull(this.sparse);
+      dout.writeByte(0);
+      dout.writeInt(sparseSize);
+      int previous = 0;
+      for (int i = 0; i < sparseSize; i++) {
+        int delta = sparse[i] - previous;
+        previous = sparse[i];
+        while ((delta & ~0x7f) != 0) {
+          dout.writeByte((delta & 0x7f) | 0x80);
+          delta >>>= 7;
+        }
+        dout.writeByte(delta);
+      }
+    }
+  }
+
+  /**
+   * Reads a byte stream, which was written by {@linkplain #writeTo(OutputStream)}, into a {@code
+   * HyperLogLog}.
+   *
+   * <p>The {@code Funnel} to be used is not encoded in the stream, so it must be provided here.
+   * <b>Warning:</b> the funnel provided <b>must</b> behave identically to the one used to populate
+   * the original sketch!
+   *
+   * @throws IOException if the InputStream throws an {@code IOException}, or if its data does not
+   *     appear to be a HyperLogLog serialized using the {@linkplain #writeTo(OutputStream)} method.
+   */
+  @SuppressWarnings("CatchingUnchecked") // sneaky checked exception
+  public static <T extends @Nullable Object> HyperLogLog<T> readFrom(
+      InputStream in, Funnel<? super T> funnel) throws IOException {
+    checkNotNull(in, "InputStream");
+    checkNotNull(funnel, "Funnel");
+    int precision = -1;
+    int dense = -1;
+    int sparseSize = -1;
+    try {
+      DataInputStream din = new DataInputStream(in);
+      precision = UnsignedBytes.toInt(din.readByte());
+      dense = UnsignedBytes.toInt(din.readByte());
+      checkPrecision(precision);
+      if (dense == 1) {
+        byte[] registers = new byte[1 << precision];
+        int buffer = 0;
+        int bufferedBits = 0;
+        for (int i = 0; i < registers.length; i++) {
+          if (bufferedBits < VALUE_BITS) {
+            buffer = (buffer << Byte.SIZE) | UnsignedBytes.toInt(din.readByte());
+            bufferedBits += Byte.SIZE;
+          }
+          bufferedBits -= VALUE_BITS;
+          registers[i] = (byte) ((buffer >>> bufferedBits) & VALUE_MASK);
+        }
+        return new HyperLogLog<T>(precision, null, registers, funnel);
+      }
+      checkArgument(dense == 0, "invalid representation (%s)", dense);
+      sparseSize = din.readInt();
+      checkArgument(sparseSize >= 0, "invalid number of entries (%s)", sparseSize);
+      int[] sparse = new int[Math.min(sparseSize, MAX_SPARSE_SIZE)];
+      int previous = 0;
+      for (int i = 0; i < sparseSize; i++) {
+        int delta = 0;
+        int b;
+        int shift = 0;
+        do {
+          checkArgument(shift < Integer.SIZE, "malformed varint");
+          b = UnsignedBytes.toInt(din.readByte());
+          delta |= (b & 0x7f) << shift;
+          shift += 7;
+        } while ((b & 0x80) != 0);
+        previous += delta;
+        if (i == sparse.length) {
+          sparse = Arrays.copyOf(sparse, sparse.length * 2);
+        }
+        sparse[i] = previous;
+      }
+      return new HyperLogLog<T>(precision, Arrays.copyOf(sparse, sparseSize), null, funnel);
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) { // sneaky checked exception
+      String message =
+          "Unable to deserialize HyperLogLog from InputStream."
+              + " precision: "
+              + precision
+              + " dense: "
+              + dense
+              + " sparseSize: "
+              + sparseSize;
+      throw new IOException(message, e);
+    }
+  }
+
+  private static final long serialVersionUID = 1;
+}
@@ -16,6 +16,7 @@ package com.google.common.hash;
 
 import com.google.common.primitives.Longs;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
@@ -25,7 +26,8 @@ import org.checkerframework.checker.index.qual.NonNegative;
 import sun.misc.Unsafe;
 
 /**
- * Utility functions for loading and storing values from a byte array.
+ * Utility functions for loading and storing values from a byte array, or loading them from a
+ * {@link ByteBuffer}.
  *
  * @author Kevin Damm
  * @author Kyle Maddison
@@ -107,6 +109,28 @@ final class LittleEndianByteArray {
         | ((source[offset + 3] & 0xFF) << 24);
   }
 
+  /**
+   * Loads 8 bytes of a buffer into a long in a little endian manner, from the given absolute
+   * position, whatever the buffer's byte order. The buffer's position and order are not changed.
+   */
+  static long load64(ByteBuffer input, @NonNegative int offset) {
+    long value = input.getLong(offset);
+    return input.order() == ByteOrder.LITTLE_ENDIAN ? value : Long.reverseBytes(value);
+  }
+
+  /**
+   * Like {@link #load64Safely(byte[], int, int)}, but loads up to 8 bytes of a buffer from the
+   * given absolute position. The buffer's position is not changed.
+   */
+  static long load64Safely(ByteBuffer input, @NonNegative int offset, @NonNegative int length) {
+    long result = 0;
+    int limit = Math.min(length, 8);
+    for (int i = 0; i < limit; i++) {
+      result |= (input.get(offset + i) & 0xFFL) << (i * 8);
+    }
+    return result;
+  }
+
   /**
    * Indicates that the loading of Unsafe was successful and the load and store operations will be
    * very efficient. May be useful for calling code to fall back on an alternative implementation
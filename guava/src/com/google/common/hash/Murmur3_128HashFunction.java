@@ -25,7 +25,9 @@
 
 package com.google.common.hash;
 
+import static com.google.common.base.Preconditions.checkPositionIndexes;
 import static com.google.common.primitives.UnsignedBytes.toInt;
+import static java.util.Objects.requireNonNull;
 
 import com.google.errorprone.annotations.Immutable;
 import java.io.Serializable;
@@ -45,7 +47,7 @@ import org.checkerframework.checker.signedness.qual.UnknownSignedness;
 @Immutable
 @ElementTypesAreNonnullByDefault
 final class Murmur3_128HashFunction extends AbstractHashFunction implements Serializable {
-  static final HashFunction MURMUR3_128 = new Murmur3_128HashFunction(0);
+  static final Murmur3_128HashFunction MURMUR3_128 = new Murmur3_128HashFunction(0);
 
   static final HashFunction GOOD_FAST_HASH_128 =
       new Murmur3_128HashFunction(Hashing.GOOD_FAST_HASH_SEED);
@@ -67,6 +69,107 @@ final class Murmur3_128HashFunction extends AbstractHashFunction implements Seri
     return new Murmur3_128Hasher(seed);
   }
 
+  /**
+   * Returns a hasher which can be {@linkplain Murmur3_128Hasher#reset reset} and reused, for
+   * hashing many inputs without allocating a new hasher and hash code for each.
+   */
+  Murmur3_128Hasher newReusableHasher() {
+    return new Murmur3_128Hasher(seed);
+  }
+
+  @Override
+  public long hashToLong(long input) {
+    // the input is a single partial block, so only k1 is mixed in
+    long h1 = seed ^ Murmur3_128Hasher.mixK1(input);
+    long h2 = seed;
+    return finalMixToLong(h1, h2, Long.BYTES);
+  }
+
+  @Override
+  public long hashToLong(byte[] input, int off, int len) {
+    checkPositionIndexes(off, off + len, input.length);
+    return hashToLong(input, null, off, len);
+  }
+
+  @Override
+  public long hashToLong(ByteBuffer input) {
+    int position = input.position();
+    int len = input.remaining();
+    long hash =
+        input.hasArray()
+            ? hashToLong(input.array(), null, input.arrayOffset() + position, len)
+            : hashToLong(null, input, position, len);
+    Java8Compatibility.position(input, input.limit());
+    return hash;
+  }
+
+  /**
+   * Computes the first eight bytes of the hash code of {@code len} bytes of either {@code array} or
+   * {@code buffer} as a long, like {@link Murmur3_128Hasher}, but without buffering the input.
+   */
+  private long hashToLong(
+      @CheckForNull byte[] array, @CheckForNull ByteBuffer buffer, int off, int len) {
+    long h1 = seed;
+    long h2 = seed;
+    int i = 0;
+    for (; i + Murmur3_128Hasher.CHUNK_SIZE <= len; i += Murmur3_128Hasher.CHUNK_SIZE) {
+      long k1;
+      long k2;
+      if (array != null) {
+        k1 = LittleEndianByteArray.load64(array, off + i);
+        k2 = LittleEndianByteArray.load64(array, off + i + 8);
+      } else {
+        k1 = LittleEndianByteArray.load64(requireNonNull(buffer), off + i);
+        k2 = LittleEndianByteArray.load64(requireNonNull(buffer), off + i + 8);
+      }
+      // see Murmur3_128Hasher.bmix64
+      h1 ^= Murmur3_128Hasher.mixK1(k1);
+      h1 = Long.rotateLeft(h1, 27);
+      h1 += h2;
+      h1 = h1 * 5 + 0x52dce729;
+      h2 ^= Murmur3_128Hasher.mixK2(k2);
+      h2 = Long.rotateLeft(h2, 31);
+      h2 += h1;
+      h2 = h2 * 5 + 0x38495ab5;
+    }
+    int remaining = len - i;
+    if (remaining > 0) {
+      long k1;
+      long k2;
+      if (array != null) {
+        k1 = LittleEndianByteArray.load64Safely(array, off + i, remaining);
+        k2 =
+            remaining > 8
+                ? LittleEndianByteArray.load64Safely(array, off + i + 8, remaining - 8)
+                : 0;
+      } else {
+        ByteBuffer nonNullBuffer = requireNonNull(buffer);
+        k1 = LittleEndianByteArray.load64Safely(nonNullBuffer, off + i, remaining);
+        k2 =
+            remaining > 8
+                ? LittleEndianByteArray.load64Safely(nonNullBuffer, off + i + 8, remaining - 8)
+                : 0;
+      }
+      h1 ^= Murmur3_128Hasher.mixK1(k1);
+      h2 ^= Murmur3_128Hasher.mixK2(k2);
+    }
+    return finalMixToLong(h1, h2, len);
+  }
+
+  /** Like {@link Murmur3_128Hasher#finalMix}, but only returns the first long of the hash. */
+  private static long finalMixToLong(long h1, long h2, int length) {
+    h1 ^= length;
+    h2 ^= length;
+
+    h1 += h2;
+    h2 += h1;
+
+    h1 = Murmur3_128Hasher.fmix64(h1);
+    h2 = Murmur3_128Hasher.fmix64(h2);
+
+    return h1 + h2;
+  }
+
   @Override
   public String toString() {
     return "Hashing.murmur3_128(" + seed + ")";
@@ -86,21 +189,49 @@ final class Murmur3_128HashFunction extends AbstractHashFunction implements Seri
     return getClass().hashCode() ^ seed;
   }
 
-  private static final class Murmur3_128Hasher extends AbstractStreamingHasher {
+  static final class Murmur3_128Hasher extends AbstractStreamingHasher {
     private static final int CHUNK_SIZE = 16;
     private static final long C1 = 0x87c37b91114253d5L;
     private static final long C2 = 0x4cf5ad432745937fL;
+    private final int seed;
     private long h1;
     private long h2;
     private int length;
 
     Murmur3_128Hasher(int seed) {
       super(CHUNK_SIZE);
+      this.seed = seed;
       this.h1 = seed;
       this.h2 = seed;
       this.length = 0;
     }
 
+    /** Discards all input, so that this hasher can hash another one. */
+    void reset() {
+      clearBuffer();
+      h1 = seed;
+      h2 = seed;
+      length = 0;
+    }
+
+    /**
+     * Finishes hashing, like {@link #hash}, but leaves the hash in {@link #h1} and {@link #h2}
+     * instead of creating a {@link HashCode}. They are the first and last eight bytes of the hash
+     * code, read as little-endian longs.
+     */
+    void finish() {
+      processAll();
+      finalMix();
+    }
+
+    long h1() {
+      return h1;
+    }
+
+    long h2() {
+      return h2;
+    }
+
     @Override
     protected void process(ByteBuffer bb) {
       long k1 = bb.getLong();
@@ -171,6 +302,16 @@ final class Murmur3_128HashFunction extends AbstractHashFunction implements Seri
     @Override
     @SuppressWarnings("value:argument") // ByteBuffer#array() should be annotated as  byte @MinLen(1)[] array().
     protected HashCode makeHash() {
+      finalMix();
+      return HashCode.fromBytesNoCopy(
+          ByteBuffer.wrap(new byte[CHUNK_SIZE])
+              .order(ByteOrder.LITTLE_ENDIAN)
+              .putLong(h1)
+              .putLong(h2)
+              .array());
+    }
+
+    private void finalMix() {
       h1 ^= length;
       h2 ^= length;
 
@@ -182,13 +323,6 @@ final class Murmur3_128HashFunction extends AbstractHashFunction implements Seri
 
       h1 += h2;
       h2 += h1;
-
-      return HashCode.fromBytesNoCopy(
-          ByteBuffer.wrap(new byte[CHUNK_SIZE])
-              .order(ByteOrder.LITTLE_ENDIAN)
-              .putLong(h1)
-              .putLong(h2)
-              .array());
     }
 
     private static long fmix64(long k) {
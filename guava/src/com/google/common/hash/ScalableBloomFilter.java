@@ -0,0 +1,381 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Murmur3_128HashFunction.Murmur3_128Hasher;
+import com.google.common.math.LongMath;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A Bloom filter that grows to keep its false positive probability bounded, however many elements
+ * are put into it. See "Scalable Bloom Filters" by Paulo Sérgio Almeida, Carlos Baquero, Nuno
+ * Preguiça and David Hutchison.
+ *
+ * <p>A scalable Bloom filter is a series of {@link BloomFilter}s. Elements are put into the last
+ * of them, and once that has received its expected number of insertions, a new one is added which
+ * expects {@value #GROWTH_FACTOR} times as many insertions at a tighter false positive probability.
+ * The false positive probabilities of the sub-filters form a geometric series, so that the false
+ * positive probability of the whole filter stays below the one it was created with.
+ *
+ * <p>Scalable Bloom filters are serializable, and support the compact serial representation of
+ * {@link #writeTo} and {@link #readFrom}, with the same compatibility guarantees as {@link
+ * BloomFilter}.
+ *
+ * <p>This class is thread-safe. {@link #mightContain} is lock-free, while {@link #put} takes a
+ * lock.
+ *
+ * @param <T> the type of instances that the {@code ScalableBloomFilter} accepts
+ * @since NEXT
+ */
+@Beta
+@ElementTypesAreNonnullByDefault
+public final class ScalableBloomFilter<T extends @Nullable Object> implements Serializable {
+  /** How many times more insertions each sub-filter expects than the previous one. */
+  private static final int GROWTH_FACTOR = 2;
+
+  /**
+   * The ratio between the false positive probabilities of consecutive sub-filters. The paper
+   * recommends 0.8 to 0.9 for a growth factor of 2.
+   */
+  private static final double TIGHTENING_RATIO = 0.8;
+
+  /** The funnel to translate Ts to bytes */
+  private final Funnel<? super T> funnel;
+
+  /** The number of insertions that the first sub-filter expects. */
+  private final long initialExpectedInsertions;
+
+  /** The false positive probability that the whole filter is bounded by. */
+  private final double fpp;
+
+  /** The sub-filters, oldest first. Only replaced while holding the lock on this. */
+  private volatile ImmutableList<BloomFilter<T>> filters;
+
+  /** The number of elements put into the last sub-filter. */
+  @GuardedBy("this")
+  private long lastInsertions;
+
+  private ScalableBloomFilter(
+      Funnel<? super T> funnel,
+      long initialExpectedInsertions,
+      double fpp,
+      List<BloomFilter<T>> filters,
+      long lastInsertions) {
+    this.funnel = checkNotNull(funnel);
+    this.initialExpectedInsertions = initialExpectedInsertions;
+    this.fpp = fpp;
+    this.filters = ImmutableList.copyOf(filters);
+    this.lastInsertions = lastInsertions;
+  }
+
+  /**
+   * Creates a {@link ScalableBloomFilter} whose first sub-filter expects the given number of
+   * insertions, and whose false positive probability stays below {@code fpp} as it grows.
+   *
+   * <p>The constructed filter will be serializable if the provided {@code Funnel<T>} is.
+   *
+   * @param funnel the funnel of T's that the constructed filter will use
+   * @param initialExpectedInsertions the number of insertions that the first sub-filter expects;
+   *     must be positive
+   * @param fpp the desired false positive probability (must be positive and less than 1.0)
+   * @return a {@code ScalableBloomFilter}
+   */
+  public static <T extends @Nullable Object> ScalableBloomFilter<T> create(
+      Funnel<? super T> funnel, long initialExpectedInsertions, double fpp) {
+    checkNotNull(funnel);
+    checkArgument(
+        initialExpectedInsertions > 0,
+        "Initial expected insertions (%s) must be > 0",
+        initialExpectedInsertions);
+    checkArgument(fpp > 0.0, "False positive probability (%s) must be > 0.0", fpp);
+    checkArgument(fpp < 1.0, "False positive probability (%s) must be < 1.0", fpp);
+    return new ScalableBloomFilter<T>(
+        funnel,
+        initialExpectedInsertions,
+        fpp,
+        ImmutableList.of(subFilter(funnel, initialExpectedInsertions, fpp, 0)),
+        0);
+  }
+
+  private static <T extends @Nullable Object> BloomFilter<T> subFilter(
+      Funnel<? super T> funnel, long initialExpectedInsertions, double fpp, int index) {
+    long expectedInsertions = expectedInsertions(initialExpectedInsertions, index);
+    // the sum of fpp * (1 - r) * r^i over all i is fpp
+    double subFpp = fpp * (1 - TIGHTENING_RATIO) * Math.pow(TIGHTENING_RATIO, index);
+    return BloomFilter.create(funnel, expectedInsertions, subFpp);
+  }
+
+  private static long expectedInsertions(long initialExpectedInsertions, int index) {
+    return LongMath.saturatedMultiply(
+        initialExpectedInsertions, LongMath.saturatedPow(GROWTH_FACTOR, index));
+  }
+
+  /**
+   * Creates a new {@code ScalableBloomFilter} that's a copy of this instance. The new instance is
+   * equal to this instance but shares no mutable state.
+   */
+  public synchronized ScalableBloomFilter<T> copy() {
+    ImmutableList.Builder<BloomFilter<T>> copies = ImmutableList.builder();
+    for (BloomFilter<T> filter : filters) {
+      copies.add(filter.copy());
+    }
+    return new ScalableBloomFilter<T>(
+        funnel, initialExpectedInsertions, fpp, copies.build(), lastInsertions);
+  }
+
+  /**
+   * Returns {@code true} if the element <i>might</i> have been put in this filter, {@code false}
+   * if this is <i>definitely</i> not the case.
+   */
+  public boolean mightContain(@ParametricNullness T object) {
+    Murmur3_128Hasher hasher = hash(object);
+    return mightContainHash(filters, hasher.h1(), hasher.h2());
+  }
+
+  /**
+   * Hashes {@code object} once for all of the sub-filters, which share the {@link
+   * Hashing#murmur3_128} hashing of {@link BloomFilterStrategies}.
+   */
+  private Murmur3_128Hasher hash(@ParametricNullness T object) {
+    Murmur3_128Hasher hasher = Murmur3_128HashFunction.MURMUR3_128.newReusableHasher();
+    funnel.funnel(object, hasher);
+    hasher.finish();
+    return hasher;
+  }
+
+  private static boolean mightContainHash(
+      List<? extends BloomFilter<?>> filters, long lowerHash, long upperHash) {
+    // the newest sub-filter has the most elements
+    for (int i = filters.size() - 1; i >= 0; i--) {
+      if (filters.get(i).mightContainHash(lowerHash, upperHash)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Puts an element into this filter, adding a sub-filter first if the current one is full.
+   * Ensures that subsequent invocations of {@link #mightContain(Object)} with the same element will
+   * always return {@code true}.
+   *
+   * @return true if the filter definitely did not contain the element before. If false, the
+   *     element might already have been put, and the filter was not changed.
+   */
+  public synchronized boolean put(@ParametricNullness T object) {
+    Murmur3_128Hasher hasher = hash(object);
+    long lowerHash = hasher.h1();
+    long upperHash = hasher.h2();
+    ImmutableList<BloomFilter<T>> filters = this.filters;
+    // elements which might be present are not counted against the capacity of the last sub-filter
+    if (mightContainHash(filters, lowerHash, upperHash)) {
+      return false;
+    }
+    int lastIndex = filters.size() - 1;
+    if (lastInsertions >= expectedInsertions(initialExpectedInsertions, lastIndex)) {
+      lastIndex++;
+      filters =
+          ImmutableList.<BloomFilter<T>>builderWithExpectedSize(lastIndex + 1)
+              .addAll(filters)
+              .add(subFilter(funnel, initialExpectedInsertions, fpp, lastIndex))
+              .build();
+      this.filters = filters;
+      lastInsertions = 0;
+    }
+    filters.get(lastIndex).putHash(lowerHash, upperHash);
+    lastInsertions++;
+    return true;
+  }
+
+  /**
+   * Returns the probability that {@linkplain #mightContain(Object)} will erroneously return {@code
+   * true} for an object that has not actually been put in this filter, which is the probability
+   * that any of the sub-filters does.
+   *
+   * <p>This is at most about the {@code fpp} passed to {@link #create}, unless elements were put
+   * into the sub-filters concurrently with reading them.
+   */
+  public double expectedFpp() {
+    double noFalsePositive = 1;
+    for (BloomFilter<T> filter : filters) {
+      noFalsePositive *= 1 - filter.expectedFpp();
+    }
+    return 1 - noFalsePositive;
+  }
+
+  /**
+   * Returns an estimate for the total number of distinct elements that have been added to this
+   * filter, the sum of the estimates of its sub-filters.
+   */
+  public long approximateElementCount() {
+    long count = 0;
+    for (BloomFilter<T> filter : filters) {
+      count = LongMath.saturatedAdd(count, filter.approximateElementCount());
+    }
+    return count;
+  }
+
+  /** Returns the number of sub-filters. */
+  @VisibleForTesting
+  int subFilterCount() {
+    return filters.size();
+  }
+
+  @Override
+  public boolean equals(@CheckForNull Object object) {
+    if (object == this) {
+      return true;
+    }
+    if (object instanceof ScalableBloomFilter) {
+      ScalableBloomFilter<?> that = (ScalableBloomFilter<?>) object;
+      return this.initialExpectedInsertions == that.initialExpectedInsertions
+          && this.fpp == that.fpp
+          && this.funnel.equals(that.funnel)
+          && this.filters.equals(that.filters);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(initialExpectedInsertions, fpp, funnel, filters);
+  }
+
+  private Object writeReplace() {
+    return new SerialForm<T>(this);
+  }
+
+  private void readObject(ObjectInputStream stream) throws InvalidObjectException {
+    throw new InvalidObjectException("Use SerializedForm");
+  }
+
+  private static class SerialForm<T extends @Nullable Object> implements Serializable {
+    final Funnel<? super T> funnel;
+    final long initialExpectedInsertions;
+    final double fpp;
+    final List<BloomFilter<T>> filters;
+    final long lastInsertions;
+
+    SerialForm(ScalableBloomFilter<T> filter) {
+      synchronized (filter) {
+        this.funnel = filter.funnel;
+        this.initialExpectedInsertions = filter.initialExpectedInsertions;
+        this.fpp = filter.fpp;
+        this.filters = filter.filters;
+        this.lastInsertions = filter.lastInsertions;
+      }
+    }
+
+    Object readResolve() {
+      return new ScalableBloomFilter<T>(
+          funnel, initialExpectedInsertions, fpp, filters, lastInsertions);
+    }
+
+    private static final long serialVersionUID = 1;
+  }
+
+  /**
+   * Writes this {@code ScalableBloomFilter} to an output stream, with a custom format (not Java
+   * serialization).
+   *
+   * <p>Use {@linkplain #readFrom(InputStream, Funnel)} to reconstruct the written filter.
+   */
+  public synchronized void writeTo(OutputStream out) throws IOException {
+    // Serial form:
+    // 1 big endian long, the expected insertions of the first sub-filter
+    // 1 big endian double, the false positive probability
+    // 1 big endian long, the number of elements put into the last sub-filter
+    // 1 big endian int, the number of sub-filters
+    // N sub-filters, each in the form of BloomFilter.writeTo
+    DataOutputStream dout = new DataOutputStream(out);
+    dout.writeLong(initialExpectedInsertions);
+    dout.writeDouble(fpp);
+    dout.writeLong(lastInsertions);
+    dout.writeInt(filters.size());
+    for (BloomFilter<T> filter : filters) {
+      filter.writeTo(dout);
+    }
+  }
+
+  /**
+   * Reads a byte stream, which was written by {@linkplain #writeTo(OutputStream)}, into a {@code
+   * ScalableBloomFilter}.
+   *
+   * <p>The {@code Funnel} to be used is not encoded in the stream, so it must be provided here.
+   * <b>Warning:</b> the funnel provided <b>must</b> behave identically to the one used to populate
+   * the original filter!
+   *
+   * @throws IOException if the InputStream throws an {@code IOException}, or if its data does not
+   *     appear to be a ScalableBloomFilter serialized using the {@linkplain #writeTo(OutputStream)}
+   *     method.
+   */
+  @SuppressWarnings("CatchingUnchecked") // sneaky checked exception
+  public static <T extends @Nullable Object> ScalableBloomFilter<T> readFrom(
+      InputStream in, Funnel<? super T> funnel) throws IOException {
+    checkNotNull(in, "InputStream");
+    checkNotNull(funnel, "Funnel");
+    long initialExpectedInsertions = -1;
+    double fpp = -1;
+    int numFilters = -1;
+    try {
+      DataInputStream din = new DataInputStream(in);
+      initialExpectedInsertions = din.readLong();
+      fpp = din.readDouble();
+      long lastInsertions = din.readLong();
+      numFilters = din.readInt();
+      checkArgument(initialExpectedInsertions > 0 && fpp > 0 && fpp < 1 && numFilters > 0);
+
+      ImmutableList.Builder<BloomFilter<T>> filters =
+          ImmutableList.builderWithExpectedSize(numFilters);
+      for (int i = 0; i < numFilters; i++) {
+        filters.add(BloomFilter.readFrom(din, funnel));
+      }
+      return new ScalableBloomFilter<T>(
+          funnel, initialExpectedInsertions, fpp, filters.build(), lastInsertions);
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) { // sneaky checked exception
+      String message =
+          "Unable to deserialize ScalableBloomFilter from InputStream."
+              + " initialExpectedInsertions: "
+              + initialExpectedInsertions
+              + " fpp: "
+              + fpp
+              + " numFilters: "
+              + numFilters;
+      throw new IOException(message, e);
+    }
+  }
+
+  private static final long serialVersionUID = 1;
+}
@@ -20,6 +20,7 @@
 package com.google.common.hash;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
 
 import com.google.errorprone.annotations.Immutable;
 import java.io.Serializable;
@@ -78,6 +79,87 @@ final class SipHashFunction extends AbstractHashFunction implements Serializable
 
   // TODO(kak): Implement and benchmark the hashFoo() shortcuts.
 
+  @Override
+  public long hashToLong(long input) {
+    return hashToLong(null, null, input, 0, Long.BYTES);
+  }
+
+  @Override
+  public long hashToLong(byte[] input, int off, int len) {
+    checkPositionIndexes(off, off + len, input.length);
+    return hashToLong(input, null, 0, off, len);
+  }
+
+  @Override
+  public long hashToLong(ByteBuffer input) {
+    int position = input.position();
+    int len = input.remaining();
+    long hash =
+        input.hasArray()
+            ? hashToLong(input.array(), null, 0, input.arrayOffset() + position, len)
+            : hashToLong(null, input, 0, position, len);
+    Java8Compatibility.position(input, input.limit());
+    return hash;
+  }
+
+  /**
+   * Computes the hash of {@code len} bytes of {@code array} or {@code buffer}, or if both are null,
+   * of the 8 bytes of {@code word}, like {@link SipHasher}, but without buffering the input.
+   */
+  private long hashToLong(
+      @CheckForNull byte[] array, @CheckForNull ByteBuffer buffer, long word, int off, int len) {
+    long v0 = 0x736f6d6570736575L ^ k0;
+    long v1 = 0x646f72616e646f6dL ^ k1;
+    long v2 = 0x6c7967656e657261L ^ k0;
+    long v3 = 0x7465646279746573L ^ k1;
+    int words = len / 8;
+    // one compression per whole word and one for the final word, and then the finalization
+    for (int i = 0; i <= words + 1; i++) {
+      long m = 0;
+      int rounds;
+      if (i <= words) {
+        int offset = off + i * 8;
+        if (i < words) {
+          m =
+              array != null
+                  ? LittleEndianByteArray.load64(array, offset)
+                  : buffer != null ? LittleEndianByteArray.load64(buffer, offset) : word;
+        } else {
+          if (array != null) {
+            m = LittleEndianByteArray.load64Safely(array, offset, len - offset + off);
+          } else if (buffer != null) {
+            m = LittleEndianByteArray.load64Safely(buffer, offset, len - offset + off);
+          }
+          m ^= (long) len << 56;
+        }
+        v3 ^= m;
+        rounds = c;
+      } else {
+        v2 ^= 0xFFL;
+        rounds = d;
+      }
+      // see SipHasher.sipRound
+      for (int j = 0; j < rounds; j++) {
+        v0 += v1;
+        v2 += v3;
+        v1 = Long.rotateLeft(v1, 13);
+        v3 = Long.rotateLeft(v3, 16);
+        v1 ^= v0;
+        v3 ^= v2;
+        v0 = Long.rotateLeft(v0, 32);
+        v2 += v1;
+        v0 += v3;
+        v1 = Long.rotateLeft(v1, 17);
+        v3 = Long.rotateLeft(v3, 21);
+        v1 ^= v2;
+        v3 ^= v0;
+        v2 = Long.rotateLeft(v2, 32);
+      }
+      v0 ^= m;
+    }
+    return v0 ^ v1 ^ v2 ^ v3;
+  }
+
   @Override
   public String toString() {
     return "Hashing.sipHash" + c + "" + d + "(" + k0 + ", " + k1 + ")";
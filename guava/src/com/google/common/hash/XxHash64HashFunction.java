@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+/*
+ * xxHash was written by Yann Collet, and is released under the BSD 2-Clause License.
+ *
+ * Source:
+ * https://github.com/Cyan4973/xxHash/blob/dev/doc/xxhash_spec.md
+ * (Modified to adapt to Guava coding conventions and to use the HashFunction interface)
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static com.google.common.hash.LittleEndianByteArray.load32;
+import static com.google.common.hash.LittleEndianByteArray.load64;
+
+import com.google.errorprone.annotations.Immutable;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import javax.annotation.CheckForNull;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.signedness.qual.UnknownSignedness;
+
+/**
+ * See XXH64 in <a href="https://github.com/Cyan4973/xxHash/blob/dev/doc/xxhash_spec.md">the xxHash
+ * specification</a>.
+ *
+ * <p>Like {@link FarmHashFingerprint64}, this relies on signed arithmetic being bit-wise equivalent
+ * to unsigned arithmetic, except that right shifts must be unsigned.
+ */
+@Immutable
+@ElementTypesAreNonnullByDefault
+final class XxHash64HashFunction extends AbstractHashFunction implements Serializable {
+  static final HashFunction XXHASH_64 = new XxHash64HashFunction(0);
+
+  private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+  private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long PRIME64_3 = 0x165667B19E3779F9L;
+  private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+  private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+  /** The number of bytes consumed by each round of the four accumulators. */
+  private static final int STRIPE_LENGTH = 32;
+
+  private final long seed;
+
+  XxHash64HashFunction(long seed) {
+    this.seed = seed;
+  }
+
+  @Override
+  public @NonNegative int bits() {
+    return 64;
+  }
+
+  @Override
+  public Hasher newHasher() {
+    return new XxHash64Hasher(seed);
+  }
+
+  @Override
+  public HashCode hashBytes(byte[] input, int off, int len) {
+    checkPositionIndexes(off, off + len, input.length);
+    return HashCode.fromLong(hash(input, off, len, seed));
+  }
+
+  @Override
+  public long hashToLong(long input) {
+    long h = seed + PRIME64_5 + Long.BYTES;
+    h = mixLong(h, input);
+    return avalanche(h);
+  }
+
+  @Override
+  public long hashToLong(byte[] input, int off, int len) {
+    checkPositionIndexes(off, off + len, input.length);
+    return hash(input, off, len, seed);
+  }
+
+  static long hash(byte[] input, int off, int len, long seed) {
+    int end = off + len;
+    long h;
+    if (len >= STRIPE_LENGTH) {
+      long v1 = seed + PRIME64_1 + PRIME64_2;
+      long v2 = seed + PRIME64_2;
+      long v3 = seed;
+      long v4 = seed - PRIME64_1;
+      for (; off <= end - STRIPE_LENGTH; off += STRIPE_LENGTH) {
+        v1 = round(v1, load64(input, off));
+        v2 = round(v2, load64(input, off + 8));
+        v3 = round(v3, load64(input, off + 16));
+        v4 = round(v4, load64(input, off + 24));
+      }
+      h = converge(v1, v2, v3, v4);
+    } else {
+      h = seed + PRIME64_5;
+    }
+    h += len;
+
+    for (; off <= end - 8; off += 8) {
+      h = mixLong(h, load64(input, off));
+    }
+    if (off <= end - 4) {
+      h = mixInt(h, load32(input, off));
+      off += 4;
+    }
+    for (; off < end; off++) {
+      h = mixByte(h, input[off]);
+    }
+    return avalanche(h);
+  }
+
+  private static long round(long acc, long input) {
+    acc += input * PRIME64_2;
+    acc = Long.rotateLeft(acc, 31);
+    return acc * PRIME64_1;
+  }
+
+  private static long mergeRound(long acc, long v) {
+    acc ^= round(0, v);
+    return acc * PRIME64_1 + PRIME64_4;
+  }
+
+  private static long converge(long v1, long v2, long v3, long v4) {
+    long h =
+        Long.rotateLeft(v1, 1)
+            + Long.rotateLeft(v2, 7)
+            + Long.rotateLeft(v3, 12)
+            + Long.rotateLeft(v4, 18);
+    h = mergeRound(h, v1);
+    h = mergeRound(h, v2);
+    h = mergeRound(h, v3);
+    return mergeRound(h, v4);
+  }
+
+  private static long mixLong(long h, long k) {
+    h ^= round(0, k);
+    return Long.rotateLeft(h, 27) * PRIME64_1 + PRIME64_4;
+  }
+
+  private static long mixInt(long h, int k) {
+    h ^= (k & 0xFFFFFFFFL) * PRIME64_1;
+    return Long.rotateLeft(h, 23) * PRIME64_2 + PRIME64_3;
+  }
+
+  private static long mixByte(long h, byte k) {
+    h ^= (k & 0xFFL) * PRIME64_5;
+    return Long.rotateLeft(h, 11) * PRIME64_1;
+  }
+
+  private static long avalanche(long h) {
+    h ^= h >>> 33;
+    h *= PRIME64_2;
+    h ^= h >>> 29;
+    h *= PRIME64_3;
+    return h ^ (h >>> 32);
+  }
+
+  @Override
+  public String toString() {
+    return "Hashing.xxHash64(" + seed + ")";
+  }
+
+  @Override
+  public boolean equals(@CheckForNull Object object) {
+    if (object instanceof XxHash64HashFunction) {
+      XxHash64HashFunction other = (XxHash64HashFunction) object;
+      return seed == other.seed;
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode(@UnknownSignedness XxHash64HashFunction this) {
+    return getClass().hashCode() ^ Long.hashCode(seed);
+  }
+
+  private static final class XxHash64Hasher extends AbstractStreamingHasher {
+    private final long seed;
+    private long v1;
+    private long v2;
+    private long v3;
+    private long v4;
+    private long length;
+
+    /** The hash before its final avalanche, if {@link #processRemaining} has computed it. */
+    private long h;
+
+    private boolean remainingProcessed;
+
+    XxHash64Hasher(long seed) {
+      super(STRIPE_LENGTH);
+      this.seed = seed;
+      this.v1 = seed + PRIME64_1 + PRIME64_2;
+      this.v2 = seed + PRIME64_2;
+      this.v3 = seed;
+      this.v4 = seed - PRIME64_1;
+    }
+
+    @Override
+    protected void process(ByteBuffer bb) {
+      v1 = round(v1, bb.getLong());
+      v2 = round(v2, bb.getLong());
+      v3 = round(v3, bb.getLong());
+      v4 = round(v4, bb.getLong());
+      length += STRIPE_LENGTH;
+    }
+
+    @Override
+    protected void processRemaining(ByteBuffer bb) {
+      length += bb.remaining();
+      h = convergeWithLength();
+      while (bb.remaining() >= 8) {
+        h = mixLong(h, bb.getLong());
+      }
+      if (bb.remaining() >= 4) {
+        h = mixInt(h, bb.getInt());
+      }
+      while (bb.hasRemaining()) {
+        h = mixByte(h, bb.get());
+      }
+      remainingProcessed = true;
+    }
+
+    private long convergeWithLength() {
+      long h = length >= STRIPE_LENGTH ? converge(v1, v2, v3, v4) : seed + PRIME64_5;
+      return h + length;
+    }
+
+    @Override
+    protected HashCode makeHash() {
+      return HashCode.fromLong(avalanche(remainingProcessed ? h : convergeWithLength()));
+    }
+  }
+
+  private static final long serialVersionUID = 0L;
+}
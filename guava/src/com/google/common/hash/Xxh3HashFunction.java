@@ -0,0 +1,633 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+/*
+ * xxHash was written by Yann Collet, and is released under the BSD 2-Clause License.
+ *
+ * Source:
+ * https://github.com/Cyan4973/xxHash/blob/dev/doc/xxhash_spec.md
+ * (Modified to adapt to Guava coding conventions and to use the HashFunction interface)
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static com.google.common.hash.LittleEndianByteArray.load32;
+import static com.google.common.hash.LittleEndianByteArray.load64;
+
+import com.google.common.io.BaseEncoding;
+import com.google.errorprone.annotations.Immutable;
+import java.io.Serializable;
+import javax.annotation.CheckForNull;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.signedness.qual.UnknownSignedness;
+
+/**
+ * See XXH3_64bits and XXH3_128bits in <a
+ * href="https://github.com/Cyan4973/xxHash/blob/dev/doc/xxhash_spec.md">the xxHash
+ * specification</a>. Both use a seed of zero and the default secret.
+ *
+ * <p>Inputs of up to 240 bytes are hashed by dedicated routines for their length, which read the
+ * whole input at once. Longer inputs are consumed in 64-byte stripes by eight accumulators, which
+ * are scrambled after every block of 16 stripes. The last stripe always ends with the last byte of
+ * input, so it may overlap the stripe before it, and {@link Xxh3Hasher} holds back the final bytes
+ * it is given until the hash is requested.
+ *
+ * <p>Like {@link FarmHashFingerprint64}, this relies on signed arithmetic being bit-wise equivalent
+ * to unsigned arithmetic, except that right shifts must be unsigned.
+ */
+@Immutable
+@ElementTypesAreNonnullByDefault
+final class Xxh3HashFunction extends AbstractHashFunction implements Serializable {
+  static final HashFunction XXH3_64 = new Xxh3HashFunction(64);
+  static final HashFunction XXH3_128 = new Xxh3HashFunction(128);
+
+  private static final long PRIME32_1 = 0x9E3779B1L;
+  private static final long PRIME32_2 = 0x85EBCA77L;
+  private static final long PRIME32_3 = 0xC2B2AE3DL;
+  private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+  private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long PRIME64_3 = 0x165667B19E3779F9L;
+  private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+  private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+  private static final long PRIME_MX1 = 0x165667919E3779F9L;
+  private static final long PRIME_MX2 = 0x9FB21C651E98DF25L;
+
+  /** The default secret, from which every length of input reads its keys. */
+  private static final byte[] SECRET =
+      BaseEncoding.base16()
+          .lowerCase()
+          .decode(
+              "b8fe6c3923a44bbe7c01812cf721ad1cded46de9839097db7240a4a4b7b3671f"
+                  + "cb79e64eccc0e578825ad07dccff7221b8084674f743248ee03590e6813a264c"
+                  + "3c2852bb91c300cb88d0658b1b532ea371644897a20df94e3819ef46a9deacd8"
+                  + "a8fa763fe39c343ff9dcbbc7c70b4f1d8a51e04bcdb45931c89f7ec9d9787364"
+                  + "eac5ac8334d3ebc3c581a0fffa1363eb170ddd51b7f0da49d316552629d4689e"
+                  + "2b16be587d47a1fc8ff8b8d17ad031ce45cb3a8f95160428afd7fbcabb4b407e");
+
+  private static final int MIDSIZE_MAX = 240;
+  private static final int STRIPE_LENGTH = 64;
+  private static final int STRIPES_PER_BLOCK = (SECRET.length - STRIPE_LENGTH) / 8;
+  private static final int SCRAMBLE_SECRET_OFFSET = SECRET.length - STRIPE_LENGTH;
+  private static final int MERGE_SECRET_OFFSET = 11;
+
+  /**
+   * The secret read as little-endian longs. Stripe {@code i} of a block uses words {@code i} to
+   * {@code i + 7}; reading them from here, rather than from {@link #SECRET}, makes hashing long
+   * inputs about half as fast again.
+   */
+  private static final long[] STRIPE_KEYS = readKeys(0, SECRET.length / 8);
+
+  /** The keys for the last stripe, which reads the secret 7 bytes before its last stripe's keys. */
+  private static final long[] LAST_STRIPE_KEYS =
+      readKeys(SECRET.length - STRIPE_LENGTH - 7, STRIPE_LENGTH / 8);
+
+  private static long[] readKeys(int secretOffset, int count) {
+    long[] keys = new long[count];
+    for (int i = 0; i < count; i++) {
+      keys[i] = load64(SECRET, secretOffset + 8 * i);
+    }
+    return keys;
+  }
+
+  private final int bits;
+
+  private Xxh3HashFunction(int bits) {
+    this.bits = bits;
+  }
+
+  @Override
+  public @NonNegative int bits() {
+    return bits;
+  }
+
+  @Override
+  public Hasher newHasher() {
+    return new Xxh3Hasher(bits);
+  }
+
+  @Override
+  public HashCode hashBytes(byte[] input, int off, int len) {
+    checkPositionIndexes(off, off + len, input.length);
+    return bits == 64 ? HashCode.fromLong(hash64(input, off, len)) : hash128(input, off, len);
+  }
+
+  @Override
+  public long hashToLong(long input) {
+    if (bits != 64) {
+      return super.hashToLong(input);
+    }
+    // hash64Length4To8, reading the little-endian halves of the input
+    long bitflip = load64(SECRET, 8) ^ load64(SECRET, 16);
+    return rrmxmx(Long.rotateLeft(input, 32) ^ bitflip, Long.BYTES);
+  }
+
+  @Override
+  public long hashToLong(byte[] input, int off, int len) {
+    if (bits != 64) {
+      return super.hashToLong(input, off, len);
+    }
+    checkPositionIndexes(off, off + len, input.length);
+    return hash64(input, off, len);
+  }
+
+  @Override
+  public String toString() {
+    return "Hashing.xxh3_" + bits + "()";
+  }
+
+  @Override
+  public boolean equals(@CheckForNull Object object) {
+    if (object instanceof Xxh3HashFunction) {
+      Xxh3HashFunction other = (Xxh3HashFunction) object;
+      return bits == other.bits;
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode(@UnknownSignedness Xxh3HashFunction this) {
+    return getClass().hashCode() ^ bits;
+  }
+
+  // 64-bit hashes
+
+  static long hash64(byte[] input, int off, int len) {
+    if (len <= 16) {
+      if (len > 8) {
+        return hash64Length9To16(input, off, len);
+      } else if (len >= 4) {
+        return hash64Length4To8(input, off, len);
+      } else if (len > 0) {
+        return hash64Length1To3(input, off, len);
+      } else {
+        return xxh64Avalanche(load64(SECRET, 56) ^ load64(SECRET, 64));
+      }
+    } else if (len <= 128) {
+      return hash64Length17To128(input, off, len);
+    } else if (len <= MIDSIZE_MAX) {
+      return hash64Length129To240(input, off, len);
+    } else {
+      return merge64(accumulateLong(input, off, len), len);
+    }
+  }
+
+  private static long hash64Length1To3(byte[] input, int off, int len) {
+    long bitflip = (load32(SECRET, 0) ^ load32(SECRET, 4)) & 0xFFFFFFFFL;
+    return xxh64Avalanche((combine1To3(input, off, len) & 0xFFFFFFFFL) ^ bitflip);
+  }
+
+  private static long hash64Length4To8(byte[] input, int off, int len) {
+    long input1 = load32(input, off) & 0xFFFFFFFFL;
+    long input2 = load32(input, off + len - 4) & 0xFFFFFFFFL;
+    long bitflip = load64(SECRET, 8) ^ load64(SECRET, 16);
+    return rrmxmx((input2 + (input1 << 32)) ^ bitflip, len);
+  }
+
+  private static long hash64Length9To16(byte[] input, int off, int len) {
+    long inputLo = load64(input, off) ^ load64(SECRET, 24) ^ load64(SECRET, 32);
+    long inputHi = load64(input, off + len - 8) ^ load64(SECRET, 40) ^ load64(SECRET, 48);
+    long acc = len + Long.reverseBytes(inputLo) + inputHi + multiplyFold64(inputLo, inputHi);
+    return xxh3Avalanche(acc);
+  }
+
+  private static long hash64Length17To128(byte[] input, int off, int len) {
+    long acc = len * PRIME64_1;
+    if (len > 32) {
+      if (len > 64) {
+        if (len > 96) {
+          acc += mix16Bytes(input, off + 48, 96);
+          acc += mix16Bytes(input, off + len - 64, 112);
+        }
+        acc += mix16Bytes(input, off + 32, 64);
+        acc += mix16Bytes(input, off + len - 48, 80);
+      }
+      acc += mix16Bytes(input, off + 16, 32);
+      acc += mix16Bytes(input, off + len - 32, 48);
+    }
+    acc += mix16Bytes(input, off, 0);
+    acc += mix16Bytes(input, off + len - 16, 16);
+    return xxh3Avalanche(acc);
+  }
+
+  private static long hash64Length129To240(byte[] input, int off, int len) {
+    long acc = len * PRIME64_1;
+    int rounds = len / 16;
+    for (int i = 0; i < 8; i++) {
+      acc += mix16Bytes(input, off + 16 * i, 16 * i);
+    }
+    acc = xxh3Avalanche(acc);
+    for (int i = 8; i < rounds; i++) {
+      acc += mix16Bytes(input, off + 16 * i, 16 * (i - 8) + 3);
+    }
+    acc += mix16Bytes(input, off + len - 16, 136 - 17);
+    return xxh3Avalanche(acc);
+  }
+
+  private static long merge64(long[] acc, long len) {
+    return mergeAccumulators(acc, MERGE_SECRET_OFFSET, len * PRIME64_1);
+  }
+
+  // 128-bit hashes
+
+  static HashCode hash128(byte[] input, int off, int len) {
+    if (len <= 16) {
+      if (len > 8) {
+        return hash128Length9To16(input, off, len);
+      } else if (len >= 4) {
+        return hash128Length4To8(input, off, len);
+      } else if (len > 0) {
+        return hash128Length1To3(input, off, len);
+      } else {
+        return toHashCode(
+            xxh64Avalanche(load64(SECRET, 64) ^ load64(SECRET, 72)),
+            xxh64Avalanche(load64(SECRET, 80) ^ load64(SECRET, 88)));
+      }
+    } else if (len <= 128) {
+      return hash128Length17To128(input, off, len);
+    } else if (len <= MIDSIZE_MAX) {
+      return hash128Length129To240(input, off, len);
+    } else {
+      return merge128(accumulateLong(input, off, len), len);
+    }
+  }
+
+  private static HashCode hash128Length1To3(byte[] input, int off, int len) {
+    int combinedLo = combine1To3(input, off, len);
+    int combinedHi = Integer.rotateLeft(Integer.reverseBytes(combinedLo), 13);
+    long bitflipLo = (load32(SECRET, 0) ^ load32(SECRET, 4)) & 0xFFFFFFFFL;
+    long bitflipHi = (load32(SECRET, 8) ^ load32(SECRET, 12)) & 0xFFFFFFFFL;
+    return toHashCode(
+        xxh64Avalanche((combinedLo & 0xFFFFFFFFL) ^ bitflipLo),
+        xxh64Avalanche((combinedHi & 0xFFFFFFFFL) ^ bitflipHi));
+  }
+
+  private static HashCode hash128Length4To8(byte[] input, int off, int len) {
+    long inputLo = load32(input, off) & 0xFFFFFFFFL;
+    long inputHi = load32(input, off + len - 4) & 0xFFFFFFFFL;
+    long keyed = (inputLo + (inputHi << 32)) ^ load64(SECRET, 16) ^ load64(SECRET, 24);
+    long multiplier = PRIME64_1 + (len << 2);
+    long lo = keyed * multiplier;
+    long hi = multiplyHigh(keyed, multiplier);
+    hi += lo << 1;
+    lo ^= hi >>> 3;
+    lo ^= lo >>> 35;
+    lo *= PRIME_MX2;
+    lo ^= lo >>> 28;
+    return toHashCode(lo, xxh3Avalanche(hi));
+  }
+
+  private static HashCode hash128Length9To16(byte[] input, int off, int len) {
+    long inputLo = load64(input, off);
+    long inputHi = load64(input, off + len - 8);
+    long keyed = inputLo ^ inputHi ^ load64(SECRET, 32) ^ load64(SECRET, 40);
+    long lo = keyed * PRIME64_1;
+    long hi = multiplyHigh(keyed, PRIME64_1);
+    lo += (long) (len - 1) << 54;
+    inputHi ^= load64(SECRET, 48) ^ load64(SECRET, 56);
+    hi += inputHi + (inputHi & 0xFFFFFFFFL) * (PRIME32_2 - 1);
+    lo ^= Long.reverseBytes(hi);
+    long hashLo = lo * PRIME64_2;
+    long hashHi = multiplyHigh(lo, PRIME64_2) + hi * PRIME64_2;
+    return toHashCode(xxh3Avalanche(hashLo), xxh3Avalanche(hashHi));
+  }
+
+  private static HashCode hash128Length17To128(byte[] input, int off, int len) {
+    long accLo = len * PRIME64_1;
+    long accHi = 0;
+    if (len > 32) {
+      if (len > 64) {
+        if (len > 96) {
+          accLo = mix32BytesHalf(accLo, input, off + 48, off + len - 64, 96);
+          accHi = mix32BytesHalf(accHi, input, off + len - 64, off + 48, 96 + 16);
+        }
+        accLo = mix32BytesHalf(accLo, input, off + 32, off + len - 48, 64);
+        accHi = mix32BytesHalf(accHi, input, off + len - 48, off + 32, 64 + 16);
+      }
+      accLo = mix32BytesHalf(accLo, input, off + 16, off + len - 32, 32);
+      accHi = mix32BytesHalf(accHi, input, off + len - 32, off + 16, 32 + 16);
+    }
+    accLo = mix32BytesHalf(accLo, input, off, off + len - 16, 0);
+    accHi = mix32BytesHalf(accHi, input, off + len - 16, off, 16);
+    return finish128(accLo, accHi, len);
+  }
+
+  private static HashCode hash128Length129To240(byte[] input, int off, int len) {
+    long accLo = len * PRIME64_1;
+    long accHi = 0;
+    int rounds = len / 32;
+    for (int i = 0; i < 4; i++) {
+      accLo = mix32BytesHalf(accLo, input, off + 32 * i, off + 32 * i + 16, 32 * i);
+      accHi = mix32BytesHalf(accHi, input, off + 32 * i + 16, off + 32 * i, 32 * i + 16);
+    }
+    accLo = xxh3Avalanche(accLo);
+    accHi = xxh3Avalanche(accHi);
+    for (int i = 4; i < rounds; i++) {
+      int secretOffset = 32 * (i - 4) + 3;
+      accLo = mix32BytesHalf(accLo, input, off + 32 * i, off + 32 * i + 16, secretOffset);
+      accHi = mix32BytesHalf(accHi, input, off + 32 * i + 16, off + 32 * i, secretOffset + 16);
+    }
+    int lastSecretOffset = 136 - 17 - 16;
+    accLo = mix32BytesHalf(accLo, input, off + len - 16, off + len - 32, lastSecretOffset);
+    accHi = mix32BytesHalf(accHi, input, off + len - 32, off + len - 16, lastSecretOffset + 16);
+    return finish128(accLo, accHi, len);
+  }
+
+  private static HashCode finish128(long accLo, long accHi, long len) {
+    long hashLo = accLo + accHi;
+    long hashHi = accLo * PRIME64_1 + accHi * PRIME64_4 + len * PRIME64_2;
+    return toHashCode(xxh3Avalanche(hashLo), -xxh3Avalanche(hashHi));
+  }
+
+  private static HashCode merge128(long[] acc, long len) {
+    return toHashCode(
+        mergeAccumulators(acc, MERGE_SECRET_OFFSET, len * PRIME64_1),
+        mergeAccumulators(acc, SCRAMBLE_SECRET_OFFSET - MERGE_SECRET_OFFSET, ~(len * PRIME64_2)));
+  }
+
+  /**
+   * Returns the hash code whose bytes are the low and then the high 64 bits of the hash, each in
+   * little-endian order, so that {@link HashCode#asLong} returns the low 64 bits.
+   */
+  private static HashCode toHashCode(long lo, long hi) {
+    byte[] bytes = new byte[16];
+    LittleEndianByteArray.store64(bytes, 0, lo);
+    LittleEndianByteArray.store64(bytes, 8, hi);
+    return HashCode.fromBytesNoCopy(bytes);
+  }
+
+  // Inputs longer than MIDSIZE_MAX
+
+  private static long[] newAccumulators() {
+    return new long[] {
+      PRIME32_3, PRIME64_1, PRIME64_2, PRIME64_3, PRIME64_4, PRIME32_2, PRIME64_5, PRIME32_1
+    };
+  }
+
+  private static long[] accumulateLong(byte[] input, int off, int len) {
+    long[] acc = newAccumulators();
+    // every stripe that ends before the last byte, and then the stripe that ends with it
+    int stripes = (len - 1) / STRIPE_LENGTH;
+    for (int stripe = 0; stripe < stripes; ) {
+      int stripeInBlock = stripe % STRIPES_PER_BLOCK;
+      int n = Math.min(stripes - stripe, STRIPES_PER_BLOCK - stripeInBlock);
+      accumulate(acc, input, off + stripe * STRIPE_LENGTH, stripeInBlock, n);
+      stripe += n;
+      if (stripeInBlock + n == STRIPES_PER_BLOCK) {
+        scramble(acc);
+      }
+    }
+    accumulateLastStripe(acc, input, off + len - STRIPE_LENGTH);
+    return acc;
+  }
+
+  /**
+   * Accumulates {@code stripes} consecutive stripes of {@code input}, the first of which is stripe
+   * {@code stripeInBlock} of its block. The accumulators are held in local variables meanwhile,
+   * which is much faster than updating the array.
+   */
+  private static void accumulate(
+      long[] acc, byte[] input, int off, int stripeInBlock, int stripes) {
+    long acc0 = acc[0];
+    long acc1 = acc[1];
+    long acc2 = acc[2];
+    long acc3 = acc[3];
+    long acc4 = acc[4];
+    long acc5 = acc[5];
+    long acc6 = acc[6];
+    long acc7 = acc[7];
+    for (int i = 0, k = stripeInBlock; i < stripes; i++, off += STRIPE_LENGTH, k++) {
+      long value0 = load64(input, off);
+      long value1 = load64(input, off + 8);
+      long value2 = load64(input, off + 16);
+      long value3 = load64(input, off + 24);
+      long value4 = load64(input, off + 32);
+      long value5 = load64(input, off + 40);
+      long value6 = load64(input, off + 48);
+      long value7 = load64(input, off + 56);
+      long key0 = value0 ^ STRIPE_KEYS[k];
+      long key1 = value1 ^ STRIPE_KEYS[k + 1];
+      long key2 = value2 ^ STRIPE_KEYS[k + 2];
+      long key3 = value3 ^ STRIPE_KEYS[k + 3];
+      long key4 = value4 ^ STRIPE_KEYS[k + 4];
+      long key5 = value5 ^ STRIPE_KEYS[k + 5];
+      long key6 = value6 ^ STRIPE_KEYS[k + 6];
+      long key7 = value7 ^ STRIPE_KEYS[k + 7];
+      // each lane adds its neighbour's input, and the product of the halves of its keyed input
+      acc0 += value1 + (key0 & 0xFFFFFFFFL) * (key0 >>> 32);
+      acc1 += value0 + (key1 & 0xFFFFFFFFL) * (key1 >>> 32);
+      acc2 += value3 + (key2 & 0xFFFFFFFFL) * (key2 >>> 32);
+      acc3 += value2 + (key3 & 0xFFFFFFFFL) * (key3 >>> 32);
+      acc4 += value5 + (key4 & 0xFFFFFFFFL) * (key4 >>> 32);
+      acc5 += value4 + (key5 & 0xFFFFFFFFL) * (key5 >>> 32);
+      acc6 += value7 + (key6 & 0xFFFFFFFFL) * (key6 >>> 32);
+      acc7 += value6 + (key7 & 0xFFFFFFFFL) * (key7 >>> 32);
+    }
+    acc[0] = acc0;
+    acc[1] = acc1;
+    acc[2] = acc2;
+    acc[3] = acc3;
+    acc[4] = acc4;
+    acc[5] = acc5;
+    acc[6] = acc6;
+    acc[7] = acc7;
+  }
+
+  private static void accumulateLastStripe(long[] acc, byte[] input, int off) {
+    for (int i = 0; i < 8; i++) {
+      long value = load64(input, off + 8 * i);
+      long key = value ^ LAST_STRIPE_KEYS[i];
+      acc[i ^ 1] += value;
+      acc[i] += (key & 0xFFFFFFFFL) * (key >>> 32);
+    }
+  }
+
+  private static void scramble(long[] acc) {
+    for (int i = 0; i < 8; i++) {
+      long a = acc[i];
+      a ^= a >>> 47;
+      a ^= load64(SECRET, SCRAMBLE_SECRET_OFFSET + 8 * i);
+      acc[i] = a * PRIME32_1;
+    }
+  }
+
+  private static long mergeAccumulators(long[] acc, int secretOffset, long start) {
+    long result = start;
+    for (int i = 0; i < 4; i++) {
+      result +=
+          multiplyFold64(
+              acc[2 * i] ^ load64(SECRET, secretOffset + 16 * i),
+              acc[2 * i + 1] ^ load64(SECRET, secretOffset + 16 * i + 8));
+    }
+    return xxh3Avalanche(result);
+  }
+
+  // Shared primitives
+
+  private static int combine1To3(byte[] input, int off, int len) {
+    int c1 = input[off] & 0xFF;
+    int c2 = input[off + (len >> 1)] & 0xFF;
+    int c3 = input[off + len - 1] & 0xFF;
+    return (c1 << 16) | (c2 << 24) | c3 | (len << 8);
+  }
+
+  private static long mix16Bytes(byte[] input, int off, int secretOffset) {
+    return multiplyFold64(
+        load64(input, off) ^ load64(SECRET, secretOffset),
+        load64(input, off + 8) ^ load64(SECRET, secretOffset + 8));
+  }
+
+  /**
+   * One of the two halves of the reference implementation's mix32B: mixes the 16 bytes at {@code
+   * mixed} into {@code acc}, and then the sum of the 16 bytes at {@code added}.
+   */
+  private static long mix32BytesHalf(
+      long acc, byte[] input, int mixed, int added, int secretOffset) {
+    acc += mix16Bytes(input, mixed, secretOffset);
+    return acc ^ (load64(input, added) + load64(input, added + 8));
+  }
+
+  /** Returns the xor of the high and low 64 bits of the unsigned 128-bit product of a and b. */
+  private static long multiplyFold64(long a, long b) {
+    return (a * b) ^ multiplyHigh(a, b);
+  }
+
+  /** Returns the high 64 bits of the unsigned 128-bit product of a and b. */
+  private static long multiplyHigh(long a, long b) {
+    long aLo = a & 0xFFFFFFFFL;
+    long aHi = a >>> 32;
+    long bLo = b & 0xFFFFFFFFL;
+    long bHi = b >>> 32;
+    long loLo = aLo * bLo;
+    long hiLo = aHi * bLo;
+    long cross = (loLo >>> 32) + (hiLo & 0xFFFFFFFFL) + aLo * bHi;
+    return aHi * bHi + (hiLo >>> 32) + (cross >>> 32);
+  }
+
+  private static long xxh64Avalanche(long h) {
+    h ^= h >>> 33;
+    h *= PRIME64_2;
+    h ^= h >>> 29;
+    h *= PRIME64_3;
+    return h ^ (h >>> 32);
+  }
+
+  private static long xxh3Avalanche(long h) {
+    h ^= h >>> 37;
+    h *= PRIME_MX1;
+    return h ^ (h >>> 32);
+  }
+
+  private static long rrmxmx(long h, long len) {
+    h ^= Long.rotateLeft(h, 49) ^ Long.rotateLeft(h, 24);
+    h *= PRIME_MX2;
+    h ^= (h >>> 35) + len;
+    h *= PRIME_MX2;
+    return h ^ (h >>> 28);
+  }
+
+  /**
+   * Buffers up to {@link #BUFFER_SIZE} bytes, which covers every input short enough to be hashed
+   * at once. Beyond that, it consumes stripes only when more input follows them, since the last
+   * stripe is treated differently, and keeps the latest 64 bytes it has consumed at the end of its
+   * buffer, since the last stripe may overlap them.
+   */
+  private static final class Xxh3Hasher extends AbstractByteHasher {
+    private static final int BUFFER_SIZE = 4 * STRIPE_LENGTH;
+
+    private final int bits;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferedLength;
+    private long totalLength;
+    private final long[] acc = newAccumulators();
+    private int stripesInBlock;
+
+    Xxh3Hasher(int bits) {
+      this.bits = bits;
+    }
+
+    @Override
+    protected void update(byte b) {
+      if (bufferedLength == BUFFER_SIZE) {
+        consumeStripes(buffer, 0, BUFFER_SIZE / STRIPE_LENGTH);
+        bufferedLength = 0;
+      }
+      buffer[bufferedLength++] = b;
+      totalLength++;
+    }
+
+    @Override
+    protected void update(byte[] b, int off, int len) {
+      totalLength += len;
+      if (len <= BUFFER_SIZE - bufferedLength) {
+        System.arraycopy(b, off, buffer, bufferedLength, len);
+        bufferedLength += len;
+        return;
+      }
+      if (bufferedLength > 0) {
+        int fill = BUFFER_SIZE - bufferedLength;
+        System.arraycopy(b, off, buffer, bufferedLength, fill);
+        off += fill;
+        len -= fill;
+        consumeStripes(buffer, 0, BUFFER_SIZE / STRIPE_LENGTH);
+        bufferedLength = 0;
+      }
+      if (len > BUFFER_SIZE) {
+        int stripes = (len - 1) / STRIPE_LENGTH;
+        consumeStripes(b, off, stripes);
+        off += stripes * STRIPE_LENGTH;
+        len -= stripes * STRIPE_LENGTH;
+        System.arraycopy(
+            b, off - STRIPE_LENGTH, buffer, BUFFER_SIZE - STRIPE_LENGTH, STRIPE_LENGTH);
+      }
+      System.arraycopy(b, off, buffer, 0, len);
+      bufferedLength = len;
+    }
+
+    private void consumeStripes(byte[] input, int off, int stripes) {
+      while (stripes > 0) {
+        int n = Math.min(stripes, STRIPES_PER_BLOCK - stripesInBlock);
+        accumulate(acc, input, off, stripesInBlock, n);
+        off += n * STRIPE_LENGTH;
+        stripes -= n;
+        stripesInBlock += n;
+        if (stripesInBlock == STRIPES_PER_BLOCK) {
+          scramble(acc);
+          stripesInBlock = 0;
+        }
+      }
+    }
+
+    @Override
+    public HashCode hash() {
+      if (totalLength <= MIDSIZE_MAX) {
+        int len = (int) totalLength;
+        return bits == 64 ? HashCode.fromLong(hash64(buffer, 0, len)) : hash128(buffer, 0, len);
+      }
+      consumeStripes(buffer, 0, (bufferedLength - 1) / STRIPE_LENGTH);
+      if (bufferedLength >= STRIPE_LENGTH) {
+        accumulateLastStripe(acc, buffer, bufferedLength - STRIPE_LENGTH);
+      } else {
+        byte[] lastStripe = new byte[STRIPE_LENGTH];
+        int catchUp = STRIPE_LENGTH - bufferedLength;
+        System.arraycopy(buffer, BUFFER_SIZE - catchUp, lastStripe, 0, catchUp);
+        System.arraycopy(buffer, 0, lastStripe, catchUp, bufferedLength);
+        accumulateLastStripe(acc, lastStripe, 0);
+      }
+      return bits == 64 ? HashCode.fromLong(merge64(acc, totalLength)) : merge128(acc, totalLength);
+    }
+  }
+
+  private static final long serialVersionUID = 0L;
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.io;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.annotations.J2ktIncompatible;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import com.google.j2objc.annotations.J2ObjCIncompatible;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import javax.annotation.CheckForNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Reads or writes a whole file through an {@link AsynchronousFileChannel}, one chunk per operation,
+ * completing a future when done. No thread waits for the transfer as a whole; each chunk is read or
+ * written by the channel's executor.
+ */
+@J2ktIncompatible
+@GwtIncompatible
+@J2ObjCIncompatible // java.nio.file
+@ElementTypesAreNonnullByDefault
+abstract class AsyncFileTransfer<V extends @Nullable Object>
+    implements CompletionHandler<Integer, @Nullable Void> {
+  /** The most bytes read or written by a single operation. */
+  private static final int CHUNK_SIZE = 1 << 20;
+
+  private static final int MAX_ARRAY_LEN = Integer.MAX_VALUE - 8;
+
+  /**
+   * Reads the whole file at {@code path}, opened with {@code options}, using {@code executor} for
+   * the channel's operations.
+   *
+   * @throws IOException if the file can't be opened
+   * @throws UnsupportedOperationException if the file system doesn't support asynchronous channels
+   *     or one of the options
+   */
+  static ListenableFuture<byte[]> read(
+      Path path, Set<? extends OpenOption> options, ExecutorService executor) throws IOException {
+    return new Read(AsynchronousFileChannel.open(path, options, executor)).start();
+  }
+
+  /**
+   * Writes {@code bytes} to the file at {@code path}, opened with {@code options}, starting at its
+   * first byte and using {@code executor} for the channel's operations.
+   *
+   * @throws IOException if the file can't be opened
+   * @throws UnsupportedOperationException if the file system doesn't support asynchronous channels
+   *     or one of the options
+   */
+  static ListenableFuture<@Nullable Void> write(
+      Path path, Set<? extends OpenOption> options, byte[] bytes, ExecutorService executor)
+      throws IOException {
+    return new Write(AsynchronousFileChannel.open(path, options, executor), bytes).start();
+  }
+
+  final AsynchronousFileChannel channel;
+  private final SettableFuture<V> future = SettableFuture.create();
+
+  /*
+   * An operation may complete on the thread that starts it, before the call that starts it
+   * returns. Rather than starting the next operation from inside that call, which could exhaust the
+   * stack, the completion records that it happened and the starting thread starts the next one.
+   */
+
+  /** Whether a thread is inside {@link #startNext()}. */
+  @GuardedBy("this")
+  private boolean starting;
+
+  /** Whether the operation started by the current call to {@link #startNext()} has completed. */
+  @GuardedBy("this")
+  private boolean completedWhileStarting;
+
+  AsyncFileTransfer(AsynchronousFileChannel channel) {
+    this.channel = channel;
+  }
+
+  /**
+   * Starts the next operation with this object as its handler and returns true, or returns false if
+   * the transfer is done.
+   */
+  abstract boolean startNext() throws IOException;
+
+  /** Records the result of the last operation. */
+  abstract void recordResult(int result);
+
+  /** Returns the value of the future once the transfer is done. */
+  @ParametricNullness
+  abstract V result();
+
+  final ListenableFuture<V> start() {
+    future.addListener(
+        () -> {
+          if (future.isCancelled()) {
+            // Fails the pending operation, if any, with an AsynchronousCloseException.
+            closeQuietly();
+          }
+        },
+        directExecutor());
+    run();
+    return future;
+  }
+
+  private void run() {
+    try {
+      while (!future.isDone()) {
+        synchronized (this) {
+          starting = true;
+          completedWhileStarting = false;
+        }
+        if (!startNext()) {
+          channel.close();
+          future.set(result());
+          return;
+        }
+        synchronized (this) {
+          starting = false;
+          if (!completedWhileStarting) {
+            return;
+          }
+        }
+      }
+    } catch (Throwable t) { // sneaky checked exception
+      fail(t);
+    }
+  }
+
+  @Override
+  public final void completed(Integer result, @Nullable Void attachment) {
+    try {
+      recordResult(result);
+    } catch (Throwable t) { // sneaky checked exception
+      fail(t);
+      return;
+    }
+    synchronized (this) {
+      if (starting) {
+        completedWhileStarting = true;
+        return;
+      }
+    }
+    run();
+  }
+
+  @Override
+  public final void failed(Throwable t, @Nullable Void attachment) {
+    fail(t);
+  }
+
+  private void fail(Throwable t) {
+    closeQuietly();
+    future.setException(t);
+  }
+
+  private void closeQuietly() {
+    try {
+      channel.close();
+    } catch (IOException ignored) {
+      // The transfer has already failed or been cancelled.
+    }
+  }
+
+  private static final class Read extends AsyncFileTransfer<byte[]> {
+    private byte[] buffer;
+    private int count;
+    private boolean endOfFile;
+
+    /**
+     * A one-byte buffer used to check for the end of the file once {@link #buffer} is full, so the
+     * buffer is only grown if the file turns out to be longer than its size said.
+     */
+    @CheckForNull private ByteBuffer probe;
+
+    Read(AsynchronousFileChannel channel) throws IOException {
+      super(channel);
+      long size = channel.size();
+      if (size > MAX_ARRAY_LEN) {
+        channel.close();
+        throw new OutOfMemoryError(size + " bytes is too large to fit in a byte array");
+      }
+      this.buffer = new byte[(int) size];
+    }
+
+    @Override
+    boolean startNext() {
+      if (endOfFile) {
+        return false;
+      }
+      ByteBuffer target;
+      if (count == buffer.length) {
+        target = probe = ByteBuffer.allocate(1);
+      } else {
+        target = ByteBuffer.wrap(buffer, count, min(CHUNK_SIZE, buffer.length - count));
+      }
+      channel.read(target, count, null, this);
+      return true;
+    }
+
+    @Override
+    void recordResult(int result) {
+      ByteBuffer probe = this.probe;
+      this.probe = null;
+      if (result < 0) {
+        endOfFile = true;
+      } else if (probe != null && result > 0) {
+        if (buffer.length == MAX_ARRAY_LEN) {
+          throw new OutOfMemoryError("input is too large to fit in a byte array");
+        }
+        long newLength = buffer.length + max(buffer.length, 8192L);
+        buffer = Arrays.copyOf(buffer, (int) min(newLength, MAX_ARRAY_LEN));
+        buffer[count++] = probe.get(0);
+      } else {
+        count += result;
+      }
+    }
+
+    @Override
+    byte[] result() {
+      return count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+    }
+  }
+
+  private static final class Write extends AsyncFileTransfer<@Nullable Void> {
+    private final byte[] bytes;
+    private int written;
+
+    Write(AsynchronousFileChannel channel, byte[] bytes) {
+      super(channel);
+      this.bytes = bytes;
+    }
+
+    @Override
+    boolean startNext() {
+      if (written == bytes.length) {
+        return false;
+      }
+      ByteBuffer source = ByteBuffer.wrap(bytes, written, min(CHUNK_SIZE, bytes.length - written));
+      channel.write(source, written, null, this);
+      return true;
+    }
+
+    @Override
+    void recordResult(int result) {
+      written += result;
+    }
+
+    @Override
+    @Nullable
+    Void result() {
+      return null;
+    }
+  }
+}
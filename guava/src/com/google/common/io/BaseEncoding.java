@@ -16,6 +16,7 @@ package com.google.common.io;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndex;
 import static com.google.common.base.Preconditions.checkPositionIndexes;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.math.IntMath.divide;
@@ -34,6 +35,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.ReadOnlyBufferException;
 import java.util.Arrays;
 import java.util.Objects;
 import javax.annotation.CheckForNull;
@@ -135,8 +140,6 @@ import org.checkerframework.common.value.qual.MinLen;
 @GwtCompatible(emulated = true)
 @ElementTypesAreNonnullByDefault
 public abstract class BaseEncoding {
-  // TODO(lowasser): consider making encodeTo(Appendable, byte[], int, int) public.
-
   BaseEncoding() {}
 
   /**
@@ -166,13 +169,56 @@ public abstract class BaseEncoding {
    */
   public final String encode(byte[] bytes, @IndexOrHigh("#1") int off, @NonNegative @LTLengthOf(value = "#1", offset = "#2 - 1") int len) {
     checkPositionIndexes(off, off + len, bytes.length);
-    StringBuilder result = new StringBuilder(maxEncodedSize(len));
-    try {
-      encodeTo(result, bytes, off, len);
-    } catch (IOException impossible) {
-      throw new AssertionError(impossible);
+    char[] result = new char[maxEncodedSize(len)];
+    int length = encodeTo(result, 0, bytes, off, len);
+    return new String(result, 0, length);
+  }
+
+  /**
+   * Encodes the remaining bytes of {@code bytes} into {@code target}, advancing the position of
+   * each buffer past the bytes read and the characters written. The bytes are encoded as one
+   * input, so the characters written are padded (if this encoding pads) as {@link #encode(byte[])}
+   * would pad them.
+   *
+   * <p>If {@code bytes} and {@code target} are backed by accessible arrays, and {@code target} has
+   * room for the longest possible encoding of the bytes, the encoding is written straight into the
+   * array of {@code target} without intermediate copies.
+   *
+   * @throws BufferOverflowException if {@code target} has too few characters remaining for the
+   *     encoded bytes; neither buffer is changed
+   * @throws ReadOnlyBufferException if {@code target} is read-only
+   * @since NEXT
+   */
+  @J2ktIncompatible
+  @GwtIncompatible // ByteBuffer,CharBuffer
+  public final void encodeTo(ByteBuffer bytes, CharBuffer target) {
+    checkNotNull(bytes);
+    checkNotNull(target);
+    byte[] array;
+    int off;
+    int len = bytes.remaining();
+    if (bytes.hasArray()) {
+      array = bytes.array();
+      off = bytes.arrayOffset() + bytes.position();
+    } else {
+      array = new byte[len];
+      bytes.duplicate().get(array);
+      off = 0;
+    }
+    int maxLength = maxEncodedSize(len);
+    if (target.hasArray() && target.remaining() >= maxLength) {
+      int start = target.arrayOffset() + target.position();
+      int end = encodeTo(target.array(), start, array, off, len);
+      Java8Compatibility.position(target, target.position() + end - start);
+    } else {
+      char[] result = new char[maxLength];
+      int length = encodeTo(result, 0, array, off, len);
+      if (length > target.remaining()) {
+        throw new BufferOverflowException();
+      }
+      target.put(result, 0, length);
     }
-    return result.toString();
+    Java8Compatibility.position(bytes, bytes.limit());
   }
 
   /**
@@ -244,10 +290,84 @@ public abstract class BaseEncoding {
       throws DecodingException {
     chars = trimTrailingPadding(chars);
     byte[] tmp = new byte[maxDecodedSize(chars.length())];
-    int len = decodeTo(tmp, chars);
+    int len = decodeTo(tmp, 0, chars);
     return extract(tmp, len);
   }
 
+  /**
+   * Decodes the specified character sequence into {@code target}, starting at index {@code off},
+   * and returns the number of bytes written. This is the inverse operation to {@link
+   * #encode(byte[])}, without allocating an array for the result.
+   *
+   * <p>If the input is not a valid encoded string, bytes of {@code target} from {@code off} on may
+   * have been overwritten by the time the exception is thrown.
+   *
+   * @throws IllegalArgumentException if the input is not a valid encoded string according to this
+   *     encoding.
+   * @throws IndexOutOfBoundsException if {@code off} is negative or greater than {@code
+   *     target.length}, or if the decoded bytes don't fit in {@code target} after {@code off}; in
+   *     the latter case {@code target} is not changed
+   * @since NEXT
+   */
+  public final @NonNegative int decodeTo(CharSequence chars, byte[] target, @NonNegative int off) {
+    checkNotNull(chars);
+    checkNotNull(target);
+    checkPositionIndex(off, target.length);
+    chars = trimTrailingPadding(chars);
+    try {
+      if (maxDecodedSize(chars.length()) <= target.length - off) {
+        return decodeTo(target, off, chars);
+      }
+      byte[] decoded = decodeChecked(chars);
+      checkPositionIndexes(off, off + decoded.length, target.length);
+      System.arraycopy(decoded, 0, target, off, decoded.length);
+      return decoded.length;
+    } catch (DecodingException badInput) {
+      throw new IllegalArgumentException(badInput);
+    }
+  }
+
+  /**
+   * Decodes the remaining characters of {@code chars} into {@code target}, advancing the position
+   * of each buffer past the characters read and the bytes written. The characters are decoded as
+   * one encoded string, as by {@link #decode(CharSequence)}.
+   *
+   * <p>If {@code target} is backed by an accessible array with room for the longest possible
+   * decoding of the characters, the bytes are written straight into that array without
+   * intermediate copies.
+   *
+   * @throws IllegalArgumentException if the input is not a valid encoded string according to this
+   *     encoding; the positions of the buffers are not changed, but bytes of {@code target} after
+   *     its position may have been overwritten
+   * @throws BufferOverflowException if {@code target} has too few bytes remaining for the decoded
+   *     bytes; neither buffer is changed
+   * @throws ReadOnlyBufferException if {@code target} is read-only
+   * @since NEXT
+   */
+  @J2ktIncompatible
+  @GwtIncompatible // ByteBuffer,CharBuffer
+  public final void decodeTo(CharBuffer chars, ByteBuffer target) {
+    checkNotNull(chars);
+    checkNotNull(target);
+    CharSequence trimmed = trimTrailingPadding(chars);
+    try {
+      if (target.hasArray() && maxDecodedSize(trimmed.length()) <= target.remaining()) {
+        int written =
+            decodeTo(target.array(), target.arrayOffset() + target.position(), trimmed);
+        Java8Compatibility.position(target, target.position() + written);
+      } else {
+        byte[] decoded = decodeChecked(trimmed);
+        if (decoded.length > target.remaining()) {
+          throw new BufferOverflowException();
+        }
+        target.put(decoded);
+      }
+    } catch (DecodingException badInput) {
+      throw new IllegalArgumentException(badInput);
+    }
+    Java8Compatibility.position(chars, chars.limit());
+  }
+
   /**
    * Returns an {@code InputStream} that decodes base-encoded input from the specified {@code
    * Reader}. The returned stream throws a {@link DecodingException} upon decoding-specific errors.
@@ -276,11 +396,21 @@ public abstract class BaseEncoding {
 
   abstract @NonNegative int maxEncodedSize(@NonNegative int bytes);
 
-  abstract void encodeTo(Appendable target, byte[] bytes, @IndexOrHigh("#2") int off, @NonNegative @LTLengthOf(value = "#2", offset = "#3 - 1") int len) throws IOException;
+  /**
+   * Encodes {@code len} bytes of {@code bytes}, starting at {@code off}, into {@code target},
+   * starting at {@code pos}, and returns the index after the last character written. {@code target}
+   * must have room for {@link #maxEncodedSize maxEncodedSize(len)} characters after {@code pos}.
+   */
+  abstract @NonNegative int encodeTo(char[] target, @NonNegative int pos, byte[] bytes, @IndexOrHigh("#3") int off, @NonNegative @LTLengthOf(value = "#3", offset = "#4 - 1") int len);
 
   abstract @NonNegative int maxDecodedSize(@NonNegative int chars);
 
-  abstract @IndexFor("#1") int decodeTo(byte[] target, CharSequence chars) throws DecodingException;
+  /**
+   * Decodes {@code chars} into {@code target}, starting at {@code off}, and returns the number of
+   * bytes written. {@code target} must have room for {@link #maxDecodedSize maxDecodedSize} of the
+   * length of {@code chars} after {@code off}.
+   */
+  abstract @NonNegative int decodeTo(byte[] target, @NonNegative int off, CharSequence chars) throws DecodingException;
 
   CharSequence trimTrailingPadding(CharSequence chars) {
     return checkNotNull(chars);
@@ -694,15 +824,28 @@ public abstract class BaseEncoding {
     }
 
     @Override
-    void encodeTo(Appendable target, byte[] bytes, @IndexOrHigh("#2") int off, @NonNegative @LTLengthOf(value = "#2", offset = "#3 - 1") int len) throws IOException {
+    @NonNegative int encodeTo(char[] target, @NonNegative int pos, byte[] bytes, @IndexOrHigh("#3") int off, @NonNegative @LTLengthOf(value = "#3", offset = "#4 - 1") int len) {
       checkNotNull(target);
       checkPositionIndexes(off, off + len, bytes.length);
-      for (int i = 0; i < len; i += alphabet.bytesPerChunk) {
-        encodeChunkTo(target, bytes, off + i, Math.min(alphabet.bytesPerChunk, len - i));
+      int bitsPerChar = alphabet.bitsPerChar;
+      int bytesPerChunk = alphabet.bytesPerChunk;
+      int firstShift = (alphabet.charsPerChunk - 1) * bitsPerChar;
+      int end = off + len;
+      int i = off;
+      // Whole chunks need no padding: read each into a long, then split it into characters.
+      for (; end - i >= bytesPerChunk; i += bytesPerChunk) {
+        long chunk = 0;
+        for (int j = 0; j < bytesPerChunk; j++) {
+          chunk = chunk << 8 | (bytes[i + j] & 0xFF);
+        }
+        for (int shift = firstShift; shift >= 0; shift -= bitsPerChar) {
+          target[pos++] = alphabet.encode((int) (chunk >>> shift) & alphabet.mask);
+        }
       }
+      return i < end ? encodeChunkTo(target, pos, bytes, i, end - i) : pos;
     }
 
-    void encodeChunkTo(Appendable target, byte[] bytes, @IndexOrHigh("#2") int off, @NonNegative @LTLengthOf(value = "#2", offset = "#3 - 1") int len) throws IOException {
+    @NonNegative int encodeChunkTo(char[] target, @NonNegative int pos, byte[] bytes, @IndexOrHigh("#3") int off, @NonNegative @LTLengthOf(value = "#3", offset = "#4 - 1") int len) {
       checkNotNull(target);
       checkPositionIndexes(off, off + len, bytes.length);
       checkArgument(len <= alphabet.bytesPerChunk);
@@ -716,20 +859,24 @@ public abstract class BaseEncoding {
       int bitsProcessed = 0;
       while (bitsProcessed < len * 8) {
         @IndexFor("alphabet.chars") int charIndex = (int) (bitBuffer >>> (bitOffset - bitsProcessed)) & alphabet.mask;
-        target.append(alphabet.encode(charIndex));
+        target[pos++] = alphabet.encode(charIndex);
         bitsProcessed += alphabet.bitsPerChar;
       }
       if (paddingChar != null) {
         while (bitsProcessed < alphabet.bytesPerChunk * 8) {
-          target.append(paddingChar.charValue());
+          target[pos++] = paddingChar.charValue();
           bitsProcessed += alphabet.bitsPerChar;
         }
       }
+      return pos;
     }
 
     @Override
     @NonNegative int maxDecodedSize(@NonNegative int chars) {
-      return (int) ((alphabet.bitsPerChar * (long) chars + 7L) / 8L);
+      // Rounds down, since the bits after the last whole byte are padding. This is exact for the
+      // input lengths that decodeTo accepts, so decodeChecked can return the array it decoded into
+      // rather than a copy.
+      return (int) ((alphabet.bitsPerChar * (long) chars) / 8L);
     }
 
     @Override
@@ -764,14 +911,37 @@ public abstract class BaseEncoding {
     }
 
     @Override
-    @IndexFor("#1") int decodeTo(byte[] target, CharSequence chars) throws DecodingException {
+    @NonNegative int decodeTo(byte[] target, @NonNegative int off, CharSequence chars) throws DecodingException {
       checkNotNull(target);
       chars = trimTrailingPadding(chars);
       if (!alphabet.isValidPaddingStartPosition(chars.length())) {
         throw new DecodingException("Invalid input length " + chars.length());
       }
-      int bytesWritten = 0;
-      for (int charIdx = 0; charIdx < chars.length(); charIdx += alphabet.charsPerChunk) {
+      int bitsPerChar = alphabet.bitsPerChar;
+      int charsPerChunk = alphabet.charsPerChunk;
+      int firstShift = (alphabet.bytesPerChunk - 1) * 8;
+      int bytesWritten = off;
+      int charIdx = 0;
+      // Decodes whole chunks with one table lookup per character, checking once per chunk whether
+      // any character was invalid. The loop below decodes the rest, and reports invalid characters.
+      for (; chars.length() - charIdx >= charsPerChunk; charIdx += charsPerChunk) {
+        long chunk = 0;
+        int invalid = 0;
+        for (int i = 0; i < charsPerChunk; i++) {
+          char c = chars.charAt(charIdx + i);
+          int bits = alphabet.decodabet[c & Ascii.MAX];
+          // Nonzero beyond the low 7 bits if c isn't ASCII or isn't in the alphabet.
+          invalid |= c | bits;
+          chunk = chunk << bitsPerChar | bits;
+        }
+        if ((invalid & ~Ascii.MAX) != 0) {
+          break;
+        }
+        for (int shift = firstShift; shift >= 0; shift -= 8) {
+          target[bytesWritten++] = (byte) (chunk >>> shift);
+        }
+      }
+      for (; charIdx < chars.length(); charIdx += alphabet.charsPerChunk) {
         long chunk = 0;
         int charsProcessed = 0;
         for (int i = 0; i < alphabet.charsPerChunk; i++) {
@@ -785,7 +955,7 @@ public abstract class BaseEncoding {
           target[bytesWritten++] = (byte) ((chunk >>> offset) & 0xFF);
         }
       }
-      return bytesWritten;
+      return bytesWritten - off;
     }
 
     @Override
@@ -978,28 +1148,38 @@ public abstract class BaseEncoding {
     }
 
     @Override
-    void encodeTo(Appendable target, byte[] bytes, @IndexOrHigh("#2") int off, @NonNegative @LTLengthOf(value = "#2", offset = "#3 - 1") int len) throws IOException {
+    @NonNegative int encodeTo(char[] target, @NonNegative int pos, byte[] bytes, @IndexOrHigh("#3") int off, @NonNegative @LTLengthOf(value = "#3", offset = "#4 - 1") int len) {
       checkNotNull(target);
       checkPositionIndexes(off, off + len, bytes.length);
       for (int i = 0; i < len; ++i) {
         int b = bytes[off + i] & 0xFF;
-        target.append(encoding[b]);
-        target.append(encoding[b | 0x100]);
+        target[pos++] = encoding[b];
+        target[pos++] = encoding[b | 0x100];
       }
+      return pos;
     }
 
     @Override
-    @IndexFor("#1") int decodeTo(byte[] target, CharSequence chars) throws DecodingException {
+    @NonNegative int decodeTo(byte[] target, @NonNegative int off, CharSequence chars) throws DecodingException {
       checkNotNull(target);
       if (chars.length() % 2 == 1) {
         throw new DecodingException("Invalid input length " + chars.length());
       }
-      int bytesWritten = 0;
+      byte[] decodabet = alphabet.decodabet;
+      int bytesWritten = off;
       for (int i = 0; i < chars.length(); i += 2) {
-        int decoded = alphabet.decode(chars.charAt(i)) << 4 | alphabet.decode(chars.charAt(i + 1));
-        target[bytesWritten++] = (byte) decoded;
+        char c1 = chars.charAt(i);
+        char c2 = chars.charAt(i + 1);
+        int hi = decodabet[c1 & Ascii.MAX];
+        int lo = decodabet[c2 & Ascii.MAX];
+        if (((c1 | c2 | hi | lo) & ~Ascii.MAX) != 0) {
+          // Not ASCII, or not in the alphabet; decode the characters again to report which.
+          hi = alphabet.decode(c1);
+          lo = alphabet.decode(c2);
+        }
+        target[bytesWritten++] = (byte) (hi << 4 | lo);
       }
-      return bytesWritten;
+      return bytesWritten - off;
     }
 
     @Override
@@ -1019,31 +1199,52 @@ public abstract class BaseEncoding {
     }
 
     @Override
-    void encodeTo(Appendable target, byte[] bytes, @IndexOrHigh("#2") int off, @NonNegative @LTLengthOf(value = "#2", offset = "#3 - 1") int len) throws IOException {
+    @NonNegative int encodeTo(char[] target, @NonNegative int pos, byte[] bytes, @IndexOrHigh("#3") int off, @NonNegative @LTLengthOf(value = "#3", offset = "#4 - 1") int len) {
       checkNotNull(target);
       checkPositionIndexes(off, off + len, bytes.length);
+      char[] chars = alphabet.chars;
       int i = off;
       for (int remaining = len; remaining >= 3; remaining -= 3) {
         int chunk = (bytes[i++] & 0xFF) << 16 | (bytes[i++] & 0xFF) << 8 | bytes[i++] & 0xFF;
-        target.append(alphabet.encode(chunk >>> 18));
-        target.append(alphabet.encode((chunk >>> 12) & 0x3F));
-        target.append(alphabet.encode((chunk >>> 6) & 0x3F));
-        target.append(alphabet.encode(chunk & 0x3F));
-      }
-      if (i < off + len) {
-        encodeChunkTo(target, bytes, i, off + len - i);
+        target[pos++] = chars[chunk >>> 18];
+        target[pos++] = chars[(chunk >>> 12) & 0x3F];
+        target[pos++] = chars[(chunk >>> 6) & 0x3F];
+        target[pos++] = chars[chunk & 0x3F];
       }
+      return i < off + len ? encodeChunkTo(target, pos, bytes, i, off + len - i) : pos;
     }
 
     @Override
-    @IndexFor("#1") int decodeTo(byte[] target, CharSequence chars) throws DecodingException {
+    @NonNegative int decodeTo(byte[] target, @NonNegative int off, CharSequence chars) throws DecodingException {
       checkNotNull(target);
       chars = trimTrailingPadding(chars);
       if (!alphabet.isValidPaddingStartPosition(chars.length())) {
         throw new DecodingException("Invalid input length " + chars.length());
       }
-      int bytesWritten = 0;
-      for (int i = 0; i < chars.length(); ) {
+      byte[] decodabet = alphabet.decodabet;
+      int bytesWritten = off;
+      int i = 0;
+      // Decodes whole chunks of four characters, checking once per chunk whether any was invalid;
+      // the loop below decodes the rest, and reports invalid characters.
+      for (; chars.length() - i >= 4; i += 4) {
+        char c1 = chars.charAt(i);
+        char c2 = chars.charAt(i + 1);
+        char c3 = chars.charAt(i + 2);
+        char c4 = chars.charAt(i + 3);
+        int chunk =
+            decodabet[c1 & Ascii.MAX] << 18
+                | decodabet[c2 & Ascii.MAX] << 12
+                | decodabet[c3 & Ascii.MAX] << 6
+                | decodabet[c4 & Ascii.MAX];
+        // An invalid character makes chunk negative, or is itself outside ASCII.
+        if (chunk < 0 || ((c1 | c2 | c3 | c4) & ~Ascii.MAX) != 0) {
+          break;
+        }
+        target[bytesWritten++] = (byte) (chunk >>> 16);
+        target[bytesWritten++] = (byte) (chunk >>> 8);
+        target[bytesWritten++] = (byte) chunk;
+      }
+      while (i < chars.length()) {
         int chunk = alphabet.decode(chars.charAt(i++)) << 18;
         chunk |= alphabet.decode(chars.charAt(i++)) << 12;
         target[bytesWritten++] = (byte) (chunk >>> 16);
@@ -1056,7 +1257,7 @@ public abstract class BaseEncoding {
           }
         }
       }
-      return bytesWritten;
+      return bytesWritten - off;
     }
 
     @Override
@@ -1184,8 +1385,20 @@ public abstract class BaseEncoding {
     }
 
     @Override
-    void encodeTo(Appendable target, byte[] bytes, @IndexOrHigh("#2") int off, @NonNegative @LTLengthOf(value = "#2", offset = "#3 - 1") int len) throws IOException {
-      delegate.encodeTo(separatingAppendable(target, separator, afterEveryChars), bytes, off, len);
+    @NonNegative int encodeTo(char[] target, @NonNegative int pos, byte[] bytes, @IndexOrHigh("#3") int off, @NonNegative @LTLengthOf(value = "#3", offset = "#4 - 1") int len) {
+      checkNotNull(target);
+      char[] unseparated = new char[delegate.maxEncodedSize(len)];
+      int length = delegate.encodeTo(unseparated, 0, bytes, off, len);
+      for (int i = 0; i < length; i += afterEveryChars) {
+        if (i > 0) {
+          separator.getChars(0, separator.length(), target, pos);
+          pos += separator.length();
+        }
+        int run = Math.min(afterEveryChars, length - i);
+        System.arraycopy(unseparated, i, target, pos, run);
+        pos += run;
+      }
+      return pos;
     }
 
     @Override
@@ -1206,7 +1419,7 @@ public abstract class BaseEncoding {
     }
 
     @Override
-    @IndexFor("#1") int decodeTo(byte[] target, CharSequence chars) throws DecodingException {
+    @NonNegative int decodeTo(byte[] target, @NonNegative int off, CharSequence chars) throws DecodingException {
       StringBuilder stripped = new StringBuilder(chars.length());
       for (int i = 0; i < chars.length(); i++) {
         char c = chars.charAt(i);
@@ -1214,7 +1427,7 @@ public abstract class BaseEncoding {
           stripped.append(c);
         }
       }
-      return delegate.decodeTo(target, stripped);
+      return delegate.decodeTo(target, off, stripped);
     }
 
     @Override
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.io;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.annotations.J2ktIncompatible;
+import com.google.common.annotations.VisibleForTesting;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import javax.annotation.CheckForNull;
+
+/**
+ * Supplies the scratch buffers that {@link ByteStreams} and {@link CharStreams} use while copying.
+ * Every buffer that is acquired should be released, in a {@code finally} block, once the caller is
+ * done with it. A released buffer must not be used again, and callers must not rely on the
+ * contents of a newly acquired buffer.
+ *
+ * <p>The pool is chosen once, from the {@code guava.io.buffer_pool} system property:
+ *
+ * <ul>
+ *   <li>{@code none} (the default): every acquisition allocates a new buffer, and releasing does
+ *       nothing. Allocating a short-lived buffer is cheap, so this is the right choice for most
+ *       programs.
+ *   <li>{@code thread_local}: each thread keeps one buffer of each kind and reuses it for its next
+ *       copy. This removes the allocations from programs that make many small copies, at the cost
+ *       of keeping the buffers alive for as long as the threads that used them.
+ *   <li>{@code thread_local_direct}: like {@code thread_local}, but the {@link ByteBuffer} used to
+ *       copy between channels is a direct buffer, which channels can read and write without an
+ *       extra copy.
+ * </ul>
+ *
+ * <p>Pooled buffers are zeroed when they are released, so the streams and processors they are
+ * passed to never see bytes left over from earlier copies on the same thread. Those callers must
+ * still not keep a reference to the buffer after the call it was passed to returns.
+ */
+@J2ktIncompatible
+@GwtIncompatible
+@ElementTypesAreNonnullByDefault
+abstract class BufferPool {
+  private static final BufferPool INSTANCE;
+
+  static {
+    // System.getProperty may throw if the security policy does not permit access.
+    String name;
+    try {
+      name = System.getProperty("guava.io.buffer_pool", "none");
+    } catch (SecurityException e) {
+      name = "none";
+    }
+    INSTANCE = forName(name);
+  }
+
+  /** Returns the pool selected by the {@code guava.io.buffer_pool} system property. */
+  static BufferPool instance() {
+    return INSTANCE;
+  }
+
+  @VisibleForTesting
+  static BufferPool forName(String name) {
+    switch (name) {
+      case "thread_local":
+        return new ThreadLocalPool(false);
+      case "thread_local_direct":
+        return new ThreadLocalPool(true);
+      default:
+        return new AllocatingPool();
+    }
+  }
+
+  /** Returns a byte array of length {@link ByteStreams#BUFFER_SIZE}. */
+  abstract byte[] acquireBytes();
+
+  abstract void releaseBytes(byte[] buffer);
+
+  /** Returns a char array of length {@link CharStreams#DEFAULT_BUF_SIZE}. */
+  abstract char[] acquireChars();
+
+  abstract void releaseChars(char[] buffer);
+
+  /** Returns a cleared byte buffer of capacity {@link ByteStreams#BUFFER_SIZE}. */
+  abstract ByteBuffer acquireByteBuffer();
+
+  abstract void releaseByteBuffer(ByteBuffer buffer);
+
+  private static final class AllocatingPool extends BufferPool {
+    @Override
+    byte[] acquireBytes() {
+      return ByteStreams.createBuffer();
+    }
+
+    @Override
+    void releaseBytes(byte[] buffer) {
+      checkNotNull(buffer);
+    }
+
+    @Override
+    char[] acquireChars() {
+      return new char[CharStreams.DEFAULT_BUF_SIZE];
+    }
+
+    @Override
+    void releaseChars(char[] buffer) {
+      checkNotNull(buffer);
+    }
+
+    @Override
+    ByteBuffer acquireByteBuffer() {
+      return ByteBuffer.wrap(ByteStreams.createBuffer());
+    }
+
+    @Override
+    void releaseByteBuffer(ByteBuffer buffer) {
+      checkNotNull(buffer);
+    }
+  }
+
+  /**
+   * Keeps one buffer of each kind per thread. A buffer is removed from its thread's slot while it
+   * is in use, so a copy that starts another copy on the same thread (from a stream's {@code read}
+   * method, say) allocates a new buffer rather than sharing the one in use.
+   */
+  private static final class ThreadLocalPool extends BufferPool {
+    private static final class Slots {
+      @CheckForNull byte[] bytes;
+      @CheckForNull char[] chars;
+      @CheckForNull ByteBuffer byteBuffer;
+    }
+
+    private final boolean direct;
+
+    private final ThreadLocal<Slots> slots =
+        new ThreadLocal<Slots>() {
+          @Override
+          protected Slots initialValue() {
+            return new Slots();
+          }
+        };
+
+    ThreadLocalPool(boolean direct) {
+      this.direct = direct;
+    }
+
+    @Override
+    byte[] acquireBytes() {
+      Slots slots = this.slots.get();
+      byte[] buffer = slots.bytes;
+      if (buffer == null) {
+        return ByteStreams.createBuffer();
+      }
+      slots.bytes = null;
+      return buffer;
+    }
+
+    @Override
+    void releaseBytes(byte[] buffer) {
+      Arrays.fill(buffer, (byte) 0);
+      slots.get().bytes = buffer;
+    }
+
+    @Override
+    char[] acquireChars() {
+      Slots slots = this.slots.get();
+      char[] buffer = slots.chars;
+      if (buffer == null) {
+        return new char[CharStreams.DEFAULT_BUF_SIZE];
+      }
+      slots.chars = null;
+      return buffer;
+    }
+
+    @Override
+    void releaseChars(char[] buffer) {
+      Arrays.fill(buffer, '\0');
+      slots.get().chars = buffer;
+    }
+
+    @Override
+    ByteBuffer acquireByteBuffer() {
+      Slots slots = this.slots.get();
+      ByteBuffer buffer = slots.byteBuffer;
+      if (buffer == null) {
+        return direct
+            ? ByteBuffer.allocateDirect(ByteStreams.BUFFER_SIZE)
+            : ByteBuffer.allocate(ByteStreams.BUFFER_SIZE);
+      }
+      slots.byteBuffer = null;
+      Java8Compatibility.clear(buffer);
+      return buffer;
+    }
+
+    @Override
+    void releaseByteBuffer(ByteBuffer buffer) {
+      int capacity = buffer.capacity();
+      int i = 0;
+      for (; i + Long.BYTES <= capacity; i += Long.BYTES) {
+        buffer.putLong(i, 0);
+      }
+      for (; i < capacity; i++) {
+        buffer.put(i, (byte) 0);
+      }
+      slots.get().byteBuffer = buffer;
+    }
+  }
+}
@@ -41,6 +41,8 @@ public interface ByteProcessor<T extends @Nullable Object> {
   /**
    * This method will be called for each chunk of bytes in an input stream. The implementation
    * should process the bytes from {@code buf[off]} through {@code buf[off + len - 1]} (inclusive).
+   * The array may be reused once this method returns, so the implementation must copy any bytes it
+   * needs later rather than keep a reference to {@code buf}.
    *
    * @param buf the byte array containing the data to process
    * @param off the initial offset into the array
@@ -18,6 +18,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.annotations.GwtIncompatible;
 import com.google.common.annotations.J2ktIncompatible;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
@@ -25,7 +27,11 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.util.concurrent.Executor;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * A destination to which bytes can be written, such as a file. Unlike an {@link OutputStream}, a
@@ -91,6 +97,20 @@ public abstract class ByteSink {
         : new BufferedOutputStream(out);
   }
 
+  /**
+   * Opens a new {@link WritableByteChannel} for writing to this sink. File-backed byte sources
+   * transfer their contents into this channel when {@linkplain ByteSource#copyTo(ByteSink) copying}
+   * to this sink, so the operating system can copy bytes between files without passing them through
+   * the Java heap.
+   *
+   * <p>The default implementation adapts {@link #openStream()}. {@link Channels#newChannel} returns
+   * the {@link java.nio.channels.FileChannel} of a {@link java.io.FileOutputStream} as is, so
+   * sinks whose streams are file streams need not override this method.
+   */
+  WritableByteChannel openChannel() throws IOException {
+    return Channels.newChannel(openStream());
+  }
+
   /**
    * Writes all the given bytes to this sink.
    *
@@ -111,6 +131,31 @@ public abstract class ByteSink {
     }
   }
 
+  /**
+   * Returns a future for writing all the given bytes to this sink without blocking the calling
+   * thread. The future fails with the {@code IOException} if an I/O error occurs while writing to
+   * this sink. {@code bytes} must not be modified until the future is done.
+   *
+   * <p>The default implementation {@linkplain #write(byte[]) writes} the bytes in a task run on
+   * {@code executor}; cancelling the future before the task starts prevents the write. Sinks
+   * returned by {@link MoreFiles#asByteSink} instead write their file through an {@link
+   * java.nio.channels.AsynchronousFileChannel} when {@code executor} is an {@link
+   * java.util.concurrent.ExecutorService}: the bytes are written in chunks, and no thread is held
+   * for the whole write.
+   *
+   * @since NEXT
+   */
+  public ListenableFuture<@Nullable Void> writeAsync(byte[] bytes, Executor executor) {
+    checkNotNull(bytes);
+    checkNotNull(executor);
+    return Futures.submit(
+        () -> {
+          write(bytes);
+          return null;
+        },
+        executor);
+  }
+
   /**
    * Writes all the bytes from the given {@code InputStream} to this sink. Does not close {@code
    * input}.
@@ -16,6 +16,8 @@ package com.google.common.io;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.io.ByteStreams.createBuffer;
 import static com.google.common.io.ByteStreams.skipUpTo;
 
@@ -28,18 +30,29 @@ import com.google.common.hash.Funnels;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.math.LongMath;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.Reader;
+import java.math.RoundingMode;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import org.checkerframework.checker.index.qual.IndexOrHigh;
 import org.checkerframework.checker.index.qual.LTLengthOf;
 import org.checkerframework.checker.index.qual.NonNegative;
@@ -288,6 +301,23 @@ public abstract class ByteSource {
     }
   }
 
+  /**
+   * Returns a future for {@linkplain #copyTo(ByteSink) copying} the contents of this byte source to
+   * the given {@code ByteSink} in a task run on {@code executor}. The future fails with the {@code
+   * IOException} if an I/O error occurs while reading from this source or writing to {@code sink}.
+   *
+   * <p>Cancelling the future before the task starts prevents the copy; cancelling it later may not
+   * stop the copy.
+   *
+   * @return a future for the number of bytes copied
+   * @since NEXT
+   */
+  public ListenableFuture<Long> copyToAsync(ByteSink sink, Executor executor) {
+    checkNotNull(sink);
+    checkNotNull(executor);
+    return Futures.submit(() -> copyTo(sink), executor);
+  }
+
   /**
    * Reads the full contents of this byte source as a byte array.
    *
@@ -308,6 +338,25 @@ public abstract class ByteSource {
     }
   }
 
+  /**
+   * Returns a future for the full contents of this byte source as a byte array, read without
+   * blocking the calling thread. The future fails with the {@code IOException} if an I/O error
+   * occurs while reading from this source.
+   *
+   * <p>The default implementation {@linkplain #read() reads} this source in a task run on {@code
+   * executor}; cancelling the future before the task starts prevents the read. Sources returned by
+   * {@link MoreFiles#asByteSource} instead read their file through an {@link
+   * java.nio.channels.AsynchronousFileChannel} when {@code executor} is an {@link
+   * java.util.concurrent.ExecutorService}: the file is read in chunks, and no thread is held for
+   * the whole read.
+   *
+   * @since NEXT
+   */
+  public ListenableFuture<byte[]> readAsync(Executor executor) {
+    checkNotNull(executor);
+    return Futures.submit(() -> read(), executor);
+  }
+
   /**
    * Reads the contents of this byte source using the given {@code processor} to process bytes as
    * they are read. Stops when all bytes have been read or the consumer returns {@code false}.
@@ -344,6 +393,85 @@ public abstract class ByteSource {
     return hasher.hash();
   }
 
+  /**
+   * Hashes the contents of this byte source in chunks of {@code chunkSize} bytes, which are hashed
+   * concurrently by tasks run on {@code executor}.
+   *
+   * <p>The result is a tree hash of depth one: this source is split into consecutive chunks of
+   * {@code chunkSize} bytes, the last of which may be shorter, each chunk is hashed with {@code
+   * hashFunction}, and the hash codes of the chunks are combined in order with {@link
+   * Hashing#combineOrdered}. An empty source is a single, empty chunk. So the result depends on
+   * {@code chunkSize}, and equals {@link #hash hash(hashFunction)} when this source is no longer
+   * than one chunk. Because {@code combineOrdered} is not a cryptographic combination, the result
+   * should not be relied on to detect deliberate tampering, even if {@code hashFunction} is
+   * cryptographic.
+   *
+   * <p>This method first determines the {@linkplain #size() size} of this source, and then reads
+   * each chunk from a {@linkplain #slice slice} of it, so it is efficient only for sources whose
+   * size is known and whose streams can skip cheaply, like those returned by {@link
+   * Files#asByteSource} and {@link MoreFiles#asByteSource}. The calling thread waits for all the
+   * chunks to be hashed.
+   *
+   * @param chunkSize the number of bytes in each chunk; must be positive
+   * @param executor the executor that runs the task that hashes each chunk
+   * @throws IllegalArgumentException if {@code chunkSize} is not positive, or so small that this
+   *     source has more than {@link Integer#MAX_VALUE} chunks
+   * @throws IOException if an I/O error occurs while reading from this source
+   * @since NEXT
+   */
+  public HashCode hashParallel(HashFunction hashFunction, long chunkSize, Executor executor)
+      throws IOException {
+    checkNotNull(hashFunction);
+    checkArgument(chunkSize > 0, "chunkSize (%s) must be positive", chunkSize);
+    checkNotNull(executor);
+
+    long size = size();
+    long chunks = Math.max(1, LongMath.divide(size, chunkSize, RoundingMode.CEILING));
+    checkArgument(
+        chunks <= Integer.MAX_VALUE,
+        "chunkSize (%s) is too small for a source of %s bytes",
+        chunkSize,
+        size);
+    if (chunks == 1) {
+      // combineOrdered of a single hash code is that hash code
+      return hash(hashFunction);
+    }
+
+    List<FutureTask<HashCode>> tasks = new ArrayList<>((int) chunks);
+    try {
+      for (long offset = 0; offset < size; offset += chunkSize) {
+        ByteSource chunk = slice(offset, chunkSize);
+        FutureTask<HashCode> task = new FutureTask<>(() -> chunk.hash(hashFunction));
+        tasks.add(task);
+        executor.execute(task);
+      }
+      List<HashCode> hashCodes = new ArrayList<>(tasks.size());
+      for (FutureTask<HashCode> task : tasks) {
+        hashCodes.add(getChunkHash(task));
+      }
+      return Hashing.combineOrdered(hashCodes);
+    } finally {
+      // if a chunk failed, or this thread was interrupted, don't hash the chunks that are left
+      for (FutureTask<HashCode> task : tasks) {
+        task.cancel(false);
+      }
+    }
+  }
+
+  private static HashCode getChunkHash(FutureTask<HashCode> task) throws IOException {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while waiting for chunks to be hashed");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      throwIfInstanceOf(cause, IOException.class);
+      throwIfUnchecked(cause);
+      throw new IOException(cause);
+    }
+  }
+
   /**
    * Checks that the contents of this byte source are equal to the contents of the given byte
    * source.
@@ -32,6 +32,8 @@ import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -67,7 +69,7 @@ import org.checkerframework.framework.qual.AnnotatedFor;
 @ElementTypesAreNonnullByDefault
 public final class ByteStreams {
 
-  private static final int BUFFER_SIZE = 8192;
+  static final int BUFFER_SIZE = 8192;
 
   /** Creates a new byte array for buffering reads or writes. */
   static byte[] createBuffer() {
@@ -109,6 +111,11 @@ public final class ByteStreams {
    * Copies all bytes from the input stream to the output stream. Does not close or flush either
    * stream.
    *
+   * <p>If {@code from} is a {@link FileInputStream} and {@code to} is a {@link FileOutputStream}
+   * (and neither is a subclass), the bytes are copied between their channels as by {@link
+   * #copy(ReadableByteChannel, WritableByteChannel)}, which lets the operating system copy them
+   * without passing them through the Java heap.
+   *
    * <p><b>Java 9 users and later:</b> this method should be treated as deprecated; use the
    * equivalent {@link InputStream#transferTo} method instead.
    *
@@ -121,17 +128,26 @@ public final class ByteStreams {
   public static long copy(InputStream from, OutputStream to) throws IOException {
     checkNotNull(from);
     checkNotNull(to);
-    byte[] buf = createBuffer();
-    long total = 0;
-    while (true) {
-      int r = from.read(buf);
-      if (r == -1) {
-        break;
+    // Subclasses may override read or write, which copying between the channels would bypass.
+    if (from.getClass() == FileInputStream.class && to.getClass() == FileOutputStream.class) {
+      return copy(((FileInputStream) from).getChannel(), ((FileOutputStream) to).getChannel());
+    }
+    BufferPool pool = BufferPool.instance();
+    byte[] buf = pool.acquireBytes();
+    try {
+      long total = 0;
+      while (true) {
+        int r = from.read(buf);
+        if (r == -1) {
+          break;
+        }
+        to.write(buf, 0, r);
+        total += r;
       }
-      to.write(buf, 0, r);
-      total += r;
+      return total;
+    } finally {
+      pool.releaseBytes(buf);
     }
-    return total;
   }
 
   /**
@@ -147,7 +163,9 @@ public final class ByteStreams {
   public static long copy(ReadableByteChannel from, WritableByteChannel to) throws IOException {
     checkNotNull(from);
     checkNotNull(to);
-    if (from instanceof FileChannel) {
+    // Pipes and some files, such as those in procfs, report a size of 0 even when they have
+    // content. Those can't be copied by transferTo, which stops at the reported size.
+    if (from instanceof FileChannel && ((FileChannel) from).size() > 0) {
       FileChannel sourceChannel = (FileChannel) from;
       long oldPosition = sourceChannel.position();
       long position = oldPosition;
@@ -160,16 +178,21 @@ public final class ByteStreams {
       return position - oldPosition;
     }
 
-    ByteBuffer buf = ByteBuffer.wrap(createBuffer());
-    long total = 0;
-    while (from.read(buf) != -1) {
-      Java8Compatibility.flip(buf);
-      while (buf.hasRemaining()) {
-        total += to.write(buf);
+    BufferPool pool = BufferPool.instance();
+    ByteBuffer buf = pool.acquireByteBuffer();
+    try {
+      long total = 0;
+      while (from.read(buf) != -1) {
+        Java8Compatibility.flip(buf);
+        while (buf.hasRemaining()) {
+          total += to.write(buf);
+        }
+        Java8Compatibility.clear(buf);
       }
-      Java8Compatibility.clear(buf);
+      return total;
+    } finally {
+      pool.releaseByteBuffer(buf);
     }
-    return total;
   }
 
   /** Max array length on JVM. */
@@ -301,9 +324,14 @@ public final class ByteStreams {
   public static @NonNegative long exhaust(InputStream in) throws IOException {
     long total = 0;
     long read;
-    byte[] buf = createBuffer();
-    while ((read = in.read(buf)) != -1) {
-      total += read;
+    BufferPool pool = BufferPool.instance();
+    byte[] buf = pool.acquireBytes();
+    try {
+      while ((read = in.read(buf)) != -1) {
+        total += read;
+      }
+    } finally {
+      pool.releaseBytes(buf);
     }
     return total;
   }
@@ -883,6 +911,10 @@ public final class ByteStreams {
   /**
    * Process the bytes of the given input stream using the given processor.
    *
+   * <p>The stream and the processor are passed a buffer which may be reused by later calls on the
+   * same thread (if the {@code guava.io.buffer_pool} system property enables pooling), so they
+   * must not keep a reference to it once the call it was passed to returns.
+   *
    * @param input the input stream to process
    * @param processor the object to which to pass the bytes of the stream
    * @return the result of the byte processor
@@ -896,11 +928,16 @@ public final class ByteStreams {
     checkNotNull(input);
     checkNotNull(processor);
 
-    byte[] buf = createBuffer();
-    int read;
-    do {
-      read = input.read(buf);
-    } while (read != -1 && processor.processBytes(buf, 0, read));
+    BufferPool pool = BufferPool.instance();
+    byte[] buf = pool.acquireBytes();
+    try {
+      int read;
+      do {
+        read = input.read(buf);
+      } while (read != -1 && processor.processBytes(buf, 0, read));
+    } finally {
+      pool.releaseBytes(buf);
+    }
     return processor.getResult();
   }
 
@@ -52,7 +52,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 public final class CharStreams {
 
   // 2K chars (4K bytes)
-  private static final int DEFAULT_BUF_SIZE = 0x800;
+  static final int DEFAULT_BUF_SIZE = 0x800;
 
   /** Creates a new {@code CharBuffer} for buffering reads or writes. */
   static CharBuffer createBuffer() {
@@ -86,12 +86,18 @@ public final class CharStreams {
     checkNotNull(from);
     checkNotNull(to);
     long total = 0;
-    CharBuffer buf = createBuffer();
-    while (from.read(buf) != -1) {
-      Java8Compatibility.flip(buf);
-      to.append(buf);
-      total += buf.remaining();
-      Java8Compatibility.clear(buf);
+    BufferPool pool = BufferPool.instance();
+    char[] chars = pool.acquireChars();
+    try {
+      CharBuffer buf = CharBuffer.wrap(chars);
+      while (from.read(buf) != -1) {
+        Java8Compatibility.flip(buf);
+        to.append(buf);
+        total += buf.remaining();
+        Java8Compatibility.clear(buf);
+      }
+    } finally {
+      pool.releaseChars(chars);
     }
     return total;
   }
@@ -118,14 +124,19 @@ public final class CharStreams {
   static long copyReaderToBuilder(Reader from, StringBuilder to) throws IOException {
     checkNotNull(from);
     checkNotNull(to);
-    char[] buf = new char[DEFAULT_BUF_SIZE];
-    int nRead;
-    long total = 0;
-    while ((nRead = from.read(buf)) != -1) {
-      to.append(buf, 0, nRead);
-      total += nRead;
+    BufferPool pool = BufferPool.instance();
+    char[] buf = pool.acquireChars();
+    try {
+      int nRead;
+      long total = 0;
+      while ((nRead = from.read(buf)) != -1) {
+        to.append(buf, 0, nRead);
+        total += nRead;
+      }
+      return total;
+    } finally {
+      pool.releaseChars(buf);
     }
-    return total;
   }
 
   /**
@@ -146,14 +157,19 @@ public final class CharStreams {
   static long copyReaderToWriter(Reader from, Writer to) throws IOException {
     checkNotNull(from);
     checkNotNull(to);
-    char[] buf = new char[DEFAULT_BUF_SIZE];
-    int nRead;
-    long total = 0;
-    while ((nRead = from.read(buf)) != -1) {
-      to.write(buf, 0, nRead);
-      total += nRead;
+    BufferPool pool = BufferPool.instance();
+    char[] buf = pool.acquireChars();
+    try {
+      int nRead;
+      long total = 0;
+      while ((nRead = from.read(buf)) != -1) {
+        to.write(buf, 0, nRead);
+        total += nRead;
+      }
+      return total;
+    } finally {
+      pool.releaseChars(buf);
     }
-    return total;
   }
 
   /**
@@ -243,10 +259,16 @@ public final class CharStreams {
   public static long exhaust(Readable readable) throws IOException {
     long total = 0;
     long read;
-    CharBuffer buf = createBuffer();
-    while ((read = readable.read(buf)) != -1) {
-      total += read;
-      Java8Compatibility.clear(buf);
+    BufferPool pool = BufferPool.instance();
+    char[] chars = pool.acquireChars();
+    try {
+      CharBuffer buf = CharBuffer.wrap(chars);
+      while ((read = readable.read(buf)) != -1) {
+        total += read;
+        Java8Compatibility.clear(buf);
+      }
+    } finally {
+      pool.releaseChars(chars);
     }
     return total;
   }
@@ -49,6 +49,7 @@ import java.io.RandomAccessFile;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -166,6 +167,22 @@ public final class Files {
       }
     }
 
+    @Override
+    public long copyTo(ByteSink sink) throws IOException {
+      checkNotNull(sink);
+
+      Closer closer = Closer.create();
+      try {
+        FileInputStream in = closer.register(openStream());
+        WritableByteChannel out = closer.register(sink.openChannel());
+        return ByteStreams.copy(in.getChannel(), out);
+      } catch (Throwable e) {
+        throw closer.rethrow(e);
+      } finally {
+        closer.close();
+      }
+    }
+
     @Override
     public String toString() {
       return "Files.asByteSource(" + file + ")";
@@ -0,0 +1,318 @@
+/*
+ * Copyright (C) 2026 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static java.lang.Math.min;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.annotations.J2ktIncompatible;
+import com.google.common.base.Optional;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.j2objc.annotations.J2ObjCIncompatible;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import javax.annotation.CheckForNull;
+import org.checkerframework.checker.index.qual.NonNegative;
+
+/**
+ * A {@link ByteSource} that reads a region of a file through read-only memory mappings of at most
+ * {@code windowSize} bytes each, so that files of any size can be read. See {@link
+ * MoreFiles#asMappedByteSource(Path)}.
+ */
+@J2ktIncompatible
+@GwtIncompatible
+@J2ObjCIncompatible // java.nio.file
+@ElementTypesAreNonnullByDefault
+final class MappedByteSource extends ByteSource {
+  /** The largest number of bytes mapped at once, by default. */
+  static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+  private final Path path;
+  private final long offset;
+  private final long length;
+  private final long windowSize;
+
+  MappedByteSource(Path path, long offset, long length, long windowSize) {
+    checkArgument(offset >= 0, "offset (%s) may not be negative", offset);
+    checkArgument(length >= 0, "length (%s) may not be negative", length);
+    checkArgument(
+        windowSize > 0 && windowSize <= Integer.MAX_VALUE,
+        "windowSize (%s) must be in [1, Integer.MAX_VALUE]",
+        windowSize);
+    this.path = checkNotNull(path);
+    this.offset = offset;
+    this.length = length;
+    this.windowSize = windowSize;
+  }
+
+  /** Receives the windows of a source in order. */
+  private interface WindowProcessor {
+    void process(ByteBuffer window) throws IOException;
+  }
+
+  private FileChannel openChannel() throws IOException {
+    return FileChannel.open(path, StandardOpenOption.READ);
+  }
+
+  /** Returns the end of this source's region of a file of the given size. */
+  private long end(long fileSize) {
+    if (offset >= fileSize) {
+      return offset;
+    }
+    return length >= fileSize - offset ? fileSize : offset + length;
+  }
+
+  /** Maps the region of this source window by window, passing each window to the processor. */
+  private void forEachWindow(WindowProcessor processor) throws IOException {
+    try (FileChannel channel = openChannel()) {
+      long end = end(channel.size());
+      for (long position = offset; position < end; position += windowSize) {
+        long size = min(windowSize, end - position);
+        processor.process(channel.map(MapMode.READ_ONLY, position, size));
+      }
+    }
+  }
+
+  @Override
+  public InputStream openStream() throws IOException {
+    FileChannel channel = openChannel();
+    try {
+      return new MappedInputStream(channel, offset, end(channel.size()), windowSize);
+    } catch (Throwable e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public Optional<@NonNegative Long> sizeIfKnown() {
+    try {
+      return Optional.of(size());
+    } catch (IOException e) {
+      return Optional.absent();
+    }
+  }
+
+  @Override
+  public @NonNegative long size() throws IOException {
+    BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+    if (!attrs.isRegularFile()) {
+      throw new IOException("can't map: not a regular file");
+    }
+    return end(attrs.size()) - offset;
+  }
+
+  @Override
+  public ByteSource slice(@NonNegative long offset, @NonNegative long length) {
+    checkArgument(offset >= 0, "offset (%s) may not be negative", offset);
+    checkArgument(length >= 0, "length (%s) may not be negative", length);
+    long maxLength = this.length - offset;
+    return maxLength <= 0
+        ? ByteSource.empty()
+        : new MappedByteSource(path, this.offset + offset, min(length, maxLength), windowSize);
+  }
+
+  @Override
+  public byte[] read() throws IOException {
+    try (FileChannel channel = openChannel()) {
+      long end = end(channel.size());
+      if (end - offset > Integer.MAX_VALUE - 8) {
+        throw new OutOfMemoryError(end - offset + " bytes is too large to fit in a byte array");
+      }
+      byte[] result = new byte[(int) (end - offset)];
+      for (long position = offset; position < end; position += windowSize) {
+        int size = (int) min(windowSize, end - position);
+        channel.map(MapMode.READ_ONLY, position, size).get(result, (int) (position - offset), size);
+      }
+      return result;
+    }
+  }
+
+  @Override
+  public long copyTo(OutputStream output) throws IOException {
+    checkNotNull(output);
+    // Don't close this channel; closing it would close the stream.
+    return writeTo(Channels.newChannel(output));
+  }
+
+  @Override
+  public long copyTo(ByteSink sink) throws IOException {
+    checkNotNull(sink);
+    try (WritableByteChannel out = sink.openChannel()) {
+      return writeTo(out);
+    }
+  }
+
+  private long writeTo(WritableByteChannel out) throws IOException {
+    long[] written = {0};
+    forEachWindow(
+        window -> {
+          while (window.hasRemaining()) {
+            written[0] += out.write(window);
+          }
+        });
+    return written[0];
+  }
+
+  @Override
+  public HashCode hash(HashFunction hashFunction) throws IOException {
+    checkNotNull(hashFunction);
+    Hasher hasher = hashFunction.newHasher();
+    forEachWindow(hasher::putBytes);
+    return hasher.hash();
+  }
+
+  @Override
+  public boolean contentEquals(ByteSource other) throws IOException {
+    checkNotNull(other);
+    if (!(other instanceof MappedByteSource)) {
+      return super.contentEquals(other);
+    }
+    MappedByteSource that = (MappedByteSource) other;
+    try (FileChannel thisChannel = openChannel();
+        FileChannel thatChannel = that.openChannel()) {
+      long size = end(thisChannel.size()) - offset;
+      if (size != that.end(thatChannel.size()) - that.offset) {
+        return false;
+      }
+      for (long position = 0; position < size; position += windowSize) {
+        long windowLength = min(windowSize, size - position);
+        ByteBuffer thisWindow =
+            thisChannel.map(MapMode.READ_ONLY, offset + position, windowLength);
+        ByteBuffer thatWindow =
+            thatChannel.map(MapMode.READ_ONLY, that.offset + position, windowLength);
+        if (!thisWindow.equals(thatWindow)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  @Override
+  public String toString() {
+    String region =
+        offset == 0 && length == Long.MAX_VALUE ? "" : ".slice(" + offset + ", " + length + ")";
+    return "MoreFiles.asMappedByteSource(" + path + ")" + region;
+  }
+
+  /** Reads a region of a file through one mapped window at a time. */
+  private static final class MappedInputStream extends InputStream {
+    private final FileChannel channel;
+    private final long end;
+    private final long windowSize;
+
+    /** The file position of the next byte, if {@link #window} is null. */
+    private long position;
+
+    /** The current window, or null if the next read must map a new one. */
+    @CheckForNull private ByteBuffer window;
+
+    /** The file position of the first byte of {@link #window}. */
+    private long windowStart;
+
+    MappedInputStream(FileChannel channel, long start, long end, long windowSize) {
+      this.channel = channel;
+      this.position = start;
+      this.end = end;
+      this.windowSize = windowSize;
+    }
+
+    private long position() {
+      ByteBuffer window = this.window;
+      return window == null ? position : windowStart + window.position();
+    }
+
+    /** Returns the window to read from next, or null if the end of the region has been reached. */
+    @CheckForNull
+    private ByteBuffer window() throws IOException {
+      ByteBuffer window = this.window;
+      if (window != null && window.hasRemaining()) {
+        return window;
+      }
+      long position = position();
+      if (position >= end) {
+        return null;
+      }
+      this.window = null;
+      this.position = position;
+      window = channel.map(MapMode.READ_ONLY, position, min(windowSize, end - position));
+      this.window = window;
+      this.windowStart = position;
+      return window;
+    }
+
+    @Override
+    public int read() throws IOException {
+      ByteBuffer window = window();
+      return window == null ? -1 : window.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      checkPositionIndexes(off, off + len, b.length);
+      if (len == 0) {
+        return 0;
+      }
+      ByteBuffer window = window();
+      if (window == null) {
+        return -1;
+      }
+      int n = min(len, window.remaining());
+      window.get(b, off, n);
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long position = position();
+      long skipped = min(Math.max(n, 0), end - position);
+      ByteBuffer window = this.window;
+      if (window != null && skipped < window.remaining()) {
+        Java8Compatibility.position(window, window.position() + (int) skipped);
+      } else {
+        this.window = null;
+        this.position = position + skipped;
+      }
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return (int) min(end - position(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void close() throws IOException {
+      window = null;
+      channel.close();
+    }
+  }
+}
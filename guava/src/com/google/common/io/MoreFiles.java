@@ -16,8 +16,10 @@
 
 package com.google.common.io;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
 import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
 import static java.util.Objects.requireNonNull;
 
@@ -27,12 +29,15 @@ import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
 import com.google.common.graph.Traverser;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.j2objc.annotations.J2ObjCIncompatible;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.channels.Channels;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryStream;
@@ -53,9 +58,14 @@ import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Static utilities for use with {@link Path} instances, intended to complement {@link Files}.
@@ -166,6 +176,43 @@ public final class MoreFiles {
       }
     }
 
+    @Override
+    public long copyTo(OutputStream output) throws IOException {
+      if (checkNotNull(output).getClass() != FileOutputStream.class) {
+        return super.copyTo(output);
+      }
+      // Don't close the channel of the output stream; closing it would close the stream.
+      try (SeekableByteChannel in = Files.newByteChannel(path, options)) {
+        return ByteStreams.copy(in, ((FileOutputStream) output).getChannel());
+      }
+    }
+
+    @Override
+    public long copyTo(ByteSink sink) throws IOException {
+      checkNotNull(sink);
+      try (SeekableByteChannel in = Files.newByteChannel(path, options);
+          WritableByteChannel out = sink.openChannel()) {
+        return ByteStreams.copy(in, out);
+      }
+    }
+
+    @Override
+    public ListenableFuture<byte[]> readAsync(Executor executor) {
+      checkNotNull(executor);
+      if (!(executor instanceof ExecutorService)) {
+        return super.readAsync(executor);
+      }
+      Set<OpenOption> channelOptions = new HashSet<>(Arrays.asList(options));
+      try {
+        return AsyncFileTransfer.read(path, channelOptions, (ExecutorService) executor);
+      } catch (UnsupportedOperationException e) {
+        // The file system doesn't have asynchronous channels, or they don't support the options.
+        return super.readAsync(executor);
+      } catch (IOException e) {
+        return immediateFailedFuture(e);
+      }
+    }
+
     @Override
     public CharSource asCharSource(Charset charset) {
       if (options.length == 0) {
@@ -191,6 +238,33 @@ public final class MoreFiles {
     }
   }
 
+  /**
+   * Returns a view of the given {@code path} as a {@link ByteSource} that reads the file through
+   * read-only memory mappings instead of {@code read} calls.
+   *
+   * <p>Unlike {@link Files#map(java.io.File)}, this works for files of any size: the file is mapped
+   * in consecutive windows of at most 1 GiB. {@link ByteSource#read() read()}, {@link
+   * ByteSource#hash hash}, {@link ByteSource#copyTo(ByteSink) copyTo} and {@link
+   * ByteSource#contentEquals contentEquals} (with another mapped source) work directly on the
+   * mapped windows, and {@link ByteSource#slice slice} returns a mapped source for the region, so
+   * scanning part of a large file maps only that part. Streams opened by the source read from the
+   * mappings too.
+   *
+   * <p>This is best suited to large, read-only files. Mappings are released only when they are
+   * garbage collected, so a file that is mapped often may keep its space in use for some time
+   * after it is deleted (and can't be deleted at all on Windows). If the file is truncated while a
+   * mapping of it is in use, reading the mapping may fail with an unspecified error rather than an
+   * {@code IOException}.
+   *
+   * <p>The path must be on a file system whose {@link java.nio.channels.FileChannel}s support
+   * {@link java.nio.channels.FileChannel#map mapping}, such as the default file system.
+   *
+   * @since NEXT
+   */
+  public static ByteSource asMappedByteSource(Path path) {
+    return new MappedByteSource(path, 0, Long.MAX_VALUE, MappedByteSource.DEFAULT_WINDOW_SIZE);
+  }
+
   /**
    * Returns a view of the given {@code path} as a {@link ByteSink}.
    *
@@ -221,6 +295,46 @@ public final class MoreFiles {
       return Files.newOutputStream(path, options);
     }
 
+    @Override
+    WritableByteChannel openChannel() throws IOException {
+      return Files.newByteChannel(path, channelOptions());
+    }
+
+    @Override
+    public ListenableFuture<@Nullable Void> writeAsync(byte[] bytes, Executor executor) {
+      checkNotNull(bytes);
+      checkNotNull(executor);
+      if (!(executor instanceof ExecutorService)) {
+        return super.writeAsync(bytes, executor);
+      }
+      try {
+        return AsyncFileTransfer.write(path, channelOptions(), bytes, (ExecutorService) executor);
+      } catch (UnsupportedOperationException e) {
+        // The file system doesn't have asynchronous channels, or they don't support the options
+        // (APPEND, for one).
+        return super.writeAsync(bytes, executor);
+      } catch (IOException e) {
+        return immediateFailedFuture(e);
+      }
+    }
+
+    /** Returns the options to open a channel with, so it opens the file the way streams do. */
+    private Set<OpenOption> channelOptions() {
+      // Files.newOutputStream does the same.
+      Set<OpenOption> channelOptions = new HashSet<>();
+      if (options.length == 0) {
+        channelOptions.add(StandardOpenOption.CREATE);
+        channelOptions.add(StandardOpenOption.TRUNCATE_EXISTING);
+      } else {
+        for (OpenOption option : options) {
+          checkArgument(option != StandardOpenOption.READ, "READ not allowed");
+          channelOptions.add(option);
+        }
+      }
+      channelOptions.add(StandardOpenOption.WRITE);
+      return channelOptions;
+    }
+
     @Override
     public String toString() {
       return "MoreFiles.asByteSink(" + path + ", " + Arrays.toString(options) + ")";
@@ -17,20 +17,26 @@
 package com.google.common.util.concurrent;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static java.util.Objects.requireNonNull;
 
 import com.google.common.annotations.GwtCompatible;
+import com.google.common.annotations.GwtIncompatible;
 import com.google.common.annotations.J2ktIncompatible;
+import com.google.common.collect.Maps;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.google.errorprone.annotations.concurrent.LazyInit;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.LongBinaryOperator;
 import java.util.function.LongUnaryOperator;
+import java.util.function.ObjLongConsumer;
 import javax.annotation.CheckForNull;
 import org.checkerframework.checker.signedness.qual.UnknownSignedness;
 
@@ -63,9 +69,19 @@ import org.checkerframework.checker.signedness.qual.UnknownSignedness;
 @J2ktIncompatible
 @ElementTypesAreNonnullByDefault
 public final class AtomicLongMap<K> implements Serializable {
-  private final ConcurrentHashMap<K, Long> map;
+  /*
+   * Each value is kept in a mutable AtomicLong, so that updating an existing value neither boxes it
+   * nor locks the map. A value of zero may belong to a key which is being removed, so an AtomicLong
+   * is never updated from zero: the update replaces it in the map with a new AtomicLong instead.
+   * This lets remove() set the value to zero and then remove the AtomicLong from the map, without
+   * losing concurrent updates.
+   *
+   * Not final only so that readObject can set it; the serialized form is described at the end of
+   * this class.
+   */
+  private transient ConcurrentHashMap<K, AtomicLong> map;
 
-  private AtomicLongMap(ConcurrentHashMap<K, Long> map) {
+  private AtomicLongMap(ConcurrentHashMap<K, AtomicLong> map) {
     this.map = checkNotNull(map);
   }
 
@@ -86,7 +102,8 @@ public final class AtomicLongMap<K> implements Serializable {
    * {@code key}.
    */
   public long get(K key) {
-    return map.getOrDefault(key, 0L);
+    AtomicLong atomic = map.get(key);
+    return (atomic == null) ? 0L : atomic.get();
   }
 
   /**
@@ -142,67 +159,92 @@ public final class AtomicLongMap<K> implements Serializable {
   /**
    * Updates the value currently associated with {@code key} with the specified function, and
    * returns the new value. If there is not currently a value associated with {@code key}, the
-   * function is applied to {@code 0L}.
+   * function is applied to {@code 0L}. The function may be applied more than once if the value is
+   * updated concurrently, so it should be free of side effects.
    *
    * @since 21.0
    */
   @CanIgnoreReturnValue
   public long updateAndGet(K key, LongUnaryOperator updaterFunction) {
     checkNotNull(updaterFunction);
-    Long result =
-        map.compute(
-            key,
-            (k, value) -> updaterFunction.applyAsLong((value == null) ? 0L : value.longValue()));
-    return requireNonNull(result);
+    return accumulateAndGet(key, 0L, (oldValue, unused) -> updaterFunction.applyAsLong(oldValue));
   }
 
   /**
    * Updates the value currently associated with {@code key} with the specified function, and
    * returns the old value. If there is not currently a value associated with {@code key}, the
-   * function is applied to {@code 0L}.
+   * function is applied to {@code 0L}. The function may be applied more than once if the value is
+   * updated concurrently, so it should be free of side effects.
    *
    * @since 21.0
    */
   @CanIgnoreReturnValue
   public long getAndUpdate(K key, LongUnaryOperator updaterFunction) {
     checkNotNull(updaterFunction);
-    AtomicLong holder = new AtomicLong();
-    map.compute(
-        key,
-        (k, value) -> {
-          long oldValue = (value == null) ? 0L : value.longValue();
-          holder.set(oldValue);
-          return updaterFunction.applyAsLong(oldValue);
-        });
-    return holder.get();
+    return getAndAccumulate(key, 0L, (oldValue, unused) -> updaterFunction.applyAsLong(oldValue));
   }
 
   /**
    * Updates the value currently associated with {@code key} by combining it with {@code x} via the
    * specified accumulator function, returning the new value. The previous value associated with
    * {@code key} (or zero, if there is none) is passed as the first argument to {@code
-   * accumulatorFunction}, and {@code x} is passed as the second argument.
+   * accumulatorFunction}, and {@code x} is passed as the second argument. The function may be
+   * applied more than once if the value is updated concurrently, so it should be free of side
+   * effects.
    *
    * @since 21.0
    */
   @CanIgnoreReturnValue
   public long accumulateAndGet(K key, long x, LongBinaryOperator accumulatorFunction) {
-    checkNotNull(accumulatorFunction);
-    return updateAndGet(key, oldValue -> accumulatorFunction.applyAsLong(oldValue, x));
+    return accumulate(key, x, accumulatorFunction, /* returnNewValue= */ true);
   }
 
   /**
    * Updates the value currently associated with {@code key} by combining it with {@code x} via the
    * specified accumulator function, returning the old value. The previous value associated with
    * {@code key} (or zero, if there is none) is passed as the first argument to {@code
-   * accumulatorFunction}, and {@code x} is passed as the second argument.
+   * accumulatorFunction}, and {@code x} is passed as the second argument. The function may be
+   * applied more than once if the value is updated concurrently, so it should be free of side
+   * effects.
    *
    * @since 21.0
    */
   @CanIgnoreReturnValue
   public long getAndAccumulate(K key, long x, LongBinaryOperator accumulatorFunction) {
+    return accumulate(key, x, accumulatorFunction, /* returnNewValue= */ false);
+  }
+
+  private long accumulate(
+      K key, long x, LongBinaryOperator accumulatorFunction, boolean returnNewValue) {
     checkNotNull(accumulatorFunction);
-    return getAndUpdate(key, oldValue -> accumulatorFunction.applyAsLong(oldValue, x));
+    while (true) {
+      AtomicLong atomic = map.get(key);
+      if (atomic == null) {
+        long newValue = accumulatorFunction.applyAsLong(0L, x);
+        atomic = map.putIfAbsent(key, new AtomicLong(newValue));
+        if (atomic == null) {
+          return returnNewValue ? newValue : 0L;
+        }
+        // atomic is now non-null; fall through
+      }
+
+      while (true) {
+        long oldValue = atomic.get();
+        long newValue = accumulatorFunction.applyAsLong(oldValue, x);
+        if (oldValue == 0L) {
+          // don't compareAndSet a zero, which may be being removed; replace it instead
+          if (map.replace(key, atomic, new AtomicLong(newValue))) {
+            return returnNewValue ? newValue : 0L;
+          }
+          // atomic was replaced or removed; start over
+          break;
+        }
+        if (atomic.compareAndSet(oldValue, newValue)) {
+          return returnNewValue ? newValue : oldValue;
+        }
+        // value changed; try again
+      }
+    }
   }
 
   /**
@@ -211,7 +253,7 @@ public final class AtomicLongMap<K> implements Serializable {
    */
   @CanIgnoreReturnValue
   public long put(K key, long newValue) {
-    return getAndUpdate(key, x -> newValue);
+    return getAndAccumulate(key, newValue, (oldValue, x) -> x);
   }
 
   /**
@@ -224,14 +266,39 @@ public final class AtomicLongMap<K> implements Serializable {
     m.forEach(this::put);
   }
 
+  /**
+   * Adds all of the values of the specified map to the values of their keys in this map. The effect
+   * of this call is equivalent to that of calling {@code addAndGet(k, v)} on this map once for each
+   * mapping from key {@code k} to value {@code v} in the specified map, so it is not atomic. The
+   * behavior of this operation is undefined if the specified map is modified while the operation is
+   * in progress.
+   *
+   * @since NEXT
+   */
+  public void addAll(Map<? extends K, ? extends Long> m) {
+    m.forEach(this::addAndGet);
+  }
+
   /**
    * Removes and returns the value associated with {@code key}. If {@code key} is not in the map,
    * this method has no effect and returns zero.
    */
   @CanIgnoreReturnValue
   public long remove(K key) {
-    Long result = map.remove(key);
-    return (result == null) ? 0L : result.longValue();
+    AtomicLong atomic = map.get(key);
+    if (atomic == null) {
+      return 0L;
+    }
+
+    while (true) {
+      long oldValue = atomic.get();
+      if (oldValue == 0L || atomic.compareAndSet(oldValue, 0L)) {
+        // only remove after setting to zero, to avoid concurrent updates
+        map.remove(key, atomic);
+        // succeed even if the remove fails, since the value was already adjusted
+        return oldValue;
+      }
+    }
   }
 
   /**
@@ -239,7 +306,25 @@ public final class AtomicLongMap<K> implements Serializable {
    * otherwise, this method returns false.
    */
   boolean remove(K key, long value) {
-    return map.remove(key, value);
+    AtomicLong atomic = map.get(key);
+    if (atomic == null) {
+      return false;
+    }
+
+    long oldValue = atomic.get();
+    if (oldValue != value) {
+      return false;
+    }
+
+    if (oldValue == 0L || atomic.compareAndSet(oldValue, 0L)) {
+      // only remove after setting to zero, to avoid concurrent updates
+      map.remove(key, atomic);
+      // succeed even if the remove fails, since the value was already adjusted
+      return true;
+    }
+
+    // value changed
+    return false;
   }
 
   /**
@@ -259,7 +344,7 @@ public final class AtomicLongMap<K> implements Serializable {
    * zero values have been removed and others have not.
    */
   public void removeAllZeros() {
-    map.values().removeIf(x -> x == 0);
+    map.values().removeIf(atomic -> atomic.get() == 0L);
   }
 
   /**
@@ -268,7 +353,25 @@ public final class AtomicLongMap<K> implements Serializable {
    * <p>This method is not atomic: the sum may or may not include other concurrent operations.
    */
   public long sum() {
-    return map.values().stream().mapToLong(Long::longValue).sum();
+    long sum = 0L;
+    for (AtomicLong value : map.values()) {
+      sum += value.get();
+    }
+    return sum;
+  }
+
+  /**
+   * Performs the given action for each key in this map and its value, without copying the map or
+   * boxing the values.
+   *
+   * <p>This method is not atomic: like iterating over {@link #asMap}, it may or may not reflect
+   * concurrent updates, and it may see the values of different keys at different times.
+   *
+   * @since NEXT
+   */
+  public void forEach(ObjLongConsumer<? super K> action) {
+    checkNotNull(action);
+    map.forEach((key, atomic) -> action.accept(key, atomic.get()));
   }
 
   @LazyInit @CheckForNull private transient Map<K, Long> asMap;
@@ -280,7 +383,7 @@ public final class AtomicLongMap<K> implements Serializable {
   }
 
   private Map<K, Long> createAsMap() {
-    return Collections.unmodifiableMap(map);
+    return Collections.unmodifiableMap(Maps.transformValues(map, AtomicLong::get));
   }
 
   /** Returns true if this map contains a mapping for the specified key. */
@@ -322,19 +425,28 @@ public final class AtomicLongMap<K> implements Serializable {
    * key}, or zero if there was no mapping for {@code key}.
    */
   long putIfAbsent(K key, long newValue) {
-    AtomicBoolean noValue = new AtomicBoolean(false);
-    Long result =
-        map.compute(
-            key,
-            (k, oldValue) -> {
-              if (oldValue == null || oldValue == 0) {
-                noValue.set(true);
-                return newValue;
-              } else {
-                return oldValue;
-              }
-            });
-    return noValue.get() ? 0L : requireNonNull(result).longValue();
+    while (true) {
+      AtomicLong atomic = map.get(key);
+      if (atomic == null) {
+        atomic = map.putIfAbsent(key, new AtomicLong(newValue));
+        if (atomic == null) {
+          return 0L;
+        }
+        // atomic is now non-null; fall through
+      }
+
+      long oldValue = atomic.get();
+      if (oldValue == 0L) {
+        // don't compareAndSet a zero
+        if (map.replace(key, atomic, new AtomicLong(newValue))) {
+          return 0L;
+        }
+        // atomic was replaced or removed; start over
+        continue;
+      }
+
+      return oldValue;
+    }
   }
 
   /**
@@ -348,7 +460,44 @@ public final class AtomicLongMap<K> implements Serializable {
     if (expectedOldValue == 0L) {
       return putIfAbsent(key, newValue) == 0L;
     } else {
-      return map.replace(key, expectedOldValue, newValue);
+      AtomicLong atomic = map.get(key);
+      return (atomic == null) ? false : atomic.compareAndSet(expectedOldValue, newValue);
     }
   }
+
+  /*
+   * The serialized form is the one this class had when it stored its values as boxed Longs, so that
+   * instances serialized by earlier releases can still be read: a single field holding the mappings
+   * in a ConcurrentHashMap<K, Long>.
+   */
+
+  /** @serialField map ConcurrentHashMap a snapshot of the mappings, with {@code Long} values */
+  @GwtIncompatible // serialization
+  private static final ObjectStreamField[] serialPersistentFields = {
+    new ObjectStreamField("map", ConcurrentHashMap.class)
+  };
+
+  /** @serialData the {@code map} field, a {@code ConcurrentHashMap<K, Long>} snapshot */
+  @GwtIncompatible // serialization
+  private void writeObject(ObjectOutputStream stream) throws IOException {
+    ObjectOutputStream.PutField fields = stream.putFields();
+    fields.put("map", new ConcurrentHashMap<K, Long>(asMap()));
+    stream.writeFields();
+  }
+
+  @GwtIncompatible // serialization
+  private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+    ObjectInputStream.GetField fields = stream.readFields();
+    @SuppressWarnings("unchecked") // reading data stored by writeObject
+    Map<K, Long> snapshot = (Map<K, Long>) fields.get("map", null);
+    if (snapshot == null) {
+      throw new InvalidObjectException("map is null");
+    }
+    ConcurrentHashMap<K, AtomicLong> deserialized = new ConcurrentHashMap<>();
+    snapshot.forEach((key, value) -> deserialized.put(key, new AtomicLong(value)));
+    map = deserialized;
+  }
+
+  // Computed from the original Long-valued serialized form; see above.
+  private static final long serialVersionUID = -193610662228457848L;
 }